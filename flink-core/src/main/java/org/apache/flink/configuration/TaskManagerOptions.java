@@ -692,6 +692,38 @@ public class TaskManagerOptions {
                             "Time we wait for the timers in milliseconds to finish all pending timer threads"
                                     + " when the stream task is cancelled.");
 
+    /**
+     * The maximum number of input records a stream task processes in one go before it checks the
+     * mailbox for pending actions (e.g. timers or checkpoints) again.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER)
+    public static final ConfigOption<Integer> TASK_MAILBOX_INPUT_BATCH_MAX_RECORDS =
+            key("task.mailbox.input-batch.max-records")
+                    .intType()
+                    .defaultValue(1)
+                    .withDescription(
+                            "The maximum number of input records a stream task processes in one go"
+                                    + " before it checks its mailbox for pending actions such as timers"
+                                    + " or checkpoints. A batch ends early once the input or the output"
+                                    + " becomes unavailable or 'task.mailbox.input-batch.max-duration'"
+                                    + " elapsed. Larger values reduce the per-record overhead for small"
+                                    + " records at the cost of latency of mailbox actions. The default"
+                                    + " value of 1 checks the mailbox after every record.");
+
+    /**
+     * The maximum time a stream task spends on one batch of input records, which bounds the extra
+     * latency of mailbox actions introduced by {@link #TASK_MAILBOX_INPUT_BATCH_MAX_RECORDS}.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER)
+    public static final ConfigOption<Duration> TASK_MAILBOX_INPUT_BATCH_MAX_DURATION =
+            key("task.mailbox.input-batch.max-duration")
+                    .durationType()
+                    .defaultValue(Duration.ofMillis(1))
+                    .withDescription(
+                            "The maximum time a stream task spends on one batch of input records"
+                                    + " before it checks its mailbox again. Only takes effect if"
+                                    + " 'task.mailbox.input-batch.max-records' is greater than 1.");
+
     // ------------------------------------------------------------------------
 
     /** Not intended to be instantiated. */
@@ -72,6 +72,7 @@ public final class ExternalSorterBuilder<T> {
     private final TypeSerializer<T> serializer;
     private final TypeComparator<T> comparator;
     private InMemorySorterFactory<T> inMemorySorterFactory;
+    private IndexedSorter indexedSorter = new QuickSort();
     private int maxNumFileHandles = AlgorithmOptions.SPILLING_MAX_FAN.defaultValue();
     private boolean objectReuseEnabled = false;
     private boolean handleLargeRecords = ConfigConstants.DEFAULT_USE_LARGE_RECORD_HANDLER;
@@ -162,6 +163,15 @@ public final class ExternalSorterBuilder<T> {
         return this;
     }
 
+    /**
+     * Sets the algorithm used to sort the in-memory buffers. Defaults to {@link QuickSort}. The
+     * sorter is used by a single thread only.
+     */
+    public ExternalSorterBuilder<T> indexedSorter(IndexedSorter indexedSorter) {
+        this.indexedSorter = checkNotNull(indexedSorter);
+        return this;
+    }
+
     /**
      * Creates a pull-based {@link Sorter}. The {@link Sorter#getIterator()} will return when all
      * the records from the given input are consumed. Will spawn three threads: read, sort, spill.
@@ -402,7 +412,8 @@ public final class ExternalSorterBuilder<T> {
                         ((long) (startSpillingFraction * sortMemory)));
 
         // start the thread that sorts the buffers
-        StageRunner sortingStage = new SortingThread<>(exceptionHandler, circularQueues);
+        StageRunner sortingStage =
+                new SortingThread<>(exceptionHandler, circularQueues, indexedSorter);
 
         // start the thread that handles spilling to secondary storage
         final SpillingThread.SpillingBehaviour<T> spillingBehaviour;
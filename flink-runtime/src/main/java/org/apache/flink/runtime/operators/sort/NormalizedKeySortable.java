@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.operators.sort;
+
+/**
+ * An {@link IndexedSortable} whose order is (primarily) defined by binary normalized keys, which
+ * allows sorting it byte by byte, e.g. with {@link RadixSort}.
+ */
+public interface NormalizedKeySortable extends IndexedSortable {
+
+    /**
+     * Gets the number of bytes of the normalized key of each element.
+     *
+     * @return The number of normalized key bytes, 0 if no normalized keys are available.
+     */
+    int getNumNormalizedKeyBytes();
+
+    /**
+     * Checks whether the normalized keys fully determine the order of the elements, or whether
+     * elements with equal normalized keys need to be compared with {@link #compare(int, int)}.
+     *
+     * @return True, if the normalized keys fully determine the order.
+     */
+    boolean isNormalizedKeyFullyDetermining();
+
+    /**
+     * Gets a byte of the normalized key of the element at the given index as an unsigned value.
+     * Ordering the elements by their normalized key bytes in ascending unsigned order is consistent
+     * with {@link #compare(int, int)}.
+     *
+     * @param i The logical index of the element.
+     * @param keyByte The index of the byte within the normalized key.
+     * @return The byte as a value between 0 and 255.
+     */
+    int getNormalizedKeyByte(int i, int keyByte);
+}
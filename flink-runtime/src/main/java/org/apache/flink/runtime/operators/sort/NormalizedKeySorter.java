@@ -36,7 +36,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 /** */
-public final class NormalizedKeySorter<T> implements InMemorySorter<T> {
+public final class NormalizedKeySorter<T> implements InMemorySorter<T>, NormalizedKeySortable {
 
     private static final Logger LOG = LoggerFactory.getLogger(NormalizedKeySorter.class);
 
@@ -201,6 +201,25 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T> {
         return indexEntriesPerSegment;
     }
 
+    @Override
+    public int getNumNormalizedKeyBytes() {
+        return numKeyBytes;
+    }
+
+    @Override
+    public boolean isNormalizedKeyFullyDetermining() {
+        return normalizedKeyFullyDetermines;
+    }
+
+    @Override
+    public int getNormalizedKeyByte(int i, int keyByte) {
+        final int segmentNumber = i / this.indexEntriesPerSegment;
+        final int segmentOffset = (i % this.indexEntriesPerSegment) * this.indexEntrySize;
+        final int value =
+                this.sortIndex.get(segmentNumber).get(segmentOffset + OFFSET_LEN + keyByte) & 0xff;
+        return this.useNormKeyUninverted ? value : 0xff - value;
+    }
+
     // -------------------------------------------------------------------------
     // Memory Segment
     // -------------------------------------------------------------------------
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.operators.sort;
+
+/**
+ * An in-place most-significant-digit radix sort (American flag sort) over the normalized keys of a
+ * {@link NormalizedKeySortable}. Each pass distributes the elements into 256 buckets by one byte of
+ * the normalized key, so the sort does not need to compare records and its cost grows linearly with
+ * the number of normalized key bytes instead of logarithmically with the number of elements.
+ *
+ * <p>Small buckets are sorted with {@link QuickSort}, as are buckets of elements with equal
+ * normalized keys if the keys do not fully determine the order. Inputs which are already sorted are
+ * detected with a single linear pass and left untouched. Sortables without normalized keys are
+ * sorted with {@link QuickSort} altogether.
+ */
+public final class RadixSort implements IndexedSorter {
+
+    /** Ranges up to this size are sorted with {@link QuickSort}. */
+    private static final int THRESHOLD_FOR_QUICK_SORT = 64;
+
+    private static final int NUM_BUCKETS = 256;
+
+    private final QuickSort quickSort = new QuickSort();
+
+    @Override
+    public void sort(IndexedSortable s, int l, int r) {
+        if (isSorted(s, l, r)) {
+            return;
+        }
+
+        if (s instanceof NormalizedKeySortable
+                && ((NormalizedKeySortable) s).getNumNormalizedKeyBytes() > 0) {
+            NormalizedKeySortable sortable = (NormalizedKeySortable) s;
+            radixSort(
+                    sortable,
+                    l,
+                    r,
+                    0,
+                    sortable.getNumNormalizedKeyBytes(),
+                    sortable.isNormalizedKeyFullyDetermining());
+        } else {
+            quickSort.sort(s, l, r);
+        }
+    }
+
+    @Override
+    public void sort(IndexedSortable s) {
+        sort(s, 0, s.size());
+    }
+
+    private static boolean isSorted(IndexedSortable s, int l, int r) {
+        for (int i = l + 1; i < r; i++) {
+            if (s.compare(i - 1, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void radixSort(
+            NormalizedKeySortable s,
+            int l,
+            int r,
+            int keyByte,
+            int numKeyBytes,
+            boolean fullyDetermining) {
+        if (r - l <= THRESHOLD_FOR_QUICK_SORT) {
+            quickSort.sort(s, l, r);
+            return;
+        }
+        if (keyByte == numKeyBytes) {
+            // all normalized keys in the range are equal
+            if (!fullyDetermining) {
+                quickSort.sort(s, l, r);
+            }
+            return;
+        }
+
+        final int[] bucketEnds = new int[NUM_BUCKETS];
+        for (int i = l; i < r; i++) {
+            bucketEnds[s.getNormalizedKeyByte(i, keyByte)]++;
+        }
+
+        final int[] bucketStarts = new int[NUM_BUCKETS];
+        int offset = l;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            int count = bucketEnds[bucket];
+            if (count == r - l) {
+                // all elements share the same byte, continue with the next one
+                radixSort(s, l, r, keyByte + 1, numKeyBytes, fullyDetermining);
+                return;
+            }
+            bucketStarts[bucket] = offset;
+            offset += count;
+            bucketEnds[bucket] = offset;
+        }
+
+        // permute the elements into their buckets, the next free slot of each bucket is tracked
+        // in a copy of the bucket starts
+        final int[] nextFree = bucketStarts.clone();
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            while (nextFree[bucket] < bucketEnds[bucket]) {
+                int target = s.getNormalizedKeyByte(nextFree[bucket], keyByte);
+                if (target == bucket) {
+                    nextFree[bucket]++;
+                } else {
+                    s.swap(nextFree[bucket], nextFree[target]++);
+                }
+            }
+        }
+
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            if (bucketEnds[bucket] - bucketStarts[bucket] > 1) {
+                radixSort(
+                        s,
+                        bucketStarts[bucket],
+                        bucketEnds[bucket],
+                        keyByte + 1,
+                        numKeyBytes,
+                        fullyDetermining);
+            }
+        }
+    }
+}
@@ -41,14 +41,16 @@ class SortingThread<E> extends ThreadBase<E> {
      *
      * @param exceptionHandler The exception handler to call for all exceptions.
      * @param dispatcher The queues used to pass buffers between the threads.
+     * @param sorter The algorithm used to sort the buffers.
      */
     public SortingThread(
             @Nullable ExceptionHandler<IOException> exceptionHandler,
-            StageMessageDispatcher<E> dispatcher) {
+            StageMessageDispatcher<E> dispatcher,
+            IndexedSorter sorter) {
         super(exceptionHandler, "SortMerger sorting thread", dispatcher);
 
         // members
-        this.sorter = new QuickSort();
+        this.sorter = sorter;
     }
 
     /** Entry point of the thread. */
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.operators.sort;
+
+import org.apache.flink.api.common.typeutils.TypeComparator;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryManagerBuilder;
+import org.apache.flink.runtime.operators.testutils.DummyInvokable;
+import org.apache.flink.runtime.operators.testutils.TestData;
+import org.apache.flink.runtime.operators.testutils.TestData.TupleGenerator.KeyMode;
+import org.apache.flink.runtime.operators.testutils.TestData.TupleGenerator.ValueMode;
+import org.apache.flink.util.MutableObjectIterator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+/** Tests for {@link RadixSort}. */
+public class RadixSortTest {
+
+    private static final long SEED = 649180756312423613L;
+
+    private static final int MEMORY_SIZE = 1024 * 1024 * 16;
+
+    private static final int MEMORY_PAGE_SIZE = 32 * 1024;
+
+    private MemoryManager memoryManager;
+
+    @Before
+    public void beforeTest() {
+        this.memoryManager =
+                MemoryManagerBuilder.newBuilder()
+                        .setMemorySize(MEMORY_SIZE)
+                        .setPageSize(MEMORY_PAGE_SIZE)
+                        .build();
+    }
+
+    @After
+    public void afterTest() {
+        if (!this.memoryManager.verifyEmpty()) {
+            Assert.fail("Memory Leak: Some memory has not been returned to the memory manager.");
+        }
+
+        if (this.memoryManager != null) {
+            this.memoryManager.shutdown();
+            this.memoryManager = null;
+        }
+    }
+
+    @Test
+    public void testSortFullyDeterminingKeys() throws Exception {
+        testSort(
+                TestData.getIntStringTupleComparator(),
+                KeyMode.RANDOM,
+                Comparator.comparing(record -> record.f0));
+    }
+
+    @Test
+    public void testSortAlreadySortedKeys() throws Exception {
+        testSort(
+                TestData.getIntStringTupleComparator(),
+                KeyMode.SORTED,
+                Comparator.comparing(record -> record.f0));
+    }
+
+    @Test
+    public void testSortPrefixOnlyKeys() throws Exception {
+        @SuppressWarnings("unchecked")
+        TypeComparator<Tuple2<Integer, String>> comparator =
+                TestData.getIntStringTupleTypeInfo()
+                        .createComparator(new int[] {1}, new boolean[] {true}, 0, null);
+        testSort(comparator, KeyMode.RANDOM, Comparator.comparing(record -> record.f1));
+    }
+
+    @Test
+    public void testSortDescendingKeys() throws Exception {
+        @SuppressWarnings("unchecked")
+        TypeComparator<Tuple2<Integer, String>> comparator =
+                TestData.getIntStringTupleTypeInfo()
+                        .createComparator(new int[] {0}, new boolean[] {false}, 0, null);
+        testSort(
+                comparator,
+                KeyMode.RANDOM,
+                Comparator.<Tuple2<Integer, String>, Integer>comparing(record -> record.f0)
+                        .reversed());
+    }
+
+    private void testSort(
+            TypeComparator<Tuple2<Integer, String>> comparator,
+            KeyMode keyMode,
+            Comparator<Tuple2<Integer, String>> expectedOrder)
+            throws Exception {
+        final int numSegments = MEMORY_SIZE / MEMORY_PAGE_SIZE;
+        final List<MemorySegment> memory =
+                this.memoryManager.allocatePages(new DummyInvokable(), numSegments);
+
+        NormalizedKeySorter<Tuple2<Integer, String>> sorter =
+                new NormalizedKeySorter<>(
+                        TestData.getIntStringTupleSerializer(), comparator, memory);
+        TestData.TupleGenerator generator =
+                new TestData.TupleGenerator(SEED, 1000, 12, keyMode, ValueMode.RANDOM_LENGTH);
+
+        // write the records
+        Tuple2<Integer, String> record = new Tuple2<>();
+        int numRecords = 0;
+        do {
+            generator.next(record);
+            numRecords++;
+        } while (sorter.write(record));
+
+        new RadixSort().sort(sorter);
+
+        MutableObjectIterator<Tuple2<Integer, String>> iter = sorter.getIterator();
+        Tuple2<Integer, String> last = iter.next(new Tuple2<>());
+        Tuple2<Integer, String> current = new Tuple2<>();
+        int numRead = 1;
+        while ((current = iter.next(current)) != null) {
+            if (expectedOrder.compare(last, current) > 0) {
+                Assert.fail("Next record " + current + " is smaller than previous " + last + ".");
+            }
+            Tuple2<Integer, String> tmp = last;
+            last = current;
+            current = tmp;
+            numRead++;
+        }
+        Assert.assertEquals(numRecords - 1, numRead);
+
+        // release the memory occupied by the buffers
+        sorter.dispose();
+        this.memoryManager.release(memory);
+    }
+}
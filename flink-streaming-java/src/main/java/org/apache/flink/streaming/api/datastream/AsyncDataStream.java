@@ -21,7 +21,13 @@ import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.Utils;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchOptions;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.BlockingAsyncFunctionAdapter;
+import org.apache.flink.streaming.api.functions.async.BlockingFunction;
+import org.apache.flink.streaming.api.operators.async.AsyncBatchWaitOperator;
+import org.apache.flink.streaming.api.operators.async.AsyncBatchWaitOperatorFactory;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperator;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
 
@@ -36,6 +42,24 @@ import java.util.concurrent.TimeUnit;
  *
  * AsyncDataStream.orderedWait(input, asyncFunc, timeout, TimeUnit.MILLISECONDS, 100);
  * }</pre>
+ *
+ * <p>Blocking calls can be applied with a {@link BlockingFunction}, each invocation is executed on
+ * its own lightweight thread:
+ *
+ * <pre>{@code
+ * BlockingFunction<String, String> lookupFunc = ...
+ *
+ * AsyncDataStream.orderedWaitBlocking(input, lookupFunc, timeout, TimeUnit.MILLISECONDS, 10000);
+ * }</pre>
+ *
+ * <p>An {@link AsyncBatchFunction} issues one async operation for a batch of inputs:
+ *
+ * <pre>{@code
+ * AsyncBatchFunction<String, String> batchFunc = ...
+ * AsyncBatchOptions<String> options = AsyncBatchOptions.<String>builder().setMaxBatchSize(50).build();
+ *
+ * AsyncDataStream.orderedWaitBatched(input, batchFunc, timeout, TimeUnit.MILLISECONDS, 500, options);
+ * }</pre>
  */
 @PublicEvolving
 public class AsyncDataStream {
@@ -86,6 +110,86 @@ public class AsyncDataStream {
         return in.transform("async wait operator", outTypeInfo, operatorFactory);
     }
 
+    /**
+     * Add an AsyncWaitOperator that executes a {@link BlockingFunction}.
+     *
+     * @param in The {@link DataStream} where the {@link AsyncWaitOperator} will be added.
+     * @param func {@link BlockingFunction} executed for each input.
+     * @param timeout for the blocking operation to complete
+     * @param capacity The max number of blocking operations that can be in flight.
+     * @param mode Processing mode for {@link AsyncWaitOperator}.
+     * @param <IN> Input type.
+     * @param <OUT> Output type.
+     * @return A new {@link SingleOutputStreamOperator}
+     */
+    private static <IN, OUT> SingleOutputStreamOperator<OUT> addBlockingOperator(
+            DataStream<IN> in,
+            BlockingFunction<IN, OUT> func,
+            long timeout,
+            int capacity,
+            OutputMode mode) {
+
+        TypeInformation<OUT> outTypeInfo =
+                TypeExtractor.getUnaryOperatorReturnType(
+                        func,
+                        BlockingFunction.class,
+                        0,
+                        1,
+                        TypeExtractor.NO_INDEX,
+                        in.getType(),
+                        Utils.getCallLocationName(),
+                        true);
+
+        AsyncWaitOperatorFactory<IN, OUT> operatorFactory =
+                new AsyncWaitOperatorFactory<>(
+                        new BlockingAsyncFunctionAdapter<>(
+                                in.getExecutionEnvironment().clean(func), capacity),
+                        timeout,
+                        capacity,
+                        mode);
+
+        return in.transform("async wait operator", outTypeInfo, operatorFactory);
+    }
+
+    /**
+     * Add an AsyncBatchWaitOperator.
+     *
+     * @param in The {@link DataStream} where the {@link AsyncBatchWaitOperator} will be added.
+     * @param func {@link AsyncBatchFunction} wrapped inside {@link AsyncBatchWaitOperator}.
+     * @param timeout for a single attempt of a batch to complete
+     * @param bufSize The max number of inputs the {@link AsyncBatchWaitOperator} can hold inside.
+     * @param mode Processing mode for {@link AsyncBatchWaitOperator}.
+     * @param options Batching and retry options.
+     * @param <IN> Input type.
+     * @param <OUT> Output type.
+     * @return A new {@link SingleOutputStreamOperator}
+     */
+    private static <IN, OUT> SingleOutputStreamOperator<OUT> addBatchOperator(
+            DataStream<IN> in,
+            AsyncBatchFunction<IN, OUT> func,
+            long timeout,
+            int bufSize,
+            OutputMode mode,
+            AsyncBatchOptions<IN> options) {
+
+        TypeInformation<OUT> outTypeInfo =
+                TypeExtractor.getUnaryOperatorReturnType(
+                        func,
+                        AsyncBatchFunction.class,
+                        0,
+                        1,
+                        new int[] {1, 0, 0},
+                        in.getType(),
+                        Utils.getCallLocationName(),
+                        true);
+
+        AsyncBatchWaitOperatorFactory<IN, OUT> operatorFactory =
+                new AsyncBatchWaitOperatorFactory<>(
+                        in.getExecutionEnvironment().clean(func), timeout, bufSize, mode, options);
+
+        return in.transform("async batch wait operator", outTypeInfo, operatorFactory);
+    }
+
     /**
      * Add an AsyncWaitOperator. The order of output stream records may be reordered.
      *
@@ -163,4 +267,99 @@ public class AsyncDataStream {
         return addOperator(
                 in, func, timeUnit.toMillis(timeout), DEFAULT_QUEUE_CAPACITY, OutputMode.ORDERED);
     }
+
+    /**
+     * Add an AsyncWaitOperator that executes a {@link BlockingFunction} for each input. The order
+     * of output stream records may be reordered.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link BlockingFunction}
+     * @param timeout for the blocking operation to complete
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of blocking operations that can be in flight
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWaitBlocking(
+            DataStream<IN> in,
+            BlockingFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity) {
+        return addBlockingOperator(
+                in, func, timeUnit.toMillis(timeout), capacity, OutputMode.UNORDERED);
+    }
+
+    /**
+     * Add an AsyncWaitOperator that executes a {@link BlockingFunction} for each input. The order
+     * to process input records is guaranteed to be the same as input ones.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link BlockingFunction}
+     * @param timeout for the blocking operation to complete
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of blocking operations that can be in flight
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWaitBlocking(
+            DataStream<IN> in,
+            BlockingFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity) {
+        return addBlockingOperator(
+                in, func, timeUnit.toMillis(timeout), capacity, OutputMode.ORDERED);
+    }
+
+    /**
+     * Add an AsyncBatchWaitOperator. The order of output stream records may be reordered.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncBatchFunction}
+     * @param timeout for a single attempt of a batch to complete
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of inputs that can be queued or in flight
+     * @param options Batching and retry options
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWaitBatched(
+            DataStream<IN> in,
+            AsyncBatchFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity,
+            AsyncBatchOptions<IN> options) {
+        return addBatchOperator(
+                in, func, timeUnit.toMillis(timeout), capacity, OutputMode.UNORDERED, options);
+    }
+
+    /**
+     * Add an AsyncBatchWaitOperator. The order to process input records is guaranteed to be the
+     * same as input ones.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncBatchFunction}
+     * @param timeout for a single attempt of a batch to complete
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of inputs that can be queued or in flight
+     * @param options Batching and retry options
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWaitBatched(
+            DataStream<IN> in,
+            AsyncBatchFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity,
+            AsyncBatchOptions<IN> options) {
+        return addBatchOperator(
+                in, func, timeUnit.toMillis(timeout), capacity, OutputMode.ORDERED, options);
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.functions.Function;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A function to trigger one Async I/O operation for a batch of stream inputs.
+ *
+ * <p>The async batch operator collects stream inputs until the configured batch size is reached or
+ * the configured batch delay elapsed and then calls {@link #asyncInvokeBatch} once for all of them.
+ * Inputs with the same key (see {@link AsyncBatchOptions}) are passed only once per batch and their
+ * result is handed to all of the corresponding stream inputs.
+ *
+ * <p>The {@link ResultFuture} has to be completed with exactly one collection of results per input,
+ * in the order of the given inputs. If the future is completed exceptionally or the batch times
+ * out, the whole batch is retried according to the {@link AsyncBatchOptions}.
+ *
+ * <pre>{@code
+ * public class BatchLookup implements AsyncBatchFunction<String, String> {
+ *
+ *   public void asyncInvokeBatch(List<String> keys, ResultFuture<Collection<String>> result) {
+ *     client.multiGet(keys).whenComplete((values, error) -> {
+ *       if (error != null) {
+ *         result.completeExceptionally(error);
+ *       } else {
+ *         result.complete(values.stream().map(Collections::singleton).collect(toList()));
+ *       }
+ *     });
+ *   }
+ * }
+ * }</pre>
+ *
+ * @param <IN> The type of the input elements.
+ * @param <OUT> The type of the returned elements.
+ */
+@PublicEvolving
+public interface AsyncBatchFunction<IN, OUT> extends Function, Serializable {
+
+    /**
+     * Trigger async operation for a batch of stream inputs.
+     *
+     * @param inputs distinct elements coming from an upstream task
+     * @param resultFuture to be completed with one collection of results per input
+     * @exception Exception in case of a user code error. An exception will make the task fail and
+     *     trigger fail-over process.
+     */
+    void asyncInvokeBatch(List<IN> inputs, ResultFuture<Collection<OUT>> resultFuture)
+            throws Exception;
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Batching and retry options of an {@link AsyncBatchFunction}.
+ *
+ * <pre>{@code
+ * AsyncBatchOptions<String> options =
+ *     AsyncBatchOptions.<String>builder()
+ *         .setMaxBatchSize(100)
+ *         .setMaxBatchDelay(Duration.ofMillis(10))
+ *         .setMaxAttempts(3)
+ *         .setInitialBackoff(Duration.ofMillis(100))
+ *         .build();
+ * }</pre>
+ *
+ * @param <IN> The type of the input elements.
+ */
+@PublicEvolving
+public final class AsyncBatchOptions<IN> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxBatchSize;
+
+    private final long maxBatchDelayMillis;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final double backoffMultiplier;
+
+    private final long maxBackoffMillis;
+
+    @Nullable private final KeySelector<IN, ?> deduplicationKeySelector;
+
+    private AsyncBatchOptions(
+            int maxBatchSize,
+            long maxBatchDelayMillis,
+            int maxAttempts,
+            long initialBackoffMillis,
+            double backoffMultiplier,
+            long maxBackoffMillis,
+            @Nullable KeySelector<IN, ?> deduplicationKeySelector) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMillis = maxBatchDelayMillis;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.deduplicationKeySelector = deduplicationKeySelector;
+    }
+
+    /** The maximum number of stream inputs that are collected into one batch. */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /** The maximum time in milliseconds a stream input waits for its batch to be issued. */
+    public long getMaxBatchDelayMillis() {
+        return maxBatchDelayMillis;
+    }
+
+    /** The maximum number of attempts for a batch, including the first one. */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * The time in milliseconds to wait before retrying a batch after the given number of failed
+     * attempts.
+     */
+    public long getBackoffMillis(int failedAttempts) {
+        double backoff = initialBackoffMillis * Math.pow(backoffMultiplier, failedAttempts - 1);
+        return (long) Math.min(backoff, maxBackoffMillis);
+    }
+
+    /**
+     * The selector of the key by which inputs of a batch are deduplicated, or {@code null} if
+     * inputs are deduplicated by their {@link Object#equals(Object)}.
+     */
+    @Nullable
+    public KeySelector<IN, ?> getDeduplicationKeySelector() {
+        return deduplicationKeySelector;
+    }
+
+    public static <IN> Builder<IN> builder() {
+        return new Builder<>();
+    }
+
+    /** Builder for {@link AsyncBatchOptions}. */
+    @PublicEvolving
+    public static final class Builder<IN> {
+
+        private int maxBatchSize = 100;
+
+        private Duration maxBatchDelay = Duration.ofMillis(10);
+
+        private int maxAttempts = 1;
+
+        private Duration initialBackoff = Duration.ofMillis(100);
+
+        private double backoffMultiplier = 2.0;
+
+        private Duration maxBackoff = Duration.ofSeconds(10);
+
+        @Nullable private KeySelector<IN, ?> deduplicationKeySelector;
+
+        private Builder() {}
+
+        public Builder<IN> setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder<IN> setMaxBatchDelay(Duration maxBatchDelay) {
+            this.maxBatchDelay = Preconditions.checkNotNull(maxBatchDelay);
+            return this;
+        }
+
+        public Builder<IN> setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder<IN> setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = Preconditions.checkNotNull(initialBackoff);
+            return this;
+        }
+
+        public Builder<IN> setBackoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        public Builder<IN> setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = Preconditions.checkNotNull(maxBackoff);
+            return this;
+        }
+
+        public Builder<IN> setDeduplicationKeySelector(KeySelector<IN, ?> keySelector) {
+            this.deduplicationKeySelector = Preconditions.checkNotNull(keySelector);
+            return this;
+        }
+
+        public AsyncBatchOptions<IN> build() {
+            Preconditions.checkArgument(maxBatchSize > 0, "The max batch size must be positive.");
+            Preconditions.checkArgument(
+                    !maxBatchDelay.isNegative(), "The max batch delay must not be negative.");
+            Preconditions.checkArgument(maxAttempts > 0, "The max attempts must be positive.");
+            Preconditions.checkArgument(
+                    !initialBackoff.isNegative(), "The initial backoff must not be negative.");
+            Preconditions.checkArgument(
+                    backoffMultiplier >= 1.0, "The backoff multiplier must be at least 1.");
+            Preconditions.checkArgument(
+                    maxBackoff.compareTo(initialBackoff) >= 0,
+                    "The max backoff must not be smaller than the initial backoff.");
+            return new AsyncBatchOptions<>(
+                    maxBatchSize,
+                    maxBatchDelay.toMillis(),
+                    maxAttempts,
+                    initialBackoff.toMillis(),
+                    backoffMultiplier,
+                    maxBackoff.toMillis(),
+                    deduplicationKeySelector);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.functions.util.FunctionUtils;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Preconditions;
+import org.apache.flink.util.concurrent.ExecutorThreadFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link RichAsyncFunction} that executes a {@link BlockingFunction} for each input on a
+ * dedicated executor and completes the {@link ResultFuture} with its result.
+ *
+ * <p>At most {@code maxConcurrency} invocations are submitted to the executor at the same time,
+ * including the ones that timed out but have not returned yet. Beyond that, {@link #asyncInvoke}
+ * blocks until one of them returns, which backpressures the async I/O operator. An invocation that
+ * times out before it starts is skipped, and a running one is interrupted.
+ *
+ * @param <IN> The type of the input elements.
+ * @param <OUT> The type of the returned elements.
+ */
+@Internal
+public class BlockingAsyncFunctionAdapter<IN, OUT> extends RichAsyncFunction<IN, OUT> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BlockingFunction<IN, OUT> blockingFunction;
+
+    private final int maxConcurrency;
+
+    private transient ExecutorService executor;
+
+    /** Bounds the number of invocations that are submitted to the executor and not returned. */
+    private transient Semaphore permits;
+
+    /** The submitted invocations by the result future that they complete. */
+    private transient Map<ResultFuture<OUT>, Invocation> pendingInvocations;
+
+    public BlockingAsyncFunctionAdapter(
+            BlockingFunction<IN, OUT> blockingFunction, int maxConcurrency) {
+        Preconditions.checkArgument(maxConcurrency > 0, "The max concurrency must be positive.");
+        this.blockingFunction = Preconditions.checkNotNull(blockingFunction);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void setRuntimeContext(RuntimeContext runtimeContext) {
+        super.setRuntimeContext(runtimeContext);
+        // hand out the restricted context of the RichAsyncFunction
+        FunctionUtils.setFunctionRuntimeContext(blockingFunction, getRuntimeContext());
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        executor = createExecutor(maxConcurrency, blockingFunction.getClass().getSimpleName());
+        permits = new Semaphore(maxConcurrency);
+        pendingInvocations = new ConcurrentHashMap<>();
+        FunctionUtils.openFunction(blockingFunction, parameters);
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        } finally {
+            FunctionUtils.closeFunction(blockingFunction);
+        }
+    }
+
+    @Override
+    public void asyncInvoke(IN input, ResultFuture<OUT> resultFuture) throws Exception {
+        permits.acquire();
+        Invocation invocation = new Invocation(input, resultFuture);
+        pendingInvocations.put(resultFuture, invocation);
+        try {
+            invocation.future = executor.submit(invocation);
+        } catch (RejectedExecutionException e) {
+            pendingInvocations.remove(resultFuture);
+            permits.release();
+            resultFuture.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void timeout(IN input, ResultFuture<OUT> resultFuture) throws Exception {
+        Invocation invocation = pendingInvocations.remove(resultFuture);
+        if (invocation != null) {
+            invocation.cancel();
+        }
+        super.timeout(input, resultFuture);
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread per invocation if the JVM supports it.
+     * Otherwise falls back to a pool of at most {@code maxConcurrency} platform threads, whose
+     * queue only holds the invocations that are submitted while a returned one still releases its
+     * thread.
+     */
+    @VisibleForTesting
+    static ExecutorService createExecutor(int maxConcurrency, String name) {
+        try {
+            return (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(
+                            maxConcurrency,
+                            maxConcurrency,
+                            60L,
+                            TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(maxConcurrency),
+                            new ExecutorThreadFactory("blocking-async-" + name));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Runs the blocking function for one input. Holds a permit from submission until the executor
+     * runs or skips it, so that skipped invocations cannot pile up in the executor queue.
+     */
+    private final class Invocation implements Runnable {
+
+        private final IN input;
+
+        private final ResultFuture<OUT> resultFuture;
+
+        /** Set by whichever of {@link #run} and {@link #cancel} comes first. */
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private volatile Future<?> future;
+
+        private Invocation(IN input, ResultFuture<OUT> resultFuture) {
+            this.input = input;
+            this.resultFuture = resultFuture;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!started.compareAndSet(false, true)) {
+                    // timed out before it started
+                    return;
+                }
+                OUT result = blockingFunction.invoke(input);
+                resultFuture.complete(
+                        result == null
+                                ? Collections.emptyList()
+                                : Collections.singletonList(result));
+            } catch (Throwable t) {
+                resultFuture.completeExceptionally(t);
+            } finally {
+                pendingInvocations.remove(resultFuture);
+                permits.release();
+            }
+        }
+
+        /** Skips the invocation if it has not started yet and interrupts it otherwise. */
+        private void cancel() {
+            if (!started.compareAndSet(false, true)) {
+                Future<?> runningFuture = future;
+                if (runningFuture != null) {
+                    runningFuture.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.functions.Function;
+
+import java.io.Serializable;
+
+/**
+ * A function that performs a blocking call, e.g. a lookup with a synchronous client, for each
+ * stream input.
+ *
+ * <p>Unlike {@link AsyncFunction}, implementations do not need any callback plumbing. The async I/O
+ * operator runs each invocation on a separate lightweight thread, so many invocations can be in
+ * flight at the same time. On JVMs that support virtual threads each invocation runs on its own
+ * virtual thread, otherwise a pool of platform threads sized by the capacity of the operator is
+ * used.
+ *
+ * <p>Example usage:
+ *
+ * <pre>{@code
+ * public class HBaseLookup extends AbstractRichFunction implements BlockingFunction<String, String> {
+ *
+ *   public String invoke(String row) throws Exception {
+ *     return process(table.get(new Get(Bytes.toBytes(row))));
+ *   }
+ * }
+ *
+ * AsyncDataStream.orderedWaitBlocking(input, new HBaseLookup(), 1, TimeUnit.SECONDS, 10000);
+ * }</pre>
+ *
+ * <p>If the function is a {@link org.apache.flink.api.common.functions.RichFunction}, it has the
+ * same restrictions on the {@link org.apache.flink.api.common.functions.RuntimeContext} as a {@link
+ * RichAsyncFunction}. Invocations happen concurrently, so implementations must be thread safe.
+ *
+ * @param <IN> The type of the input elements.
+ * @param <OUT> The type of the returned elements.
+ */
+@PublicEvolving
+public interface BlockingFunction<IN, OUT> extends Function, Serializable {
+
+    /**
+     * Computes the result for the given stream input. The call may block.
+     *
+     * @param input element coming from an upstream task
+     * @return the result for the input, or {@code null} if there is no result
+     * @exception Exception in case of a user code error. An exception will make the task fail and
+     *     trigger fail-over process.
+     */
+    OUT invoke(IN input) throws Exception;
+}
@@ -0,0 +1,525 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.operators.async;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchOptions;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.api.graph.StreamConfig;
+import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.operators.Output;
+import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.api.operators.async.queue.OrderedStreamElementQueue;
+import org.apache.flink.streaming.api.operators.async.queue.StreamElementQueue;
+import org.apache.flink.streaming.api.operators.async.queue.UnorderedStreamElementQueue;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElementSerializer;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
+import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@link AsyncBatchWaitOperator} is the batching counterpart of the {@link AsyncWaitOperator}.
+ * Incoming stream records are added to the stream element queue right away, but the {@link
+ * AsyncBatchFunction} is only invoked once the current batch reached the configured size, the batch
+ * delay elapsed or the queue is full. Inputs with the same deduplication key are passed to the
+ * function only once per batch and the result is handed to all of the corresponding queue entries.
+ *
+ * <p>A batch that fails or times out is retried with exponential backoff up to the configured
+ * number of attempts. The timeout applies to each attempt separately.
+ *
+ * <p>Like the {@link AsyncWaitOperator}, the operator stores all queued {@link StreamElement}s,
+ * including those of batches that have not been issued yet, in its operator state and replays them
+ * upon recovery.
+ *
+ * @param <IN> Input type for the operator.
+ * @param <OUT> Output type for the operator.
+ */
+@Internal
+public class AsyncBatchWaitOperator<IN, OUT>
+        extends AbstractUdfStreamOperator<OUT, AsyncBatchFunction<IN, OUT>>
+        implements OneInputStreamOperator<IN, OUT>, BoundedOneInput {
+    private static final long serialVersionUID = 1L;
+
+    private static final String STATE_NAME = "_async_batch_wait_operator_state_";
+
+    /** Capacity of the stream element queue. */
+    private final int capacity;
+
+    /** Output mode for this operator. */
+    private final AsyncDataStream.OutputMode outputMode;
+
+    /** Timeout for a single attempt of a batch. */
+    private final long timeout;
+
+    /** Batching and retry options. */
+    private final AsyncBatchOptions<IN> batchOptions;
+
+    /** {@link TypeSerializer} for inputs while making snapshots. */
+    private transient StreamElementSerializer<IN> inStreamElementSerializer;
+
+    /** Recovered input stream elements. */
+    private transient ListState<StreamElement> recoveredStreamElements;
+
+    /** Queue, into which to store the currently in-flight stream elements. */
+    private transient StreamElementQueue<OUT> queue;
+
+    /** Inputs which have been added to the queue but not been issued in a batch yet. */
+    private transient List<PendingInput<IN, OUT>> currentBatch;
+
+    /** Processing time at which the current batch has to be issued at the latest. */
+    private transient long currentBatchDeadline;
+
+    /** Mailbox executor used to yield while waiting for buffers to empty. */
+    private final transient MailboxExecutor mailboxExecutor;
+
+    private transient TimestampedCollector<OUT> timestampedCollector;
+
+    /** Whether object reuse has been enabled or disabled. */
+    private transient boolean isObjectReuseEnabled;
+
+    public AsyncBatchWaitOperator(
+            @Nonnull AsyncBatchFunction<IN, OUT> asyncBatchFunction,
+            long timeout,
+            int capacity,
+            @Nonnull AsyncDataStream.OutputMode outputMode,
+            @Nonnull AsyncBatchOptions<IN> batchOptions,
+            @Nonnull ProcessingTimeService processingTimeService,
+            @Nonnull MailboxExecutor mailboxExecutor) {
+        super(asyncBatchFunction);
+
+        setChainingStrategy(ChainingStrategy.ALWAYS);
+
+        Preconditions.checkArgument(
+                capacity > 0, "The number of concurrent async operation should be greater than 0.");
+        this.capacity = capacity;
+
+        this.outputMode = Preconditions.checkNotNull(outputMode, "outputMode");
+
+        this.timeout = timeout;
+
+        this.batchOptions = Preconditions.checkNotNull(batchOptions, "batchOptions");
+
+        this.processingTimeService = Preconditions.checkNotNull(processingTimeService);
+
+        this.mailboxExecutor = mailboxExecutor;
+    }
+
+    @Override
+    public void setup(
+            StreamTask<?, ?> containingTask,
+            StreamConfig config,
+            Output<StreamRecord<OUT>> output) {
+        super.setup(containingTask, config, output);
+
+        this.inStreamElementSerializer =
+                new StreamElementSerializer<>(
+                        getOperatorConfig().<IN>getTypeSerializerIn1(getUserCodeClassloader()));
+
+        switch (outputMode) {
+            case ORDERED:
+                queue = new OrderedStreamElementQueue<>(capacity);
+                break;
+            case UNORDERED:
+                queue = new UnorderedStreamElementQueue<>(capacity);
+                break;
+            default:
+                throw new IllegalStateException("Unknown async mode: " + outputMode + '.');
+        }
+
+        this.currentBatch = new ArrayList<>(Math.min(capacity, batchOptions.getMaxBatchSize()));
+        this.timestampedCollector = new TimestampedCollector<>(super.output);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+
+        this.isObjectReuseEnabled = getExecutionConfig().isObjectReuseEnabled();
+
+        if (recoveredStreamElements != null) {
+            for (StreamElement element : recoveredStreamElements.get()) {
+                if (element.isRecord()) {
+                    processElement(element.<IN>asRecord());
+                } else if (element.isWatermark()) {
+                    processWatermark(element.asWatermark());
+                } else if (element.isLatencyMarker()) {
+                    processLatencyMarker(element.asLatencyMarker());
+                } else {
+                    throw new IllegalStateException(
+                            "Unknown record type "
+                                    + element.getClass()
+                                    + " encountered while opening the operator.");
+                }
+            }
+            recoveredStreamElements = null;
+        }
+    }
+
+    @Override
+    public void processElement(StreamRecord<IN> record) throws Exception {
+        StreamRecord<IN> element;
+        // copy the element avoid the element is reused
+        if (isObjectReuseEnabled) {
+            //noinspection unchecked
+            element = (StreamRecord<IN>) inStreamElementSerializer.copy(record);
+        } else {
+            element = record;
+        }
+
+        // add element first to the queue
+        final ResultFuture<OUT> entry = addToWorkQueue(element);
+
+        currentBatch.add(new PendingInput<>(element.getValue(), entry));
+
+        if (currentBatch.size() >= batchOptions.getMaxBatchSize()
+                || batchOptions.getMaxBatchDelayMillis() == 0L) {
+            flushCurrentBatch();
+        } else if (currentBatch.size() == 1) {
+            final ProcessingTimeService processingTimeService = getProcessingTimeService();
+            currentBatchDeadline =
+                    processingTimeService.getCurrentProcessingTime()
+                            + batchOptions.getMaxBatchDelayMillis();
+            processingTimeService.registerTimer(currentBatchDeadline, this::onBatchTimer);
+        }
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        addToWorkQueue(mark);
+
+        // watermarks are always completed
+        // if there is no prior element, we can directly emit them
+        // this also avoids watermarks being held back until the next element has been processed
+        outputCompletedElement();
+    }
+
+    @Override
+    public void snapshotState(StateSnapshotContext context) throws Exception {
+        super.snapshotState(context);
+
+        ListState<StreamElement> partitionableState =
+                getOperatorStateBackend()
+                        .getListState(
+                                new ListStateDescriptor<>(STATE_NAME, inStreamElementSerializer));
+        partitionableState.clear();
+
+        try {
+            partitionableState.addAll(queue.values());
+        } catch (Exception e) {
+            partitionableState.clear();
+
+            throw new Exception(
+                    "Could not add stream element queue entries to operator state "
+                            + "backend of operator "
+                            + getOperatorName()
+                            + '.',
+                    e);
+        }
+    }
+
+    @Override
+    public void initializeState(StateInitializationContext context) throws Exception {
+        super.initializeState(context);
+        recoveredStreamElements =
+                context.getOperatorStateStore()
+                        .getListState(
+                                new ListStateDescriptor<>(STATE_NAME, inStreamElementSerializer));
+    }
+
+    @Override
+    public void endInput() throws Exception {
+        flushCurrentBatch();
+        // we should wait here for the data in flight to be finished. the reason is that the
+        // timer not in running will be forbidden to fire after this, so that when the async
+        // operation is stuck, it results in deadlock due to what the timeout timer is not fired
+        waitInFlightInputsFinished();
+    }
+
+    /**
+     * Add the given stream element to the operator's stream element queue. This operation blocks
+     * until the element has been added. If the queue is full, the current batch is issued before
+     * yielding to the mailbox, as otherwise no entry of the queue could be completed.
+     *
+     * @param streamElement to add to the operator's queue
+     * @throws Exception if the current thread has been interrupted while yielding to mailbox or the
+     *     batch could not be issued
+     * @return a handle that allows to set the result of the async computation for the given
+     *     element.
+     */
+    private ResultFuture<OUT> addToWorkQueue(StreamElement streamElement) throws Exception {
+
+        Optional<ResultFuture<OUT>> queueEntry;
+        while (!(queueEntry = queue.tryPut(streamElement)).isPresent()) {
+            flushCurrentBatch();
+            mailboxExecutor.yield();
+        }
+
+        return queueEntry.get();
+    }
+
+    private void waitInFlightInputsFinished() throws InterruptedException {
+
+        while (!queue.isEmpty()) {
+            mailboxExecutor.yield();
+        }
+    }
+
+    private void onBatchTimer(long timestamp) throws Exception {
+        // the timer of an already issued batch may still fire
+        if (!currentBatch.isEmpty() && currentBatchDeadline <= timestamp) {
+            flushCurrentBatch();
+        }
+    }
+
+    /** Issues all pending inputs as one batch, deduplicating them by their key. */
+    private void flushCurrentBatch() throws Exception {
+        if (currentBatch.isEmpty()) {
+            return;
+        }
+
+        final KeySelector<IN, ?> keySelector = batchOptions.getDeduplicationKeySelector();
+        final Map<Object, List<PendingInput<IN, OUT>>> inputsByKey = new LinkedHashMap<>();
+        for (PendingInput<IN, OUT> pendingInput : currentBatch) {
+            final Object key =
+                    keySelector == null
+                            ? pendingInput.value
+                            : keySelector.getKey(pendingInput.value);
+            inputsByKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(pendingInput);
+        }
+        currentBatch = new ArrayList<>(currentBatch.size());
+
+        new Batch(new ArrayList<>(inputsByKey.values())).invoke(1);
+    }
+
+    /**
+     * Outputs one completed element. Watermarks are always completed if it's their turn to be
+     * processed.
+     *
+     * <p>This method will be called from {@link #processWatermark(Watermark)} and from a mail
+     * processing the result of an async function call.
+     */
+    private void outputCompletedElement() {
+        if (queue.hasCompletedElements()) {
+            // emit only one element to not block the mailbox thread unnecessarily
+            queue.emitCompletedElement(timestampedCollector);
+            // if there are more completed elements, emit them with subsequent mails
+            if (queue.hasCompletedElements()) {
+                mailboxExecutor.execute(
+                        this::outputCompletedElement,
+                        "AsyncBatchWaitOperator#outputCompletedElement");
+            }
+        }
+    }
+
+    /** An input which has been added to the queue and waits for its result. */
+    private static final class PendingInput<IN, OUT> {
+        private final IN value;
+        private final ResultFuture<OUT> queueEntry;
+
+        private PendingInput(IN value, ResultFuture<OUT> queueEntry) {
+            this.value = value;
+            this.queueEntry = queueEntry;
+        }
+    }
+
+    /** A batch of distinct inputs, each of which belongs to one or more queue entries. */
+    private class Batch {
+        private final List<List<PendingInput<IN, OUT>>> inputGroups;
+        private final List<IN> inputs;
+
+        Batch(List<List<PendingInput<IN, OUT>>> inputGroups) {
+            this.inputGroups = inputGroups;
+            this.inputs = new ArrayList<>(inputGroups.size());
+            for (List<PendingInput<IN, OUT>> inputGroup : inputGroups) {
+                inputs.add(inputGroup.get(0).value);
+            }
+        }
+
+        void invoke(int attemptNumber) throws Exception {
+            final Attempt attempt = new Attempt(attemptNumber);
+
+            // register a timeout for the attempt if timeout is configured
+            if (timeout > 0L) {
+                attempt.registerTimeout(getProcessingTimeService(), timeout);
+            }
+
+            userFunction.asyncInvokeBatch(inputs, attempt);
+        }
+
+        void processResults(Collection<Collection<OUT>> results) {
+            if (results.size() != inputGroups.size()) {
+                failBatch(
+                        new IllegalStateException(
+                                "Expected "
+                                        + inputGroups.size()
+                                        + " results for the batch but got "
+                                        + results.size()
+                                        + '.'));
+                return;
+            }
+
+            final Iterator<Collection<OUT>> resultIterator = results.iterator();
+            for (List<PendingInput<IN, OUT>> inputGroup : inputGroups) {
+                final Collection<OUT> result =
+                        Preconditions.checkNotNull(
+                                resultIterator.next(),
+                                "Results must not be null, use empty collection to emit nothing");
+                for (PendingInput<IN, OUT> pendingInput : inputGroup) {
+                    pendingInput.queueEntry.complete(result);
+                }
+            }
+            // now output all elements from the queue that have been completed (in the correct
+            // order)
+            outputCompletedElement();
+        }
+
+        void processFailure(int attemptNumber, Throwable error) {
+            if (attemptNumber >= batchOptions.getMaxAttempts()) {
+                failBatch(error);
+                return;
+            }
+
+            final ProcessingTimeService processingTimeService = getProcessingTimeService();
+            processingTimeService.registerTimer(
+                    processingTimeService.getCurrentProcessingTime()
+                            + batchOptions.getBackoffMillis(attemptNumber),
+                    timestamp -> invoke(attemptNumber + 1));
+        }
+
+        private void failBatch(Throwable error) {
+            // signal failure through task
+            getContainingTask()
+                    .getEnvironment()
+                    .failExternally(
+                            new Exception(
+                                    "Could not complete the batch of stream elements "
+                                            + inputs
+                                            + '.',
+                                    error));
+
+            // complete with empty results, so that we move ahead processing (to leave potentially
+            // blocking section in #addToWorkQueue or #waitInFlightInputsFinished)
+            for (List<PendingInput<IN, OUT>> inputGroup : inputGroups) {
+                for (PendingInput<IN, OUT> pendingInput : inputGroup) {
+                    pendingInput.queueEntry.complete(Collections.emptyList());
+                }
+            }
+            outputCompletedElement();
+        }
+
+        /** A handler for the results of a single attempt of the batch. */
+        private class Attempt implements ResultFuture<Collection<OUT>> {
+            private final int attemptNumber;
+            /** Optional timeout timer used to fail the attempt. */
+            private ScheduledFuture<?> timeoutTimer;
+            /**
+             * A guard against ill-written functions and results racing with timeouts. Only the
+             * first completion of an attempt is processed.
+             */
+            private final AtomicBoolean completed = new AtomicBoolean(false);
+
+            Attempt(int attemptNumber) {
+                this.attemptNumber = attemptNumber;
+            }
+
+            @Override
+            public void complete(Collection<Collection<OUT>> results) {
+                Preconditions.checkNotNull(
+                        results, "Results must not be null, use empty collections to emit nothing");
+
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+
+                // move further processing into the mailbox thread
+                mailboxExecutor.execute(
+                        () -> {
+                            cancelTimeout();
+                            processResults(results);
+                        },
+                        "Result in AsyncBatchWaitOperator of inputs %s",
+                        inputs);
+            }
+
+            @Override
+            public void completeExceptionally(Throwable error) {
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+
+                mailboxExecutor.execute(
+                        () -> {
+                            cancelTimeout();
+                            processFailure(attemptNumber, error);
+                        },
+                        "Failure in AsyncBatchWaitOperator of inputs %s",
+                        inputs);
+            }
+
+            void registerTimeout(ProcessingTimeService processingTimeService, long timeout) {
+                final long timeoutTimestamp =
+                        timeout + processingTimeService.getCurrentProcessingTime();
+
+                timeoutTimer =
+                        processingTimeService.registerTimer(
+                                timeoutTimestamp,
+                                timestamp ->
+                                        completeExceptionally(
+                                                new TimeoutException(
+                                                        "Async batch function call has timed out.")));
+            }
+
+            private void cancelTimeout() {
+                // canceling in mailbox thread avoids
+                // https://issues.apache.org/jira/browse/FLINK-13635
+                if (timeoutTimer != null) {
+                    timeoutTimer.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,8 @@ import org.apache.flink.runtime.memory.MemoryAllocationException;
 import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.operators.sort.ExternalSorter;
 import org.apache.flink.runtime.operators.sort.PushSorter;
+import org.apache.flink.runtime.operators.sort.QuickSort;
+import org.apache.flink.runtime.operators.sort.RadixSort;
 import org.apache.flink.streaming.api.operators.BoundedMultiInput;
 import org.apache.flink.streaming.api.operators.InputSelectable;
 import org.apache.flink.streaming.api.operators.InputSelection;
@@ -71,7 +73,8 @@ import java.util.stream.IntStream;
  * <p>The sorter uses binary comparison of keys, which are extracted and serialized when received
  * from the chained input. Moreover the timestamps of incoming records are used for secondary
  * ordering. For the comparison it uses either {@link FixedLengthByteKeyComparator} if the length of
- * the serialized key is constant, or {@link VariableLengthByteKeyComparator} otherwise.
+ * the serialized key is constant, or {@link VariableLengthByteKeyComparator} otherwise. Sort
+ * buffers of fixed length keys are sorted with a {@link RadixSort}.
  *
  * <p>Watermarks, stream statuses, nor latency markers are propagated downstream as they do not make
  * sense with buffered records. The input emits the largest watermark seen after all records.
@@ -191,6 +194,10 @@ public final class MultiInputSortingDataInput<IN, K> implements StreamTaskInput<
                                                         .memoryFraction(
                                                                 managedMemoryFraction
                                                                         / numberOfInputs)
+                                                        .indexedSorter(
+                                                                keyLength > 0
+                                                                        ? new RadixSort()
+                                                                        : new QuickSort())
                                                         .enableSpilling(
                                                                 ioManager,
                                                                 jobConfiguration.get(
@@ -33,7 +33,10 @@ import org.apache.flink.runtime.jobgraph.tasks.AbstractInvokable;
 import org.apache.flink.runtime.memory.MemoryAllocationException;
 import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.operators.sort.ExternalSorter;
+import org.apache.flink.runtime.operators.sort.IndexedSorter;
 import org.apache.flink.runtime.operators.sort.PushSorter;
+import org.apache.flink.runtime.operators.sort.QuickSort;
+import org.apache.flink.runtime.operators.sort.RadixSort;
 import org.apache.flink.streaming.api.watermark.Watermark;
 import org.apache.flink.streaming.runtime.io.DataInputStatus;
 import org.apache.flink.streaming.runtime.io.StreamTaskInput;
@@ -56,7 +59,9 @@ import java.util.concurrent.CompletableFuture;
  * <p>The sorter uses binary comparison of keys, which are extracted and serialized when received
  * from the chained input. Moreover the timestamps of incoming records are used for secondary
  * ordering. For the comparison it uses either {@link FixedLengthByteKeyComparator} if the length of
- * the serialized key is constant, or {@link VariableLengthByteKeyComparator} otherwise.
+ * the serialized key is constant, or {@link VariableLengthByteKeyComparator} otherwise. Sort
+ * buffers of fixed length keys are sorted with a {@link RadixSort} over the normalized keys, which
+ * also skips buffers that are already sorted, e.g. when reading from a source sorted by key.
  *
  * <p>Watermarks, stream statuses, nor latency markers are propagated downstream as they do not make
  * sense with buffered records. The input emits the largest watermark seen after all records.
@@ -93,12 +98,15 @@ public final class SortingDataInput<T, K> implements StreamTaskInput<T> {
             this.keySerializer = keySerializer;
             int keyLength = keySerializer.getLength();
             final TypeComparator<Tuple2<byte[], StreamRecord<T>>> comparator;
+            final IndexedSorter indexedSorter;
             if (keyLength > 0) {
                 this.dataOutputSerializer = new DataOutputSerializer(keyLength);
                 comparator = new FixedLengthByteKeyComparator<>(keyLength);
+                indexedSorter = new RadixSort();
             } else {
                 this.dataOutputSerializer = new DataOutputSerializer(64);
                 comparator = new VariableLengthByteKeyComparator<>();
+                indexedSorter = new QuickSort();
             }
             KeyAndValueSerializer<T> keyAndValueSerializer =
                     new KeyAndValueSerializer<>(typeSerializer, keyLength);
@@ -110,6 +118,7 @@ public final class SortingDataInput<T, K> implements StreamTaskInput<T> {
                                     keyAndValueSerializer,
                                     comparator)
                             .memoryFraction(managedMemoryFraction)
+                            .indexedSorter(indexedSorter)
                             .enableSpilling(
                                     ioManager,
                                     jobConfiguration.get(AlgorithmOptions.SORT_SPILLING_THRESHOLD))
@@ -20,6 +20,8 @@ package org.apache.flink.streaming.runtime.streamstatus;
 
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueue;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
 import org.apache.flink.streaming.api.watermark.Watermark;
 import org.apache.flink.streaming.runtime.io.PushingAsyncDataInput.DataOutput;
 import org.apache.flink.util.Preconditions;
@@ -33,6 +35,10 @@ import static org.apache.flink.util.Preconditions.checkArgument;
  * that the valve needs to handle, as well as provide a implementation of {@link DataOutput}, which
  * is called by the valve only when it determines a new watermark or stream status can be
  * propagated.
+ *
+ * <p>The watermark-aligned channels are kept in a heap ordered by their watermark, so that the
+ * minimum watermark across them can be determined in {@code O(log n)} instead of scanning all
+ * channels for every incoming watermark.
  */
 @Internal
 public class StatusWatermarkValve {
@@ -47,6 +53,12 @@ public class StatusWatermarkValve {
      */
     private final InputChannelStatus[] channelStatuses;
 
+    /** Heap of all watermark-aligned channels, ordered by their current watermark. */
+    private final HeapPriorityQueue<InputChannelStatus> alignedChannelStatuses;
+
+    /** The number of input channels that are currently active. */
+    private int numActiveChannels;
+
     /** The last watermark emitted from the valve. */
     private long lastOutputWatermark;
 
@@ -61,12 +73,17 @@ public class StatusWatermarkValve {
     public StatusWatermarkValve(int numInputChannels) {
         checkArgument(numInputChannels > 0);
         this.channelStatuses = new InputChannelStatus[numInputChannels];
+        this.alignedChannelStatuses =
+                new HeapPriorityQueue<>(
+                        (left, right) -> Long.compare(left.watermark, right.watermark),
+                        numInputChannels);
         for (int i = 0; i < numInputChannels; i++) {
             channelStatuses[i] = new InputChannelStatus();
             channelStatuses[i].watermark = Long.MIN_VALUE;
             channelStatuses[i].streamStatus = StreamStatus.ACTIVE;
-            channelStatuses[i].isWatermarkAligned = true;
+            markWatermarkAligned(channelStatuses[i]);
         }
+        this.numActiveChannels = numInputChannels;
 
         this.lastOutputWatermark = Long.MIN_VALUE;
         this.lastOutputStreamStatus = StreamStatus.ACTIVE;
@@ -94,11 +111,12 @@ public class StatusWatermarkValve {
             if (watermarkMillis > channelStatuses[channelIndex].watermark) {
                 channelStatuses[channelIndex].watermark = watermarkMillis;
 
-                // previously unaligned input channels are now aligned if its watermark has caught
-                // up
-                if (!channelStatuses[channelIndex].isWatermarkAligned
-                        && watermarkMillis >= lastOutputWatermark) {
-                    channelStatuses[channelIndex].isWatermarkAligned = true;
+                if (channelStatuses[channelIndex].isWatermarkAligned) {
+                    adjustAlignedChannelStatuses(channelStatuses[channelIndex]);
+                } else if (watermarkMillis >= lastOutputWatermark) {
+                    // previously unaligned input channels are now aligned if its watermark has
+                    // caught up
+                    markWatermarkAligned(channelStatuses[channelIndex]);
                 }
 
                 // now, attempt to find a new min watermark across all aligned channels
@@ -123,13 +141,14 @@ public class StatusWatermarkValve {
         if (streamStatus.isIdle() && channelStatuses[channelIndex].streamStatus.isActive()) {
             // handle active -> idle toggle for the input channel
             channelStatuses[channelIndex].streamStatus = StreamStatus.IDLE;
+            numActiveChannels--;
 
             // the channel is now idle, therefore not aligned
-            channelStatuses[channelIndex].isWatermarkAligned = false;
+            markWatermarkUnaligned(channelStatuses[channelIndex]);
 
             // if all input channels of the valve are now idle, we need to output an idle stream
             // status from the valve (this also marks the valve as idle)
-            if (!InputChannelStatus.hasActiveChannels(channelStatuses)) {
+            if (numActiveChannels == 0) {
 
                 // now that all input channels are idle and no channels will continue to advance its
                 // watermark,
@@ -156,13 +175,14 @@ public class StatusWatermarkValve {
         } else if (streamStatus.isActive() && channelStatuses[channelIndex].streamStatus.isIdle()) {
             // handle idle -> active toggle for the input channel
             channelStatuses[channelIndex].streamStatus = StreamStatus.ACTIVE;
+            numActiveChannels++;
 
             // if the last watermark of the input channel, before it was marked idle, is still
             // larger than
             // the overall last output watermark of the valve, then we can set the channel to be
             // aligned already.
             if (channelStatuses[channelIndex].watermark >= lastOutputWatermark) {
-                channelStatuses[channelIndex].isWatermarkAligned = true;
+                markWatermarkAligned(channelStatuses[channelIndex]);
             }
 
             // if the valve was previously marked to be idle, mark it as active and output an active
@@ -177,26 +197,37 @@ public class StatusWatermarkValve {
 
     private void findAndOutputNewMinWatermarkAcrossAlignedChannels(DataOutput<?> output)
             throws Exception {
-        long newMinWatermark = Long.MAX_VALUE;
-        boolean hasAlignedChannels = false;
-
-        // determine new overall watermark by considering only watermark-aligned channels across all
-        // channels
-        for (InputChannelStatus channelStatus : channelStatuses) {
-            if (channelStatus.isWatermarkAligned) {
-                hasAlignedChannels = true;
-                newMinWatermark = Math.min(channelStatus.watermark, newMinWatermark);
-            }
-        }
+        // determine new overall watermark by considering only watermark-aligned channels, the
+        // head of the heap holds the aligned channel with the smallest watermark
+        InputChannelStatus minAlignedChannelStatus = alignedChannelStatuses.peek();
 
         // we acknowledge and output the new overall watermark if it really is aggregated
         // from some remaining aligned channel, and is also larger than the last output watermark
-        if (hasAlignedChannels && newMinWatermark > lastOutputWatermark) {
-            lastOutputWatermark = newMinWatermark;
+        if (minAlignedChannelStatus != null
+                && minAlignedChannelStatus.watermark > lastOutputWatermark) {
+            lastOutputWatermark = minAlignedChannelStatus.watermark;
             output.emitWatermark(new Watermark(lastOutputWatermark));
         }
     }
 
+    private void markWatermarkAligned(InputChannelStatus channelStatus) {
+        if (!channelStatus.isWatermarkAligned) {
+            channelStatus.isWatermarkAligned = true;
+            alignedChannelStatuses.add(channelStatus);
+        }
+    }
+
+    private void markWatermarkUnaligned(InputChannelStatus channelStatus) {
+        if (channelStatus.isWatermarkAligned) {
+            channelStatus.isWatermarkAligned = false;
+            alignedChannelStatuses.remove(channelStatus);
+        }
+    }
+
+    private void adjustAlignedChannelStatuses(InputChannelStatus channelStatus) {
+        alignedChannelStatuses.adjustModifiedElement(channelStatus);
+    }
+
     private void findAndOutputMaxWatermarkAcrossAllChannels(DataOutput<?> output) throws Exception {
         long maxWatermark = Long.MIN_VALUE;
 
@@ -224,21 +255,22 @@ public class StatusWatermarkValve {
      * </ul>
      */
     @VisibleForTesting
-    protected static class InputChannelStatus {
+    protected static class InputChannelStatus implements HeapPriorityQueueElement {
         protected long watermark;
         protected StreamStatus streamStatus;
         protected boolean isWatermarkAligned;
 
-        /**
-         * Utility to check if at least one channel in a given array of input channels is active.
-         */
-        private static boolean hasActiveChannels(InputChannelStatus[] channelStatuses) {
-            for (InputChannelStatus status : channelStatuses) {
-                if (status.streamStatus.isActive()) {
-                    return true;
-                }
-            }
-            return false;
+        /** The index of the channel in the heap of watermark-aligned channels. */
+        private int heapIndex = HeapPriorityQueueElement.NOT_CONTAINED;
+
+        @Override
+        public int getInternalIndex() {
+            return heapIndex;
+        }
+
+        @Override
+        public void setInternalIndex(int newIndex) {
+            this.heapIndex = newIndex;
         }
     }
 
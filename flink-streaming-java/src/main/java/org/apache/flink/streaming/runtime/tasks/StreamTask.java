@@ -288,6 +288,12 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>> extends Ab
 
     private final long bufferDebloatPeriod;
 
+    /** Maximum number of input records processed by a single invocation of the default action. */
+    private final int inputBatchMaxRecords;
+
+    /** Maximum time in nanoseconds spent on a single batch of input records. */
+    private final long inputBatchMaxDurationNanos;
+
     // ------------------------------------------------------------------------
 
     /**
@@ -412,6 +418,17 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>> extends Ab
 
         this.bufferDebloatPeriod = taskManagerConf.get(BUFFER_DEBLOAT_PERIOD).toMillis();
 
+        this.inputBatchMaxRecords =
+                taskManagerConf.get(TaskManagerOptions.TASK_MAILBOX_INPUT_BATCH_MAX_RECORDS);
+        Preconditions.checkArgument(
+                inputBatchMaxRecords > 0,
+                "%s must be positive.",
+                TaskManagerOptions.TASK_MAILBOX_INPUT_BATCH_MAX_RECORDS.key());
+        this.inputBatchMaxDurationNanos =
+                taskManagerConf
+                        .get(TaskManagerOptions.TASK_MAILBOX_INPUT_BATCH_MAX_DURATION)
+                        .toNanos();
+
         if (taskManagerConf.get(TaskManagerOptions.BUFFER_DEBLOAT_ENABLED)) {
             this.bufferDebloater =
                     new BufferDebloater(taskManagerConf, getEnvironment().getAllInputGates());
@@ -486,7 +503,7 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>> extends Ab
      * @throws Exception on any problems in the action.
      */
     protected void processInput(MailboxDefaultAction.Controller controller) throws Exception {
-        DataInputStatus status = inputProcessor.processInput();
+        DataInputStatus status = processInputBatch();
         switch (status) {
             case MORE_AVAILABLE:
                 if (recordWriter.isAvailable()) {
@@ -527,6 +544,32 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>> extends Ab
                         new ResumeWrapper(controller.suspendDefaultAction(timer), timer)));
     }
 
+    /**
+     * Processes up to {@link #inputBatchMaxRecords} records without going back to the mailbox. The
+     * batch ends early as soon as the input or the output is not available anymore or {@link
+     * #inputBatchMaxDurationNanos} elapsed, which bounds the latency of mailbox actions such as
+     * timers or checkpoint barriers.
+     *
+     * @return the status of the last processed input.
+     */
+    private DataInputStatus processInputBatch() throws Exception {
+        DataInputStatus status = inputProcessor.processInput();
+        if (inputBatchMaxRecords == 1) {
+            return status;
+        }
+
+        final long deadline = System.nanoTime() + inputBatchMaxDurationNanos;
+        for (int processed = 1;
+                processed < inputBatchMaxRecords
+                        && status == DataInputStatus.MORE_AVAILABLE
+                        && recordWriter.isAvailable()
+                        && System.nanoTime() < deadline;
+                processed++) {
+            status = inputProcessor.processInput();
+        }
+        return status;
+    }
+
     protected void endData() throws Exception {
         advanceToEndOfEventTime();
         // finish all operators in a chain effect way
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.testutils.CheckedThread;
+import org.apache.flink.core.testutils.OneShotLatch;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
+import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.TestHarnessUtil;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Test cases for {@link BlockingAsyncFunctionAdapter}. */
+public class BlockingAsyncFunctionAdapterTest extends TestLogger {
+
+    private static final long TIMEOUT = 10000L;
+
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void testInvocationsRunConcurrently() throws Exception {
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(new ConcurrentDoublingFunction());
+
+        testHarness.open();
+
+        synchronized (testHarness.getCheckpointLock()) {
+            for (int i = 1; i <= CAPACITY; i++) {
+                testHarness.processElement(new StreamRecord<>(i, i));
+            }
+            testHarness.endInput();
+            testHarness.close();
+        }
+
+        final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        for (int i = 1; i <= CAPACITY; i++) {
+            expectedOutput.add(new StreamRecord<>(2 * i, i));
+        }
+        TestHarnessUtil.assertOutputEquals(
+                "Output was not correct.", expectedOutput, testHarness.getOutput());
+    }
+
+    @Test
+    public void testNullResultIsSkipped() throws Exception {
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(input -> input % 2 == 0 ? input : null);
+
+        testHarness.open();
+
+        synchronized (testHarness.getCheckpointLock()) {
+            for (int i = 1; i <= 4; i++) {
+                testHarness.processElement(new StreamRecord<>(i, i));
+            }
+            testHarness.endInput();
+            testHarness.close();
+        }
+
+        final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(new StreamRecord<>(2, 2));
+        expectedOutput.add(new StreamRecord<>(4, 4));
+        TestHarnessUtil.assertOutputEquals(
+                "Output was not correct.", expectedOutput, testHarness.getOutput());
+    }
+
+    @Test
+    public void testTimedOutInvocationIsInterrupted() throws Exception {
+        final long timeout = 10L;
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(new InterruptibleFunction(), timeout);
+        testHarness.getEnvironment().setExpectedExternalFailureCause(Throwable.class);
+
+        testHarness.open();
+        testHarness.setProcessingTime(0L);
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.processElement(new StreamRecord<>(1, 0L));
+        }
+        InterruptibleFunction.STARTED.await();
+
+        // trigger the timeout of the running invocation
+        testHarness.setProcessingTime(timeout + 1L);
+        InterruptibleFunction.INTERRUPTED.await();
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.close();
+        }
+        assertTrue(testHarness.getEnvironment().getActualExternalFailureCause().isPresent());
+    }
+
+    @Test
+    public void testTimedOutInvocationHoldsItsPermit() throws Exception {
+        final BlockingAsyncFunctionAdapter<Integer, Integer> adapter =
+                new BlockingAsyncFunctionAdapter<>(new UninterruptibleFunction(), 1);
+        adapter.open(new Configuration());
+        try {
+            final TestResultFuture first = new TestResultFuture();
+            adapter.asyncInvoke(1, first);
+            UninterruptibleFunction.STARTED.await();
+            adapter.timeout(1, first);
+            assertTrue(first.result.isCompletedExceptionally());
+
+            final TestResultFuture second = new TestResultFuture();
+            final CheckedThread invoker =
+                    new CheckedThread() {
+                        @Override
+                        public void go() throws Exception {
+                            adapter.asyncInvoke(2, second);
+                        }
+                    };
+            invoker.start();
+
+            // the timed out invocation ignores the interrupt and keeps the only permit
+            Thread.sleep(100L);
+            assertTrue(invoker.isAlive());
+
+            UninterruptibleFunction.RELEASE.trigger();
+            invoker.sync();
+            assertEquals(Collections.singletonList(2), second.result.get());
+        } finally {
+            adapter.close();
+        }
+    }
+
+    private static OneInputStreamOperatorTestHarness<Integer, Integer> createTestHarness(
+            BlockingFunction<Integer, Integer> function) throws Exception {
+        return createTestHarness(function, TIMEOUT);
+    }
+
+    private static OneInputStreamOperatorTestHarness<Integer, Integer> createTestHarness(
+            BlockingFunction<Integer, Integer> function, long timeout) throws Exception {
+        return new OneInputStreamOperatorTestHarness<>(
+                new AsyncWaitOperatorFactory<>(
+                        new BlockingAsyncFunctionAdapter<>(function, CAPACITY),
+                        timeout,
+                        CAPACITY,
+                        AsyncDataStream.OutputMode.ORDERED),
+                IntSerializer.INSTANCE);
+    }
+
+    /** Only returns once {@link #CAPACITY} invocations are running at the same time. */
+    private static class ConcurrentDoublingFunction implements BlockingFunction<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final CountDownLatch RUNNING = new CountDownLatch(CAPACITY);
+
+        @Override
+        public Integer invoke(Integer input) throws Exception {
+            RUNNING.countDown();
+            if (!RUNNING.await(TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("Invocations were not executed concurrently.");
+            }
+            return 2 * input;
+        }
+    }
+
+    /** Blocks until it is interrupted. */
+    private static class InterruptibleFunction implements BlockingFunction<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final OneShotLatch STARTED = new OneShotLatch();
+
+        private static final OneShotLatch INTERRUPTED = new OneShotLatch();
+
+        @Override
+        public Integer invoke(Integer input) throws Exception {
+            STARTED.trigger();
+            try {
+                new OneShotLatch().await();
+            } catch (InterruptedException e) {
+                INTERRUPTED.trigger();
+                throw e;
+            }
+            return input;
+        }
+    }
+
+    /** Ignores interrupts and blocks until {@link #RELEASE} is triggered. */
+    private static class UninterruptibleFunction implements BlockingFunction<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final OneShotLatch STARTED = new OneShotLatch();
+
+        private static final OneShotLatch RELEASE = new OneShotLatch();
+
+        @Override
+        public Integer invoke(Integer input) {
+            STARTED.trigger();
+            while (true) {
+                try {
+                    RELEASE.await();
+                    return input;
+                } catch (InterruptedException ignored) {
+                    // keep blocking like a call that does not react to interrupts
+                }
+            }
+        }
+    }
+
+    private static class TestResultFuture implements ResultFuture<Integer> {
+
+        private final CompletableFuture<Collection<Integer>> result = new CompletableFuture<>();
+
+        @Override
+        public void complete(Collection<Integer> values) {
+            result.complete(values);
+        }
+
+        @Override
+        public void completeExceptionally(Throwable error) {
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.streaming.api.operators.async;
+
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchOptions;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.mailbox.Mail;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.TestHarnessUtil;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.MIN_PRIORITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/** Tests for {@link AsyncBatchWaitOperator}. */
+public class AsyncBatchWaitOperatorTest extends TestLogger {
+
+    private static final long TIMEOUT = 1000L;
+
+    @Test
+    public void testBatchBySizeWithDeduplication() throws Exception {
+        final DoublingBatchFunction function = new DoublingBatchFunction(0);
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(
+                        function,
+                        AsyncBatchOptions.<Integer>builder()
+                                .setMaxBatchSize(4)
+                                .setMaxBatchDelay(Duration.ofHours(1))
+                                .build());
+
+        testHarness.open();
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.processElement(new StreamRecord<>(1, 1L));
+            testHarness.processElement(new StreamRecord<>(2, 2L));
+            testHarness.processElement(new StreamRecord<>(1, 3L));
+            testHarness.processElement(new StreamRecord<>(3, 4L));
+            testHarness.processElement(new StreamRecord<>(5, 5L));
+            testHarness.endInput();
+            testHarness.close();
+        }
+
+        assertEquals(
+                Arrays.asList(Arrays.asList(1, 2, 3), Collections.singletonList(5)),
+                function.batches);
+
+        final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(new StreamRecord<>(2, 1L));
+        expectedOutput.add(new StreamRecord<>(4, 2L));
+        expectedOutput.add(new StreamRecord<>(2, 3L));
+        expectedOutput.add(new StreamRecord<>(6, 4L));
+        expectedOutput.add(new StreamRecord<>(10, 5L));
+        TestHarnessUtil.assertOutputEquals(
+                "Output was not correct.", expectedOutput, testHarness.getOutput());
+    }
+
+    @Test
+    public void testBatchByDelay() throws Exception {
+        final DoublingBatchFunction function = new DoublingBatchFunction(0);
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(
+                        function,
+                        AsyncBatchOptions.<Integer>builder()
+                                .setMaxBatchSize(100)
+                                .setMaxBatchDelay(Duration.ofMillis(10))
+                                .build());
+
+        testHarness.open();
+        testHarness.setProcessingTime(0L);
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.processElement(new StreamRecord<>(1, 1L));
+            testHarness.processElement(new StreamRecord<>(2, 2L));
+        }
+        assertEquals(Collections.emptyList(), function.batches);
+
+        testHarness.setProcessingTime(10L);
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), function.batches);
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.endInput();
+            testHarness.close();
+        }
+
+        final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(new StreamRecord<>(2, 1L));
+        expectedOutput.add(new StreamRecord<>(4, 2L));
+        TestHarnessUtil.assertOutputEquals(
+                "Output was not correct.", expectedOutput, testHarness.getOutput());
+    }
+
+    @Test
+    public void testRetryWithBackoff() throws Exception {
+        final DoublingBatchFunction function = new DoublingBatchFunction(2);
+        final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+                createTestHarness(
+                        function,
+                        AsyncBatchOptions.<Integer>builder()
+                                .setMaxBatchSize(2)
+                                .setMaxAttempts(3)
+                                .setInitialBackoff(Duration.ofMillis(10))
+                                .setBackoffMultiplier(2.0)
+                                .build());
+
+        testHarness.open();
+        testHarness.setProcessingTime(0L);
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.processElement(new StreamRecord<>(1, 1L));
+            testHarness.processElement(new StreamRecord<>(2, 2L));
+        }
+        assertEquals(1, function.batches.size());
+
+        // the first retry is scheduled after the initial backoff
+        processMails(testHarness);
+        testHarness.setProcessingTime(9L);
+        assertEquals(1, function.batches.size());
+        testHarness.setProcessingTime(10L);
+        assertEquals(2, function.batches.size());
+
+        // the second retry is scheduled after twice the initial backoff
+        processMails(testHarness);
+        testHarness.setProcessingTime(29L);
+        assertEquals(2, function.batches.size());
+        testHarness.setProcessingTime(30L);
+        assertEquals(3, function.batches.size());
+
+        synchronized (testHarness.getCheckpointLock()) {
+            testHarness.endInput();
+            testHarness.close();
+        }
+
+        assertFalse(testHarness.getEnvironment().getActualExternalFailureCause().isPresent());
+
+        final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(new StreamRecord<>(2, 1L));
+        expectedOutput.add(new StreamRecord<>(4, 2L));
+        TestHarnessUtil.assertOutputEquals(
+                "Output was not correct.", expectedOutput, testHarness.getOutput());
+    }
+
+    private static void processMails(OneInputStreamOperatorTestHarness<?, ?> testHarness)
+            throws Exception {
+        Optional<Mail> mail;
+        while ((mail = testHarness.getTaskMailbox().tryTake(MIN_PRIORITY)).isPresent()) {
+            mail.get().run();
+        }
+    }
+
+    private static OneInputStreamOperatorTestHarness<Integer, Integer> createTestHarness(
+            AsyncBatchFunction<Integer, Integer> function, AsyncBatchOptions<Integer> options)
+            throws Exception {
+        return new OneInputStreamOperatorTestHarness<>(
+                new AsyncBatchWaitOperatorFactory<>(
+                        function, TIMEOUT, 10, AsyncDataStream.OutputMode.ORDERED, options),
+                IntSerializer.INSTANCE);
+    }
+
+    /** Doubles all inputs of a batch after failing the given number of attempts. */
+    private static class DoublingBatchFunction implements AsyncBatchFunction<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<Integer>> batches = new ArrayList<>();
+
+        private int remainingFailures;
+
+        DoublingBatchFunction(int failures) {
+            this.remainingFailures = failures;
+        }
+
+        @Override
+        public void asyncInvokeBatch(
+                List<Integer> inputs, ResultFuture<Collection<Integer>> resultFuture) {
+            batches.add(new ArrayList<>(inputs));
+            if (remainingFailures > 0) {
+                remainingFailures--;
+                resultFuture.completeExceptionally(new Exception("Expected test exception."));
+                return;
+            }
+
+            final List<Collection<Integer>> results = new ArrayList<>(inputs.size());
+            for (Integer input : inputs) {
+                results.add(Collections.singletonList(2 * input));
+            }
+            resultFuture.complete(results);
+        }
+    }
+}
@@ -409,6 +409,42 @@ public class StatusWatermarkValveTest {
         assertEquals(null, valveOutput.popLastSeenOutput());
     }
 
+    /**
+     * Tests that the min watermark is tracked correctly across many channels that advance in an
+     * interleaved order, and that a watermark is only emitted once the slowest channel advances.
+     */
+    @Test
+    public void testMultipleInputWatermarkAdvancingWithManyChannels() throws Exception {
+        final int numChannels = 128;
+        StatusWatermarkOutput valveOutput = new StatusWatermarkOutput();
+        StatusWatermarkValve valve = new StatusWatermarkValve(numChannels);
+
+        for (int round = 1; round <= 3; round++) {
+            // channel 0 is always the slowest channel and advances last
+            for (int channel = numChannels - 1; channel > 0; channel--) {
+                valve.inputWatermark(
+                        new Watermark(round * numChannels + channel), channel, valveOutput);
+                assertEquals(null, valveOutput.popLastSeenOutput());
+            }
+            valve.inputWatermark(new Watermark(round * numChannels), 0, valveOutput);
+            assertEquals(new Watermark(round * numChannels), valveOutput.popLastSeenOutput());
+            assertEquals(null, valveOutput.popLastSeenOutput());
+        }
+
+        // once the slowest channel becomes idle, the next slowest channel determines the watermark
+        valve.inputStreamStatus(StreamStatus.IDLE, 0, valveOutput);
+        assertEquals(new Watermark(3 * numChannels + 1), valveOutput.popLastSeenOutput());
+        assertEquals(null, valveOutput.popLastSeenOutput());
+
+        // a channel that is not the slowest one becoming idle does not advance the watermark
+        valve.inputStreamStatus(StreamStatus.IDLE, numChannels - 1, valveOutput);
+        assertEquals(null, valveOutput.popLastSeenOutput());
+
+        valve.inputWatermark(new Watermark(4 * numChannels), 1, valveOutput);
+        assertEquals(new Watermark(3 * numChannels + 2), valveOutput.popLastSeenOutput());
+        assertEquals(null, valveOutput.popLastSeenOutput());
+    }
+
     private static class StatusWatermarkOutput implements PushingAsyncDataInput.DataOutput {
 
         private BlockingQueue<StreamElement> allOutputs = new LinkedBlockingQueue<>();
@@ -27,6 +27,7 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.common.typeutils.base.StringSerializer;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.configuration.TaskManagerOptions;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.testutils.OneShotLatch;
 import org.apache.flink.metrics.Gauge;
@@ -1902,6 +1903,38 @@ public class StreamTaskTest extends TestLogger {
         }
     }
 
+    @Test
+    public void testProcessInputInBatches() throws Exception {
+        Configuration config =
+                new Configuration()
+                        .set(TaskManagerOptions.TASK_MAILBOX_INPUT_BATCH_MAX_RECORDS, 3)
+                        .set(
+                                TaskManagerOptions.TASK_MAILBOX_INPUT_BATCH_MAX_DURATION,
+                                Duration.ofHours(1));
+
+        try (StreamTaskMailboxTestHarness<String> harness =
+                new StreamTaskMailboxTestHarnessBuilder<>(OneInputStreamTask::new, STRING_TYPE_INFO)
+                        .setTaskManagerRuntimeInfo(new TestingTaskManagerRuntimeInfo(config))
+                        .addInput(STRING_TYPE_INFO)
+                        .setupOutputForSingletonOperatorChain(
+                                new StreamMap<String, String>(value -> value))
+                        .build()) {
+            harness.processAll();
+            harness.setAutoProcess(false);
+            for (int i = 0; i < 5; i++) {
+                harness.processElement(new StreamRecord<>(String.valueOf(i)));
+            }
+
+            // a single step of the default action consumes a whole batch of records
+            assertTrue(harness.processSingleStep());
+            assertThat(harness.getOutput().size(), is(3));
+
+            // the remaining records do not fill the batch
+            assertTrue(harness.processSingleStep());
+            assertThat(harness.getOutput().size(), is(5));
+        }
+    }
+
     private MockEnvironment setupEnvironment(boolean... outputAvailabilities) {
         final Configuration configuration = new Configuration();
         new MockStreamConfig(configuration, outputAvailabilities.length);
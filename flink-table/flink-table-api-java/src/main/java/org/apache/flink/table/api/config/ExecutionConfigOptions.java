@@ -56,6 +56,24 @@ public class ExecutionConfigOptions {
                                     + "NOTE: Cleaning up state requires additional overhead for bookkeeping. "
                                     + "Default value is 0, which means that it will never clean up state.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<MemorySize> TABLE_EXEC_STATE_CACHE_SIZE =
+            key("table.exec.state.cache-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.ZERO)
+                    .withDescription(
+                            "The memory size of the heap cache of the keyed state of each "
+                                    + "deduplicate, TopN and group aggregate task. The cache keeps "
+                                    + "the state of the recently accessed keys in serialized form "
+                                    + "and writes the updated state back into the state backend "
+                                    + "when it is evicted or when a checkpoint is taken, which "
+                                    + "reduces the state accesses for skewed keys. It is applied to "
+                                    + "the deduplicate operator on event time, the Top-1 operator "
+                                    + "and the group aggregate operator when mini-batch is "
+                                    + "disabled. Default value is 0, which means that the cache is "
+                                    + "disabled, except for the Top-1 operator whose cache is "
+                                    + "sized by 'table.exec.topn.cache-size'.");
+
     // ------------------------------------------------------------------------
     //  Source Options
     // ------------------------------------------------------------------------
@@ -104,6 +122,21 @@ public class ExecutionConfigOptions {
                                                     + "an additional stateful operator.")
                                     .build());
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_SOURCE_CHANGELOG_NORMALIZE_KEY_ONLY_STATE =
+            key("table.exec.source.changelog-normalize.key-only-state.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the operator which normalizes the changelog of an "
+                                    + "upsert or CDC source only keeps the existence of each primary key "
+                                    + "in state instead of the last row, if the changelog is directly "
+                                    + "written into an upsert sink with the same primary key and without "
+                                    + "NOT NULL constraints on the other columns. The DELETE messages then "
+                                    + "only contain the content of the source DELETE events (e.g. only "
+                                    + "the key of Kafka tombstone records), and updates with the same "
+                                    + "content as the previous row are no longer filtered out.");
+
     // ------------------------------------------------------------------------
     //  Sink Options
     // ------------------------------------------------------------------------
@@ -140,6 +173,22 @@ public class ExecutionConfigOptions {
                                                     + "or force materialization(FORCE).")
                                     .build());
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_SINK_UPSERT_MATERIALIZE_INDEXED_STATE =
+            key("table.exec.sink.upsert-materialize.indexed-state.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the upsert materialize operator keeps every record of a key as a separate "
+                                    + "state entry indexed by the hash of the record, instead of a single list of "
+                                    + "all records of the key. This makes appending and retracting a record "
+                                    + "independent of the number of records of the key, which helps when a key "
+                                    + "is updated frequently by a non-deterministic upstream. The hash does not "
+                                    + "cover columns of the types ARRAY, MAP, MULTISET and TIMESTAMP WITH TIME "
+                                    + "ZONE (also nested). The state is "
+                                    + "incompatible between both modes, so this option can't be changed when a job "
+                                    + "is restored from a savepoint.");
+
     // ------------------------------------------------------------------------
     //  Sort Options
     // ------------------------------------------------------------------------
@@ -268,6 +317,18 @@ public class ExecutionConfigOptions {
                     .withDescription(
                             "Sets the window elements buffer size limit used in group window agg operator.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_WINDOW_AGG_LOCAL_BUFFER_SPILL_ENABLED =
+            key("table.exec.window-agg.local-buffer.spill-enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the local window aggregation spills its buffered records "
+                                    + "to disk when the managed memory buffer is full, instead of combining "
+                                    + "them into partial aggregates right away. The spilled records are read "
+                                    + "back and combined when the buffer is flushed, which reduces the number "
+                                    + "of partial results sent downstream for inputs with many distinct keys.");
+
     // ------------------------------------------------------------------------
     //  Async Lookup Options
     // ------------------------------------------------------------------------
@@ -286,6 +347,87 @@ public class ExecutionConfigOptions {
                     .withDescription(
                             "The async timeout for the asynchronous operation to complete.");
 
+    // ------------------------------------------------------------------------
+    //  Lookup Cache Options
+    // ------------------------------------------------------------------------
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<Long> TABLE_EXEC_LOOKUP_CACHE_MAX_KEYS =
+            key("table.exec.lookup.cache.max-keys")
+                    .longType()
+                    .defaultValue(0L)
+                    .withDescription(
+                            "The max number of lookup keys whose looked up rows are cached by each task of a "
+                                    + "lookup join, for both sync and async lookup functions. The cache is bounded "
+                                    + "by keys rather than rows, all rows looked up for a key are cached together, "
+                                    + "and keys without any matching row are cached as well. The least recently "
+                                    + "used keys are evicted first. The cached rows may be stale for up to "
+                                    + "'table.exec.lookup.cache.ttl'. Only lookup sources which opt in via "
+                                    + "LookupTableSource#supportsLookupCache are cached, so that sources with "
+                                    + "their own cache, e.g. JDBC and HBase, do not cache rows twice. Only "
+                                    + "looked up keys are cached, a full cache of the dimension table with "
+                                    + "periodic reload and refreshing entries ahead of their expiration are not "
+                                    + "supported. 0 disables the cache.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<Duration> TABLE_EXEC_LOOKUP_CACHE_TTL =
+            key("table.exec.lookup.cache.ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofMinutes(10))
+                    .withDescription(
+                            "The time after which the rows cached by a lookup join expire and are looked "
+                                    + "up again, see 'table.exec.lookup.cache.max-keys'.");
+
+    // ------------------------------------------------------------------------
+    //  User-defined Function Options
+    // ------------------------------------------------------------------------
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<Integer> TABLE_EXEC_UDF_RESULT_CACHE_MAX_ROWS =
+            key("table.exec.udf.result-cache.max-rows")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "The max number of distinct arguments whose results are cached per call of "
+                                    + "a deterministic user-defined scalar function in a projection or filter "
+                                    + "(Calc operator) by each task, so that "
+                                    + "the function is not called again for recently seen arguments. This "
+                                    + "helps for expensive functions which are called with repeated "
+                                    + "arguments. The least recently used arguments are evicted first, and "
+                                    + "the hits and misses of each cache are reported as metrics. 0 disables "
+                                    + "the cache.");
+
+    // ------------------------------------------------------------------------
+    //  Join Options
+    // ------------------------------------------------------------------------
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_JOIN_STATE_RECORD_COUNT_ENABLED =
+            key("table.exec.join.state-record-count.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the regular streaming join keeps the number of records "
+                                    + "per join key in an additional state for input sides without a unique key. "
+                                    + "This allows to skip scanning the join state when there are no records "
+                                    + "under a join key, and to stop the scan after the counted records. It costs "
+                                    + "one more state read and write per input record and one more state read "
+                                    + "per probe, so it only pays off if probes often find no or few records. "
+                                    + "The scan is only skipped if the numbers have been kept since the job "
+                                    + "started without a savepoint, a job restored from a savepoint taken "
+                                    + "without this option always scans the join state.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_INTERVAL_JOIN_BUCKETED_STATE_ENABLED =
+            key("table.exec.interval-join.bucketed-state.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the interval join indexes the cached rows of both "
+                                    + "inputs by time buckets in an additional state. A row is then only "
+                                    + "joined with the cached rows in the buckets of its join window, and the "
+                                    + "expired rows are found by their buckets, instead of iterating over all "
+                                    + "cached rows of the join key. This helps for large join windows. The "
+                                    + "option can be enabled when restoring from a savepoint, but must not be "
+                                    + "disabled afterwards.");
+
     // ------------------------------------------------------------------------
     //  MiniBatch Options
     // ------------------------------------------------------------------------
@@ -325,6 +467,23 @@ public class ExecutionConfigOptions {
                                     + TABLE_EXEC_MINIBATCH_ENABLED.key()
                                     + " is set true, its value must be positive.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_JOIN_MINIBATCH_ENABLED =
+            key("table.exec.join.mini-batch.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the regular streaming join buffers its input records "
+                                    + "in a bundle of at most "
+                                    + TABLE_EXEC_MINIBATCH_SIZE.key()
+                                    + " records before joining them. The accumulate and retract messages "
+                                    + "of the same record in a bundle fold with each other without "
+                                    + "accessing the state, and the other records of a join key are "
+                                    + "joined in their arrival order. This only takes effect if "
+                                    + TABLE_EXEC_MINIBATCH_ENABLED.key()
+                                    + " is set true. NOTE: The records of different join keys in a "
+                                    + "bundle may be joined in a different order than without buffering.");
+
     // ------------------------------------------------------------------------
     //  Other Exec Options
     // ------------------------------------------------------------------------
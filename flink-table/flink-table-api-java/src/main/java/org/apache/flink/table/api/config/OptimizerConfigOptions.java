@@ -55,6 +55,22 @@ public class OptimizerConfigOptions {
                             "Configures the maximum size in bytes for a table that will be broadcast to all worker "
                                     + "nodes when performing a join. By setting this value to -1 to disable broadcasting.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+    public static final ConfigOption<Boolean>
+            TABLE_OPTIMIZER_JOIN_TRANSITIVE_PARTITION_PREDICATES_ENABLED =
+                    key("table.optimizer.join.transitive-partition-predicates-enabled")
+                            .booleanType()
+                            .defaultValue(false)
+                            .withDescription(
+                                    "When it is true, the optimizer derives transitive predicates on the partition "
+                                            + "columns of a partitioned table source from the predicates on the other "
+                                            + "input of an inner or semi join, through the equi-join conditions. For "
+                                            + "example, 'fact.dt = dim.dt AND dim.dt IN (...)' implies 'fact.dt IN (...)', "
+                                            + "so that the partitions of the fact table are pruned statically. This is "
+                                            + "not dynamic partition pruning: only predicates known at planning time are "
+                                            + "derived, the partitions are not pruned by the values which the other input "
+                                            + "produces at runtime. Default value is false.");
+
     @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
     public static final ConfigOption<Boolean> TABLE_OPTIMIZER_DISTINCT_AGG_SPLIT_ENABLED =
             key("table.optimizer.distinct-agg.split.enabled")
@@ -114,4 +130,18 @@ public class OptimizerConfigOptions {
                     .withDescription(
                             "When it is true, the optimizer will merge the operators with pipelined shuffling "
                                     + "into a multiple input operator to reduce shuffling and improve performance. Default value is true.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_OPTIMIZER_STREAMING_UNION_FUSION_ENABLED =
+            key("table.optimizer.streaming-union-fusion-enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "When it is true, the optimizer will fuse a union of several inputs in a streaming job "
+                                    + "together with the stateless operators around it (calc, correlate, expand and "
+                                    + "dropping update before messages) into a multiple input operator, as they can't "
+                                    + "be chained with more than one input otherwise. This avoids serializing records "
+                                    + "between them. Only stateless operators are fused, stateful operators such as "
+                                    + "joins and aggregations are never fused, as their state would not be part of the "
+                                    + "snapshots of the multiple input operator. Default value is false.");
 }
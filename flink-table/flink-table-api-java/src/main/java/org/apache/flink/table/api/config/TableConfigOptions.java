@@ -21,6 +21,7 @@ package org.apache.flink.table.api.config;
 import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.annotation.docs.Documentation;
 import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.table.api.PlannerType;
 import org.apache.flink.table.api.SqlDialect;
 
@@ -108,4 +109,57 @@ public class TableConfigOptions {
                     .defaultValue(10000)
                     .withDescription(
                             "Specifies a threshold where class members of generated code will be grouped into arrays by types.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<Integer> COLUMN_GROUP_SIZE_GENERATED_CODE =
+            key("table.generated-code.column-group-size")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "Specifies the number of output columns of a projection which are "
+                                    + "evaluated by one generated method. Projections with more "
+                                    + "columns are generated as one method per group of columns "
+                                    + "which writes into the reused output row, instead of a single "
+                                    + "method which is split at arbitrary points when it exceeds "
+                                    + "'table.generated-code.max-length'. This keeps the methods of "
+                                    + "wide projections small enough to be compiled and inlined by "
+                                    + "the JIT. Default value is 0, which means that projections are "
+                                    + "not grouped.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<Boolean> COMMON_SUB_EXPRESSION_ELIMINATION_GENERATED_CODE =
+            key("table.generated-code.common-sub-expression-elimination.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the deterministic sub-expressions which occur "
+                                    + "more than once in the projection and filter of a calc are "
+                                    + "evaluated at most once per record. Each common sub-expression "
+                                    + "is generated as a method which is called when its result is "
+                                    + "first needed, and the result is reused by the other "
+                                    + "occurrences. This helps for expensive function calls which "
+                                    + "are repeated in several columns or in both the filter and "
+                                    + "the projection.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<String> COMPILED_CACHE_DIR_GENERATED_CODE =
+            key("table.generated-code.compiled-cache.dir")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Specifies a local directory on the TaskManagers where the byte code of compiled generated classes is cached. "
+                                    + "The byte code is keyed by a hash of the generated code, the Flink and Janino versions and the contents "
+                                    + "of the jars on the class path, so that tasks, restarted tasks and other jobs running on the same machine "
+                                    + "load the classes instead of compiling the same code again. Each cached file is verified by its digest "
+                                    + "before it is loaded. The directory is created if it does not exist. "
+                                    + "By default, compiled classes are only cached in memory.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+    public static final ConfigOption<MemorySize> COMPILED_CACHE_MAX_SIZE_GENERATED_CODE =
+            key("table.generated-code.compiled-cache.max-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("256 mb"))
+                    .withDescription(
+                            "Specifies the maximum total size of the byte code cached in 'table.generated-code.compiled-cache.dir'. "
+                                    + "When a newly compiled class exceeds it, the least recently used files are deleted from the directory.");
 }
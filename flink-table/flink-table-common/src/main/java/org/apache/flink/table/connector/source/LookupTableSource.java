@@ -61,6 +61,17 @@ public interface LookupTableSource extends DynamicTableSource {
      */
     LookupRuntimeProvider getLookupRuntimeProvider(LookupContext context);
 
+    /**
+     * Returns whether the lookup join may cache the rows looked up from this source, see {@code
+     * table.exec.lookup.cache.max-keys}.
+     *
+     * <p>Sources whose runtime implementation already caches looked up rows should not opt in, so
+     * that the rows are not cached twice. By default, a source does not opt in.
+     */
+    default boolean supportsLookupCache() {
+        return false;
+    }
+
     // --------------------------------------------------------------------------------------------
     // Helper interfaces
     // --------------------------------------------------------------------------------------------
@@ -54,6 +54,7 @@ import org.apache.flink.table.planner.plan.nodes.exec.SingleTransformationTransl
 import org.apache.flink.table.planner.plan.nodes.exec.spec.TemporalTableSourceSpec;
 import org.apache.flink.table.planner.plan.schema.LegacyTableSourceTable;
 import org.apache.flink.table.planner.plan.schema.TableSourceTable;
+import org.apache.flink.table.planner.plan.utils.KeySelectorUtil;
 import org.apache.flink.table.planner.plan.utils.LookupJoinUtil;
 import org.apache.flink.table.planner.utils.JavaScalaConversionUtil;
 import org.apache.flink.table.planner.utils.ShortcutUtils;
@@ -65,12 +66,14 @@ import org.apache.flink.table.runtime.generated.GeneratedResultFuture;
 import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinWithCalcRunner;
+import org.apache.flink.table.runtime.operators.join.lookup.LookupCache;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinWithCalcRunner;
 import org.apache.flink.table.runtime.types.PlannerTypeUtils;
 import org.apache.flink.table.runtime.types.TypeInfoDataTypeConverter;
 import org.apache.flink.table.runtime.typeutils.InternalSerializers;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.table.sources.LookupableTableSource;
 import org.apache.flink.table.sources.TableSource;
 import org.apache.flink.table.types.logical.LogicalType;
@@ -89,6 +92,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -355,6 +359,9 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
 
         DataStructureConverter<?, ?> fetcherConverter =
                 DataStructureConverters.getConverter(generatedFuncWithType.dataType());
+        LookupCache lookupCache =
+                createLookupCache(
+                        temporalTable, config, allLookupKeys, inputRowType, tableSourceRowType);
         AsyncFunction<RowData, RowData> asyncFunc;
         if (existCalcOnTemporalTable) {
             // a projection or filter after table source scan
@@ -373,7 +380,8 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
                             generatedResultFuture,
                             InternalSerializers.create(rightRowType),
                             isLeftOuterJoin,
-                            asyncBufferCapacity);
+                            asyncBufferCapacity,
+                            lookupCache);
         } else {
             // right type is the same as table source row type, because no calc after temporal table
             asyncFunc =
@@ -383,7 +391,8 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
                             generatedResultFuture,
                             InternalSerializers.create(rightRowType),
                             isLeftOuterJoin,
-                            asyncBufferCapacity);
+                            asyncBufferCapacity,
+                            lookupCache);
         }
 
         // force ORDERED output mode currently, optimize it to UNORDERED
@@ -436,6 +445,9 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
                         JavaScalaConversionUtil.toScala(Optional.ofNullable(joinCondition)),
                         JavaScalaConversionUtil.toScala(Optional.empty()),
                         true);
+        LookupCache lookupCache =
+                createLookupCache(
+                        temporalTable, config, allLookupKeys, inputRowType, tableSourceRowType);
         ProcessFunction<RowData, RowData> processFunc;
         if (existCalcOnTemporalTable) {
             // a projection or filter after table source scan
@@ -453,7 +465,8 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
                             generatedCalc,
                             generatedCollector,
                             isLeftOuterJoin,
-                            rightRowType.getFieldCount());
+                            rightRowType.getFieldCount(),
+                            lookupCache);
         } else {
             // right type is the same as table source row type, because no calc after temporal table
             processFunc =
@@ -461,11 +474,54 @@ public abstract class CommonExecLookupJoin extends ExecNodeBase<RowData>
                             generatedFetcher,
                             generatedCollector,
                             isLeftOuterJoin,
-                            rightRowType.getFieldCount());
+                            rightRowType.getFieldCount(),
+                            lookupCache);
         }
         return SimpleOperatorFactory.of(new ProcessOperator<>(processFunc));
     }
 
+    /**
+     * Creates the cache of looked up rows if it is enabled and the lookup source opts in. The rows
+     * are cached by the input fields of the lookup keys, as constant lookup keys are the same for
+     * all input rows.
+     */
+    private @Nullable LookupCache createLookupCache(
+            RelOptTable temporalTable,
+            TableConfig config,
+            Map<Integer, LookupJoinUtil.LookupKey> allLookupKeys,
+            RowType inputRowType,
+            RowType tableSourceRowType) {
+        long maxKeys =
+                config.getConfiguration()
+                        .getLong(ExecutionConfigOptions.TABLE_EXEC_LOOKUP_CACHE_MAX_KEYS);
+        if (maxKeys <= 0 || !supportsLookupCache(temporalTable)) {
+            return null;
+        }
+        long ttlMillis =
+                config.getConfiguration()
+                        .get(ExecutionConfigOptions.TABLE_EXEC_LOOKUP_CACHE_TTL)
+                        .toMillis();
+        int[] inputKeys =
+                Arrays.stream(LookupJoinUtil.getOrderedLookupKeys(allLookupKeys.keySet()))
+                        .mapToObj(allLookupKeys::get)
+                        .filter(key -> key instanceof LookupJoinUtil.FieldRefLookupKey)
+                        .mapToInt(key -> ((LookupJoinUtil.FieldRefLookupKey) key).index)
+                        .toArray();
+        return new LookupCache(
+                KeySelectorUtil.getRowDataSelector(inputKeys, InternalTypeInfo.of(inputRowType)),
+                new RowDataSerializer(tableSourceRowType),
+                maxKeys,
+                ttlMillis);
+    }
+
+    private static boolean supportsLookupCache(RelOptTable temporalTable) {
+        // legacy lookupable table sources cannot opt in
+        return temporalTable instanceof TableSourceTable
+                && ((TableSourceTable) temporalTable).tableSource() instanceof LookupTableSource
+                && ((LookupTableSource) ((TableSourceTable) temporalTable).tableSource())
+                        .supportsLookupCache();
+    }
+
     // ----------------------------------------------------------------------------------------
     //                                       Validation
     // ----------------------------------------------------------------------------------------
@@ -19,6 +19,7 @@
 package org.apache.flink.table.planner.plan.nodes.exec.common;
 
 import org.apache.flink.api.common.io.OutputFormat;
+import org.apache.flink.api.common.state.StateTtlConfig;
 import org.apache.flink.api.dag.Transformation;
 import org.apache.flink.api.java.typeutils.InputTypeConfigurable;
 import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
@@ -26,6 +27,7 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.streaming.api.functions.sink.OutputFormatSinkFunction;
 import org.apache.flink.streaming.api.functions.sink.SinkFunction;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.api.operators.SimpleOperatorFactory;
 import org.apache.flink.streaming.api.operators.StreamFilter;
 import org.apache.flink.streaming.api.transformations.LegacySinkTransformation;
@@ -46,7 +48,9 @@ import org.apache.flink.table.connector.sink.OutputFormatProvider;
 import org.apache.flink.table.connector.sink.SinkFunctionProvider;
 import org.apache.flink.table.connector.sink.SinkProvider;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.planner.codegen.CodeGeneratorContext;
 import org.apache.flink.table.planner.codegen.EqualiserCodeGenerator;
+import org.apache.flink.table.planner.codegen.HashCodeGenerator;
 import org.apache.flink.table.planner.connectors.TransformationSinkProvider;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeBase;
@@ -55,15 +59,19 @@ import org.apache.flink.table.planner.plan.nodes.exec.MultipleTransformationTran
 import org.apache.flink.table.planner.plan.nodes.exec.spec.DynamicTableSinkSpec;
 import org.apache.flink.table.planner.plan.utils.KeySelectorUtil;
 import org.apache.flink.table.runtime.connector.sink.SinkRuntimeProviderContext;
+import org.apache.flink.table.runtime.generated.GeneratedHashFunction;
 import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.sink.IndexedSinkUpsertMaterializer;
 import org.apache.flink.table.runtime.operators.sink.SinkNotNullEnforcer;
 import org.apache.flink.table.runtime.operators.sink.SinkOperator;
 import org.apache.flink.table.runtime.operators.sink.SinkUpsertMaterializer;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.table.runtime.util.StateConfigUtil;
 import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
 import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.utils.LogicalTypeChecks;
 import org.apache.flink.types.RowKind;
 
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnore;
@@ -72,6 +80,7 @@ import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonPro
 import javax.annotation.Nullable;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -87,6 +96,14 @@ public abstract class CommonExecSink extends ExecNodeBase<Object>
 
     public static final String FIELD_NAME_DYNAMIC_TABLE_SINK = "dynamicTableSink";
 
+    // types which no hash code can be generated for
+    private static final EnumSet<LogicalTypeRoot> UNHASHABLE_TYPE_ROOTS =
+            EnumSet.of(
+                    LogicalTypeRoot.TIMESTAMP_WITH_TIME_ZONE,
+                    LogicalTypeRoot.ARRAY,
+                    LogicalTypeRoot.MULTISET,
+                    LogicalTypeRoot.MAP);
+
     @JsonProperty(FIELD_NAME_DYNAMIC_TABLE_SINK)
     protected final DynamicTableSinkSpec tableSinkSpec;
 
@@ -166,12 +183,39 @@ public abstract class CommonExecSink extends ExecNodeBase<Object>
                 GeneratedRecordEqualiser equaliser =
                         new EqualiserCodeGenerator(physicalRowType)
                                 .generateRecordEqualiser("SinkMaterializeEqualiser");
-                SinkUpsertMaterializer operator =
-                        new SinkUpsertMaterializer(
-                                StateConfigUtil.createTtlConfig(
-                                        tableConfig.getIdleStateRetention().toMillis()),
-                                InternalTypeInfo.of(physicalRowType).toSerializer(),
-                                equaliser);
+                StateTtlConfig ttlConfig =
+                        StateConfigUtil.createTtlConfig(
+                                tableConfig.getIdleStateRetention().toMillis());
+                final OneInputStreamOperator<RowData, RowData> operator;
+                // the records are hashed by the fields which a hash code can be generated for,
+                // records which are equal are equal in these fields as well
+                final int[] hashFields = getHashableFieldIndices(physicalRowType);
+                final boolean indexedState =
+                        tableConfig
+                                .getConfiguration()
+                                .getBoolean(
+                                        ExecutionConfigOptions
+                                                .TABLE_EXEC_SINK_UPSERT_MATERIALIZE_INDEXED_STATE);
+                if (indexedState && hashFields.length > 0) {
+                    GeneratedHashFunction hashFunction =
+                            HashCodeGenerator.generateRowHash(
+                                    new CodeGeneratorContext(tableConfig),
+                                    physicalRowType,
+                                    "SinkMaterializeHashFunction",
+                                    hashFields);
+                    operator =
+                            new IndexedSinkUpsertMaterializer(
+                                    ttlConfig,
+                                    InternalTypeInfo.of(physicalRowType).toSerializer(),
+                                    equaliser,
+                                    hashFunction);
+                } else {
+                    operator =
+                            new SinkUpsertMaterializer(
+                                    ttlConfig,
+                                    InternalTypeInfo.of(physicalRowType).toSerializer(),
+                                    equaliser);
+                }
                 OneInputTransformation<RowData, RowData> materializeTransform =
                         new OneInputTransformation<>(
                                 inputTransform,
@@ -322,6 +366,20 @@ public abstract class CommonExecSink extends ExecNodeBase<Object>
         }
     }
 
+    /**
+     * Returns the indices of the fields of the given row type which a hash code can be generated
+     * for, see {@link HashCodeGenerator}.
+     */
+    private static int[] getHashableFieldIndices(RowType rowType) {
+        return IntStream.range(0, rowType.getFieldCount())
+                .filter(
+                        i ->
+                                !LogicalTypeChecks.hasNested(
+                                        rowType.getTypeAt(i),
+                                        t -> UNHASHABLE_TYPE_ROOTS.contains(t.getTypeRoot())))
+                .toArray();
+    }
+
     private int[] getPrimaryKeyIndices(RowType sinkRowType, @Nullable UniqueConstraint primaryKey) {
         if (primaryKey == null) {
             return new int[0];
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.exec.processor;
+
+import org.apache.flink.table.catalog.ResolvedSchema;
+import org.apache.flink.table.catalog.UniqueConstraint;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeGraph;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecChangelogNormalize;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecSink;
+import org.apache.flink.table.planner.plan.nodes.exec.visitor.AbstractExecNodeExactlyOnceVisitor;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link ExecNodeGraphProcessor} which lets a {@link StreamExecChangelogNormalize} keep only the
+ * existence of each key in state, if its output is only written into an upsert sink with the same
+ * primary key. See {@link StreamExecChangelogNormalize#setKeyOnlyState(boolean)}.
+ *
+ * <p>The DELETE messages may then only contain the key parts (e.g. Kafka tombstone records), so the
+ * sink must not have NOT NULL constraints on other columns than the primary key.
+ */
+public class ChangelogNormalizeKeyOnlyStateProcessor implements ExecNodeGraphProcessor {
+
+    @Override
+    public ExecNodeGraph process(ExecNodeGraph execGraph, ProcessorContext context) {
+        Map<ExecNode<?>, Integer> numConsumers = new HashMap<>();
+        List<StreamExecSink> sinks = new ArrayList<>();
+        AbstractExecNodeExactlyOnceVisitor visitor =
+                new AbstractExecNodeExactlyOnceVisitor() {
+                    @Override
+                    protected void visitNode(ExecNode<?> node) {
+                        if (node instanceof StreamExecSink) {
+                            sinks.add((StreamExecSink) node);
+                        }
+                        for (ExecEdge edge : node.getInputEdges()) {
+                            numConsumers.merge(edge.getSource(), 1, Integer::sum);
+                        }
+                        visitInputs(node);
+                    }
+                };
+        execGraph.getRootNodes().forEach(r -> r.accept(visitor));
+
+        for (StreamExecSink sink : sinks) {
+            ExecNode<?> input = sink.getInputEdges().get(0).getSource();
+            if (input instanceof StreamExecChangelogNormalize && numConsumers.get(input) == 1) {
+                StreamExecChangelogNormalize changelogNormalize =
+                        (StreamExecChangelogNormalize) input;
+                if (isKeyOnlyStateSupported(changelogNormalize, sink)) {
+                    changelogNormalize.setKeyOnlyState(true);
+                }
+            }
+        }
+        return execGraph;
+    }
+
+    private static boolean isKeyOnlyStateSupported(
+            StreamExecChangelogNormalize changelogNormalize, StreamExecSink sink) {
+        if (changelogNormalize.isGenerateUpdateBefore() || sink.isUpsertMaterialize()) {
+            return false;
+        }
+        ResolvedSchema schema = sink.getTableSinkSpec().getCatalogTable().getResolvedSchema();
+        Optional<UniqueConstraint> primaryKey = schema.getPrimaryKey();
+        if (!primaryKey.isPresent()) {
+            return false;
+        }
+
+        // the input of the sink starts with the physical columns of the sink
+        RowType physicalRowType = (RowType) schema.toPhysicalRowDataType().getLogicalType();
+        List<String> fieldNames = physicalRowType.getFieldNames();
+        Set<Integer> primaryKeyIndices =
+                primaryKey.get().getColumns().stream()
+                        .map(fieldNames::indexOf)
+                        .collect(Collectors.toSet());
+        Set<Integer> uniqueKeyIndices =
+                IntStream.of(changelogNormalize.getUniqueKeys())
+                        .boxed()
+                        .collect(Collectors.toSet());
+        if (!primaryKeyIndices.equals(uniqueKeyIndices)) {
+            return false;
+        }
+
+        // the NOT NULL enforcer of the sink would reject DELETE messages which only contain keys
+        for (int i = 0; i < physicalRowType.getFieldCount(); i++) {
+            if (!primaryKeyIndices.contains(i) && !physicalRowType.getTypeAt(i).isNullable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
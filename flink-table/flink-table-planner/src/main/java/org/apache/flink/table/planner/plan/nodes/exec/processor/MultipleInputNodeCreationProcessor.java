@@ -23,6 +23,7 @@ import org.apache.flink.api.dag.Transformation;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.streaming.api.transformations.SourceTransformation;
 import org.apache.flink.streaming.api.transformations.StreamExchangeMode;
+import org.apache.flink.table.api.config.OptimizerConfigOptions;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeGraph;
@@ -34,7 +35,11 @@ import org.apache.flink.table.planner.plan.nodes.exec.common.CommonExecTableSour
 import org.apache.flink.table.planner.plan.nodes.exec.common.CommonExecUnion;
 import org.apache.flink.table.planner.plan.nodes.exec.processor.utils.InputOrderCalculator;
 import org.apache.flink.table.planner.plan.nodes.exec.processor.utils.InputPriorityConflictResolver;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecCalc;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecCorrelate;
 import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecDataStreamScan;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecDropUpdateBefore;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecExpand;
 import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecMultipleInput;
 import org.apache.flink.table.planner.plan.nodes.exec.utils.ExecNodeUtil;
 import org.apache.flink.table.planner.plan.nodes.exec.visitor.AbstractExecNodeExactlyOnceVisitor;
@@ -187,10 +192,28 @@ public class MultipleInputNodeCreationProcessor implements ExecNodeGraphProcesso
             // exchange cannot be a member of multiple input node
             return false;
         }
+        if (isStreaming && !isStatelessStreamNode(wrapper.execNode)) {
+            // the state of the sub-operators is not part of the snapshots of a streaming multiple
+            // input operator
+            return false;
+        }
 
         return true;
     }
 
+    /**
+     * Returns whether the given node can be fused in streaming mode, see {@link
+     * OptimizerConfigOptions#TABLE_OPTIMIZER_STREAMING_UNION_FUSION_ENABLED}. Only unions and the
+     * stateless nodes around them are fused, joins and aggregations are never members.
+     */
+    private static boolean isStatelessStreamNode(ExecNode<?> node) {
+        return node instanceof StreamExecCalc
+                || node instanceof StreamExecCorrelate
+                || node instanceof StreamExecExpand
+                || node instanceof StreamExecDropUpdateBefore
+                || node instanceof CommonExecUnion;
+    }
+
     /**
      * A node can only be assigned into the same multiple input group of its outputs if all outputs
      * have a group and are the same.
@@ -220,7 +243,18 @@ public class MultipleInputNodeCreationProcessor implements ExecNodeGraphProcesso
     private boolean canBeRootOfMultipleInputGroup(ExecNodeWrapper wrapper) {
         // only a node with more than one input can be the root,
         // as one-input operator chaining are handled by operator chains
-        return wrapper.inputs.size() >= 2;
+        if (wrapper.inputs.size() >= 2) {
+            return true;
+        }
+        // in streaming mode, a one-input node consuming a union can also be the root, as it can't
+        // be chained with the inputs of the union by operator chains
+        return isStreaming && isConsumingUnion(wrapper);
+    }
+
+    private boolean isConsumingUnion(ExecNodeWrapper wrapper) {
+        return wrapper.inputs.size() == 1
+                && wrapper.inputs.get(0).execNode instanceof CommonExecUnion
+                && wrapper.inputs.get(0).inputs.size() >= 2;
     }
 
     // --------------------------------------------------------------------------------
@@ -379,8 +413,13 @@ public class MultipleInputNodeCreationProcessor implements ExecNodeGraphProcesso
                 }
             } else if (wrapper.inputs.size() == 1) {
                 // optimization 6. operators with only 1 input are not allowed to be the root,
-                // as their chaining will be handled by operator chains.
-                wrapper.group.removeRoot();
+                // as their chaining will be handled by operator chains. In streaming mode, the
+                // root may consume a union of the same group, see canBeRootOfMultipleInputGroup.
+                if (!isStreaming
+                        || !isConsumingUnion(wrapper)
+                        || wrapper.inputs.get(0).group != group) {
+                    wrapper.group.removeRoot();
+                }
             }
         }
     }
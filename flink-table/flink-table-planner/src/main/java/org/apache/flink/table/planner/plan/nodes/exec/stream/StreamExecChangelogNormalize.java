@@ -39,6 +39,7 @@ import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
 import org.apache.flink.table.runtime.operators.bundle.KeyedMapBundleOperator;
 import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.runtime.operators.deduplicate.KeyOnlyChangelogNormalizeFunction;
 import org.apache.flink.table.runtime.operators.deduplicate.ProcTimeDeduplicateKeepLastRowFunction;
 import org.apache.flink.table.runtime.operators.deduplicate.ProcTimeMiniBatchDeduplicateKeepLastRowFunction;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
@@ -46,6 +47,7 @@ import org.apache.flink.table.types.logical.RowType;
 
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonCreator;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonInclude;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Collections;
@@ -56,6 +58,9 @@ import java.util.List;
  * changelog stream containing duplicate events. This node normalize such stream into a regular
  * changelog stream that contains INSERT/UPDATE_BEFORE/UPDATE_AFTER/DELETE records without
  * duplication.
+ *
+ * <p>If the normalized changelog is only consumed by an upsert sink with the same primary key, the
+ * node can keep only the existence of each key in state, see {@link #setKeyOnlyState(boolean)}.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
@@ -63,6 +68,7 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
 
     public static final String FIELD_NAME_UNIQUE_KEYS = "uniqueKeys";
     public static final String FIELD_NAME_GENERATE_UPDATE_BEFORE = "generateUpdateBefore";
+    public static final String FIELD_NAME_KEY_ONLY_STATE = "keyOnlyState";
 
     @JsonProperty(FIELD_NAME_UNIQUE_KEYS)
     private final int[] uniqueKeys;
@@ -70,6 +76,10 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
     @JsonProperty(FIELD_NAME_GENERATE_UPDATE_BEFORE)
     private final boolean generateUpdateBefore;
 
+    @JsonProperty(FIELD_NAME_KEY_ONLY_STATE)
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean keyOnlyState;
+
     public StreamExecChangelogNormalize(
             int[] uniqueKeys,
             boolean generateUpdateBefore,
@@ -79,6 +89,7 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
         this(
                 uniqueKeys,
                 generateUpdateBefore,
+                false,
                 getNewNodeId(),
                 Collections.singletonList(inputProperty),
                 outputType,
@@ -89,6 +100,7 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
     public StreamExecChangelogNormalize(
             @JsonProperty(FIELD_NAME_UNIQUE_KEYS) int[] uniqueKeys,
             @JsonProperty(FIELD_NAME_GENERATE_UPDATE_BEFORE) boolean generateUpdateBefore,
+            @JsonProperty(FIELD_NAME_KEY_ONLY_STATE) boolean keyOnlyState,
             @JsonProperty(FIELD_NAME_ID) int id,
             @JsonProperty(FIELD_NAME_INPUT_PROPERTIES) List<InputProperty> inputProperties,
             @JsonProperty(FIELD_NAME_OUTPUT_TYPE) RowType outputType,
@@ -96,6 +108,24 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
         super(id, inputProperties, outputType, description);
         this.uniqueKeys = uniqueKeys;
         this.generateUpdateBefore = generateUpdateBefore;
+        this.keyOnlyState = keyOnlyState;
+    }
+
+    public int[] getUniqueKeys() {
+        return uniqueKeys;
+    }
+
+    public boolean isGenerateUpdateBefore() {
+        return generateUpdateBefore;
+    }
+
+    /**
+     * Sets whether only the existence of each key is kept in state instead of the last row. The
+     * DELETE messages then only contain the content of the input DELETE messages, so this must only
+     * be set if the downstream only requires the key parts of DELETE messages.
+     */
+    public void setKeyOnlyState(boolean keyOnlyState) {
+        this.keyOnlyState = keyOnlyState;
     }
 
     @SuppressWarnings("unchecked")
@@ -119,7 +149,11 @@ public class StreamExecChangelogNormalize extends ExecNodeBase<RowData>
                 new EqualiserCodeGenerator(rowTypeInfo.toRowType())
                         .generateRecordEqualiser("DeduplicateRowEqualiser");
 
-        if (isMiniBatchEnabled) {
+        if (keyOnlyState) {
+            KeyOnlyChangelogNormalizeFunction processFunction =
+                    new KeyOnlyChangelogNormalizeFunction(stateIdleTime);
+            operator = new KeyedProcessOperator<>(processFunction);
+        } else if (isMiniBatchEnabled) {
             TypeSerializer<RowData> rowSerializer =
                     rowTypeInfo.createSerializer(planner.getExecEnv().getConfig());
             ProcTimeMiniBatchDeduplicateKeepLastRowFunction processFunction =
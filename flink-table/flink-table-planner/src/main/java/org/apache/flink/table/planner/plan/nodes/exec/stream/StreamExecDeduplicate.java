@@ -246,6 +246,13 @@ public class StreamExecDeduplicate extends ExecNodeBase<RowData>
             return tableConfig.getMinIdleStateRetentionTime();
         }
 
+        protected long getStateCacheBytes() {
+            return tableConfig
+                    .getConfiguration()
+                    .get(ExecutionConfigOptions.TABLE_EXEC_STATE_CACHE_SIZE)
+                    .getBytes();
+        }
+
         protected long getMiniBatchSize() {
             if (isMiniBatchEnabled()) {
                 long size =
@@ -325,8 +332,12 @@ public class StreamExecDeduplicate extends ExecNodeBase<RowData>
                                 rowtimeIndex,
                                 generateUpdateBefore,
                                 generateInsert(),
-                                keepLastRow);
-                return new KeyedProcessOperator<>(processFunction);
+                                keepLastRow,
+                                getStateCacheBytes());
+                KeyedProcessOperator<RowData, RowData, RowData> operator =
+                        new KeyedProcessOperator<>(processFunction);
+                processFunction.setKeyContext(operator);
+                return operator;
             }
         }
     }
@@ -213,8 +213,15 @@ public class StreamExecGroupAggregate extends StreamExecAggregateBase {
                             accTypes,
                             inputCountIndex,
                             generateUpdateBefore,
-                            tableConfig.getIdleStateRetention().toMillis());
-            operator = new KeyedProcessOperator<>(aggFunction);
+                            tableConfig.getIdleStateRetention().toMillis(),
+                            tableConfig
+                                    .getConfiguration()
+                                    .get(ExecutionConfigOptions.TABLE_EXEC_STATE_CACHE_SIZE)
+                                    .getBytes());
+            KeyedProcessOperator<RowData, RowData, RowData> processOperator =
+                    new KeyedProcessOperator<>(aggFunction);
+            aggFunction.setKeyContext(processOperator);
+            operator = processOperator;
         }
 
         // partitioned aggregation
@@ -30,6 +30,7 @@ import org.apache.flink.streaming.api.transformations.OneInputTransformation;
 import org.apache.flink.streaming.api.transformations.TwoInputTransformation;
 import org.apache.flink.streaming.api.transformations.UnionTransformation;
 import org.apache.flink.table.api.TableException;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.delegation.PlannerBase;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
@@ -116,6 +117,12 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
         InternalTypeInfo<RowData> returnTypeInfo = InternalTypeInfo.of(returnType);
         JoinSpec joinSpec = intervalJoinSpec.getJoinSpec();
         IntervalJoinSpec.WindowBounds windowBounds = intervalJoinSpec.getWindowBounds();
+        boolean bucketedState =
+                planner.getTableConfig()
+                        .getConfiguration()
+                        .getBoolean(
+                                ExecutionConfigOptions
+                                        .TABLE_EXEC_INTERVAL_JOIN_BUCKETED_STATE_ENABLED);
         switch (joinSpec.getJoinType()) {
             case INNER:
             case LEFT:
@@ -152,7 +159,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
                                         returnTypeInfo,
                                         joinFunction,
                                         joinSpec,
-                                        windowBounds);
+                                        windowBounds,
+                                        bucketedState);
                     } else {
                         transform =
                                 createProcTimeJoin(
@@ -161,7 +169,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
                                         returnTypeInfo,
                                         joinFunction,
                                         joinSpec,
-                                        windowBounds);
+                                        windowBounds,
+                                        bucketedState);
                     }
 
                     if (inputsContainSingleton()) {
@@ -331,7 +340,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
             InternalTypeInfo<RowData> returnTypeInfo,
             IntervalJoinFunction joinFunction,
             JoinSpec joinSpec,
-            IntervalJoinSpec.WindowBounds windowBounds) {
+            IntervalJoinSpec.WindowBounds windowBounds,
+            boolean bucketedState) {
         InternalTypeInfo<RowData> leftTypeInfo =
                 (InternalTypeInfo<RowData>) leftInputTransform.getOutputType();
         InternalTypeInfo<RowData> rightTypeInfo =
@@ -343,7 +353,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
                         windowBounds.getLeftUpperBound(),
                         leftTypeInfo,
                         rightTypeInfo,
-                        joinFunction);
+                        joinFunction,
+                        bucketedState);
 
         return new TwoInputTransformation<>(
                 leftInputTransform,
@@ -360,7 +371,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
             InternalTypeInfo<RowData> returnTypeInfo,
             IntervalJoinFunction joinFunction,
             JoinSpec joinSpec,
-            IntervalJoinSpec.WindowBounds windowBounds) {
+            IntervalJoinSpec.WindowBounds windowBounds,
+            boolean bucketedState) {
 
         InternalTypeInfo<RowData> leftTypeInfo =
                 (InternalTypeInfo<RowData>) leftInputTransform.getOutputType();
@@ -376,7 +388,8 @@ public class StreamExecIntervalJoin extends ExecNodeBase<RowData>
                         rightTypeInfo,
                         joinFunction,
                         windowBounds.getLeftTimeIdx(),
-                        windowBounds.getRightTimeIdx());
+                        windowBounds.getRightTimeIdx(),
+                        bucketedState);
 
         return new TwoInputTransformation<>(
                 leftInputTransform,
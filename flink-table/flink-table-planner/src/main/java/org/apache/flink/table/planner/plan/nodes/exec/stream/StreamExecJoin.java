@@ -20,8 +20,10 @@
 package org.apache.flink.table.planner.plan.nodes.exec.stream;
 
 import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.transformations.TwoInputTransformation;
 import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.delegation.PlannerBase;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
@@ -33,8 +35,11 @@ import org.apache.flink.table.planner.plan.utils.JoinUtil;
 import org.apache.flink.table.planner.plan.utils.KeySelectorUtil;
 import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountCoBundleTrigger;
 import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
 import org.apache.flink.table.runtime.operators.join.stream.AbstractStreamingJoinOperator;
+import org.apache.flink.table.runtime.operators.join.stream.MiniBatchStreamingJoinOperator;
+import org.apache.flink.table.runtime.operators.join.stream.MiniBatchStreamingSemiAntiJoinOperator;
 import org.apache.flink.table.runtime.operators.join.stream.StreamingJoinOperator;
 import org.apache.flink.table.runtime.operators.join.stream.StreamingSemiAntiJoinOperator;
 import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
@@ -138,35 +143,80 @@ public class StreamExecJoin extends ExecNodeBase<RowData>
                 JoinUtil.generateConditionFunction(tableConfig, joinSpec, leftType, rightType);
 
         long minRetentionTime = tableConfig.getMinIdleStateRetentionTime();
+        boolean trackRecordCount =
+                tableConfig
+                        .getConfiguration()
+                        .getBoolean(
+                                ExecutionConfigOptions.TABLE_EXEC_JOIN_STATE_RECORD_COUNT_ENABLED);
+
+        Configuration config = tableConfig.getConfiguration();
+        boolean miniBatchEnabled =
+                config.getBoolean(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED)
+                        && config.getBoolean(
+                                ExecutionConfigOptions.TABLE_EXEC_JOIN_MINIBATCH_ENABLED);
+        long miniBatchSize = config.getLong(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_SIZE);
 
         AbstractStreamingJoinOperator operator;
         FlinkJoinType joinType = joinSpec.getJoinType();
         if (joinType == FlinkJoinType.ANTI || joinType == FlinkJoinType.SEMI) {
-            operator =
-                    new StreamingSemiAntiJoinOperator(
-                            joinType == FlinkJoinType.ANTI,
-                            leftTypeInfo,
-                            rightTypeInfo,
-                            generatedCondition,
-                            leftInputSpec,
-                            rightInputSpec,
-                            joinSpec.getFilterNulls(),
-                            minRetentionTime);
+            if (miniBatchEnabled) {
+                operator =
+                        new MiniBatchStreamingSemiAntiJoinOperator(
+                                joinType == FlinkJoinType.ANTI,
+                                leftTypeInfo,
+                                rightTypeInfo,
+                                generatedCondition,
+                                leftInputSpec,
+                                rightInputSpec,
+                                joinSpec.getFilterNulls(),
+                                minRetentionTime,
+                                trackRecordCount,
+                                new CountCoBundleTrigger<>(miniBatchSize));
+            } else {
+                operator =
+                        new StreamingSemiAntiJoinOperator(
+                                joinType == FlinkJoinType.ANTI,
+                                leftTypeInfo,
+                                rightTypeInfo,
+                                generatedCondition,
+                                leftInputSpec,
+                                rightInputSpec,
+                                joinSpec.getFilterNulls(),
+                                minRetentionTime,
+                                trackRecordCount);
+            }
         } else {
             boolean leftIsOuter = joinType == FlinkJoinType.LEFT || joinType == FlinkJoinType.FULL;
             boolean rightIsOuter =
                     joinType == FlinkJoinType.RIGHT || joinType == FlinkJoinType.FULL;
-            operator =
-                    new StreamingJoinOperator(
-                            leftTypeInfo,
-                            rightTypeInfo,
-                            generatedCondition,
-                            leftInputSpec,
-                            rightInputSpec,
-                            leftIsOuter,
-                            rightIsOuter,
-                            joinSpec.getFilterNulls(),
-                            minRetentionTime);
+            if (miniBatchEnabled) {
+                operator =
+                        new MiniBatchStreamingJoinOperator(
+                                leftTypeInfo,
+                                rightTypeInfo,
+                                generatedCondition,
+                                leftInputSpec,
+                                rightInputSpec,
+                                leftIsOuter,
+                                rightIsOuter,
+                                joinSpec.getFilterNulls(),
+                                minRetentionTime,
+                                trackRecordCount,
+                                new CountCoBundleTrigger<>(miniBatchSize));
+            } else {
+                operator =
+                        new StreamingJoinOperator(
+                                leftTypeInfo,
+                                rightTypeInfo,
+                                generatedCondition,
+                                leftInputSpec,
+                                rightInputSpec,
+                                leftIsOuter,
+                                rightIsOuter,
+                                joinSpec.getFilterNulls(),
+                                minRetentionTime,
+                                trackRecordCount);
+            }
         }
 
         final RowType returnType = (RowType) getOutputType();
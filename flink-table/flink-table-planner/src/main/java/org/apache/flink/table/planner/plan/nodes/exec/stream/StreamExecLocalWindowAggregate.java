@@ -22,6 +22,7 @@ import org.apache.flink.api.dag.Transformation;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.api.operators.SimpleOperatorFactory;
 import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.codegen.CodeGeneratorContext;
 import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator;
@@ -148,7 +149,13 @@ public class StreamExecLocalWindowAggregate extends StreamExecWindowAggregateBas
 
         WindowBuffer.LocalFactory bufferFactory =
                 new RecordsWindowBuffer.LocalFactory(
-                        keySer, valueSer, new LocalAggCombiner.Factory(generatedAggsHandler));
+                        keySer,
+                        valueSer,
+                        new LocalAggCombiner.Factory(generatedAggsHandler),
+                        config.getConfiguration()
+                                .getBoolean(
+                                        ExecutionConfigOptions
+                                                .TABLE_EXEC_WINDOW_AGG_LOCAL_BUFFER_SPILL_ENABLED));
 
         final OneInputStreamOperator<RowData, RowData> localAggOperator =
                 new LocalSlicingWindowAggOperator(
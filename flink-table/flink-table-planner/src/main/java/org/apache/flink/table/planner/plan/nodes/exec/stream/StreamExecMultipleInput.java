@@ -19,13 +19,25 @@
 package org.apache.flink.table.planner.plan.nodes.exec.stream;
 
 import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.transformations.MultipleInputTransformation;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.delegation.PlannerBase;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeBase;
 import org.apache.flink.table.planner.plan.nodes.exec.InputProperty;
+import org.apache.flink.table.planner.plan.nodes.exec.SingleTransformationTranslator;
+import org.apache.flink.table.runtime.operators.multipleinput.StreamMultipleInputStreamOperatorFactory;
+import org.apache.flink.table.runtime.operators.multipleinput.TableOperatorWrapperGenerator;
+import org.apache.flink.table.runtime.operators.multipleinput.input.InputSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Stream {@link ExecNode} for multiple input which contains a sub-graph of {@link ExecNode}s. The
@@ -39,9 +51,11 @@ import java.util.List;
  *           |
  * +---------+--------+
  * |         |        |
- * |       Join       |
- * |     /     \      | StreamExecMultipleInput
- * |   Agg1    Agg2   |
+ * |       Calc3      |
+ * |         |        |
+ * |       Union      | StreamExecMultipleInput
+ * |     /     \      |
+ * |   Calc1   Calc2  |
  * |    |       |     |
  * +----+-------+-----+
  *      |       |
@@ -50,12 +64,17 @@ import java.util.List;
  *    Scan1   Scan2
  * }</pre>
  *
- * <p>The multiple input node contains three nodes: `Join`, `Agg1` and `Agg2`. `Join` is the root
- * node ({@link #rootNode}) of the sub-graph, `Agg1` and `Agg2` are the leaf nodes of the sub-graph,
- * `Exchange1` and `Exchange2` are the input nodes of the multiple input node.
+ * <p>The multiple input node contains four nodes: `Calc3`, `Union`, `Calc1` and `Calc2`. `Calc3` is
+ * the root node ({@link #rootNode}) of the sub-graph, `Calc1` and `Calc2` are the leaf nodes of the
+ * sub-graph, `Exchange1` and `Exchange2` are the input nodes of the multiple input node. Without
+ * the multiple input node, `Calc3` can't be chained with `Calc1` and `Calc2` because it has more
+ * than one input.
+ *
+ * <p>The sub-graph must only contain stateless nodes, as the state of the sub-operators is not
+ * part of the snapshots of the multiple input operator.
  */
 public class StreamExecMultipleInput extends ExecNodeBase<RowData>
-        implements StreamExecNode<RowData> {
+        implements StreamExecNode<RowData>, SingleTransformationTranslator<RowData> {
 
     private final ExecNode<?> rootNode;
 
@@ -67,6 +86,45 @@ public class StreamExecMultipleInput extends ExecNodeBase<RowData>
 
     @Override
     protected Transformation<RowData> translateToPlanInternal(PlannerBase planner) {
-        throw new UnsupportedOperationException("This method is not implemented yet.");
+        final List<Transformation<?>> inputTransforms = new ArrayList<>();
+        for (ExecEdge inputEdge : getInputEdges()) {
+            inputTransforms.add(inputEdge.translateToPlan(planner));
+        }
+        final Transformation<?> outputTransform = rootNode.translateToPlan(planner);
+        // all inputs of a streaming multiple input node are read at the same time
+        final int[] readOrders = new int[inputTransforms.size()];
+
+        final TableOperatorWrapperGenerator generator =
+                new TableOperatorWrapperGenerator(inputTransforms, outputTransform, readOrders);
+        generator.generate();
+
+        final List<Pair<Transformation<?>, InputSpec>> inputTransformAndInputSpecPairs =
+                generator.getInputTransformAndInputSpecPairs();
+
+        final MultipleInputTransformation<RowData> multipleInputTransform =
+                new MultipleInputTransformation<>(
+                        getDescription(),
+                        new StreamMultipleInputStreamOperatorFactory(
+                                inputTransformAndInputSpecPairs.stream()
+                                        .map(Pair::getValue)
+                                        .collect(Collectors.toList()),
+                                generator.getHeadWrappers(),
+                                generator.getTailWrapper()),
+                        InternalTypeInfo.of(getOutputType()),
+                        generator.getParallelism());
+        inputTransformAndInputSpecPairs.forEach(
+                input -> multipleInputTransform.addInput(input.getKey()));
+
+        if (generator.getMaxParallelism() > 0) {
+            multipleInputTransform.setMaxParallelism(generator.getMaxParallelism());
+        }
+        // set resources
+        multipleInputTransform.setResources(
+                generator.getMinResources(), generator.getPreferredResources());
+
+        // set chaining strategy for source chaining
+        multipleInputTransform.setChainingStrategy(ChainingStrategy.HEAD_WITH_SOURCES);
+
+        return multipleInputTransform;
     }
 }
@@ -27,6 +27,7 @@ import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
 import org.apache.flink.streaming.api.transformations.OneInputTransformation;
 import org.apache.flink.table.api.TableConfig;
 import org.apache.flink.table.api.TableException;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.codegen.EqualiserCodeGenerator;
 import org.apache.flink.table.planner.codegen.sort.ComparatorCodeGenerator;
@@ -85,6 +86,21 @@ public class StreamExecRank extends ExecNodeBase<RowData>
                             "TopN operator has a cache which caches partial state contents to reduce"
                                     + " state access. Cache size is the number of records in each TopN task.");
 
+    // It is a experimental config, will may be removed later.
+    @Experimental
+    public static final ConfigOption<Boolean> TABLE_EXEC_TOPN_SORT_KEY_MAP_STATE_ENABLED =
+            ConfigOptions.key("table.exec.topn.sort-key-map-state.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether the retractable TopN operator keeps the record count of"
+                                    + " each sort key in a map state instead of a single sorted map value"
+                                    + " state, so that an input record only updates its own sort key. Only"
+                                    + " the head of the sorted view, which covers about twice the rank end,"
+                                    + " is kept sorted in state and cached in heap, and the number of cached"
+                                    + " sort keys is bounded by 'table.exec.topn.cache-size'. NOTE: This"
+                                    + " option must not be changed when restoring from a savepoint.");
+
     public static final String FIELD_NAME_RANK_TYPE = "rankType";
     public static final String FIELD_NAME_PARTITION_SPEC = "partition";
     public static final String FIELD_NAME_SORT_SPEC = "orderBy";
@@ -208,6 +224,11 @@ public class StreamExecRank extends ExecNodeBase<RowData>
                         RowType.of(sortSpec.getFieldTypes(inputType)),
                         sortSpecInSortKey);
         long cacheSize = tableConfig.getConfiguration().getLong(TABLE_EXEC_TOPN_CACHE_SIZE);
+        long cacheBytes =
+                tableConfig
+                        .getConfiguration()
+                        .get(ExecutionConfigOptions.TABLE_EXEC_STATE_CACHE_SIZE)
+                        .getBytes();
         StateTtlConfig ttlConfig =
                 StateConfigUtil.createTtlConfig(tableConfig.getIdleStateRetention().toMillis());
 
@@ -237,7 +258,8 @@ public class StreamExecRank extends ExecNodeBase<RowData>
                                 rankRange,
                                 generateUpdateBefore,
                                 outputRankNumber,
-                                cacheSize);
+                                cacheSize,
+                                cacheBytes);
             } else {
                 processFunction =
                         new AppendOnlyTopNFunction(
@@ -263,7 +285,8 @@ public class StreamExecRank extends ExecNodeBase<RowData>
                                 rankRange,
                                 generateUpdateBefore,
                                 outputRankNumber,
-                                cacheSize);
+                                cacheSize,
+                                cacheBytes);
             } else {
                 RankProcessStrategy.UpdateFastStrategy updateFastStrategy =
                         (RankProcessStrategy.UpdateFastStrategy) rankStrategy;
@@ -309,7 +332,11 @@ public class StreamExecRank extends ExecNodeBase<RowData>
                             rankRange,
                             generatedEqualiser,
                             generateUpdateBefore,
-                            outputRankNumber);
+                            outputRankNumber,
+                            tableConfig
+                                    .getConfiguration()
+                                    .getBoolean(TABLE_EXEC_TOPN_SORT_KEY_MAP_STATE_ENABLED),
+                            cacheSize);
         } else {
             throw new TableException(
                     String.format("rank strategy:%s is not supported.", rankStrategy));
@@ -106,6 +106,10 @@ public class StreamExecSink extends CommonExecSink implements StreamExecNode<Obj
         this.upsertMaterialize = upsertMaterialize;
     }
 
+    public boolean isUpsertMaterialize() {
+        return upsertMaterialize;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected Transformation<Object> translateToPlanInternal(PlannerBase planner) {
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.logical;
+
+import org.apache.flink.table.api.config.OptimizerConfigOptions;
+import org.apache.flink.table.catalog.CatalogTable;
+import org.apache.flink.table.connector.source.abilities.SupportsPartitionPushDown;
+import org.apache.flink.table.planner.plan.schema.TableSourceTable;
+import org.apache.flink.table.planner.utils.ShortcutUtils;
+
+import org.apache.calcite.plan.RelOptPredicateList;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.metadata.RelColumnOrigin;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.tools.RelBuilder;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Planner rule that derives transitive predicates on the partition columns of a partitioned table
+ * source from the predicates of the other input of an inner or semi join, through the equi-join
+ * conditions.
+ *
+ * <p>For example, {@code fact.dt = dim.dt AND dim.dt IN ('2021-01-01', '2021-01-02')} implies
+ * {@code fact.dt IN ('2021-01-01', '2021-01-02')}. The derived predicates are added as a filter on
+ * top of the input of the partitioned source, so that they are pushed into the source by {@link
+ * PushPartitionIntoTableSourceScanRule} and only the remaining partitions are read.
+ *
+ * <p>Only the predicates which reference partition columns of a source that supports {@link
+ * SupportsPartitionPushDown} are derived, the other inferred predicates would only add filters.
+ *
+ * <p>This is not dynamic partition pruning. Only the predicates which are known at planning time
+ * are derived, a join whose other input is filtered by a non-partition column still reads all
+ * partitions of the source.
+ */
+public class JoinDerivePartitionPredicateRule extends RelOptRule {
+
+    public static final JoinDerivePartitionPredicateRule INSTANCE =
+            new JoinDerivePartitionPredicateRule();
+
+    public JoinDerivePartitionPredicateRule() {
+        super(operand(LogicalJoin.class, any()), "JoinDerivePartitionPredicateRule");
+    }
+
+    @Override
+    public boolean matches(RelOptRuleCall call) {
+        LogicalJoin join = call.rel(0);
+        if (join.getJoinType() != JoinRelType.INNER && join.getJoinType() != JoinRelType.SEMI) {
+            return false;
+        }
+        return ShortcutUtils.unwrapConfig(join)
+                .get(
+                        OptimizerConfigOptions
+                                .TABLE_OPTIMIZER_JOIN_TRANSITIVE_PARTITION_PREDICATES_ENABLED);
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        LogicalJoin join = call.rel(0);
+        RelMetadataQuery mq = call.getMetadataQuery();
+        RelOptPredicateList predicates = mq.getPulledUpPredicates(join);
+        List<RexNode> leftPredicates =
+                getPartitionPredicates(join.getLeft(), predicates.leftInferredPredicates, mq);
+        List<RexNode> rightPredicates =
+                getPartitionPredicates(join.getRight(), predicates.rightInferredPredicates, mq);
+        if (leftPredicates.isEmpty() && rightPredicates.isEmpty()) {
+            return;
+        }
+
+        RelBuilder relBuilder = call.builder();
+        RelNode newLeft = join.getLeft();
+        if (!leftPredicates.isEmpty()) {
+            newLeft = relBuilder.push(newLeft).filter(leftPredicates).build();
+        }
+        RelNode newRight = join.getRight();
+        if (!rightPredicates.isEmpty()) {
+            newRight = relBuilder.push(newRight).filter(rightPredicates).build();
+        }
+        call.transformTo(
+                join.copy(
+                        join.getTraitSet(),
+                        join.getCondition(),
+                        newLeft,
+                        newRight,
+                        join.getJoinType(),
+                        join.isSemiJoinDone()));
+    }
+
+    /**
+     * Returns the predicates which only reference partition columns of a table source and do not
+     * hold for the input yet, so that the rule reaches a fixpoint when it is applied repeatedly.
+     */
+    private static List<RexNode> getPartitionPredicates(
+            RelNode input, List<RexNode> inferredPredicates, RelMetadataQuery mq) {
+        Set<RexNode> inputPredicates =
+                new HashSet<>(mq.getPulledUpPredicates(input).pulledUpPredicates);
+        return inferredPredicates.stream()
+                .filter(predicate -> !inputPredicates.contains(predicate))
+                .filter(
+                        predicate ->
+                                RelOptUtil.InputFinder.bits(predicate).asList().stream()
+                                        .allMatch(index -> isPartitionColumn(input, index, mq)))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isPartitionColumn(RelNode input, int index, RelMetadataQuery mq) {
+        Set<RelColumnOrigin> origins = mq.getColumnOrigins(input, index);
+        if (origins == null || origins.size() != 1) {
+            return false;
+        }
+        RelColumnOrigin origin = origins.iterator().next();
+        if (origin.isDerived()) {
+            return false;
+        }
+        TableSourceTable table = origin.getOriginTable().unwrap(TableSourceTable.class);
+        if (table == null || !(table.tableSource() instanceof SupportsPartitionPushDown)) {
+            return false;
+        }
+        CatalogTable catalogTable = table.catalogTable();
+        String columnName =
+                table.getRowType().getFieldNames().get(origin.getOriginColumnOrdinal());
+        return catalogTable.isPartitioned()
+                && catalogTable.getPartitionKeys().contains(columnName);
+    }
+}
@@ -19,10 +19,15 @@ package org.apache.flink.table.planner.codegen
 
 import org.apache.flink.api.common.functions.{FlatMapFunction, Function}
 import org.apache.flink.api.dag.Transformation
+import org.apache.flink.table.api.config.TableConfigOptions
 import org.apache.flink.table.api.{TableConfig, TableException, ValidationException}
+import org.apache.flink.table.data.binary.BinaryRowData
 import org.apache.flink.table.data.{BoxedWrapperRowData, RowData}
-import org.apache.flink.table.functions.FunctionKind
+import org.apache.flink.table.functions.{BuiltInFunctionDefinitions, FunctionKind}
+import org.apache.flink.table.planner.codegen.CodeGenUtils.{DEFAULT_OUT_RECORD_TERM, DEFAULT_OUT_RECORD_WRITER_TERM, ROW_DATA, newName, rowSetField}
+import org.apache.flink.table.planner.codegen.GeneratedExpression.NEVER_NULL
 import org.apache.flink.table.planner.functions.bridging.BridgingSqlFunction
+import org.apache.flink.table.planner.functions.sql.FlinkSqlOperatorTable
 import org.apache.flink.table.runtime.generated.GeneratedFunction
 import org.apache.flink.table.runtime.operators.CodeGenOperatorFactory
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo
@@ -30,6 +35,8 @@ import org.apache.flink.table.types.logical.RowType
 
 import org.apache.calcite.rex._
 
+import scala.collection.mutable
+
 object CalcCodeGenerator {
 
   def generateCalcOperator(
@@ -53,7 +60,8 @@ object CalcCodeGenerator {
       projection,
       condition,
       eagerInputUnboxingCode = true,
-      retainHeader = retainHeader)
+      retainHeader = retainHeader,
+      cacheCallResults = true)
 
     val genOperator =
       OperatorCodeGenerator.generateOneInputStreamOperator[RowData, RowData](
@@ -74,7 +82,8 @@ object CalcCodeGenerator {
       outRowClass: Class[_ <: RowData],
       calcProjection: Seq[RexNode],
       calcCondition: Option[RexNode],
-      config: TableConfig): GeneratedFunction[FlatMapFunction[RowData, RowData]] = {
+      config: TableConfig,
+      cacheCallResults: Boolean = false): GeneratedFunction[FlatMapFunction[RowData, RowData]] = {
     val ctx = CodeGeneratorContext(config)
     val inputTerm = CodeGenUtils.DEFAULT_INPUT1_TERM
     val collectorTerm = CodeGenUtils.DEFAULT_COLLECTOR_TERM
@@ -87,7 +96,8 @@ object CalcCodeGenerator {
       calcCondition,
       collectorTerm = collectorTerm,
       eagerInputUnboxingCode = false,
-      outputDirectly = true
+      outputDirectly = true,
+      cacheCallResults = cacheCallResults
     )
 
     FunctionCodeGenerator.generateFunction(
@@ -112,7 +122,8 @@ object CalcCodeGenerator {
       collectorTerm: String = CodeGenUtils.DEFAULT_OPERATOR_COLLECTOR_TERM,
       eagerInputUnboxingCode: Boolean,
       retainHeader: Boolean = false,
-      outputDirectly: Boolean = false): String = {
+      outputDirectly: Boolean = false,
+      cacheCallResults: Boolean = false): String = {
 
     // according to the SQL standard, every table function should also be a scalar function
     // but we don't allow that for now
@@ -121,6 +132,16 @@ object CalcCodeGenerator {
 
     val exprGenerator = new ExprCodeGenerator(ctx, false)
         .bindInput(inputType, inputTerm = inputTerm)
+    if (cacheCallResults) {
+      // the generated operator or function is opened with a runtime context
+      exprGenerator.enableCallResultCache()
+    }
+
+    val eliminateCommonSubExpressions = ctx.tableConfig.getConfiguration
+      .getBoolean(TableConfigOptions.COMMON_SUB_EXPRESSION_ELIMINATION_GENERATED_CODE)
+    if (eliminateCommonSubExpressions) {
+      exprGenerator.bindCommonSubExpressions(findCommonSubExpressions(projection ++ condition))
+    }
 
     val onlyFilter = projection.lengthCompare(inputType.getFieldCount) == 0 &&
       projection.zipWithIndex.forall { case (rexNode, index) =>
@@ -133,12 +154,20 @@ object CalcCodeGenerator {
       s"${OperatorCodeGenerator.generateCollect(resultTerm)}"
     }
 
+    val columnGroupSize = ctx.tableConfig.getConfiguration
+      .getInteger(TableConfigOptions.COLUMN_GROUP_SIZE_GENERATED_CODE)
+
     def produceProjectionCode: String = {
-      val projectionExprs = projection.map(exprGenerator.generateExpression)
-      val projectionExpression = exprGenerator.generateResultExpression(
-        projectionExprs,
-        outRowType,
-        outRowClass)
+      val projectionExpression = if (columnGroupSize > 0 && projection.size > columnGroupSize) {
+        generateColumnGroupProjection(
+          ctx, exprGenerator, projection, outRowType, outRowClass, inputTerm, columnGroupSize)
+      } else {
+        val projectionExprs = projection.map(exprGenerator.generateExpression)
+        exprGenerator.generateResultExpression(
+          projectionExprs,
+          outRowType,
+          outRowClass)
+      }
 
       val projectionExpressionCode = projectionExpression.code
 
@@ -155,7 +184,7 @@ object CalcCodeGenerator {
          |""".stripMargin
     }
 
-    if (condition.isEmpty && onlyFilter) {
+    val processCode = if (condition.isEmpty && onlyFilter) {
       throw new TableException("This calc has no useful projection and no filter. " +
         "It should be removed by CalcRemoveRule.")
     } else if (condition.isEmpty) { // only projection
@@ -195,6 +224,133 @@ object CalcCodeGenerator {
            |""".stripMargin
       }
     }
+
+    // the results of the common sub-expressions are discarded before each record
+    s"""
+       |${exprGenerator.generateCommonSubExpressionsResetCode()}
+       |$processCode
+       |""".stripMargin
+  }
+
+  /**
+    * Returns the deterministic calls which occur more than once in the expressions. The
+    * occurrences within a repeated occurrence of a common sub-expression are not counted, as they
+    * are not evaluated again.
+    */
+  private def findCommonSubExpressions(exprs: Seq[RexNode]): Seq[RexNode] = {
+    val counts = mutable.HashMap[RexNode, Int]()
+    val counter = new RexVisitorImpl[Unit](true) {
+      override def visitCall(call: RexCall): Unit = {
+        if (isCommonSubExpressionCandidate(call)) {
+          counts(call) = counts.getOrElse(call, 0) + 1
+        }
+        super.visitCall(call)
+      }
+    }
+    exprs.foreach(_.accept(counter))
+    val candidates = counts.filter(_._2 > 1).keySet
+
+    val evaluatedCounts = mutable.LinkedHashMap[RexNode, Int]()
+    val evaluatedCounter = new RexVisitorImpl[Unit](true) {
+      override def visitCall(call: RexCall): Unit = {
+        if (!candidates.contains(call)) {
+          super.visitCall(call)
+        } else {
+          val count = evaluatedCounts.getOrElse(call, 0)
+          evaluatedCounts(call) = count + 1
+          if (count == 0) {
+            super.visitCall(call)
+          }
+        }
+      }
+    }
+    exprs.foreach(_.accept(evaluatedCounter))
+    evaluatedCounts.filter(_._2 > 1).keys.toSeq
+  }
+
+  /**
+    * Returns whether a call may be evaluated once for all its occurrences, i.e. it is deterministic
+    * and does not access the context of the operator, e.g. for the processing time.
+    */
+  private def isCommonSubExpressionCandidate(call: RexCall): Boolean = {
+    var accessesContext = false
+    call.accept(new RexVisitorImpl[Unit](true) {
+      override def visitCall(call: RexCall): Unit = {
+        call.getOperator match {
+          case FlinkSqlOperatorTable.PROCTIME | FlinkSqlOperatorTable.PROCTIME_MATERIALIZE |
+               FlinkSqlOperatorTable.STREAMRECORD_TIMESTAMP =>
+            accessesContext = true
+          case bsf: BridgingSqlFunction
+            if bsf.getDefinition eq BuiltInFunctionDefinitions.CURRENT_WATERMARK =>
+            accessesContext = true
+          case operator if operator.isDynamicFunction =>
+            accessesContext = true
+          case _ =>
+        }
+        super.visitCall(call)
+      }
+    })
+    !accessesContext && RexUtil.isDeterministic(call) && !RexUtil.isConstant(call)
+  }
+
+  /**
+    * Generates a projection as one method per group of consecutive output columns. Each method
+    * accesses the input fields and evaluates the expressions of its columns, and writes them into
+    * the reused output row, so that the methods are small enough to be inlined by the JIT, instead
+    * of a single method which is split at arbitrary points by the code splitter.
+    */
+  private def generateColumnGroupProjection(
+      ctx: CodeGeneratorContext,
+      exprGenerator: ExprCodeGenerator,
+      projection: Seq[RexNode],
+      outRowType: RowType,
+      outRowClass: Class[_ <: RowData],
+      inputTerm: String,
+      columnGroupSize: Int): GeneratedExpression = {
+    val outRow = DEFAULT_OUT_RECORD_TERM
+    val outRowWriter = if (outRowClass == classOf[BinaryRowData]) {
+      Some(DEFAULT_OUT_RECORD_WRITER_TERM)
+    } else {
+      None
+    }
+    ctx.addReusableOutputRecord(outRowType, outRowClass, outRow, outRowWriter)
+
+    val callGroupsCode = projection.zipWithIndex.grouped(columnGroupSize).map { group =>
+      val methodName = newName("projectColumns")
+      // the input fields are accessed in the method, as local variables of the calling method
+      // are not visible in it
+      val outerInputUnboxingExprs = ctx.reusableInputUnboxingExprs.clone()
+      ctx.reusableInputUnboxingExprs.clear()
+      val methodCode = ctx.withNewLocalVariableStatement(methodName) {
+        val setFieldsCode = group.map { case (rexNode, pos) =>
+          val fieldExpr = exprGenerator.generateExpression(rexNode)
+          rowSetField(ctx, outRowClass, outRow, pos.toString, fieldExpr, outRowWriter)
+        }.mkString("\n")
+        s"""
+           |private void $methodName($ROW_DATA $inputTerm) throws Exception {
+           |  ${ctx.reuseLocalVariableCode(methodName)}
+           |  ${ctx.reuseInputUnboxingCode()}
+           |  $setFieldsCode
+           |}
+           |""".stripMargin
+      }
+      ctx.reusableInputUnboxingExprs.clear()
+      ctx.reusableInputUnboxingExprs ++= outerInputUnboxingExprs
+      ctx.addReusableMember(methodCode)
+      s"$methodName($inputTerm);"
+    }.mkString("\n")
+
+    val code = outRowWriter match {
+      case Some(writer) =>
+        val resetWriter = if (ctx.nullCheck) s"$writer.reset();" else s"$writer.resetCursor();"
+        s"""
+           |$resetWriter
+           |$callGroupsCode
+           |$writer.complete();
+           |""".stripMargin
+      case None => callGroupsCode
+    }
+    GeneratedExpression(outRow, NEVER_NULL, code, outRowType)
   }
 
   private object ScalarFunctionsValidator extends RexVisitorImpl[Unit](true) {
@@ -156,6 +156,23 @@ class CodeGeneratorContext(val tableConfig: TableConfig) {
     reusableLocalVariableStatements(methodName) = mutable.LinkedHashSet[String]()
   }
 
+  /**
+    * Starts a new local variable statements for the given method name while the code of the
+    * method is generated by the given function, and continues the local variable statements of
+    * the current method afterwards.
+    * @param methodName the method name which the fields will be placed into if code is not split.
+    * @param generate the function which generates the code of the method.
+    */
+  def withNewLocalVariableStatement[T](methodName: String)(generate: => T): T = {
+    val previousMethodName = currentMethodNameForLocalVariables
+    startNewLocalVariableStatement(methodName)
+    try {
+      generate
+    } finally {
+      currentMethodNameForLocalVariables = previousMethodName
+    }
+  }
+
   /**
     * Adds a reusable local variable statement with the given type term and field name.
     * The local variable statements will be placed in methods or class member area depends
@@ -20,7 +20,8 @@ package org.apache.flink.table.planner.codegen
 
 import org.apache.flink.streaming.api.functions.ProcessFunction
 import org.apache.flink.table.api.TableException
-import org.apache.flink.table.data.RowData
+import org.apache.flink.table.api.config.ExecutionConfigOptions
+import org.apache.flink.table.data.{GenericRowData, RowData}
 import org.apache.flink.table.data.binary.BinaryRowData
 import org.apache.flink.table.data.util.DataFormatConverters.{DataFormatConverter, getConverterForDataType}
 import org.apache.flink.table.functions.BuiltInFunctionDefinitions
@@ -35,6 +36,7 @@ import org.apache.flink.table.planner.functions.sql.FlinkSqlOperatorTable._
 import org.apache.flink.table.planner.functions.sql.SqlThrowExceptionFunction
 import org.apache.flink.table.planner.functions.utils.{ScalarSqlFunction, TableSqlFunction}
 import org.apache.flink.table.planner.plan.utils.FlinkRexUtil
+import org.apache.flink.table.runtime.functions.CallResultCache
 import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromLogicalTypeToDataType
 import org.apache.flink.table.runtime.types.PlannerTypeUtils.isInteroperable
 import org.apache.flink.table.runtime.typeutils.TypeCheckUtils
@@ -47,9 +49,10 @@ import org.apache.calcite.rex._
 import org.apache.calcite.sql.{SqlKind, SqlOperator}
 import org.apache.calcite.sql.`type`.{ReturnTypes, SqlTypeName}
 import org.apache.calcite.util.{Sarg, TimestampString}
-import org.apache.flink.table.functions.{BuiltInFunctionDefinitions, FunctionDefinition}
+import org.apache.flink.table.functions.{BuiltInFunctionDefinitions, FunctionDefinition, ScalarFunction}
 
 import scala.collection.JavaConversions._
+import scala.collection.mutable
 
 /**
   * This code generator is mainly responsible for generating codes for a given calcite [[RexNode]].
@@ -146,6 +149,67 @@ class ExprCodeGenerator(ctx: CodeGeneratorContext, nullableInput: Boolean)
     }
   }
 
+  /**
+    * the common sub-expressions which are evaluated at most once per record, with the expressions
+    * which read their results once their methods have been generated
+    */
+  private val commonSubExpressions =
+    mutable.LinkedHashMap[RexNode, Option[GeneratedExpression]]()
+
+  /**
+    * the flags which tell whether the common sub-expressions have been evaluated for the current
+    * record
+    */
+  private val commonSubExpressionFlags = mutable.ArrayBuffer[String]()
+
+  /**
+    * the max number of distinct arguments whose results are cached per call of a deterministic
+    * user-defined scalar function, 0 if the results are not cached
+    */
+  private lazy val resultCacheMaxRows = ctx.tableConfig.getConfiguration
+    .getInteger(ExecutionConfigOptions.TABLE_EXEC_UDF_RESULT_CACHE_MAX_ROWS)
+
+  /**
+    * whether the results of deterministic user-defined scalar functions may be cached, the caches
+    * register their metrics in the runtime context when the generated class is opened
+    */
+  private var callResultCacheEnabled = false
+
+  /**
+    * the number of calls whose results are cached so far, the index of a call distinguishes the
+    * metrics of several calls of the same function
+    */
+  private var numCachedCalls = 0
+
+  /**
+    * Binds the deterministic sub-expressions which occur more than once in the expressions to be
+    * generated. Each of them is generated as a method which is called where its result is first
+    * needed for a record, and its result is reused by the other occurrences. The code generated by
+    * [[generateCommonSubExpressionsResetCode()]] must be executed before each record.
+    */
+  def bindCommonSubExpressions(exprs: Seq[RexNode]): ExprCodeGenerator = {
+    exprs.foreach(commonSubExpressions.put(_, None))
+    this
+  }
+
+  /**
+    * Caches the results of the calls of deterministic user-defined scalar functions by their
+    * arguments if 'table.exec.udf.result-cache.max-rows' is positive. Must only be enabled if the
+    * generated class is opened with a runtime context, e.g. for the code of a Calc operator.
+    */
+  def enableCallResultCache(): ExprCodeGenerator = {
+    callResultCacheEnabled = true
+    this
+  }
+
+  /**
+    * Generates the code which discards the results of the common sub-expressions of the previous
+    * record. Should be called after all expressions have been generated.
+    */
+  def generateCommonSubExpressionsResetCode(): String = {
+    commonSubExpressionFlags.map(flag => s"$flag = false;").mkString("\n")
+  }
+
   /**
     * Generates an expression from a RexNode. If objects or variables can be reused, they will be
     * added to reusable code sections internally.
@@ -470,6 +534,17 @@ class ExprCodeGenerator(ctx: CodeGeneratorContext, nullableInput: Boolean)
     throw new CodeGenException("Dynamic parameter references are not supported yet.")
 
   override def visitCall(call: RexCall): GeneratedExpression = {
+    commonSubExpressions.get(call) match {
+      case Some(Some(expr)) => expr
+      case Some(None) =>
+        val expr = generateCommonSubExpression(call)
+        commonSubExpressions.put(call, Some(expr))
+        expr
+      case None => generateCall(call)
+    }
+  }
+
+  private def generateCall(call: RexCall): GeneratedExpression = {
     val resultType = FlinkTypeFactory.toLogicalType(call.getType)
     if (call.getKind == SqlKind.SEARCH) {
       val sarg = call.getOperands.get(1).asInstanceOf[RexLiteral]
@@ -514,6 +589,111 @@ class ExprCodeGenerator(ctx: CodeGeneratorContext, nullableInput: Boolean)
 
   // ----------------------------------------------------------------------------------------
 
+  /**
+    * Generates a common sub-expression as a method which evaluates it and keeps its result in
+    * member fields. The returned expression calls the method unless it has already been called for
+    * the current record, so the sub-expression is only evaluated where it is first needed, e.g.
+    * not for records which are filtered out before or in branches which are not taken.
+    */
+  private def generateCommonSubExpression(call: RexCall): GeneratedExpression = {
+    val resultType = FlinkTypeFactory.toLogicalType(call.getType)
+    val Seq(methodName, flagTerm, resultTerm, nullTerm) =
+      newNames("evalCommonSubExpr", "isEvaluated", "result", "isNull")
+    val inputs = Seq((input1Type, input1Term)) ++ input2Type.zip(input2Term)
+    val inputParams = inputs
+      .map { case (inputType, inputTerm) => s"${boxedTypeTermForType(inputType)} $inputTerm" }
+      .mkString(", ")
+    val inputArgs = inputs.map(_._2).mkString(", ")
+
+    // the input fields are accessed in the method, as local variables of the calling method
+    // are not visible in it
+    val outerInputUnboxingExprs = ctx.reusableInputUnboxingExprs.clone()
+    ctx.reusableInputUnboxingExprs.clear()
+    val methodCode = ctx.withNewLocalVariableStatement(methodName) {
+      val expr = generateCall(call)
+      s"""
+         |private void $methodName($inputParams) throws Exception {
+         |  ${ctx.reuseLocalVariableCode(methodName)}
+         |  ${ctx.reuseInputUnboxingCode()}
+         |  ${expr.code}
+         |  $nullTerm = ${expr.nullTerm};
+         |  $resultTerm = ${expr.resultTerm};
+         |  $flagTerm = true;
+         |}
+         |""".stripMargin
+    }
+    ctx.reusableInputUnboxingExprs.clear()
+    ctx.reusableInputUnboxingExprs ++= outerInputUnboxingExprs
+
+    ctx.addReusableMember(s"private boolean $flagTerm = false;")
+    ctx.addReusableMember(s"private ${primitiveTypeTermForType(resultType)} $resultTerm;")
+    ctx.addReusableMember(s"private boolean $nullTerm;")
+    ctx.addReusableMember(methodCode)
+    commonSubExpressionFlags += flagTerm
+
+    val code = s"if (!$flagTerm) { $methodName($inputArgs); }"
+    GeneratedExpression(resultTerm, nullTerm, code, resultType)
+  }
+
+  /**
+    * Generates a call of a deterministic scalar function whose results are cached by their
+    * arguments in a [[CallResultCache]] of the task, so that the function is only called for
+    * arguments which are not cached.
+    */
+  private def generateCachedCall(
+      call: RexCall,
+      operands: Seq[GeneratedExpression],
+      resultType: LogicalType): GeneratedExpression = {
+    val argumentTypes = operands.map(_.resultType)
+    val cache = new CallResultCache(
+      call.getOperator.getName,
+      numCachedCalls,
+      argumentTypes.toArray,
+      resultType,
+      resultCacheMaxRows)
+    numCachedCalls += 1
+    val cacheTerm = ctx.addReusableObject(cache, "callResultCache")
+    ctx.addReusableOpenStatement(s"$cacheTerm.open(getRuntimeContext().getMetricGroup());")
+
+    val argumentsTerm = newName("callArguments")
+    val resultRowTerm = newName("callResult")
+    ctx.addReusableOutputRecord(
+      RowType.of(argumentTypes: _*), classOf[GenericRowData], argumentsTerm)
+    ctx.addReusableOutputRecord(RowType.of(resultType), classOf[GenericRowData], resultRowTerm)
+    val Seq(cachedTerm, resultTerm, nullTerm) = ctx.addReusableLocalVariables(
+      (ROW_DATA, "cachedResult"),
+      (primitiveTypeTermForType(resultType), "result"),
+      ("boolean", "isNull"))
+
+    // the operands are evaluated once before the lookup, and read by the call if it is not cached
+    val operandTerms = operands.map(_.copy(code = NO_CODE))
+    val setArgumentsCode = operandTerms.zipWithIndex.map { case (operand, index) =>
+      rowSetField(ctx, classOf[GenericRowData], argumentsTerm, index.toString, operand, None)
+    }.mkString("\n")
+    val callExpr = new BridgingSqlFunctionCallGen(call).generate(ctx, operandTerms, resultType)
+    val setResultCode =
+      rowSetField(ctx, classOf[GenericRowData], resultRowTerm, "0", callExpr, None)
+
+    val code =
+      s"""
+         |${operands.map(_.code).mkString("\n")}
+         |$setArgumentsCode
+         |$cachedTerm = $cacheTerm.get($argumentsTerm);
+         |if ($cachedTerm != null) {
+         |  $nullTerm = $cachedTerm.isNullAt(0);
+         |  $resultTerm = $nullTerm ?
+         |    ${primitiveDefaultValue(resultType)} :
+         |    ${rowFieldReadAccess(ctx, 0, cachedTerm, resultType)};
+         |} else {
+         |  $setResultCode
+         |  $nullTerm = ${callExpr.nullTerm};
+         |  $resultTerm = ${callExpr.resultTerm};
+         |  $cacheTerm.put($argumentsTerm, $resultRowTerm);
+         |}
+         |""".stripMargin
+    GeneratedExpression(resultTerm, nullTerm, code, resultType)
+  }
+
   private def generateCallExpression(
       ctx: CodeGeneratorContext,
       call: RexCall,
@@ -819,6 +999,10 @@ class ExprCodeGenerator(ctx: CodeGeneratorContext, nullableInput: Boolean)
               requireComparable(operand)
             }
             generateGreatestLeast(resultType, operands, false)
+          case function: ScalarFunction
+            if callResultCacheEnabled && resultCacheMaxRows > 0 && function.isDeterministic &&
+              operands.nonEmpty =>
+            generateCachedCall(call, operands, resultType)
           case _ =>
             new BridgingSqlFunctionCallGen(call).generate(ctx, operands, resultType)
         }
@@ -168,6 +168,30 @@ object LongHashJoinGenerator {
          |    return table.getSpillInBytes();
          |  }
          |});
+         |getMetricGroup().gauge("numRepartitions", new $gauge<Long>() {
+         |  @Override
+         |  public Long getValue() {
+         |    return table.getNumRepartitions();
+         |  }
+         |});
+         |getMetricGroup().gauge("maxRecursionLevel", new $gauge<Integer>() {
+         |  @Override
+         |  public Integer getValue() {
+         |    return table.getMaxRecursionLevel();
+         |  }
+         |});
+         |getMetricGroup().gauge("maxSpilledPartitionInBytes", new $gauge<Long>() {
+         |  @Override
+         |  public Long getValue() {
+         |    return table.getMaxSpilledPartitionInBytes();
+         |  }
+         |});
+         |getMetricGroup().gauge("numFilteredProbeRecords", new $gauge<Long>() {
+         |  @Override
+         |  public Long getValue() {
+         |    return table.getNumFilteredProbeRecords();
+         |  }
+         |});
        """.stripMargin)
 
     val tableCode =
@@ -22,6 +22,7 @@ import org.apache.flink.api.common.RuntimeExecutionMode
 import org.apache.flink.api.dag.Transformation
 import org.apache.flink.configuration.ExecutionOptions
 import org.apache.flink.streaming.api.graph.StreamGraph
+import org.apache.flink.table.api.config.{ExecutionConfigOptions, OptimizerConfigOptions}
 import org.apache.flink.table.api.{ExplainDetail, TableConfig, TableException}
 import org.apache.flink.table.catalog.{CatalogManager, FunctionCatalog, ObjectIdentifier}
 import org.apache.flink.table.delegation.Executor
@@ -29,7 +30,7 @@ import org.apache.flink.table.operations.{CatalogSinkModifyOperation, ModifyOper
 import org.apache.flink.table.planner.operations.PlannerQueryOperation
 import org.apache.flink.table.planner.plan.`trait`._
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeGraph
-import org.apache.flink.table.planner.plan.nodes.exec.processor.ExecNodeGraphProcessor
+import org.apache.flink.table.planner.plan.nodes.exec.processor.{ChangelogNormalizeKeyOnlyStateProcessor, ExecNodeGraphProcessor, MultipleInputNodeCreationProcessor}
 import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecNode
 import org.apache.flink.table.planner.plan.nodes.exec.utils.ExecNodePlanDumper
 import org.apache.flink.table.planner.plan.optimize.{Optimizer, StreamCommonSubGraphBasedOptimizer}
@@ -62,7 +63,19 @@ class StreamPlanner(
 
   override protected def getOptimizer: Optimizer = new StreamCommonSubGraphBasedOptimizer(this)
 
-  override protected def getExecNodeGraphProcessors: Seq[ExecNodeGraphProcessor] = Seq()
+  override protected def getExecNodeGraphProcessors: Seq[ExecNodeGraphProcessor] = {
+    val processors = new util.ArrayList[ExecNodeGraphProcessor]()
+    if (getTableConfig.getConfiguration.getBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_SOURCE_CHANGELOG_NORMALIZE_KEY_ONLY_STATE)) {
+      processors.add(new ChangelogNormalizeKeyOnlyStateProcessor)
+    }
+    // multiple input creation, only fuses unions and stateless nodes in streaming mode
+    if (getTableConfig.getConfiguration.getBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_STREAMING_UNION_FUSION_ENABLED)) {
+      processors.add(new MultipleInputNodeCreationProcessor(true))
+    }
+    processors
+  }
 
   override protected def translateToPlan(execGraph: ExecNodeGraph): util.List[Transformation[_]] = {
     validateAndOverrideConfiguration()
@@ -156,7 +156,10 @@ object FlinkBatchRuleSets {
   )
 
   val JOIN_PREDICATE_REWRITE_RULES: RuleSet = RuleSets.ofList((
-    RuleSets.ofList(JoinDependentConditionDerivationRule.INSTANCE).asScala ++
+    RuleSets.ofList(
+      JoinDependentConditionDerivationRule.INSTANCE,
+      // derive partition predicates for partition pruning
+      JoinDerivePartitionPredicateRule.INSTANCE).asScala ++
     JOIN_NULL_FILTER_RULES.asScala
   ).asJava)
 
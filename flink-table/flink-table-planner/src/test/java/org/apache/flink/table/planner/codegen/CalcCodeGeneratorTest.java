@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.codegen;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.functions.RichFunction;
+import org.apache.flink.api.common.functions.util.FunctionUtils;
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.util.MockStreamingRuntimeContext;
+import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.api.config.TableConfigOptions;
+import org.apache.flink.table.catalog.DataTypeFactory;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.ScalarFunction;
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory;
+import org.apache.flink.table.planner.functions.bridging.BridgingSqlFunction;
+import org.apache.flink.table.planner.utils.JavaScalaConversionUtil;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.utils.CatalogManagerMocks;
+
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import scala.Option;
+
+/** Tests for {@link CalcCodeGenerator}. */
+public class CalcCodeGeneratorTest {
+
+    private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+    @Test
+    public void testCommonSubExpressionElimination() throws Exception {
+        FlinkTypeFactory typeFactory = FlinkTypeFactory.INSTANCE();
+        RexBuilder builder = new RexBuilder(typeFactory);
+        RelDataType intType = typeFactory.createFieldTypeFromLogicalType(new IntType());
+
+        // (a + b) is used by the filter and both projected columns, (a + b) * 2 by one column
+        RexNode sum =
+                builder.makeCall(
+                        SqlStdOperatorTable.PLUS,
+                        new RexInputRef(0, intType),
+                        new RexInputRef(1, intType));
+        RexNode doubledSum =
+                builder.makeCall(
+                        SqlStdOperatorTable.MULTIPLY,
+                        sum,
+                        builder.makeExactLiteral(BigDecimal.valueOf(2), intType));
+        List<RexNode> projection =
+                Arrays.asList(
+                        doubledSum,
+                        builder.makeCall(SqlStdOperatorTable.PLUS, doubledSum, sum));
+        RexNode condition =
+                builder.makeCall(
+                        SqlStdOperatorTable.GREATER_THAN,
+                        sum,
+                        builder.makeExactLiteral(BigDecimal.ZERO, intType));
+        RowType rowType = RowType.of(new IntType(), new IntType());
+
+        TableConfig tableConfig = new TableConfig();
+        tableConfig
+                .getConfiguration()
+                .setBoolean(
+                        TableConfigOptions.COMMON_SUB_EXPRESSION_ELIMINATION_GENERATED_CODE, true);
+        FlatMapFunction<RowData, RowData> instance =
+                CalcCodeGenerator.generateFunction(
+                                rowType,
+                                "CommonSubExpressionCalc",
+                                rowType,
+                                GenericRowData.class,
+                                JavaScalaConversionUtil.toScala(projection),
+                                Option.apply(condition),
+                                tableConfig,
+                                false)
+                        .newInstance(classLoader);
+
+        // the results of the previous record must not be reused
+        assertCalc(instance, GenericRowData.of(1, 2), GenericRowData.of(6, 9));
+        assertCalc(instance, GenericRowData.of(-3, 1), null);
+        assertCalc(instance, GenericRowData.of(null, 1), null);
+        assertCalc(instance, GenericRowData.of(5, 5), GenericRowData.of(20, 30));
+    }
+
+    @Test
+    public void testCacheCallResults() throws Exception {
+        FlinkTypeFactory typeFactory = FlinkTypeFactory.INSTANCE();
+        RexBuilder builder = new RexBuilder(typeFactory);
+        RelDataType intType = typeFactory.createFieldTypeFromLogicalType(new IntType());
+
+        DataTypeFactory dataTypeFactory =
+                CatalogManagerMocks.createEmptyCatalogManager().getDataTypeFactory();
+        CountingFunction function = new CountingFunction();
+        BridgingSqlFunction sqlFunction =
+                BridgingSqlFunction.of(
+                        dataTypeFactory,
+                        typeFactory,
+                        SqlKind.OTHER_FUNCTION,
+                        null,
+                        function,
+                        function.getTypeInference(dataTypeFactory));
+        List<RexNode> projection =
+                Collections.singletonList(
+                        builder.makeCall(sqlFunction, new RexInputRef(0, intType)));
+        RowType rowType = RowType.of(new IntType());
+
+        TableConfig tableConfig = new TableConfig();
+        tableConfig
+                .getConfiguration()
+                .setInteger(ExecutionConfigOptions.TABLE_EXEC_UDF_RESULT_CACHE_MAX_ROWS, 2);
+        FlatMapFunction<RowData, RowData> instance =
+                CalcCodeGenerator.generateFunction(
+                                rowType,
+                                "CachedCallCalc",
+                                rowType,
+                                GenericRowData.class,
+                                JavaScalaConversionUtil.toScala(projection),
+                                Option.empty(),
+                                tableConfig,
+                                true)
+                        .newInstance(classLoader);
+        FunctionUtils.setFunctionRuntimeContext(
+                instance, new MockStreamingRuntimeContext(false, 1, 0));
+        ((RichFunction) instance).open(new Configuration());
+
+        CountingFunction.callCount = 0;
+        assertCalc(instance, GenericRowData.of(1), GenericRowData.of(2));
+        assertCalc(instance, GenericRowData.of(1), GenericRowData.of(2));
+        assertCalc(instance, GenericRowData.of((Object) null), GenericRowData.of((Object) null));
+        assertCalc(instance, GenericRowData.of((Object) null), GenericRowData.of((Object) null));
+        Assert.assertEquals(2, CountingFunction.callCount);
+
+        // the least recently used arguments are evicted
+        assertCalc(instance, GenericRowData.of(3), GenericRowData.of(6));
+        assertCalc(instance, GenericRowData.of(1), GenericRowData.of(2));
+        Assert.assertEquals(4, CountingFunction.callCount);
+        ((RichFunction) instance).close();
+    }
+
+    private static void assertCalc(
+            FlatMapFunction<RowData, RowData> instance, RowData input, RowData expected)
+            throws Exception {
+        List<RowData> result = new ArrayList<>();
+        instance.flatMap(input, new ListCollector<>(result));
+        Assert.assertEquals(
+                expected == null ? Collections.emptyList() : Collections.singletonList(expected),
+                result);
+    }
+
+    /** A deterministic function which counts its calls. */
+    public static class CountingFunction extends ScalarFunction {
+        private static int callCount = 0;
+
+        public Integer eval(Integer i) {
+            callCount++;
+            return i == null ? null : i * 2;
+        }
+    }
+}
@@ -18,16 +18,20 @@
 
 package org.apache.flink.table.planner.codegen;
 
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.functions.util.ListCollector;
 import org.apache.flink.core.testutils.FlinkMatchers;
 import org.apache.flink.table.api.TableConfig;
 import org.apache.flink.table.api.config.TableConfigOptions;
 import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.writer.BinaryRowWriter;
 import org.apache.flink.table.planner.calcite.FlinkTypeFactory;
 import org.apache.flink.table.planner.codegen.sort.ComparatorCodeGenerator;
 import org.apache.flink.table.planner.plan.nodes.exec.spec.SortSpec;
 import org.apache.flink.table.planner.plan.utils.JoinUtil;
+import org.apache.flink.table.planner.utils.JavaScalaConversionUtil;
 import org.apache.flink.table.runtime.generated.HashFunction;
 import org.apache.flink.table.runtime.generated.JoinCondition;
 import org.apache.flink.table.runtime.generated.Projection;
@@ -48,6 +52,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -55,6 +60,8 @@ import java.util.List;
 import java.util.Random;
 import java.util.function.Consumer;
 
+import scala.Option;
+
 /** Tests for code generations with code splitting. */
 public class CodeSplitTest {
 
@@ -212,6 +219,69 @@ public class CodeSplitTest {
         runTest(consumer);
     }
 
+    @Test
+    public void testColumnGroupProjection() throws Exception {
+        int numFields = 1000;
+
+        FlinkTypeFactory typeFactory = FlinkTypeFactory.INSTANCE();
+        RexBuilder builder = new RexBuilder(typeFactory);
+        RelDataType intType = typeFactory.createFieldTypeFromLogicalType(new IntType());
+        List<RexNode> projection = new ArrayList<>();
+        for (int i = 0; i < numFields; i++) {
+            projection.add(
+                    builder.makeCall(
+                            SqlStdOperatorTable.PLUS,
+                            new RexInputRef(numFields - 1 - i, intType),
+                            builder.makeExactLiteral(BigDecimal.ONE, intType)));
+        }
+        RexNode condition =
+                builder.makeCall(
+                        SqlStdOperatorTable.GREATER_THAN_OR_EQUAL,
+                        new RexInputRef(0, intType),
+                        builder.makeExactLiteral(BigDecimal.ZERO, intType));
+        RowType rowType = getIntRowType(numFields);
+
+        GenericRowData input = new GenericRowData(numFields);
+        for (int i = 0; i < numFields; i++) {
+            input.setField(i, i);
+        }
+        BinaryRowData output = new BinaryRowData(numFields);
+        BinaryRowWriter outputWriter = new BinaryRowWriter(output);
+        for (int i = 0; i < numFields; i++) {
+            outputWriter.writeInt(i, numFields - i);
+        }
+        outputWriter.complete();
+
+        // the methods of the column groups are small enough without splitting the code
+        TableConfig tableConfig = new TableConfig();
+        tableConfig
+                .getConfiguration()
+                .setInteger(TableConfigOptions.COLUMN_GROUP_SIZE_GENERATED_CODE, 100);
+        tableConfig
+                .getConfiguration()
+                .setInteger(TableConfigOptions.MAX_LENGTH_GENERATED_CODE, Integer.MAX_VALUE);
+        tableConfig
+                .getConfiguration()
+                .setInteger(TableConfigOptions.MAX_MEMBERS_GENERATED_CODE, Integer.MAX_VALUE);
+
+        FlatMapFunction<RowData, RowData> instance =
+                CalcCodeGenerator.generateFunction(
+                                rowType,
+                                "ColumnGroupCalc",
+                                rowType,
+                                BinaryRowData.class,
+                                JavaScalaConversionUtil.toScala(projection),
+                                Option.apply(condition),
+                                tableConfig,
+                                false)
+                        .newInstance(classLoader);
+        for (int i = 0; i < 100; i++) {
+            List<RowData> result = new ArrayList<>();
+            instance.flatMap(input, new ListCollector<>(result));
+            Assert.assertEquals(Collections.singletonList(output), result);
+        }
+    }
+
     private RowType getIntRowType(int numFields) {
         LogicalType[] fieldTypes = new LogicalType[numFields];
         Arrays.fill(fieldTypes, new IntType());
@@ -21,21 +21,28 @@ package org.apache.flink.table.planner.plan.nodes.exec;
 import org.apache.flink.api.connector.source.Boundedness;
 import org.apache.flink.api.dag.Transformation;
 import org.apache.flink.streaming.api.transformations.LegacySourceTransformation;
+import org.apache.flink.streaming.api.transformations.OneInputTransformation;
 import org.apache.flink.streaming.api.transformations.WithBoundedness;
 import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.api.Schema;
 import org.apache.flink.table.api.Table;
 import org.apache.flink.table.api.TableDescriptor;
 import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.api.internal.TableEnvironmentInternal;
 import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.operations.ModifyOperation;
 import org.apache.flink.table.planner.connectors.TransformationScanProvider;
 import org.apache.flink.table.planner.utils.JavaBatchTableTestUtil;
 import org.apache.flink.table.planner.utils.JavaStreamTableTestUtil;
 import org.apache.flink.table.planner.utils.TableTestBase;
+import org.apache.flink.table.runtime.operators.sink.IndexedSinkUpsertMaterializer;
 
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -136,6 +143,57 @@ public class TransformationsTest extends TableTestBase {
         assertBoundedness(Boundedness.BOUNDED, sourceTransform);
     }
 
+    @Test
+    public void testIndexedUpsertMaterializerWithUnhashableColumns() {
+        final JavaStreamTableTestUtil util = javaStreamTestUtil();
+        final StreamTableEnvironment env = util.tableEnv();
+        env.getConfig()
+                .getConfiguration()
+                .set(
+                        ExecutionConfigOptions.TABLE_EXEC_SINK_UPSERT_MATERIALIZE,
+                        ExecutionConfigOptions.UpsertMaterialize.FORCE);
+        env.getConfig()
+                .getConfiguration()
+                .set(ExecutionConfigOptions.TABLE_EXEC_SINK_UPSERT_MATERIALIZE_INDEXED_STATE, true);
+
+        final Schema schema =
+                Schema.newBuilder()
+                        .column("id", DataTypes.BIGINT().notNull())
+                        .column("tags", DataTypes.MAP(DataTypes.STRING(), DataTypes.STRING()))
+                        .column("points", DataTypes.ROW(DataTypes.ARRAY(DataTypes.INT())))
+                        .primaryKey("id")
+                        .build();
+        env.createTemporaryTable(
+                "Source",
+                TableDescriptor.forConnector("values")
+                        .option("bounded", "false")
+                        .schema(schema)
+                        .build());
+        env.createTemporaryTable(
+                "Sink",
+                TableDescriptor.forConnector("values")
+                        .option("sink-insert-only", "false")
+                        .schema(schema)
+                        .build());
+
+        final ModifyOperation operation =
+                (ModifyOperation)
+                        ((TableEnvironmentInternal) env)
+                                .getParser()
+                                .parse("INSERT INTO Sink SELECT * FROM Source")
+                                .get(0);
+        Transformation<?> transform =
+                util.getPlanner().translate(Collections.singletonList(operation)).get(0);
+        while (!"SinkMaterializer".equals(transform.getName())) {
+            assertEquals(1, transform.getInputs().size());
+            transform = transform.getInputs().get(0);
+        }
+        // the records are only hashed by the column "id"
+        assertTrue(
+                ((OneInputTransformation<?, ?>) transform).getOperator()
+                        instanceof IndexedSinkUpsertMaterializer);
+    }
+
     // --------------------------------------------------------------------------------------------
     // Helper methods
     // --------------------------------------------------------------------------------------------
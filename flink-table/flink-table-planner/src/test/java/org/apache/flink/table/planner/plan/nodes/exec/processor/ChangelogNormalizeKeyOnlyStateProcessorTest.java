@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.exec.processor;
+
+import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.TableEnvironment;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.api.internal.StatementSetImpl;
+import org.apache.flink.table.api.internal.TableEnvironmentInternal;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecChangelogNormalize;
+import org.apache.flink.table.planner.utils.StreamTableTestUtil;
+import org.apache.flink.table.planner.utils.TableTestBase;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.JsonNode;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/** Tests for {@link ChangelogNormalizeKeyOnlyStateProcessor}. */
+public class ChangelogNormalizeKeyOnlyStateProcessorTest extends TableTestBase {
+
+    private TableEnvironment tEnv;
+
+    @Before
+    public void setup() {
+        StreamTableTestUtil util = streamTestUtil(TableConfig.getDefault());
+        tEnv = util.getTableEnv();
+        tEnv.getConfig()
+                .getConfiguration()
+                .setBoolean(
+                        ExecutionConfigOptions.TABLE_EXEC_SOURCE_CHANGELOG_NORMALIZE_KEY_ONLY_STATE,
+                        true);
+        createSource("UpsertSource", "STRING");
+        createSource("NotNullUpsertSource", "STRING NOT NULL");
+    }
+
+    @Test
+    public void testUpsertSink() throws IOException {
+        createSink("UpsertSink", "STRING", "id", "'sink-insert-only' = 'false'");
+        assertKeyOnlyStates(
+                Collections.singletonList(true),
+                getJsonPlan("INSERT INTO UpsertSink SELECT * FROM UpsertSource"));
+    }
+
+    @Test
+    public void testMultipleConsumers() throws IOException {
+        createSink("UpsertSink1", "STRING", "id", "'sink-insert-only' = 'false'");
+        createSink("UpsertSink2", "STRING", "id", "'sink-insert-only' = 'false'");
+        StatementSetImpl<?> statementSet = (StatementSetImpl<?>) tEnv.createStatementSet();
+        statementSet.addInsertSql("INSERT INTO UpsertSink1 SELECT * FROM UpsertSource");
+        statementSet.addInsertSql("INSERT INTO UpsertSink2 SELECT * FROM UpsertSource");
+
+        // the normalized changelog is shared by both sinks
+        assertKeyOnlyStates(Collections.singletonList(false), statementSet.getJsonPlan());
+    }
+
+    @Test
+    public void testUpdateBeforeRequired() throws IOException {
+        createSink("RetractSink", "STRING", "id", "'sink-changelog-mode-enforced' = 'I,UB,UA,D'");
+        assertKeyOnlyStates(
+                Collections.singletonList(false),
+                getJsonPlan("INSERT INTO RetractSink SELECT * FROM UpsertSource"));
+    }
+
+    @Test
+    public void testUpsertMaterialize() throws IOException {
+        tEnv.getConfig()
+                .getConfiguration()
+                .set(
+                        ExecutionConfigOptions.TABLE_EXEC_SINK_UPSERT_MATERIALIZE,
+                        ExecutionConfigOptions.UpsertMaterialize.FORCE);
+        createSink("UpsertSink", "STRING", "id", "'sink-insert-only' = 'false'");
+        assertKeyOnlyStates(
+                Collections.singletonList(false),
+                getJsonPlan("INSERT INTO UpsertSink SELECT * FROM UpsertSource"));
+    }
+
+    @Test
+    public void testPrimaryKeyMismatch() throws IOException {
+        createSink("UpsertSink", "STRING", "id, name", "'sink-insert-only' = 'false'");
+        assertKeyOnlyStates(
+                Collections.singletonList(false),
+                getJsonPlan("INSERT INTO UpsertSink SELECT * FROM UpsertSource"));
+    }
+
+    @Test
+    public void testNotNullNonKeyColumn() throws IOException {
+        createSink("UpsertSink", "STRING NOT NULL", "id", "'sink-insert-only' = 'false'");
+        assertKeyOnlyStates(
+                Collections.singletonList(false),
+                getJsonPlan("INSERT INTO UpsertSink SELECT * FROM NotNullUpsertSource"));
+    }
+
+    private void createSource(String name, String nameType) {
+        tEnv.executeSql(
+                "CREATE TABLE "
+                        + name
+                        + " (\n"
+                        + "  id BIGINT,\n"
+                        + "  name "
+                        + nameType
+                        + ",\n"
+                        + "  PRIMARY KEY (id) NOT ENFORCED\n"
+                        + ") WITH (\n"
+                        + "  'connector' = 'values',\n"
+                        + "  'changelog-mode' = 'I,UA,D',\n"
+                        + "  'bounded' = 'false')");
+    }
+
+    private void createSink(String name, String nameType, String primaryKey, String options) {
+        tEnv.executeSql(
+                "CREATE TABLE "
+                        + name
+                        + " (\n"
+                        + "  id BIGINT,\n"
+                        + "  name "
+                        + nameType
+                        + ",\n"
+                        + "  PRIMARY KEY ("
+                        + primaryKey
+                        + ") NOT ENFORCED\n"
+                        + ") WITH (\n"
+                        + "  'connector' = 'values',\n"
+                        + "  'table-sink-class' = 'DEFAULT',\n"
+                        + "  "
+                        + options
+                        + ")");
+    }
+
+    private String getJsonPlan(String insert) {
+        return ((TableEnvironmentInternal) tEnv).getJsonPlan(insert);
+    }
+
+    /** Asserts whether the ChangelogNormalize nodes of the given plan keep only keys in state. */
+    private static void assertKeyOnlyStates(List<Boolean> expected, String jsonPlan)
+            throws IOException {
+        List<Boolean> keyOnlyStates = new ArrayList<>();
+        for (JsonNode node : new ObjectMapper().readTree(jsonPlan).get("nodes")) {
+            if (StreamExecChangelogNormalize.class.getName().equals(node.get("class").asText())) {
+                JsonNode keyOnlyState =
+                        node.get(StreamExecChangelogNormalize.FIELD_NAME_KEY_ONLY_STATE);
+                keyOnlyStates.add(keyOnlyState != null && keyOnlyState.asBoolean());
+            }
+        }
+        assertEquals(expected, keyOnlyStates);
+    }
+}
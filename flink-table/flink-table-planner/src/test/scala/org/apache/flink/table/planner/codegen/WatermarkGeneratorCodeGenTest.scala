@@ -23,6 +23,7 @@ import org.apache.flink.configuration.Configuration
 import org.apache.flink.metrics.MetricGroup
 import org.apache.flink.streaming.util.MockStreamingRuntimeContext
 import org.apache.flink.table.api.{TableConfig, TableSchema}
+import org.apache.flink.table.api.config.ExecutionConfigOptions
 import org.apache.flink.table.catalog.{CatalogManager, FunctionCatalog, ObjectIdentifier, UnresolvedIdentifier}
 import org.apache.flink.table.data.{GenericRowData, TimestampData}
 import org.apache.flink.table.delegation.Parser
@@ -122,7 +123,19 @@ class WatermarkGeneratorCodeGenTest(useDefinedConstructor: Boolean) {
     testCustomizedWatermark(false)
   }
 
-  private def testCustomizedWatermark(isLegacy: Boolean): Unit = {
+  @Test
+  def testCustomizedWatermarkWithUdfResultCache(): Unit = {
+    // the results of the calls are not cached, as the generator may be opened without a
+    // runtime context to register the metrics of the cache in
+    val tableConfig = new TableConfig
+    tableConfig.getConfiguration.setInteger(
+      ExecutionConfigOptions.TABLE_EXEC_UDF_RESULT_CACHE_MAX_ROWS, 100)
+    testCustomizedWatermark(false, tableConfig)
+  }
+
+  private def testCustomizedWatermark(
+      isLegacy: Boolean,
+      tableConfig: TableConfig = new TableConfig): Unit = {
     JavaFunc5.openCalled = false
     JavaFunc5.closeCalled = false
     if (isLegacy) {
@@ -144,7 +157,8 @@ class WatermarkGeneratorCodeGenTest(useDefinedConstructor: Boolean) {
       )
     }
 
-    val generator = generateWatermarkGenerator("myFunc(ts, `offset`)", useDefinedConstructor)
+    val generator = generateWatermarkGenerator(
+      "myFunc(ts, `offset`)", useDefinedConstructor, tableConfig)
     if (!useDefinedConstructor) {
       // mock open and close invoking
       generator.setRuntimeContext(new MockStreamingRuntimeContext(false, 1, 1))
@@ -165,7 +179,8 @@ class WatermarkGeneratorCodeGenTest(useDefinedConstructor: Boolean) {
   }
 
   private def generateWatermarkGenerator(expr: String,
-      useDefinedConstructor: Boolean): WatermarkGenerator = {
+      useDefinedConstructor: Boolean,
+      tableConfig: TableConfig = new TableConfig): WatermarkGenerator = {
     val tableRowType = plannerContext.getTypeFactory.buildRelNodeRowType(
       Seq("ts", "offset"),
       Seq(
@@ -184,7 +199,7 @@ class WatermarkGeneratorCodeGenTest(useDefinedConstructor: Boolean) {
 
     if (useDefinedConstructor) {
       val generated = WatermarkGeneratorCodeGenerator
-        .generateWatermarkGenerator(new TableConfig(), rowType, rexNode, Option.apply("context"))
+        .generateWatermarkGenerator(tableConfig, rowType, rexNode, Option.apply("context"))
       val newReferences = generated.getReferences :+
           new WatermarkGeneratorSupplier.Context {
             override def getMetricGroup: MetricGroup = null
@@ -192,7 +207,7 @@ class WatermarkGeneratorCodeGenTest(useDefinedConstructor: Boolean) {
       generated.newInstance(Thread.currentThread().getContextClassLoader, newReferences)
     } else {
       val generated = WatermarkGeneratorCodeGenerator
-        .generateWatermarkGenerator(new TableConfig(), rowType, rexNode)
+        .generateWatermarkGenerator(tableConfig, rowType, rexNode)
       generated.newInstance(Thread.currentThread().getContextClassLoader)
     }
   }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.logical
+
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.planner.plan.optimize.program.{BatchOptimizeContext, FlinkBatchProgram, FlinkGroupProgramBuilder, FlinkHepRuleSetProgramBuilder, HEP_RULES_EXECUTION_TYPE}
+import org.apache.flink.table.planner.utils.{TableConfigUtils, TableTestBase}
+
+import org.apache.calcite.plan.hep.HepMatchOrder
+import org.apache.calcite.rel.rules.CoreRules
+import org.apache.calcite.tools.RuleSets
+import org.junit.{Before, Test}
+
+/**
+  * Test for [[JoinDerivePartitionPredicateRule]].
+  */
+class JoinDerivePartitionPredicateRuleTest extends TableTestBase {
+
+  private val util = batchTestUtil()
+
+  @Before
+  def setup(): Unit = {
+    util.buildBatchProgram(FlinkBatchProgram.DEFAULT_REWRITE)
+    val calciteConfig = TableConfigUtils.getCalciteConfig(util.tableEnv.getConfig)
+    // the rules are applied repeatedly like in the predicate rewrite group of the batch program,
+    // the derived predicates must not be added again
+    calciteConfig.getBatchProgram.get.addLast(
+      "rules",
+      FlinkGroupProgramBuilder.newBuilder[BatchOptimizeContext]
+        .addProgram(FlinkHepRuleSetProgramBuilder.newBuilder
+          .setHepRulesExecutionType(HEP_RULES_EXECUTION_TYPE.RULE_SEQUENCE)
+          .setHepMatchOrder(HepMatchOrder.BOTTOM_UP)
+          .add(RuleSets.ofList(
+            CoreRules.FILTER_INTO_JOIN,
+            CoreRules.JOIN_CONDITION_PUSH,
+            JoinDerivePartitionPredicateRule.INSTANCE))
+          .build(), "derive partition predicates")
+        .setIterations(5)
+        .build()
+    )
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_TRANSITIVE_PARTITION_PREDICATES_ENABLED, true)
+
+    util.tableEnv.executeSql(
+      """
+        |CREATE TABLE Fact (
+        |  id INT,
+        |  region INT,
+        |  amount BIGINT,
+        |  dt STRING
+        |) PARTITIONED BY (dt) WITH (
+        |  'connector' = 'values',
+        |  'bounded' = 'true',
+        |  'partition-list' = 'dt:2021-01-01;dt:2021-01-02;dt:2021-01-03'
+        |)
+      """.stripMargin)
+    util.tableEnv.executeSql(
+      """
+        |CREATE TABLE Dim (
+        |  dt STRING,
+        |  region INT
+        |) WITH (
+        |  'connector' = 'values',
+        |  'bounded' = 'true'
+        |)
+      """.stripMargin)
+  }
+
+  @Test
+  def testInnerJoin(): Unit = {
+    val sqlQuery = "SELECT id, amount FROM Fact JOIN Dim ON Fact.dt = Dim.dt " +
+      "WHERE Dim.dt = '2021-01-02'"
+    util.verifyRelPlan(sqlQuery)
+  }
+
+  @Test
+  def testSemiJoin(): Unit = {
+    val sqlQuery = "SELECT id FROM Fact WHERE dt IN " +
+      "(SELECT dt FROM Dim WHERE dt = '2021-01-02')"
+    util.verifyRelPlan(sqlQuery)
+  }
+
+  @Test
+  def testJoinOnNonPartitionColumn(): Unit = {
+    val sqlQuery = "SELECT id, amount FROM Fact JOIN Dim ON Fact.region = Dim.region " +
+      "WHERE Dim.region = 1"
+    util.verifyRelPlan(sqlQuery)
+  }
+
+  @Test
+  def testDisabled(): Unit = {
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_TRANSITIVE_PARTITION_PREDICATES_ENABLED, false)
+    val sqlQuery = "SELECT id, amount FROM Fact JOIN Dim ON Fact.dt = Dim.dt " +
+      "WHERE Dim.dt = '2021-01-02'"
+    util.verifyRelPlan(sqlQuery)
+  }
+}
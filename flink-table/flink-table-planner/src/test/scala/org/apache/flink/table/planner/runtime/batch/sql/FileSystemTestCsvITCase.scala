@@ -18,6 +18,15 @@
 
 package org.apache.flink.table.planner.runtime.batch.sql
 
+import org.apache.flink.api.common.typeinfo.Types
+import org.apache.flink.api.java.typeutils.RowTypeInfo
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.planner.runtime.utils.BatchTableEnvUtil
+import org.apache.flink.table.planner.runtime.utils.BatchTestBase.row
+
+import org.junit.Assert.{assertFalse, assertTrue}
+import org.junit.Test
+
 /**
   * Test for file system table factory with testcsv format.
   */
@@ -26,4 +35,25 @@ class FileSystemTestCsvITCase extends BatchFileSystemITCaseBase {
   override def formatProperties(): Array[String] = {
     super.formatProperties() ++ Seq("'format' = 'testcsv'")
   }
+
+  @Test
+  def testPartitionPruningWithJoinDerivedPredicates(): Unit = {
+    tableEnv.executeSql("insert into partitionedTable select x, y, a, b from originalT").await()
+    BatchTableEnvUtil.registerCollection(
+      tableEnv,
+      "dimT",
+      Seq(row(3, 2L, "d1"), row(4, 1L, "d2")),
+      new RowTypeInfo(Types.INT, Types.LONG, Types.STRING),
+      "a, b, name")
+    val query = "select p.x, d.name from partitionedTable p join dimT d " +
+      "on p.a = d.a and p.b = d.b where d.a = 3 and d.b = 2"
+
+    // all partitions are read without deriving the partition predicates
+    assertFalse(tableEnv.explainSql(query).contains("partitions=["))
+
+    tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_TRANSITIVE_PARTITION_PREDICATES_ENABLED, true)
+    assertTrue(tableEnv.explainSql(query).contains("partitions=[{a=3, b=2}]"))
+    check(query, Seq(row("x18", "d1")))
+  }
 }
@@ -19,10 +19,11 @@
 package org.apache.flink.table.planner.runtime.harness
 
 import org.apache.flink.api.scala._
+import org.apache.flink.configuration.MemorySize
 import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness
 import org.apache.flink.table.api.bridge.scala._
 import org.apache.flink.table.api.bridge.scala.internal.StreamTableEnvironmentImpl
-import org.apache.flink.table.api.config.ExecutionConfigOptions.{TABLE_EXEC_MINIBATCH_ALLOW_LATENCY, TABLE_EXEC_MINIBATCH_ENABLED, TABLE_EXEC_MINIBATCH_SIZE}
+import org.apache.flink.table.api.config.ExecutionConfigOptions.{TABLE_EXEC_MINIBATCH_ALLOW_LATENCY, TABLE_EXEC_MINIBATCH_ENABLED, TABLE_EXEC_MINIBATCH_SIZE, TABLE_EXEC_STATE_CACHE_SIZE}
 import org.apache.flink.table.api.config.OptimizerConfigOptions.TABLE_OPTIMIZER_AGG_PHASE_STRATEGY
 import org.apache.flink.table.api.{EnvironmentSettings, _}
 import org.apache.flink.table.data.RowData
@@ -36,6 +37,7 @@ import org.apache.flink.table.types.logical.LogicalType
 import org.apache.flink.types.Row
 import org.apache.flink.types.RowKind._
 
+import org.junit.Assume.assumeTrue
 import org.junit.runner.RunWith
 import org.junit.runners.Parameterized
 import org.junit.{Before, Test}
@@ -162,6 +164,58 @@ class GroupAggregateHarnessTest(mode: StateBackendMode, miniBatch: MiniBatchMode
     testHarness.close()
   }
 
+  @Test
+  def testAggregateWithStateCache(): Unit = {
+    // the accumulator cache is only used by the group aggregate without mini-batch
+    assumeTrue(miniBatch == MiniBatchOff)
+    val data = new mutable.MutableList[(String, Long)]
+    val t = env.fromCollection(data).toTable(tEnv, 'a, 'b)
+    tEnv.createTemporaryView("T", t)
+    val t1 = tEnv.sqlQuery("SELECT a, SUM(b) FROM T GROUP BY a")
+    val assertor = new RowDataHarnessAssertor(
+      Array(
+        DataTypes.STRING().getLogicalType,
+        DataTypes.BIGINT().getLogicalType))
+
+    // a cache of 1 byte can't keep any accumulator, so every accumulator is written back on
+    // eviction, while the accumulators in a large cache are only written back on snapshots
+    Seq("1b", "1mb").foreach { cacheSize =>
+      tEnv.getConfig.getConfiguration.set(TABLE_EXEC_STATE_CACHE_SIZE, MemorySize.parse(cacheSize))
+      val expectedOutput = new ConcurrentLinkedQueue[Object]()
+
+      var testHarness = createSerializedHarnessTester(t1.toRetractStream[Row], "GroupAggregate")
+      testHarness.open()
+      testHarness.processElement(binaryRecord(INSERT, "aaa", 1L: JLong))
+      expectedOutput.add(binaryRecord(INSERT, "aaa", 1L: JLong))
+      testHarness.processElement(binaryRecord(INSERT, "bbb", 1L: JLong))
+      expectedOutput.add(binaryRecord(INSERT, "bbb", 1L: JLong))
+      testHarness.processElement(binaryRecord(INSERT, "aaa", 2L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_BEFORE, "aaa", 1L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_AFTER, "aaa", 3L: JLong))
+      assertor.assertOutputEqualsSorted("result mismatch", expectedOutput, testHarness.getOutput)
+
+      // the accumulators are restored from the snapshot
+      val snapshot = testHarness.snapshot(0L, 0)
+      testHarness.close()
+      expectedOutput.clear()
+      testHarness = createSerializedHarnessTester(t1.toRetractStream[Row], "GroupAggregate")
+      testHarness.setup()
+      testHarness.initializeState(snapshot)
+      testHarness.open()
+
+      testHarness.processElement(binaryRecord(INSERT, "aaa", 4L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_BEFORE, "aaa", 3L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_AFTER, "aaa", 7L: JLong))
+      testHarness.processElement(binaryRecord(INSERT, "bbb", 2L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_BEFORE, "bbb", 1L: JLong))
+      expectedOutput.add(binaryRecord(UPDATE_AFTER, "bbb", 3L: JLong))
+      testHarness.processElement(binaryRecord(INSERT, "ccc", 5L: JLong))
+      expectedOutput.add(binaryRecord(INSERT, "ccc", 5L: JLong))
+      assertor.assertOutputEqualsSorted("result mismatch", expectedOutput, testHarness.getOutput)
+      testHarness.close()
+    }
+  }
+
   @Test
   def testAggregationWithDistinct(): Unit = {
     val (testHarness, outputTypes) = createAggregationWithDistinct
@@ -35,6 +35,7 @@ import org.apache.flink.table.data.RowData
 import org.apache.flink.table.planner.JLong
 import org.apache.flink.table.planner.runtime.utils.StreamingTestBase
 import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.{HEAP_BACKEND, ROCKSDB_BACKEND, StateBackendMode}
+import org.apache.flink.util.InstantiationUtil
 
 import org.junit.runners.Parameterized
 
@@ -86,6 +87,27 @@ class HarnessTestBase(mode: StateBackendMode) extends StreamingTestBase {
       .asInstanceOf[KeyedOneInputStreamOperatorTestHarness[RowData, RowData, RowData]]
   }
 
+  /**
+    * Creates a harness for a copy of the operator which is serialized and deserialized like in
+    * the job graph, so that only the fields which are shipped to the task managers are kept.
+    */
+  def createSerializedHarnessTester(
+      ds: DataStream[_],
+      prefixOperatorName: String)
+  : KeyedOneInputStreamOperatorTestHarness[RowData, RowData, RowData] = {
+    val transformation = extractExpectedTransformation(
+      ds.javaStream.getTransformation,
+      prefixOperatorName)
+    val processOperator = InstantiationUtil.clone(
+      transformation.getOperator.asInstanceOf[OneInputStreamOperator[Any, Any]],
+      classLoader)
+    val keySelector = transformation.getStateKeySelector.asInstanceOf[KeySelector[Any, Any]]
+    val keyType = transformation.getStateKeyType.asInstanceOf[TypeInformation[Any]]
+
+    createHarnessTester(processOperator, keySelector, keyType)
+      .asInstanceOf[KeyedOneInputStreamOperatorTestHarness[RowData, RowData, RowData]]
+  }
+
   def createHarnessTesterForNoState(
       ds: DataStream[_],
       prefixOperatorName: String)
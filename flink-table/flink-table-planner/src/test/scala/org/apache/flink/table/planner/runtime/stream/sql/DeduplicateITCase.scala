@@ -19,9 +19,11 @@
 package org.apache.flink.table.planner.runtime.stream.sql
 
 import org.apache.flink.api.scala._
+import org.apache.flink.configuration.MemorySize
 import org.apache.flink.streaming.api.functions.timestamps.AscendingTimestampExtractor
 import org.apache.flink.table.api._
 import org.apache.flink.table.api.bridge.scala._
+import org.apache.flink.table.api.config.ExecutionConfigOptions
 import org.apache.flink.table.planner.factories.TestValuesTableFactory
 import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecDeduplicate
 import org.apache.flink.table.planner.runtime.utils.StreamingWithMiniBatchTestBase.{MiniBatchMode, MiniBatchOn}
@@ -259,6 +261,40 @@ class DeduplicateITCase(miniBatch: MiniBatchMode, mode: StateBackendMode)
     assertEquals(expected.sorted, rawResult.sorted)
   }
 
+  @Test
+  def testLastRowOnRowtimeFollowedByUnboundedAggWithStateCache(): Unit = {
+    // the state cache is used by the deduplicate and the group aggregate without mini-batch
+    Assume.assumeTrue("State cache only without minibatch.", miniBatch != MiniBatchOn)
+    // the cache only keeps a few rows, so they are written back on eviction and on checkpoints
+    tEnv.getConfig.getConfiguration.set(
+      ExecutionConfigOptions.TABLE_EXEC_STATE_CACHE_SIZE, MemorySize.parse("256b"))
+    val t = env.fromCollection(rowtimeTestData)
+      .assignTimestampsAndWatermarks(new RowtimeExtractor)
+      .toTable(tEnv, 'a, 'b, 'c, 'rowtime.rowtime())
+    tEnv.registerTable("T", t)
+
+    val sql =
+      """
+        |SELECT c, COUNT(*), SUM(b) FROM (
+        | SELECT a, b, c
+        | FROM (
+        |   SELECT *,
+        |     ROW_NUMBER() OVER (PARTITION BY a ORDER BY rowtime DESC) as rowNum
+        |   FROM T
+        | )
+        | WHERE rowNum = 1
+        |)
+        |GROUP BY c
+      """.stripMargin
+
+    val sink = new TestingRetractSink
+    tEnv.sqlQuery(sql).toRetractStream[Row].addSink(sink).setParallelism(1)
+    env.execute()
+
+    val expected = List("Comment#1,1,6", "Comment#2,1,5", "Comment#3,1,4", "Hello,1,3")
+    assertEquals(expected.sorted, sink.getRetractResults.sorted)
+  }
+
   @Test
   def testLastRowOnRowtime(): Unit = {
     val t = env.fromCollection(rowtimeTestData)
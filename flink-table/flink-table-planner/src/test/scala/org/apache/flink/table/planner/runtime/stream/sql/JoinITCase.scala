@@ -22,6 +22,7 @@ import org.apache.flink.api.scala._
 import org.apache.flink.streaming.api.TimeCharacteristic
 import org.apache.flink.table.api._
 import org.apache.flink.table.api.bridge.scala._
+import org.apache.flink.table.api.config.ExecutionConfigOptions
 import org.apache.flink.table.planner.expressions.utils.FuncWithOpen
 import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.StateBackendMode
 import org.apache.flink.table.planner.runtime.utils._
@@ -31,6 +32,8 @@ import org.junit.Test
 import org.junit.runner.RunWith
 import org.junit.runners.Parameterized
 
+import java.time.Duration
+
 import scala.collection.{Seq, mutable}
 
 @RunWith(classOf[Parameterized])
@@ -260,6 +263,72 @@ class JoinITCase(state: StateBackendMode) extends StreamingWithStateTestBase(sta
     assertEquals(expected.sorted, sink.getRetractResults.sorted)
   }
 
+  @Test
+  def testInnerJoinWithRecordCountState(): Unit = {
+    tEnv.getConfig.getConfiguration.setBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_JOIN_STATE_RECORD_COUNT_ENABLED, true)
+
+    // the right side has no unique key and produces retractions
+    val query =
+      """
+        |SELECT a1, a3, c
+        |FROM A JOIN (SELECT COUNT(*) AS c FROM B GROUP BY b1) ON a1 = c
+        |""".stripMargin
+
+    val sink = new TestingRetractSink
+    tEnv.sqlQuery(query).toRetractStream[Row].addSink(sink).setParallelism(1)
+    env.execute()
+
+    val expected = Seq("1,Hi,1", "2,Hello,2", "3,Hello world,3")
+    assertEquals(expected.sorted, sink.getRetractResults.sorted)
+  }
+
+  @Test
+  def testMiniBatchInnerJoinWithRetraction(): Unit = {
+    enableMiniBatch()
+
+    val query =
+      """
+        |SELECT a1, a3, c
+        |FROM A JOIN (SELECT COUNT(*) AS c FROM B GROUP BY b1) ON a1 = c
+        |""".stripMargin
+
+    val sink = new TestingRetractSink
+    tEnv.sqlQuery(query).toRetractStream[Row].addSink(sink).setParallelism(1)
+    env.execute()
+
+    val expected = Seq("1,Hi,1", "2,Hello,2", "3,Hello world,3")
+    assertEquals(expected.sorted, sink.getRetractResults.sorted)
+  }
+
+  @Test
+  def testMiniBatchFullOuterJoinWithRetraction(): Unit = {
+    enableMiniBatch()
+
+    val query =
+      """
+        |SELECT a1, a3, c
+        |FROM A FULL OUTER JOIN (SELECT COUNT(*) AS c FROM B GROUP BY b1) ON a1 = c
+        |""".stripMargin
+
+    val sink = new TestingRetractSink
+    tEnv.sqlQuery(query).toRetractStream[Row].addSink(sink).setParallelism(1)
+    env.execute()
+
+    val expected = Seq(
+      "1,Hi,1", "2,Hello,2", "3,Hello world,3", "null,null,4", "null,null,5")
+    assertEquals(expected.sorted, sink.getRetractResults.sorted)
+  }
+
+  private def enableMiniBatch(): Unit = {
+    val configuration = tEnv.getConfig.getConfiguration
+    configuration.setBoolean(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED, true)
+    configuration.set(
+      ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ALLOW_LATENCY, Duration.ofSeconds(1))
+    configuration.setLong(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_SIZE, 3L)
+    configuration.setBoolean(ExecutionConfigOptions.TABLE_EXEC_JOIN_MINIBATCH_ENABLED, true)
+  }
+
   @Test
   def testJoinWithMultipleKeys(): Unit = {
     val sqlQuery = "SELECT c, g FROM Table3, Table5 WHERE a = d AND b = h"
@@ -25,6 +25,7 @@ import org.apache.flink.table.api._
 import org.apache.flink.table.api.bridge.scala._
 import org.apache.flink.table.api.internal.TableEnvironmentInternal
 import org.apache.flink.table.planner.factories.TestValuesTableFactory
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecRank
 import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.StateBackendMode
 import org.apache.flink.table.planner.runtime.utils._
 import org.apache.flink.table.runtime.types.TypeInfoDataTypeConverter.fromDataTypeToTypeInfo
@@ -464,6 +465,13 @@ class RankITCase(mode: StateBackendMode) extends StreamingWithStateTestBase(mode
     assertEquals(expected.sorted, sink.getRetractResults.sorted)
   }
 
+  @Test
+  def testTopNWithGroupByAndRetractWithSortKeyMapState(): Unit = {
+    tEnv.getConfig.getConfiguration.setBoolean(
+      StreamExecRank.TABLE_EXEC_TOPN_SORT_KEY_MAP_STATE_ENABLED, true)
+    testTopNWithGroupByAndRetract()
+  }
+
   @Test
   def testTopNthWithGroupByAndRetract(): Unit = {
     val data = List(
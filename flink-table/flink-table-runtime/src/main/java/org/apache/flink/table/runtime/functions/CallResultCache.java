@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.functions;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.LRUMap;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A cache of the results of a deterministic function call by its arguments, which is used by the
+ * generated code to skip the calls of an expensive function for recently seen arguments.
+ *
+ * <p>The arguments and the result of a call are passed as rows of internal data structures, the
+ * result row has a single field. The arguments are cached in their binary representation and the
+ * result is copied, so the passed rows can be reused. The least recently used results are evicted
+ * when the cache is full.
+ *
+ * <p>Note: This class is not thread-safe.
+ */
+public final class CallResultCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    // the index of the call among the cached calls of the generated class, as a function may be
+    // called several times, e.g. with different arguments in one projection
+    private final int callIndex;
+    private final RowDataSerializer argumentsSerializer;
+    private final RowDataSerializer resultSerializer;
+    private final int maxSize;
+
+    private transient LRUMap<BinaryRowData, RowData> cache;
+    private transient Counter hitCounter;
+    private transient Counter missCounter;
+
+    public CallResultCache(
+            String name,
+            int callIndex,
+            LogicalType[] argumentTypes,
+            LogicalType resultType,
+            int maxSize) {
+        checkArgument(maxSize > 0, "The maximum size of the cache must be positive.");
+        this.name = name;
+        this.callIndex = callIndex;
+        this.argumentsSerializer = new RowDataSerializer(argumentTypes);
+        this.resultSerializer = new RowDataSerializer(resultType);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates the cache and registers its metrics in a sub group named by the function and the
+     * index of the call.
+     */
+    public void open(MetricGroup metricGroup) {
+        cache = new LRUMap<>(maxSize);
+        MetricGroup cacheGroup = metricGroup.addGroup("callResultCache", name + "_" + callIndex);
+        hitCounter = cacheGroup.counter("hits");
+        missCounter = cacheGroup.counter("misses");
+        cacheGroup.<Double, Gauge<Double>>gauge("hitRate", this::getHitRate);
+        cacheGroup.<Integer, Gauge<Integer>>gauge("size", () -> cache.size());
+    }
+
+    /** Returns the cached result row of the given arguments, or null if it is not cached. */
+    @Nullable
+    public RowData get(RowData arguments) {
+        RowData result = cache.get(argumentsSerializer.toBinaryRow(arguments));
+        if (result != null) {
+            hitCounter.inc();
+        } else {
+            missCounter.inc();
+        }
+        return result;
+    }
+
+    /** Caches a copy of the given result row by the given arguments. */
+    public void put(RowData arguments, RowData result) {
+        cache.put(
+                argumentsSerializer.toBinaryRow(arguments).copy(), resultSerializer.copy(result));
+    }
+
+    private double getHitRate() {
+        long requestCount = hitCounter.getCount() + missCounter.getCount();
+        return requestCount == 0 ? 0.0 : (double) hitCounter.getCount() / requestCount;
+    }
+}
@@ -28,6 +28,8 @@ import org.codehaus.janino.SimpleCompiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /** Utilities to compile a generated code to a Class. */
@@ -57,8 +59,29 @@ public final class CompileUtils {
      * @param <T> the class type
      * @return the compiled class
      */
-    @SuppressWarnings("unchecked")
     public static <T> Class<T> compile(ClassLoader cl, String name, String code) {
+        return compile(cl, name, code, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Compiles a generated code to a Class, the byte code of the class is cached in the given
+     * directory if it is not null.
+     *
+     * @param cl the ClassLoader used to load the class
+     * @param name the class name
+     * @param code the generated code
+     * @param compiledCacheDir the local directory to cache the compiled byte code in, or null
+     * @param compiledCacheMaxBytes the maximum total size of the files in the cache directory
+     * @param <T> the class type
+     * @return the compiled class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Class<T> compile(
+            ClassLoader cl,
+            String name,
+            String code,
+            @Nullable String compiledCacheDir,
+            long compiledCacheMaxBytes) {
         try {
             Cache<ClassLoader, Class> compiledClasses =
                     COMPILED_CACHE.get(
@@ -71,7 +94,23 @@ public final class CompileUtils {
                                             .weakKeys()
                                             .softValues()
                                             .build());
-            return compiledClasses.get(cl, () -> doCompile(cl, name, code));
+            return compiledClasses.get(
+                    cl,
+                    () -> {
+                        if (compiledCacheDir != null) {
+                            Class<?> clazz =
+                                    PersistentCompiledCache.loadOrCompile(
+                                            cl,
+                                            name,
+                                            code,
+                                            compiledCacheDir,
+                                            compiledCacheMaxBytes);
+                            if (clazz != null) {
+                                return clazz;
+                            }
+                        }
+                        return doCompile(cl, name, code);
+                    });
         } catch (Exception e) {
             throw new FlinkRuntimeException(e.getMessage(), e);
         }
@@ -25,6 +25,8 @@ import org.apache.flink.table.codesplit.JavaCodeSplitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -41,6 +43,8 @@ public abstract class GeneratedClass<T> implements Serializable {
     private final String code;
     private final String splitCode;
     private final Object[] references;
+    private final @Nullable String compiledCacheDir;
+    private final long compiledCacheMaxBytes;
 
     private transient Class<T> compiledClass;
 
@@ -60,6 +64,10 @@ public abstract class GeneratedClass<T> implements Serializable {
                                 conf.getInteger(TableConfigOptions.MAX_LENGTH_GENERATED_CODE),
                                 conf.getInteger(TableConfigOptions.MAX_MEMBERS_GENERATED_CODE));
         this.references = references;
+        this.compiledCacheDir =
+                conf.getString(TableConfigOptions.COMPILED_CACHE_DIR_GENERATED_CODE);
+        this.compiledCacheMaxBytes =
+                conf.get(TableConfigOptions.COMPILED_CACHE_MAX_SIZE_GENERATED_CODE).getBytes();
     }
 
     /** Create a new instance of this generated class. */
@@ -95,11 +103,23 @@ public abstract class GeneratedClass<T> implements Serializable {
             // cache the compiled class
             try {
                 // first try to compile the split code
-                compiledClass = CompileUtils.compile(classLoader, className, splitCode);
+                compiledClass =
+                        CompileUtils.compile(
+                                classLoader,
+                                className,
+                                splitCode,
+                                compiledCacheDir,
+                                compiledCacheMaxBytes);
             } catch (Throwable t) {
                 // compile the original code as fallback
                 LOG.warn("Failed to compile split code, falling back to original code", t);
-                compiledClass = CompileUtils.compile(classLoader, className, code);
+                compiledClass =
+                        CompileUtils.compile(
+                                classLoader,
+                                className,
+                                code,
+                                compiledCacheDir,
+                                compiledCacheMaxBytes);
             }
         }
         return compiledClass;
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.generated;
+
+import org.apache.flink.runtime.util.EnvironmentInformation;
+import org.apache.flink.util.StringUtils;
+
+import org.codehaus.janino.ClassLoaderIClassLoader;
+import org.codehaus.janino.Java;
+import org.codehaus.janino.Parser;
+import org.codehaus.janino.Scanner;
+import org.codehaus.janino.UnitCompiler;
+import org.codehaus.janino.util.ClassFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A cache of the byte code of compiled generated classes in a local directory, which is shared by
+ * all tasks, restarted tasks and jobs which use the same directory.
+ *
+ * <p>The byte code of all classes of a generated code, including its inner classes, is stored in
+ * one file which is named by the SHA-256 hash of the code, the versions of Flink and Janino, and
+ * the contents of the jars on the class path which the code is compiled against. The byte code
+ * depends on all of them, e.g. the compiler resolves overloaded methods of user defined functions
+ * on the class path. The jars are hashed by content rather than by URL, because the user jars of
+ * a job are stored under job specific paths. The jars of the application class loader, which is no
+ * {@link URLClassLoader} since Java 9, are taken from the system class path. Directories on the
+ * class path are only keyed by their path.
+ *
+ * <p>Files are written to a temporary file first and then atomically moved into place, so that
+ * concurrent tasks never read a partially written file. Each file contains the SHA-256 digest of
+ * its byte code, which is verified before any class is loaded from it. The modification time of a
+ * file is updated whenever it is read, and the least recently used files are deleted when the
+ * total size of the directory exceeds its maximum after a file is written. Any failure of reading
+ * or writing the cache is logged and the code is compiled as if the cache was not configured.
+ */
+final class PersistentCompiledCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentCompiledCache.class);
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String FILE_SUFFIX = ".classes";
+
+    /** The versions of the code which produce the byte code. */
+    private static final String COMPILER_VERSION =
+            EnvironmentInformation.getVersion()
+                    + '/'
+                    + EnvironmentInformation.getGitCommitId()
+                    + '/'
+                    + getJaninoVersion();
+
+    /** The content digests of the jars on the class path, computed once per jar version. */
+    private static final Map<Path, JarDigest> JAR_DIGESTS = new ConcurrentHashMap<>();
+
+    private PersistentCompiledCache() {}
+
+    /**
+     * Loads the class of the given name from the byte code cached for the given code, or compiles
+     * the code and caches its byte code if it is not cached yet.
+     *
+     * @return the loaded class, or null if the class could neither be loaded from the cache nor be
+     *     compiled to byte code, the caller should compile the code as usual in that case
+     */
+    static Class<?> loadOrCompile(
+            ClassLoader cl, String name, String code, String cacheDir, long maxBytes) {
+        Path file;
+        try {
+            file = Paths.get(cacheDir, hash(cl, code) + FILE_SUFFIX);
+        } catch (Exception e) {
+            LOG.warn("Failed to determine the cache file of class {} in {}.", name, cacheDir, e);
+            return null;
+        }
+
+        Map<String, byte[]> byteCodes = null;
+        if (Files.exists(file)) {
+            try {
+                byteCodes = read(file);
+            } catch (IOException e) {
+                LOG.warn("Failed to read cached byte code of class {} from {}.", name, file, e);
+            }
+        }
+        if (byteCodes != null) {
+            // mark the file as recently used, so that it is evicted last
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                LOG.debug("Failed to update the modification time of {}.", file, e);
+            }
+        } else {
+            try {
+                byteCodes = compileToByteCode(cl, code);
+            } catch (Exception e) {
+                LOG.debug("Failed to compile class {} to byte code.", name, e);
+                return null;
+            }
+            try {
+                write(file, byteCodes);
+                evict(file.getParent(), maxBytes);
+            } catch (IOException e) {
+                LOG.warn("Failed to cache byte code of class {} in {}.", name, file, e);
+            }
+        }
+
+        try {
+            return new ByteCodeClassLoader(cl, byteCodes).loadClass(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOG.warn("Failed to load class {} from byte code cached in {}.", name, file, e);
+            return null;
+        }
+    }
+
+    private static Map<String, byte[]> compileToByteCode(ClassLoader cl, String code)
+            throws Exception {
+        Parser parser = new Parser(new Scanner(null, new StringReader(code)));
+        Java.CompilationUnit unit = parser.parseCompilationUnit();
+        ClassFile[] classFiles =
+                new UnitCompiler(unit, new ClassLoaderIClassLoader(cl))
+                        .compileUnit(false, true, false);
+        Map<String, byte[]> byteCodes = new HashMap<>();
+        for (ClassFile classFile : classFiles) {
+            byteCodes.put(classFile.getThisClassName(), classFile.toByteArray());
+        }
+        return byteCodes;
+    }
+
+    private static Map<String, byte[]> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unexpected format version " + version + ".");
+            }
+            byte[] expectedDigest = new byte[in.readInt()];
+            in.readFully(expectedDigest);
+            byte[] payload = readFully(in);
+            if (!MessageDigest.isEqual(expectedDigest, digest(payload))) {
+                throw new IOException("The digest of the cached byte code does not match.");
+            }
+            return deserialize(payload);
+        }
+    }
+
+    private static void write(Path file, Map<String, byte[]> byteCodes) throws IOException {
+        byte[] payload = serialize(byteCodes);
+        byte[] digest = digest(payload);
+        Path dir = file.getParent();
+        Files.createDirectories(dir);
+        Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmpFile))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(digest.length);
+                out.write(digest);
+                out.write(payload);
+            }
+            Files.move(
+                    tmpFile,
+                    file,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private static byte[] serialize(Map<String, byte[]> byteCodes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(byteCodes.size());
+            for (Map.Entry<String, byte[]> entry : byteCodes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, byte[]> deserialize(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int numClasses = in.readInt();
+            Map<String, byte[]> byteCodes = new HashMap<>(numClasses);
+            for (int i = 0; i < numClasses; i++) {
+                String className = in.readUTF();
+                byte[] byteCode = new byte[in.readInt()];
+                in.readFully(byteCode);
+                byteCodes.put(className, byteCode);
+            }
+            return byteCodes;
+        }
+    }
+
+    /**
+     * Deletes the least recently used files of the directory until their total size does not
+     * exceed the given maximum.
+     */
+    private static void evict(Path dir, long maxBytes) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files =
+                    stream.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                            .collect(Collectors.toList());
+        }
+        List<CachedFile> cachedFiles = new ArrayList<>(files.size());
+        long totalBytes = 0;
+        for (Path path : files) {
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(path, BasicFileAttributes.class);
+                cachedFiles.add(
+                        new CachedFile(path, attributes.size(), attributes.lastModifiedTime()));
+                totalBytes += attributes.size();
+            } catch (IOException e) {
+                // the file has been deleted by another task in the meantime
+                LOG.debug("Failed to read the attributes of the cached file {}.", path, e);
+            }
+        }
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        cachedFiles.sort(Comparator.comparing(cachedFile -> cachedFile.lastModifiedTime));
+        for (CachedFile cachedFile : cachedFiles) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(cachedFile.path);
+            totalBytes -= cachedFile.size;
+        }
+    }
+
+    private static String hash(ClassLoader cl, String code) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(COMPILER_VERSION.getBytes(StandardCharsets.UTF_8));
+        // the contents of the user jars and of the jars of the parent class loaders
+        for (ClassLoader loader = cl; loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    updateClassPathEntry(digest, url);
+                }
+            }
+        }
+        // the application class loader is no URLClassLoader since Java 9
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                updateClassPathEntry(digest, Paths.get(entry).toUri().toURL());
+            }
+        }
+        digest.update((byte) 0);
+        return StringUtils.byteToHexString(digest.digest(code.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void updateClassPathEntry(MessageDigest digest, URL url) throws IOException {
+        digest.update((byte) 0);
+        Path path = null;
+        if ("file".equals(url.getProtocol())) {
+            try {
+                path = Paths.get(url.toURI());
+            } catch (Exception e) {
+                LOG.debug("Failed to convert {} to a path.", url, e);
+            }
+        }
+        if (path != null && Files.isRegularFile(path)) {
+            digest.update(getJarDigest(path));
+        } else {
+            digest.update(url.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Returns the content digest of the given jar, which is only computed if the jar changed. */
+    private static byte[] getJarDigest(Path jar) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        JarDigest jarDigest = JAR_DIGESTS.get(jar);
+        if (jarDigest == null || !jarDigest.matches(attributes)) {
+            MessageDigest digest = newDigest();
+            try (InputStream in = Files.newInputStream(jar)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            jarDigest = new JarDigest(attributes, digest.digest());
+            JAR_DIGESTS.put(jar, jarDigest);
+        }
+        return jarDigest.digest;
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        return newDigest().digest(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String getJaninoVersion() {
+        Package janinoPackage = UnitCompiler.class.getPackage();
+        String version = janinoPackage == null ? null : janinoPackage.getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+        // fall back to the location of the jar if its manifest has no version
+        try {
+            return String.valueOf(
+                    UnitCompiler.class.getProtectionDomain().getCodeSource().getLocation());
+        } catch (Exception e) {
+            return EnvironmentInformation.UNKNOWN;
+        }
+    }
+
+    /** The path, size and modification time of a cached file. */
+    private static final class CachedFile {
+        private final Path path;
+        private final long size;
+        private final FileTime lastModifiedTime;
+
+        private CachedFile(Path path, long size, FileTime lastModifiedTime) {
+            this.path = path;
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+        }
+    }
+
+    /** The content digest of a jar and the size and modification time it was computed for. */
+    private static final class JarDigest {
+        private final long size;
+        private final FileTime lastModifiedTime;
+        private final byte[] digest;
+
+        private JarDigest(BasicFileAttributes attributes, byte[] digest) {
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.digest = digest;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModifiedTime.equals(attributes.lastModifiedTime());
+        }
+    }
+
+    /** A class loader which defines the classes of a generated code from their byte code. */
+    private static final class ByteCodeClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> byteCodes;
+
+        private ByteCodeClassLoader(ClassLoader parent, Map<String, byte[]> byteCodes) {
+            super(parent);
+            this.byteCodes = byteCodes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] byteCode = byteCodes.get(name);
+            if (byteCode == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, byteCode, 0, byteCode.length);
+        }
+    }
+}
@@ -134,6 +134,19 @@ public abstract class BaseHybridHashTable implements MemorySegmentPool {
     protected transient long numSpillFiles;
     protected transient long spillInBytes;
 
+    /** The number of spilled partitions which were re-partitioned because they were too large. */
+    protected transient long numRepartitions;
+    /** The deepest recursion level of the spilled partitions which were built into a table. */
+    protected transient int maxRecursionLevel;
+    /** The size of the largest build side of the spilled partitions, hints at skewed keys. */
+    protected transient long maxSpilledPartitionInBytes;
+    /**
+     * The number of probe records of spilled partitions which were joined right away instead of
+     * being spilled, because the runtime filter of the partition showed that no build side record
+     * can match them.
+     */
+    protected transient long numFilteredProbeRecords;
+
     public BaseHybridHashTable(
             Configuration conf,
             Object owner,
@@ -452,6 +465,45 @@ public abstract class BaseHybridHashTable implements MemorySegmentPool {
         return spillInBytes;
     }
 
+    public long getNumRepartitions() {
+        return numRepartitions;
+    }
+
+    public int getMaxRecursionLevel() {
+        return maxRecursionLevel;
+    }
+
+    public long getMaxSpilledPartitionInBytes() {
+        return maxSpilledPartitionInBytes;
+    }
+
+    public long getNumFilteredProbeRecords() {
+        return numFilteredProbeRecords;
+    }
+
+    /**
+     * Checks the recursion level of a spilled partition which is going to be built into a table,
+     * and updates the recursion metrics.
+     */
+    protected void trackSpilledPartitionBuild(
+            int partitionNumber,
+            int recursionLevel,
+            long buildSideRecordCount,
+            int buildSideBlockCount) {
+        if (recursionLevel > MAX_RECURSION_DEPTH) {
+            throw new RuntimeException(
+                    String.format(
+                            "Hash join exceeded maximum number of recursions, without reducing "
+                                    + "partitions enough to be memory resident. Probably cause: "
+                                    + "Too many duplicate keys. Partition [%d] still has %d build "
+                                    + "side records in %d blocks.",
+                            partitionNumber, buildSideRecordCount, buildSideBlockCount));
+        }
+        maxRecursionLevel = Math.max(maxRecursionLevel, recursionLevel);
+        maxSpilledPartitionInBytes =
+                Math.max(maxSpilledPartitionInBytes, (long) buildSideBlockCount * segmentSize);
+    }
+
     /** Give up to one-sixth of the memory of the bucket area. */
     public int maxInitBufferOfBucketArea(int partitions) {
         return Math.max(1, ((totalNumBuffers - 2) / 6) / partitions);
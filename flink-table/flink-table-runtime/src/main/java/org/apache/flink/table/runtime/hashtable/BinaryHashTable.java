@@ -252,8 +252,13 @@ public class BinaryHashTable extends BaseHybridHashTable {
             if (p.testHashBloomFilter(hash)) {
                 BinaryRowData row = originProbeSideSerializer.toBinaryRow(record);
                 p.insertIntoProbeBuffer(row);
+                return false;
             }
-            return false;
+            // no build side record of the spilled partition can match, join the probe record
+            // with an empty build side right away, so that outer and anti joins still emit it
+            numFilteredProbeRecords++;
+            this.bucketIterator.setEmpty();
+            return true;
         }
     }
 
@@ -439,11 +444,12 @@ public class BinaryHashTable extends BaseHybridHashTable {
         final int nextRecursionLevel = p.getRecursionLevel() + 1;
         if (nextRecursionLevel == 2) {
             LOG.info("Recursive hash join: partition number is " + p.getPartitionNumber());
-        } else if (nextRecursionLevel > MAX_RECURSION_DEPTH) {
-            throw new RuntimeException(
-                    "Hash join exceeded maximum number of recursions, without reducing "
-                            + "partitions enough to be memory resident. Probably cause: Too many duplicate keys.");
         }
+        trackSpilledPartitionBuild(
+                p.getPartitionNumber(),
+                nextRecursionLevel,
+                p.getBuildSideRecordCount(),
+                p.getBuildSideBlockCount());
 
         if (p.getBuildSideBlockCount() > p.getProbeSideBlockCount()) {
             LOG.info(
@@ -523,6 +529,7 @@ public class BinaryHashTable extends BaseHybridHashTable {
                 area.insertToBucket(hashCode, pointer, true);
             }
         } else {
+            numRepartitions++;
             // go over the complete input and insert every element into the hash table
             // compute in how many splits, we'd need to partition the result
             final int splits = (int) (totalBuffersNeeded / totalBuffersAvailable) + 1;
@@ -578,6 +578,11 @@ public class LongHashPartition extends AbstractPagedInputView implements Seekabl
         return maxKey;
     }
 
+    /** Returns false if no build side record of this partition can have the given key. */
+    boolean mayContainKey(long key) {
+        return key >= minKey && key <= maxKey;
+    }
+
     private void updateMinMax(long key) {
         if (key < minKey) {
             minKey = key;
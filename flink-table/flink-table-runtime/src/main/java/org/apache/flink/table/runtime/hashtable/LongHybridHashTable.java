@@ -43,8 +43,10 @@ import static org.apache.flink.table.runtime.hashtable.LongHashPartition.INVALID
 /**
  * Special optimized hashTable with key long.
  *
- * <p>See {@link LongHashPartition}. TODO add min max long filter and bloomFilter to spilled
- * partition.
+ * <p>See {@link LongHashPartition}. The min and max build side keys of a spilled partition are
+ * used as a runtime filter for its probe side, a probe record whose key is out of that range can not
+ * match and is joined with an empty build side right away instead of being spilled. TODO add
+ * bloomFilter to spilled partition.
  */
 public abstract class LongHybridHashTable extends BaseHybridHashTable {
 
@@ -143,6 +145,10 @@ public abstract class LongHybridHashTable extends BaseHybridHashTable {
             if (p.isInMemory()) {
                 this.matchIterator = p.get(probeKey, hash);
                 return true;
+            } else if (!p.mayContainKey(probeKey)) {
+                this.matchIterator = p.valueIter(INVALID_ADDRESS);
+                numFilteredProbeRecords++;
+                return true;
             } else {
                 p.insertIntoProbeBuffer(probeSideSerializer, probeToBinary(record));
                 return false;
@@ -324,6 +330,10 @@ public abstract class LongHybridHashTable extends BaseHybridHashTable {
                 if (p.isInMemory()) {
                     this.matchIterator = p.get(probeKey, hash);
                     return true;
+                } else if (!p.mayContainKey(probeKey)) {
+                    this.matchIterator = p.valueIter(INVALID_ADDRESS);
+                    numFilteredProbeRecords++;
+                    return true;
                 } else {
                     p.insertIntoProbeBuffer(probeSideSerializer, next);
                 }
@@ -400,11 +410,12 @@ public abstract class LongHybridHashTable extends BaseHybridHashTable {
         final int nextRecursionLevel = p.getRecursionLevel() + 1;
         if (nextRecursionLevel == 2) {
             LOG.info("Recursive hash join: partition number is " + p.getPartitionNumber());
-        } else if (nextRecursionLevel > MAX_RECURSION_DEPTH) {
-            throw new RuntimeException(
-                    "Hash join exceeded maximum number of recursions, without reducing "
-                            + "partitions enough to be memory resident. Probably cause: Too many duplicate keys.");
         }
+        trackSpilledPartitionBuild(
+                p.getPartitionNumber(),
+                nextRecursionLevel,
+                p.getBuildSideRecordCount(),
+                p.getBuildSideBlockCount());
 
         if (p.getBuildSideBlockCount() > p.getProbeSideBlockCount()) {
             LOG.info(
@@ -480,6 +491,7 @@ public abstract class LongHybridHashTable extends BaseHybridHashTable {
                 newPart.insertIntoBucket(key, hashCode, pIter.getRow().getSizeInBytes(), pointer);
             }
         } else {
+            numRepartitions++;
             // go over the complete input and insert every element into the hash table
             // compute in how many splits, we'd need to partition the result
             final int splits = (int) (totalBuffersNeeded / totalBuffersAvailable) + 1;
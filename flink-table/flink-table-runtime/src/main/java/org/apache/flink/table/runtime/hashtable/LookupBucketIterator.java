@@ -79,6 +79,12 @@ public class LookupBucketIterator implements RowIterator<BinaryRowData> {
         this.numInBucket = 0;
     }
 
+    /** Sets the iterator to have no build side records. */
+    public void setEmpty() {
+        this.countInBucket = 0;
+        this.instance = null;
+    }
+
     @Override
     public boolean advanceNext() {
         // loop over all segments that are involved in the bucket (original bucket plus overflow
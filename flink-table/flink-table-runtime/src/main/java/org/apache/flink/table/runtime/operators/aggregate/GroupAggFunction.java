@@ -22,7 +22,11 @@ import org.apache.flink.api.common.state.StateTtlConfig;
 import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.state.ValueStateDescriptor;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.streaming.api.operators.KeyContext;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.utils.JoinedRowData;
 import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
@@ -31,6 +35,8 @@ import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
 import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
 import org.apache.flink.table.runtime.generated.RecordEqualiser;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.CachedValueState;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.types.RowKind;
 import org.apache.flink.util.Collector;
@@ -38,9 +44,11 @@ import org.apache.flink.util.Collector;
 import static org.apache.flink.table.data.util.RowDataUtil.isAccumulateMsg;
 import static org.apache.flink.table.data.util.RowDataUtil.isRetractMsg;
 import static org.apache.flink.table.runtime.util.StateConfigUtil.createTtlConfig;
+import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /** Aggregate Function used for the groupby (without window) aggregate. */
-public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, RowData> {
+public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, RowData>
+        implements CheckpointedFunction {
 
     private static final long serialVersionUID = -4767158666069797704L;
 
@@ -62,6 +70,15 @@ public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, Row
     /** State idle retention time which unit is MILLISECONDS. */
     private final long stateRetentionTime;
 
+    /** The memory size of the accumulator cache in bytes, the cache is disabled if not positive. */
+    private final long cacheBytes;
+
+    /**
+     * Used to switch the current key when the cached accumulators are written into state. It is
+     * set when the operator is created and shipped with the function, so it must not be transient.
+     */
+    private KeyContext keyContext;
+
     /** Reused output row. */
     private transient JoinedRowData resultRow = null;
 
@@ -74,6 +91,9 @@ public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, Row
     // stores the accumulators
     private transient ValueState<RowData> accState = null;
 
+    // caches the accumulators of the recently accessed keys, null if the cache is disabled
+    private transient CachedValueState cachedAccState = null;
+
     /**
      * Creates a {@link GroupAggFunction}.
      *
@@ -93,12 +113,44 @@ public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, Row
             int indexOfCountStar,
             boolean generateUpdateBefore,
             long stateRetentionTime) {
+        this(
+                genAggsHandler,
+                genRecordEqualiser,
+                accTypes,
+                indexOfCountStar,
+                generateUpdateBefore,
+                stateRetentionTime,
+                0L);
+    }
+
+    /**
+     * Creates a {@link GroupAggFunction} which caches the accumulators of the recently accessed
+     * keys, see {@link CachedValueState}. The key context must be set by {@link
+     * #setKeyContext(KeyContext)} if the cache is enabled.
+     *
+     * @param cacheBytes The memory size of the accumulator cache in bytes, the cache is disabled
+     *     if not positive.
+     */
+    public GroupAggFunction(
+            GeneratedAggsHandleFunction genAggsHandler,
+            GeneratedRecordEqualiser genRecordEqualiser,
+            LogicalType[] accTypes,
+            int indexOfCountStar,
+            boolean generateUpdateBefore,
+            long stateRetentionTime,
+            long cacheBytes) {
         this.genAggsHandler = genAggsHandler;
         this.genRecordEqualiser = genRecordEqualiser;
         this.accTypes = accTypes;
         this.recordCounter = RecordCounter.of(indexOfCountStar);
         this.generateUpdateBefore = generateUpdateBefore;
         this.stateRetentionTime = stateRetentionTime;
+        this.cacheBytes = cacheBytes;
+    }
+
+    /** Sets the key context of the operator, which is required by the accumulator cache. */
+    public void setKeyContext(KeyContext keyContext) {
+        this.keyContext = keyContext;
     }
 
     @Override
@@ -117,6 +169,16 @@ public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, Row
             accDesc.enableTimeToLive(ttlConfig);
         }
         accState = getRuntimeContext().getState(accDesc);
+        if (cacheBytes > 0) {
+            cachedAccState =
+                    CachedValueState.withMaxBytes(
+                            accState,
+                            checkNotNull(keyContext, "The key context has not been set."),
+                            (RowDataSerializer) accTypeInfo.toSerializer(),
+                            ttlConfig,
+                            cacheBytes);
+            accState = cachedAccState;
+        }
 
         resultRow = new JoinedRowData();
     }
@@ -208,6 +270,18 @@ public class GroupAggFunction extends KeyedProcessFunction<RowData, RowData, Row
         }
     }
 
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        if (cachedAccState != null) {
+            cachedAccState.flush();
+        }
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        // nothing to do
+    }
+
     @Override
     public void close() throws Exception {
         if (function != null) {
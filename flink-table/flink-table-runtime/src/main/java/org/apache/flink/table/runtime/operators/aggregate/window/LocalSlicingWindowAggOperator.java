@@ -102,7 +102,8 @@ public class LocalSlicingWindowAggOperator extends AbstractStreamOperator<RowDat
                         computeMemorySize(),
                         getRuntimeContext(),
                         collector,
-                        shiftTimezone);
+                        shiftTimezone,
+                        getContainingTask().getEnvironment().getIOManager());
     }
 
     @Override
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate.window.buffers;
+
+import org.apache.flink.runtime.io.disk.iomanager.AbstractChannelReaderInputView;
+import org.apache.flink.runtime.io.disk.iomanager.AbstractChannelWriterOutputView;
+import org.apache.flink.runtime.io.disk.iomanager.FileIOChannel;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.runtime.io.ChannelWithMeta;
+import org.apache.flink.table.runtime.typeutils.BinaryRowDataSerializer;
+import org.apache.flink.table.runtime.typeutils.PagedTypeSerializer;
+import org.apache.flink.table.runtime.typeutils.WindowKeySerializer;
+import org.apache.flink.table.runtime.util.FileChannelUtil;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
+import org.apache.flink.table.runtime.util.WindowKey;
+import org.apache.flink.util.MathUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spills the entries of a full {@link RecordsWindowBuffer} to disk, hash-partitioned by {@link
+ * WindowKey}, so that the buffer can be reused instead of being flushed.
+ *
+ * <p>All records of a window key end up in the same partition. Partitions are read back one at a
+ * time, so that a partition can be re-buffered and combined without mixing records of the same key
+ * across different combines.
+ */
+final class RecordsBufferSpiller implements Closeable {
+
+    static final int NUM_PARTITIONS = 16;
+
+    private final IOManager ioManager;
+    private final FileIOChannel.Enumerator channelEnumerator;
+    private final WindowKeySerializer windowKeySerializer;
+    private final BinaryRowDataSerializer recordSerializer;
+    private final int segmentSize;
+
+    private final AbstractChannelWriterOutputView[] partitionWriters =
+            new AbstractChannelWriterOutputView[NUM_PARTITIONS];
+    private final long[] partitionRecordCounts = new long[NUM_PARTITIONS];
+    private final List<FileIOChannel> openChannels = new ArrayList<>();
+
+    private long numSpilledRecords;
+
+    RecordsBufferSpiller(
+            IOManager ioManager,
+            PagedTypeSerializer<RowData> keySer,
+            int recordArity,
+            int segmentSize) {
+        this.ioManager = ioManager;
+        this.channelEnumerator = ioManager.createChannelEnumerator();
+        this.windowKeySerializer = new WindowKeySerializer(keySer);
+        this.recordSerializer = new BinaryRowDataSerializer(recordArity);
+        this.segmentSize = segmentSize;
+    }
+
+    boolean hasSpilledRecords() {
+        return numSpilledRecords > 0;
+    }
+
+    long getNumSpilledRecords() {
+        return numSpilledRecords;
+    }
+
+    /** Writes all the given entries into the partition files. */
+    void spill(KeyValueIterator<WindowKey, Iterator<RowData>> entries) throws IOException {
+        while (entries.advanceNext()) {
+            WindowKey windowKey = entries.getKey();
+            int partition = partitionOf(windowKey);
+            AbstractChannelWriterOutputView writer = getOrCreateWriter(partition);
+            Iterator<RowData> records = entries.getValue();
+            while (records.hasNext()) {
+                windowKeySerializer.serialize(windowKey, writer);
+                recordSerializer.serialize((BinaryRowData) records.next(), writer);
+                partitionRecordCounts[partition]++;
+                numSpilledRecords++;
+            }
+        }
+    }
+
+    /**
+     * Reads back all spilled partitions one after another, and deletes the partition files
+     * afterwards. The reused key and record handed to the consumer must be copied if they are
+     * retained.
+     */
+    void readPartitions(SpilledRecordConsumer consumer) throws Exception {
+        WindowKey reuseKey = windowKeySerializer.createInstance();
+        BinaryRowData reuseRecord = recordSerializer.createInstance();
+        for (int partition = 0; partition < NUM_PARTITIONS; partition++) {
+            AbstractChannelWriterOutputView writer = partitionWriters[partition];
+            if (writer == null) {
+                continue;
+            }
+            int bytesInLastBlock = writer.close();
+            ChannelWithMeta channel =
+                    new ChannelWithMeta(
+                            writer.getChannel().getChannelID(),
+                            writer.getBlockCount(),
+                            bytesInLastBlock);
+            openChannels.remove(writer.getChannel());
+            partitionWriters[partition] = null;
+
+            List<FileIOChannel> readerChannels = new ArrayList<>(1);
+            try {
+                AbstractChannelReaderInputView reader =
+                        FileChannelUtil.createInputView(
+                                ioManager, channel, readerChannels, false, null, 0, segmentSize);
+                long numRecords = partitionRecordCounts[partition];
+                for (long i = 0; i < numRecords; i++) {
+                    WindowKey windowKey = windowKeySerializer.deserialize(reuseKey, reader);
+                    BinaryRowData record = recordSerializer.deserialize(reuseRecord, reader);
+                    consumer.accept(windowKey, record);
+                }
+                consumer.endPartition();
+            } finally {
+                for (FileIOChannel readerChannel : readerChannels) {
+                    readerChannel.closeAndDelete();
+                }
+            }
+            numSpilledRecords -= partitionRecordCounts[partition];
+            partitionRecordCounts[partition] = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (FileIOChannel channel : openChannels) {
+            try {
+                channel.closeAndDelete();
+            } catch (Throwable ignored) {
+            }
+        }
+        openChannels.clear();
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            partitionWriters[i] = null;
+            partitionRecordCounts[i] = 0;
+        }
+        numSpilledRecords = 0;
+    }
+
+    private AbstractChannelWriterOutputView getOrCreateWriter(int partition) throws IOException {
+        AbstractChannelWriterOutputView writer = partitionWriters[partition];
+        if (writer == null) {
+            writer =
+                    FileChannelUtil.createOutputView(
+                            ioManager, channelEnumerator.next(), false, null, 0, segmentSize);
+            partitionWriters[partition] = writer;
+            openChannels.add(writer.getChannel());
+        }
+        return writer;
+    }
+
+    private static int partitionOf(WindowKey windowKey) {
+        return MathUtils.murmurHash(windowKey.hashCode()) % NUM_PARTITIONS;
+    }
+
+    /** Consumer of the records read back from the spilled partitions. */
+    interface SpilledRecordConsumer {
+
+        void accept(WindowKey windowKey, BinaryRowData record) throws Exception;
+
+        /** Called after all records of a partition have been handed to {@link #accept}. */
+        void endPartition() throws Exception;
+    }
+}
@@ -19,9 +19,13 @@
 package org.apache.flink.table.runtime.operators.aggregate.window.buffers;
 
 import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
 import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
 import org.apache.flink.runtime.state.KeyedStateBackend;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.data.binary.BinarySegmentUtils;
 import org.apache.flink.table.runtime.operators.window.combines.RecordsCombiner;
 import org.apache.flink.table.runtime.operators.window.slicing.WindowTimerService;
 import org.apache.flink.table.runtime.operators.window.state.WindowState;
@@ -34,7 +38,10 @@ import org.apache.flink.table.runtime.util.collections.binary.BytesMap.LookupInf
 import org.apache.flink.table.runtime.util.collections.binary.WindowBytesMultiMap;
 import org.apache.flink.util.Collector;
 
+import javax.annotation.Nullable;
+
 import java.io.EOFException;
+import java.io.IOException;
 import java.time.ZoneId;
 import java.util.Iterator;
 
@@ -44,6 +51,15 @@ import static org.apache.flink.table.runtime.util.TimeWindowUtil.isWindowFired;
 /**
  * An implementation of {@link WindowBuffer} that buffers input elements in a {@link
  * WindowBytesMultiMap} and combines buffered elements into state when flushing.
+ *
+ * <p>If a {@link RecordsBufferSpiller} is given, a full buffer is spilled to disk instead of being
+ * combined. The spilled records are read back partition by partition and combined on flush, so that
+ * records of the same key which arrive between two flushes are combined together even if they don't
+ * fit into memory at once.
+ *
+ * <p>If a number of key groups is given, the buffered elements are combined in the order of the key
+ * groups and then the serialized bytes of their keys. State backends which keep the state sorted by
+ * its serialized key (e.g. RocksDB) then read and write the state of a flush in sequential order.
  */
 public final class RecordsWindowBuffer implements WindowBuffer {
 
@@ -55,6 +71,10 @@ public final class RecordsWindowBuffer implements WindowBuffer {
     // copy key and input record if necessary(e.g., heap state backend),
     // because key and record are reused.
     private final boolean requiresCopy;
+    private final @Nullable RecordsBufferSpiller spiller;
+    // the number of key groups of the state backend to combine in key group order, or 0 to
+    // combine in insertion order
+    private final int numKeyGroups;
 
     private long minSliceEnd = Long.MAX_VALUE;
 
@@ -67,6 +87,52 @@ public final class RecordsWindowBuffer implements WindowBuffer {
             AbstractRowDataSerializer<RowData> inputSer,
             boolean requiresCopy,
             ZoneId shiftTimeZone) {
+        this(
+                operatorOwner,
+                memoryManager,
+                memorySize,
+                combineFunction,
+                keySer,
+                inputSer,
+                requiresCopy,
+                shiftTimeZone,
+                null);
+    }
+
+    public RecordsWindowBuffer(
+            Object operatorOwner,
+            MemoryManager memoryManager,
+            long memorySize,
+            RecordsCombiner combineFunction,
+            PagedTypeSerializer<RowData> keySer,
+            AbstractRowDataSerializer<RowData> inputSer,
+            boolean requiresCopy,
+            ZoneId shiftTimeZone,
+            @Nullable IOManager ioManager) {
+        this(
+                operatorOwner,
+                memoryManager,
+                memorySize,
+                combineFunction,
+                keySer,
+                inputSer,
+                requiresCopy,
+                shiftTimeZone,
+                ioManager,
+                0);
+    }
+
+    public RecordsWindowBuffer(
+            Object operatorOwner,
+            MemoryManager memoryManager,
+            long memorySize,
+            RecordsCombiner combineFunction,
+            PagedTypeSerializer<RowData> keySer,
+            AbstractRowDataSerializer<RowData> inputSer,
+            boolean requiresCopy,
+            ZoneId shiftTimeZone,
+            @Nullable IOManager ioManager,
+            int numKeyGroups) {
         this.combineFunction = combineFunction;
         this.recordsBuffer =
                 new WindowBytesMultiMap(
@@ -75,6 +141,15 @@ public final class RecordsWindowBuffer implements WindowBuffer {
         this.reuseWindowKey = new WindowKeySerializer(keySer).createInstance();
         this.requiresCopy = requiresCopy;
         this.shiftTimeZone = shiftTimeZone;
+        this.spiller =
+                ioManager == null
+                        ? null
+                        : new RecordsBufferSpiller(
+                                ioManager,
+                                keySer,
+                                inputSer.getArity(),
+                                memoryManager.getPageSize());
+        this.numKeyGroups = numKeyGroups;
     }
 
     @Override
@@ -86,11 +161,21 @@ public final class RecordsWindowBuffer implements WindowBuffer {
 
         reuseWindowKey.replace(sliceEnd, key);
         LookupInfo<WindowKey, Iterator<RowData>> lookup = recordsBuffer.lookup(reuseWindowKey);
+        BinaryRowData record = recordSerializer.toBinaryRow(element);
         try {
-            recordsBuffer.append(lookup, recordSerializer.toBinaryRow(element));
+            recordsBuffer.append(lookup, record);
         } catch (EOFException e) {
-            // buffer is full, flush it to state
-            flush();
+            if (recordsBuffer.getNumKeys() == 0) {
+                throwTooBigException(record, e);
+            }
+            if (spiller != null) {
+                // buffer is full, spill it to disk and combine the records on next flush
+                spiller.spill(recordsBuffer.getEntryIterator(false));
+                recordsBuffer.reset();
+            } else {
+                // buffer is full, flush it to state
+                flush();
+            }
             // remember to add the input element again
             addElement(key, sliceEnd, element);
         }
@@ -106,20 +191,101 @@ public final class RecordsWindowBuffer implements WindowBuffer {
 
     @Override
     public void flush() throws Exception {
+        if (spiller != null && spiller.hasSpilledRecords()) {
+            // spill the buffered records as well, so that all records of a key are read back
+            // from the same partition and combined at once
+            spiller.spill(recordsBuffer.getEntryIterator(false));
+            recordsBuffer.reset();
+            spiller.readPartitions(
+                    new RecordsBufferSpiller.SpilledRecordConsumer() {
+                        @Override
+                        public void accept(WindowKey windowKey, BinaryRowData record)
+                                throws Exception {
+                            appendSpilledRecord(windowKey, record);
+                        }
+
+                        @Override
+                        public void endPartition() throws Exception {
+                            combineBuffer();
+                        }
+                    });
+            // reset trigger time
+            minSliceEnd = Long.MAX_VALUE;
+        } else if (recordsBuffer.getNumKeys() > 0) {
+            combineBuffer();
+            // reset trigger time
+            minSliceEnd = Long.MAX_VALUE;
+        }
+    }
+
+    private void combineBuffer() throws Exception {
         if (recordsBuffer.getNumKeys() > 0) {
             KeyValueIterator<WindowKey, Iterator<RowData>> entryIterator =
-                    recordsBuffer.getEntryIterator(requiresCopy);
+                    numKeyGroups > 0
+                            ? recordsBuffer.getSortedEntryIterator(
+                                    requiresCopy,
+                                    windowKey ->
+                                            KeyGroupRangeAssignment.assignToKeyGroup(
+                                                    windowKey.getKey(), numKeyGroups),
+                                    RecordsWindowBuffer::compareSerialized)
+                            : recordsBuffer.getEntryIterator(requiresCopy);
             while (entryIterator.advanceNext()) {
                 combineFunction.combine(entryIterator.getKey(), entryIterator.getValue());
             }
             recordsBuffer.reset();
-            // reset trigger time
-            minSliceEnd = Long.MAX_VALUE;
         }
     }
 
+    /**
+     * Compares two window keys of the same key group like the state backend compares its
+     * serialized keys and namespaces, i.e. by the length and the unsigned bytes of the binary key
+     * and then by the unsigned window.
+     */
+    private static int compareSerialized(WindowKey windowKey1, WindowKey windowKey2) {
+        // the keys are mapped from the pages of the buffer, so they are binary rows
+        BinaryRowData key1 = (BinaryRowData) windowKey1.getKey();
+        BinaryRowData key2 = (BinaryRowData) windowKey2.getKey();
+        int size = key1.getSizeInBytes();
+        int cmp = Integer.compare(size, key2.getSizeInBytes());
+        for (int i = 0; cmp == 0 && i < size; i++) {
+            cmp =
+                    Integer.compare(
+                            BinarySegmentUtils.getByte(key1.getSegments(), key1.getOffset() + i)
+                                    & 0xff,
+                            BinarySegmentUtils.getByte(key2.getSegments(), key2.getOffset() + i)
+                                    & 0xff);
+        }
+        return cmp != 0
+                ? cmp
+                : Long.compareUnsigned(windowKey1.getWindow(), windowKey2.getWindow());
+    }
+
+    private void appendSpilledRecord(WindowKey windowKey, BinaryRowData record) throws Exception {
+        LookupInfo<WindowKey, Iterator<RowData>> lookup = recordsBuffer.lookup(windowKey);
+        try {
+            recordsBuffer.append(lookup, record);
+        } catch (EOFException e) {
+            if (recordsBuffer.getNumKeys() == 0) {
+                throwTooBigException(record, e);
+            }
+            // a single partition doesn't fit into memory, combine what we have so far
+            combineBuffer();
+            appendSpilledRecord(windowKey, record);
+        }
+    }
+
+    private void throwTooBigException(BinaryRowData record, EOFException e) throws IOException {
+        throw new IOException(
+                "Record is too big, it can't be added to an empty window buffer! Record size: "
+                        + record.getSizeInBytes(),
+                e);
+    }
+
     @Override
     public void close() throws Exception {
+        if (spiller != null) {
+            spiller.close();
+        }
         recordsBuffer.free();
         combineFunction.close();
     }
@@ -162,6 +328,9 @@ public final class RecordsWindowBuffer implements WindowBuffer {
                     factory.createRecordsCombiner(
                             runtimeContext, timerService, stateBackend, windowState, isEventTime);
             boolean requiresCopy = !isStateImmutableInStateBackend(stateBackend);
+            // the state is serialized into a store sorted by key group and key (e.g. RocksDB),
+            // combine the buffer in the same order to access the state sequentially
+            int numKeyGroups = requiresCopy ? 0 : runtimeContext.getMaxNumberOfParallelSubtasks();
             return new RecordsWindowBuffer(
                     operatorOwner,
                     memoryManager,
@@ -170,7 +339,9 @@ public final class RecordsWindowBuffer implements WindowBuffer {
                     keySer,
                     inputSer,
                     requiresCopy,
-                    shiftTimeZone);
+                    shiftTimeZone,
+                    null,
+                    numKeyGroups);
         }
     }
 
@@ -182,14 +353,24 @@ public final class RecordsWindowBuffer implements WindowBuffer {
         private final PagedTypeSerializer<RowData> keySer;
         private final AbstractRowDataSerializer<RowData> inputSer;
         private final RecordsCombiner.LocalFactory localFactory;
+        private final boolean spillEnabled;
 
         public LocalFactory(
                 PagedTypeSerializer<RowData> keySer,
                 AbstractRowDataSerializer<RowData> inputSer,
                 RecordsCombiner.LocalFactory localFactory) {
+            this(keySer, inputSer, localFactory, false);
+        }
+
+        public LocalFactory(
+                PagedTypeSerializer<RowData> keySer,
+                AbstractRowDataSerializer<RowData> inputSer,
+                RecordsCombiner.LocalFactory localFactory,
+                boolean spillEnabled) {
             this.keySer = keySer;
             this.inputSer = inputSer;
             this.localFactory = localFactory;
+            this.spillEnabled = spillEnabled;
         }
 
         @Override
@@ -201,6 +382,26 @@ public final class RecordsWindowBuffer implements WindowBuffer {
                 Collector<RowData> collector,
                 ZoneId shiftTimeZone)
                 throws Exception {
+            return create(
+                    operatorOwner,
+                    memoryManager,
+                    memorySize,
+                    runtimeContext,
+                    collector,
+                    shiftTimeZone,
+                    null);
+        }
+
+        @Override
+        public WindowBuffer create(
+                Object operatorOwner,
+                MemoryManager memoryManager,
+                long memorySize,
+                RuntimeContext runtimeContext,
+                Collector<RowData> collector,
+                ZoneId shiftTimeZone,
+                @Nullable IOManager ioManager)
+                throws Exception {
             RecordsCombiner combiner =
                     localFactory.createRecordsCombiner(runtimeContext, collector);
             return new RecordsWindowBuffer(
@@ -211,7 +412,8 @@ public final class RecordsWindowBuffer implements WindowBuffer {
                     keySer,
                     inputSer,
                     false,
-                    shiftTimeZone);
+                    shiftTimeZone,
+                    spillEnabled ? ioManager : null);
         }
     }
 }
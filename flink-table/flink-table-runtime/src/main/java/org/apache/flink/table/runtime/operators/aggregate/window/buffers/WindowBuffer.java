@@ -20,6 +20,7 @@ package org.apache.flink.table.runtime.operators.aggregate.window.buffers;
 
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
 import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.state.KeyedStateBackend;
 import org.apache.flink.table.data.RowData;
@@ -132,5 +133,37 @@ public interface WindowBuffer {
                 Collector<RowData> collector,
                 ZoneId shiftTimeZone)
                 throws Exception;
+
+        /**
+         * Creates a {@link WindowBuffer} for local window that buffers elements in memory before
+         * flushing, and may spill them to disk when the memory is full.
+         *
+         * <p>By default, the elements are not spilled and the given {@link IOManager} is ignored.
+         *
+         * @param operatorOwner the owner of the operator
+         * @param memoryManager the manager that governs memory by Flink framework
+         * @param memorySize the managed memory size can be used by this operator
+         * @param collector collector to emit records
+         * @param shiftTimeZone the shit timezone of the window
+         * @param ioManager the manager used to spill buffered elements to disk, if supported
+         * @throws IOException thrown if the buffer can't be opened
+         */
+        default WindowBuffer create(
+                Object operatorOwner,
+                MemoryManager memoryManager,
+                long memorySize,
+                RuntimeContext runtimeContext,
+                Collector<RowData> collector,
+                ZoneId shiftTimeZone,
+                IOManager ioManager)
+                throws Exception {
+            return create(
+                    operatorOwner,
+                    memoryManager,
+                    memorySize,
+                    runtimeContext,
+                    collector,
+                    shiftTimeZone);
+        }
     }
 }
@@ -147,6 +147,46 @@ class DeduplicateFunctionHelper {
         }
     }
 
+    /**
+     * Processes element to deduplicate on keys, sends current element as last row. Different from
+     * {@link #processLastRowOnChangelog}, the state only keeps whether a row exists for the key, so
+     * no UPDATE_BEFORE message is generated, updates with the same content as the previous row are
+     * not filtered out, and the DELETE message contains the content of the current element (e.g.
+     * only the key parts of a Kafka tombstone record) instead of the previous row.
+     *
+     * <p>This can only be used if the downstream only requires the key parts of DELETE messages,
+     * e.g. an upsert sink with the same primary key.
+     *
+     * @param currentRow latest row received by deduplicate function
+     * @param state state of function, which keeps whether a row exists for the current key
+     * @param out underlying collector
+     */
+    static void processLastKeyOnChangelog(
+            RowData currentRow, ValueState<Boolean> state, Collector<RowData> out)
+            throws Exception {
+        boolean exists = state.value() != null;
+        RowKind currentKind = currentRow.getRowKind();
+        if (currentKind == RowKind.INSERT || currentKind == RowKind.UPDATE_AFTER) {
+            if (exists) {
+                currentRow.setRowKind(RowKind.UPDATE_AFTER);
+            } else {
+                // the first row, send INSERT message
+                currentRow.setRowKind(RowKind.INSERT);
+                state.update(true);
+            }
+            out.collect(currentRow);
+        } else {
+            // DELETE or UPDATER_BEFORE
+            if (exists) {
+                // always set to DELETE because this row has been removed
+                currentRow.setRowKind(RowKind.DELETE);
+                out.collect(currentRow);
+                state.clear();
+            }
+            // nothing to do if removing a non-existed row
+        }
+    }
+
     /**
      * Processes element to deduplicate on keys with process time semantic, sends current element if
      * it is first row.
@@ -19,17 +19,27 @@
 package org.apache.flink.table.runtime.operators.deduplicate;
 
 import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.operators.KeyContext;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.CachedValueState;
 import org.apache.flink.util.Collector;
 
 import static org.apache.flink.table.runtime.operators.deduplicate.DeduplicateFunctionHelper.checkInsertOnly;
 import static org.apache.flink.table.runtime.operators.deduplicate.DeduplicateFunctionHelper.isDuplicate;
 import static org.apache.flink.table.runtime.operators.deduplicate.DeduplicateFunctionHelper.updateDeduplicateResult;
+import static org.apache.flink.table.runtime.util.StateConfigUtil.createTtlConfig;
+import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /** This function is used to deduplicate on keys and keeps only first or last row on row time. */
 public class RowTimeDeduplicateFunction
-        extends DeduplicateFunctionBase<RowData, RowData, RowData, RowData> {
+        extends DeduplicateFunctionBase<RowData, RowData, RowData, RowData>
+        implements CheckpointedFunction {
 
     private static final long serialVersionUID = 1L;
 
@@ -37,6 +47,14 @@ public class RowTimeDeduplicateFunction
     private final boolean generateInsert;
     private final int rowtimeIndex;
     private final boolean keepLastRow;
+    // the memory size of the state cache in bytes, the cache is disabled if not positive
+    private final long cacheBytes;
+
+    // the key context is set when the operator is created and shipped with the function, so it
+    // must not be transient
+    private KeyContext keyContext;
+    // caches the rows of the recently accessed keys, null if the cache is disabled
+    private transient CachedValueState cachedState;
 
     public RowTimeDeduplicateFunction(
             InternalTypeInfo<RowData> typeInfo,
@@ -45,11 +63,58 @@ public class RowTimeDeduplicateFunction
             boolean generateUpdateBefore,
             boolean generateInsert,
             boolean keepLastRow) {
+        this(
+                typeInfo,
+                minRetentionTime,
+                rowtimeIndex,
+                generateUpdateBefore,
+                generateInsert,
+                keepLastRow,
+                0L);
+    }
+
+    /**
+     * Creates a {@link RowTimeDeduplicateFunction} which caches the rows of the recently accessed
+     * keys if cacheBytes is positive, see {@link CachedValueState}. The key context must be set by
+     * {@link #setKeyContext(KeyContext)} if the cache is enabled.
+     */
+    public RowTimeDeduplicateFunction(
+            InternalTypeInfo<RowData> typeInfo,
+            long minRetentionTime,
+            int rowtimeIndex,
+            boolean generateUpdateBefore,
+            boolean generateInsert,
+            boolean keepLastRow,
+            long cacheBytes) {
         super(typeInfo, null, minRetentionTime);
         this.generateUpdateBefore = generateUpdateBefore;
         this.generateInsert = generateInsert;
         this.rowtimeIndex = rowtimeIndex;
         this.keepLastRow = keepLastRow;
+        this.cacheBytes = cacheBytes;
+    }
+
+    /** Sets the key context of the operator, which is required by the state cache. */
+    public void setKeyContext(KeyContext keyContext) {
+        this.keyContext = keyContext;
+    }
+
+    @Override
+    public void open(Configuration configure) throws Exception {
+        super.open(configure);
+        if (cacheBytes > 0) {
+            RowDataSerializer serializer =
+                    (RowDataSerializer)
+                            typeInfo.createSerializer(getRuntimeContext().getExecutionConfig());
+            cachedState =
+                    CachedValueState.withMaxBytes(
+                            state,
+                            checkNotNull(keyContext, "The key context has not been set."),
+                            serializer,
+                            createTtlConfig(stateRetentionTime),
+                            cacheBytes);
+            state = cachedState;
+        }
     }
 
     @Override
@@ -59,6 +124,18 @@ public class RowTimeDeduplicateFunction
                 state, input, out, generateUpdateBefore, generateInsert, rowtimeIndex, keepLastRow);
     }
 
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        if (cachedState != null) {
+            cachedState.flush();
+        }
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        // nothing to do
+    }
+
     /**
      * Processes element to deduplicate on keys with row time semantic, sends current element if it
      * is last or first row, retracts previous element if needed.
@@ -54,6 +54,20 @@ import static org.apache.flink.util.Preconditions.checkState;
  * <p>The join operator implements the logic of a join operator at runtime. It uses a
  * hybrid-hash-join internally to match the records with equal key. The build side of the hash is
  * the first input of the match. It support all join type in {@link HashJoinType}.
+ *
+ * <p>Besides the memory and spill metrics, the operator reports how many spilled partitions had to
+ * be re-partitioned ({@code numRepartitions}), the deepest recursion level of a spilled partition
+ * ({@code maxRecursionLevel}) and the build side size of the largest spilled partition ({@code
+ * maxSpilledPartitionInBytes}). A large partition which is re-partitioned repeatedly hints at a
+ * skewed key or at a build side which is larger than the planner estimated. If bloom filters are
+ * enabled for spilled partitions, {@code numFilteredProbeRecords} counts the probe records which
+ * were joined right away instead of being spilled, because no build side record can match them.
+ *
+ * <p>The operator neither switches the build side nor handles skewed keys on its own. The build
+ * side is completely consumed before the first probe record is read, so the size of the probe side
+ * is unknown when the build side could still be changed. Broadcasting the rows of a hot key
+ * requires the planner to change the distribution of both inputs, which happens before the
+ * operator sees any record.
  */
 public abstract class HashJoinOperator extends TableStreamOperator<RowData>
         implements TwoInputStreamOperator<RowData, RowData, RowData>,
@@ -136,6 +150,10 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
         getMetricGroup().gauge("memoryUsedSizeInBytes", table::getUsedMemoryInBytes);
         getMetricGroup().gauge("numSpillFiles", table::getNumSpillFiles);
         getMetricGroup().gauge("spillInBytes", table::getSpillInBytes);
+        getMetricGroup().gauge("numRepartitions", table::getNumRepartitions);
+        getMetricGroup().gauge("maxRecursionLevel", table::getMaxRecursionLevel);
+        getMetricGroup().gauge("maxSpilledPartitionInBytes", table::getMaxSpilledPartitionInBytes);
+        getMetricGroup().gauge("numFilteredProbeRecords", table::getNumFilteredProbeRecords);
 
         parameter.condFuncCode = null;
         parameter.buildProjectionCode = null;
@@ -34,7 +34,26 @@ public final class ProcTimeIntervalJoin extends TimeIntervalJoin {
             InternalTypeInfo<RowData> leftType,
             InternalTypeInfo<RowData> rightType,
             IntervalJoinFunction genJoinFunc) {
-        super(joinType, leftLowerBound, leftUpperBound, 0L, leftType, rightType, genJoinFunc);
+        this(joinType, leftLowerBound, leftUpperBound, leftType, rightType, genJoinFunc, false);
+    }
+
+    public ProcTimeIntervalJoin(
+            FlinkJoinType joinType,
+            long leftLowerBound,
+            long leftUpperBound,
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            IntervalJoinFunction genJoinFunc,
+            boolean bucketedState) {
+        super(
+                joinType,
+                leftLowerBound,
+                leftUpperBound,
+                0L,
+                leftType,
+                rightType,
+                genJoinFunc,
+                bucketedState);
     }
 
     @Override
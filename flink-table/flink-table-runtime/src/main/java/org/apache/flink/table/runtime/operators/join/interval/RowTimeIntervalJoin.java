@@ -40,6 +40,30 @@ public final class RowTimeIntervalJoin extends TimeIntervalJoin {
             IntervalJoinFunction joinFunc,
             int leftTimeIdx,
             int rightTimeIdx) {
+        this(
+                joinType,
+                leftLowerBound,
+                leftUpperBound,
+                allowedLateness,
+                leftType,
+                rightType,
+                joinFunc,
+                leftTimeIdx,
+                rightTimeIdx,
+                false);
+    }
+
+    public RowTimeIntervalJoin(
+            FlinkJoinType joinType,
+            long leftLowerBound,
+            long leftUpperBound,
+            long allowedLateness,
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            IntervalJoinFunction joinFunc,
+            int leftTimeIdx,
+            int rightTimeIdx,
+            boolean bucketedState) {
         super(
                 joinType,
                 leftLowerBound,
@@ -47,7 +71,8 @@ public final class RowTimeIntervalJoin extends TimeIntervalJoin {
                 allowedLateness,
                 leftType,
                 rightType,
-                joinFunc);
+                joinFunc,
+                bucketedState);
         this.leftTimeIdx = leftTimeIdx;
         this.rightTimeIdx = rightTimeIdx;
     }
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.interval;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.typeutils.ListTypeInfo;
+import org.apache.flink.api.java.typeutils.TupleTypeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A keyed state which indexes the timestamps of a row cache of a {@link TimeIntervalJoin} by time
+ * bucket. A bucket covers a fixed range of time and keeps the timestamps of the cached rows in
+ * this range in ascending order.
+ *
+ * <p>The row cache is a {@link MapState} by timestamp, which can't be read by a range of
+ * timestamps. With this index, a probe only reads the buckets which overlap with the join window
+ * of the probing row and the cached rows of the timestamps in the window. The index also keeps a
+ * lower bound of the earliest and the latest indexed timestamp, so that expiration only reads the
+ * buckets from the earliest one up to the bucket of the expiration time, and nothing as long as no
+ * timestamp can be expired.
+ *
+ * <p>The index of a key is rebuilt from its row cache if the index is empty while the cache is not,
+ * i.e. if the rows have been cached before the index was introduced.
+ */
+final class TimeBucketIndex {
+
+    private final long bucketSize;
+
+    /** The row cache which is indexed. */
+    private final MapState<Long, ?> rowCache;
+
+    /** The ascending timestamps of the cached rows by bucket. */
+    private final MapState<Long, List<Long>> buckets;
+
+    /**
+     * A lower bound of the earliest indexed timestamp and the latest indexed timestamp, null if the
+     * index is empty.
+     */
+    private final ValueState<Tuple2<Long, Long>> timeRange;
+
+    TimeBucketIndex(
+            RuntimeContext runtimeContext,
+            String name,
+            MapState<Long, ?> rowCache,
+            long bucketSize) {
+        if (bucketSize <= 0) {
+            throw new IllegalArgumentException("The bucket size must be positive.");
+        }
+        this.bucketSize = bucketSize;
+        this.rowCache = rowCache;
+        this.buckets =
+                runtimeContext.getMapState(
+                        new MapStateDescriptor<>(
+                                name,
+                                BasicTypeInfo.LONG_TYPE_INFO,
+                                new ListTypeInfo<>(BasicTypeInfo.LONG_TYPE_INFO)));
+        this.timeRange =
+                runtimeContext.getState(
+                        new ValueStateDescriptor<>(
+                                name + "TimeRange",
+                                new TupleTypeInfo<>(
+                                        BasicTypeInfo.LONG_TYPE_INFO,
+                                        BasicTypeInfo.LONG_TYPE_INFO)));
+    }
+
+    /** Adds a timestamp to the index. Adding a timestamp which is already indexed has no effect. */
+    void add(long timestamp) throws Exception {
+        Tuple2<Long, Long> range = getTimeRange();
+        long bucket = getBucket(timestamp);
+        List<Long> timestamps = buckets.get(bucket);
+        if (timestamps == null) {
+            timestamps = new ArrayList<>(1);
+        }
+        int pos = Collections.binarySearch(timestamps, timestamp);
+        if (pos < 0) {
+            timestamps.add(-pos - 1, timestamp);
+            buckets.put(bucket, timestamps);
+        }
+        if (range == null) {
+            timeRange.update(Tuple2.of(timestamp, timestamp));
+        } else if (timestamp < range.f0 || timestamp > range.f1) {
+            timeRange.update(
+                    Tuple2.of(Math.min(range.f0, timestamp), Math.max(range.f1, timestamp)));
+        }
+    }
+
+    /** Returns the indexed timestamps between the given bounds (both inclusive). */
+    List<Long> getTimestamps(long lowerBound, long upperBound) throws Exception {
+        Tuple2<Long, Long> range = getTimeRange();
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>();
+        long lastBucket = getBucket(Math.min(upperBound, range.f1));
+        for (long bucket = getBucket(Math.max(lowerBound, range.f0));
+                bucket <= lastBucket;
+                bucket++) {
+            List<Long> timestamps = buckets.get(bucket);
+            if (timestamps != null) {
+                for (Long timestamp : timestamps) {
+                    if (timestamp > upperBound) {
+                        break;
+                    }
+                    if (timestamp >= lowerBound) {
+                        result.add(timestamp);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the timestamps which are smaller than or equal to the expiration time from the index.
+     * Only the buckets from the earliest one up to the bucket of the expiration time are read, and
+     * the buckets which only contain expired timestamps are removed as a whole.
+     *
+     * @return the removed timestamps
+     */
+    List<Long> removeExpired(long expirationTime) throws Exception {
+        Tuple2<Long, Long> range = getTimeRange();
+        if (range == null || expirationTime < range.f0) {
+            return Collections.emptyList();
+        }
+        if (expirationTime >= range.f1) {
+            // all timestamps are expired
+            List<Long> expired = new ArrayList<>();
+            for (long bucket = getBucket(range.f0); bucket <= getBucket(range.f1); bucket++) {
+                List<Long> timestamps = buckets.get(bucket);
+                if (timestamps != null) {
+                    expired.addAll(timestamps);
+                }
+            }
+            clear();
+            return expired;
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long lastExpiredBucket = getBucket(expirationTime);
+        // the next bucket starts after the expiration time, unless the bucket of the expiration
+        // time keeps some timestamps
+        long earliestTimestamp = (lastExpiredBucket + 1) * bucketSize;
+        for (long bucket = getBucket(range.f0); bucket < lastExpiredBucket; bucket++) {
+            List<Long> timestamps = buckets.get(bucket);
+            if (timestamps != null) {
+                expired.addAll(timestamps);
+                buckets.remove(bucket);
+            }
+        }
+        List<Long> timestamps = buckets.get(lastExpiredBucket);
+        if (timestamps != null) {
+            int numExpired = 0;
+            while (numExpired < timestamps.size()
+                    && timestamps.get(numExpired) <= expirationTime) {
+                numExpired++;
+            }
+            expired.addAll(timestamps.subList(0, numExpired));
+            if (numExpired == timestamps.size()) {
+                buckets.remove(lastExpiredBucket);
+            } else {
+                earliestTimestamp = timestamps.get(numExpired);
+                if (numExpired > 0) {
+                    buckets.put(
+                            lastExpiredBucket,
+                            new ArrayList<>(timestamps.subList(numExpired, timestamps.size())));
+                }
+            }
+        }
+        timeRange.update(Tuple2.of(earliestTimestamp, range.f1));
+        return expired;
+    }
+
+    /** Returns the smallest indexed timestamp, or null if the index is empty. */
+    Long getEarliestTimestamp() throws Exception {
+        Tuple2<Long, Long> range = getTimeRange();
+        if (range == null) {
+            return null;
+        }
+        for (long bucket = getBucket(range.f0); bucket <= getBucket(range.f1); bucket++) {
+            List<Long> timestamps = buckets.get(bucket);
+            if (timestamps != null) {
+                return timestamps.get(0);
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        buckets.clear();
+        timeRange.clear();
+    }
+
+    private long getBucket(long timestamp) {
+        return Math.floorDiv(timestamp, bucketSize);
+    }
+
+    /**
+     * Returns the time range of the index. The index is built from the row cache if it is empty
+     * while the row cache is not.
+     */
+    private Tuple2<Long, Long> getTimeRange() throws Exception {
+        Tuple2<Long, Long> range = timeRange.value();
+        if (range != null || rowCache.isEmpty()) {
+            return range;
+        }
+        Map<Long, List<Long>> rebuilt = new HashMap<>();
+        long earliestTimestamp = Long.MAX_VALUE;
+        long latestTimestamp = Long.MIN_VALUE;
+        for (Long timestamp : rowCache.keys()) {
+            rebuilt.computeIfAbsent(getBucket(timestamp), k -> new ArrayList<>()).add(timestamp);
+            earliestTimestamp = Math.min(earliestTimestamp, timestamp);
+            latestTimestamp = Math.max(latestTimestamp, timestamp);
+        }
+        for (List<Long> timestamps : rebuilt.values()) {
+            Collections.sort(timestamps);
+        }
+        buckets.clear();
+        buckets.putAll(rebuilt);
+        range = Tuple2.of(earliestTimestamp, latestTimestamp);
+        timeRange.update(range);
+        return range;
+    }
+}
@@ -33,10 +33,13 @@ import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
 import org.apache.flink.table.runtime.operators.join.OuterJoinPaddingUtil;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.function.ThrowingRunnable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -47,9 +50,17 @@ import java.util.Map;
  * A CoProcessFunction to execute time interval (time-bounded) stream inner-join. Two kinds of time
  * criteria: "L.time between R.time + X and R.time + Y" or "R.time between L.time - Y and L.time -
  * X" X and Y might be negative or positive and X <= Y.
+ *
+ * <p>If the state is bucketed, the timestamps of both caches are indexed by time bucket, so that a
+ * row is only joined with the cached rows in its join window without iterating over the whole
+ * cache of the other input, see {@link TimeBucketIndex}.
  */
 abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData, RowData, RowData> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TimeIntervalJoin.class);
+
+    // Number of time buckets per relative window size if the caches are indexed by time bucket
+    private static final long NUM_BUCKETS_PER_WINDOW = 32L;
+
     private final FlinkJoinType joinType;
     protected final long leftRelativeSize;
     protected final long rightRelativeSize;
@@ -60,6 +71,8 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
     private final InternalTypeInfo<RowData> leftType;
     private final InternalTypeInfo<RowData> rightType;
     private final IntervalJoinFunction joinFunction;
+    // Size of the time buckets by which the caches are indexed, 0 means no index
+    private final long bucketSize;
     private transient OuterJoinPaddingUtil paddingUtil;
 
     private transient EmitAwareCollector joinCollector;
@@ -69,6 +82,11 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
     // cache to store rows from the right stream
     private transient MapState<Long, List<Tuple2<RowData, Boolean>>> rightCache;
 
+    // index of the timestamps of the left cache by time bucket, null if not bucketed
+    private transient TimeBucketIndex leftBuckets;
+    // index of the timestamps of the right cache by time bucket, null if not bucketed
+    private transient TimeBucketIndex rightBuckets;
+
     // state to record the timer on the left stream. 0 means no timer set
     private transient ValueState<Long> leftTimerState;
     // state to record the timer on the right stream. 0 means no timer set
@@ -89,7 +107,8 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
             long allowedLateness,
             InternalTypeInfo<RowData> leftType,
             InternalTypeInfo<RowData> rightType,
-            IntervalJoinFunction joinFunc) {
+            IntervalJoinFunction joinFunc,
+            boolean bucketedState) {
         this.joinType = joinType;
         this.leftRelativeSize = -leftLowerBound;
         this.rightRelativeSize = leftUpperBound;
@@ -101,6 +120,8 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
         this.leftType = leftType;
         this.rightType = rightType;
         this.joinFunction = joinFunc;
+        long windowSize = leftRelativeSize + rightRelativeSize;
+        this.bucketSize = bucketedState ? Math.max(1L, windowSize / NUM_BUCKETS_PER_WINDOW) : 0L;
     }
 
     @Override
@@ -126,6 +147,18 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
                         rightRowListTypeInfo);
         rightCache = getRuntimeContext().getMapState(rightMapStateDescriptor);
 
+        if (bucketSize > 0) {
+            leftBuckets =
+                    new TimeBucketIndex(
+                            getRuntimeContext(), "IntervalJoinLeftBuckets", leftCache, bucketSize);
+            rightBuckets =
+                    new TimeBucketIndex(
+                            getRuntimeContext(),
+                            "IntervalJoinRightBuckets",
+                            rightCache,
+                            bucketSize);
+        }
+
         // Initialize the timer states.
         ValueStateDescriptor<Long> leftValueStateDescriptor =
                 new ValueStateDescriptor<>("IntervalJoinLeftTimerState", Long.class);
@@ -166,51 +199,13 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
             // There might be qualifying rows in the cache that the current row needs to be joined
             // with.
             rightExpirationTime = calExpirationTime(leftOperatorTime, rightRelativeSize);
-            // Join the leftRow with rows from the right cache.
-            Iterator<Map.Entry<Long, List<Tuple2<RowData, Boolean>>>> rightIterator =
-                    rightCache.iterator();
-            while (rightIterator.hasNext()) {
-                Map.Entry<Long, List<Tuple2<RowData, Boolean>>> rightEntry = rightIterator.next();
-                Long rightTime = rightEntry.getKey();
-                if (rightTime >= rightQualifiedLowerBound
-                        && rightTime <= rightQualifiedUpperBound) {
-                    List<Tuple2<RowData, Boolean>> rightRows = rightEntry.getValue();
-                    boolean entryUpdated = false;
-                    for (Tuple2<RowData, Boolean> tuple : rightRows) {
-                        joinCollector.reset();
-                        joinFunction.join(leftRow, tuple.f0, joinCollector);
-                        emitted = emitted || joinCollector.isEmitted();
-                        if (joinType.isRightOuter()) {
-                            if (!tuple.f1 && joinCollector.isEmitted()) {
-                                // Mark the right row as being successfully joined and emitted.
-                                tuple.f1 = true;
-                                entryUpdated = true;
-                            }
-                        }
-                    }
-                    if (entryUpdated) {
-                        // Write back the edited entry (mark emitted) for the right cache.
-                        rightEntry.setValue(rightRows);
-                    }
-                }
-                // Clean up the expired right cache row, clean the cache while join
-                if (rightTime <= rightExpirationTime) {
-                    if (joinType.isRightOuter()) {
-                        List<Tuple2<RowData, Boolean>> rightRows = rightEntry.getValue();
-                        rightRows.forEach(
-                                (Tuple2<RowData, Boolean> tuple) -> {
-                                    if (!tuple.f1) {
-                                        // Emit a null padding result if the right row has never
-                                        // been successfully joined.
-                                        joinCollector.collect(paddingUtil.padRight(tuple.f0));
-                                    }
-                                });
-                    }
-                    // eager remove
-                    rightIterator.remove();
-                } // We could do the short-cutting optimization here once we get a state with
-                // ordered keys.
-            }
+            emitted =
+                    joinWithCachedRows(
+                            leftRow,
+                            true,
+                            rightQualifiedLowerBound,
+                            rightQualifiedUpperBound,
+                            rightExpirationTime);
         }
         // Check if we need to cache the current row.
         if (rightOperatorTime < rightQualifiedUpperBound) {
@@ -220,6 +215,9 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
             List<Tuple2<RowData, Boolean>> leftRowList = leftCache.get(timeForLeftRow);
             if (leftRowList == null) {
                 leftRowList = new ArrayList<>(1);
+                if (leftBuckets != null) {
+                    leftBuckets.add(timeForLeftRow);
+                }
             }
             leftRowList.add(Tuple2.of(leftRow, emitted));
             leftCache.put(timeForLeftRow, leftRowList);
@@ -250,50 +248,13 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
         // since leftExpirationTime <= leftMinimumTime is always true.
         if (leftExpirationTime < leftQualifiedUpperBound) {
             leftExpirationTime = calExpirationTime(rightOperatorTime, leftRelativeSize);
-            // Join the rightRow with rows from the left cache.
-            Iterator<Map.Entry<Long, List<Tuple2<RowData, Boolean>>>> leftIterator =
-                    leftCache.iterator();
-            while (leftIterator.hasNext()) {
-                Map.Entry<Long, List<Tuple2<RowData, Boolean>>> leftEntry = leftIterator.next();
-                Long leftTime = leftEntry.getKey();
-                if (leftTime >= leftQualifiedLowerBound && leftTime <= leftQualifiedUpperBound) {
-                    List<Tuple2<RowData, Boolean>> leftRows = leftEntry.getValue();
-                    boolean entryUpdated = false;
-                    for (Tuple2<RowData, Boolean> tuple : leftRows) {
-                        joinCollector.reset();
-                        joinFunction.join(tuple.f0, rightRow, joinCollector);
-                        emitted = emitted || joinCollector.isEmitted();
-                        if (joinType.isLeftOuter()) {
-                            if (!tuple.f1 && joinCollector.isEmitted()) {
-                                // Mark the left row as being successfully joined and emitted.
-                                tuple.f1 = true;
-                                entryUpdated = true;
-                            }
-                        }
-                    }
-                    if (entryUpdated) {
-                        // Write back the edited entry (mark emitted) for the right cache.
-                        leftEntry.setValue(leftRows);
-                    }
-                }
-
-                if (leftTime <= leftExpirationTime) {
-                    if (joinType.isLeftOuter()) {
-                        List<Tuple2<RowData, Boolean>> leftRows = leftEntry.getValue();
-                        leftRows.forEach(
-                                (Tuple2<RowData, Boolean> tuple) -> {
-                                    if (!tuple.f1) {
-                                        // Emit a null padding result if the left row has never been
-                                        // successfully joined.
-                                        joinCollector.collect(paddingUtil.padLeft(tuple.f0));
-                                    }
-                                });
-                    }
-                    // eager remove
-                    leftIterator.remove();
-                } // We could do the short-cutting optimization here once we get a state with
-                // ordered keys.
-            }
+            emitted =
+                    joinWithCachedRows(
+                            rightRow,
+                            false,
+                            leftQualifiedLowerBound,
+                            leftQualifiedUpperBound,
+                            leftExpirationTime);
         }
         // Check if we need to cache the current row.
         if (leftOperatorTime < leftQualifiedUpperBound) {
@@ -303,6 +264,9 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
             List<Tuple2<RowData, Boolean>> rightRowList = rightCache.get(timeForRightRow);
             if (null == rightRowList) {
                 rightRowList = new ArrayList<>(1);
+                if (rightBuckets != null) {
+                    rightBuckets.add(timeForRightRow);
+                }
             }
             rightRowList.add(Tuple2.of(rightRow, emitted));
             rightCache.put(timeForRightRow, rightRowList);
@@ -316,6 +280,122 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
         }
     }
 
+    /**
+     * Join a row with the cached rows of the other input in its join window, and remove the expired
+     * rows of the other cache meanwhile.
+     *
+     * @param row the row to join
+     * @param isLeftRow whether the row comes from the left stream
+     * @param lowerBound the lower bound of the join window in the other cache
+     * @param upperBound the upper bound of the join window in the other cache
+     * @param expirationTime the expiration time for the other cache
+     * @return whether a result has been emitted for the row
+     */
+    private boolean joinWithCachedRows(
+            RowData row, boolean isLeftRow, long lowerBound, long upperBound, long expirationTime)
+            throws Exception {
+        MapState<Long, List<Tuple2<RowData, Boolean>>> otherCache =
+                isLeftRow ? rightCache : leftCache;
+        TimeBucketIndex otherBuckets = isLeftRow ? rightBuckets : leftBuckets;
+        boolean emitted = false;
+        if (otherBuckets != null) {
+            // Only read the rows of the other cache in the join window.
+            for (Long otherTime : otherBuckets.getTimestamps(lowerBound, upperBound)) {
+                List<Tuple2<RowData, Boolean>> otherRows = otherCache.get(otherTime);
+                emitted |=
+                        joinRows(
+                                row,
+                                isLeftRow,
+                                otherRows,
+                                () -> otherCache.put(otherTime, otherRows));
+            }
+            removeExpiredBucketedRows(
+                    joinCollector, expirationTime, otherCache, otherBuckets, !isLeftRow);
+            return emitted;
+        }
+
+        boolean padOtherRows = isLeftRow ? joinType.isRightOuter() : joinType.isLeftOuter();
+        Iterator<Map.Entry<Long, List<Tuple2<RowData, Boolean>>>> otherIterator =
+                otherCache.iterator();
+        while (otherIterator.hasNext()) {
+            Map.Entry<Long, List<Tuple2<RowData, Boolean>>> otherEntry = otherIterator.next();
+            Long otherTime = otherEntry.getKey();
+            if (otherTime >= lowerBound && otherTime <= upperBound) {
+                List<Tuple2<RowData, Boolean>> otherRows = otherEntry.getValue();
+                // Write back the edited entry (mark emitted) for the other cache.
+                emitted |=
+                        joinRows(row, isLeftRow, otherRows, () -> otherEntry.setValue(otherRows));
+            }
+            // Clean up the expired rows of the other cache, clean the cache while join
+            if (otherTime <= expirationTime) {
+                if (padOtherRows) {
+                    emitNullPaddings(joinCollector, otherEntry.getValue(), !isLeftRow);
+                }
+                // eager remove
+                otherIterator.remove();
+            } // We could do the short-cutting optimization here once we get a state with
+            // ordered keys.
+        }
+        return emitted;
+    }
+
+    /**
+     * Join a row with the cached rows of the other input which share a timestamp, and mark the
+     * cached rows which are joined for the first time if they are null padded on expiration.
+     *
+     * @param row the row to join
+     * @param isLeftRow whether the row comes from the left stream
+     * @param otherRows the cached rows of the other input
+     * @param writeBack writes the cached rows back to the cache if any of them has been marked
+     * @return whether a result has been emitted for the row
+     */
+    private boolean joinRows(
+            RowData row,
+            boolean isLeftRow,
+            List<Tuple2<RowData, Boolean>> otherRows,
+            ThrowingRunnable<Exception> writeBack)
+            throws Exception {
+        boolean markOtherRows = isLeftRow ? joinType.isRightOuter() : joinType.isLeftOuter();
+        boolean emitted = false;
+        boolean updated = false;
+        for (Tuple2<RowData, Boolean> tuple : otherRows) {
+            joinCollector.reset();
+            if (isLeftRow) {
+                joinFunction.join(row, tuple.f0, joinCollector);
+            } else {
+                joinFunction.join(tuple.f0, row, joinCollector);
+            }
+            emitted = emitted || joinCollector.isEmitted();
+            if (markOtherRows && !tuple.f1 && joinCollector.isEmitted()) {
+                // Mark the other row as being successfully joined and emitted.
+                tuple.f1 = true;
+                updated = true;
+            }
+        }
+        if (updated) {
+            writeBack.run();
+        }
+        return emitted;
+    }
+
+    /**
+     * Emit a null padding result for each of the given rows which has never been successfully
+     * joined.
+     *
+     * @param collector the collector to emit results
+     * @param rows the expired rows
+     * @param leftRows whether the rows come from the left stream
+     */
+    private void emitNullPaddings(
+            Collector<RowData> collector, List<Tuple2<RowData, Boolean>> rows, boolean leftRows) {
+        for (Tuple2<RowData, Boolean> tuple : rows) {
+            if (!tuple.f1) {
+                collector.collect(
+                        leftRows ? paddingUtil.padLeft(tuple.f0) : paddingUtil.padRight(tuple.f0));
+            }
+        }
+    }
+
     @Override
     public void onTimer(long timestamp, OnTimerContext ctx, Collector<RowData> out)
             throws Exception {
@@ -329,14 +409,26 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
         if (leftCleanUpTime != null && timestamp == leftCleanUpTime) {
             rightExpirationTime = calExpirationTime(leftOperatorTime, rightRelativeSize);
             removeExpiredRows(
-                    joinCollector, rightExpirationTime, rightCache, leftTimerState, ctx, false);
+                    joinCollector,
+                    rightExpirationTime,
+                    rightCache,
+                    rightBuckets,
+                    leftTimerState,
+                    ctx,
+                    false);
         }
 
         Long rightCleanUpTime = rightTimerState.value();
         if (rightCleanUpTime != null && timestamp == rightCleanUpTime) {
             leftExpirationTime = calExpirationTime(rightOperatorTime, leftRelativeSize);
             removeExpiredRows(
-                    joinCollector, leftExpirationTime, leftCache, rightTimerState, ctx, true);
+                    joinCollector,
+                    leftExpirationTime,
+                    leftCache,
+                    leftBuckets,
+                    rightTimerState,
+                    ctx,
+                    true);
         }
     }
 
@@ -385,6 +477,7 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
      * @param collector the collector to emit results
      * @param expirationTime the expiration time for this cache
      * @param rowCache the row cache
+     * @param bucketIndex the index of the row cache by time bucket, null if not bucketed
      * @param timerState timer state for the opposite stream
      * @param ctx the context to register the cleanup timer
      * @param removeLeft whether to remove the left rows
@@ -393,10 +486,25 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
             Collector<RowData> collector,
             long expirationTime,
             MapState<Long, List<Tuple2<RowData, Boolean>>> rowCache,
+            @Nullable TimeBucketIndex bucketIndex,
             ValueState<Long> timerState,
             OnTimerContext ctx,
             boolean removeLeft)
             throws Exception {
+        if (bucketIndex != null) {
+            removeExpiredBucketedRows(collector, expirationTime, rowCache, bucketIndex, removeLeft);
+            Long earliestTimestamp = bucketIndex.getEarliestTimestamp();
+            if (earliestTimestamp != null) {
+                // There are rows left in the cache. Register a timer to expire them later.
+                registerCleanUpTimer(ctx, earliestTimestamp, removeLeft);
+            } else {
+                timerState.clear();
+                rowCache.clear();
+                bucketIndex.clear();
+            }
+            return;
+        }
+
         Iterator<Map.Entry<Long, List<Tuple2<RowData, Boolean>>>> iterator = rowCache.iterator();
 
         long earliestTimestamp = -1L;
@@ -447,6 +555,35 @@ abstract class TimeIntervalJoin extends KeyedCoProcessFunction<RowData, RowData,
         }
     }
 
+    /**
+     * Remove the expired rows of a cache which is indexed by time bucket. Only the buckets up to
+     * the bucket of the expiration time are read, see {@link TimeBucketIndex#removeExpired}.
+     *
+     * @param collector the collector to emit results
+     * @param expirationTime the expiration time for this cache
+     * @param rowCache the row cache
+     * @param bucketIndex the index of the row cache by time bucket
+     * @param removeLeft whether to remove the left rows
+     */
+    private void removeExpiredBucketedRows(
+            Collector<RowData> collector,
+            long expirationTime,
+            MapState<Long, List<Tuple2<RowData, Boolean>>> rowCache,
+            TimeBucketIndex bucketIndex,
+            boolean removeLeft)
+            throws Exception {
+        boolean padRows = removeLeft ? joinType.isLeftOuter() : joinType.isRightOuter();
+        for (Long rowTime : bucketIndex.removeExpired(expirationTime)) {
+            if (padRows) {
+                List<Tuple2<RowData, Boolean>> rows = rowCache.get(rowTime);
+                if (rows != null) {
+                    emitNullPaddings(collector, rows, removeLeft);
+                }
+            }
+            rowCache.remove(rowTime);
+        }
+    }
+
     /**
      * Update the operator time of the two streams. Must be the first call in all processing methods
      * (i.e., processElement(), onTimer()).
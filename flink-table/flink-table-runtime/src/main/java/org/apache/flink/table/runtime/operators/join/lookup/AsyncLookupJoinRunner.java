@@ -33,6 +33,8 @@ import org.apache.flink.table.runtime.generated.GeneratedFunction;
 import org.apache.flink.table.runtime.generated.GeneratedResultFuture;
 import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -49,6 +51,7 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
     private final GeneratedResultFuture<TableFunctionResultFuture<RowData>> generatedResultFuture;
     private final boolean isLeftOuterJoin;
     private final int asyncBufferCapacity;
+    private final @Nullable LookupCache lookupCache;
 
     private transient AsyncFunction<RowData, Object> fetcher;
 
@@ -73,12 +76,31 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
             RowDataSerializer rightRowSerializer,
             boolean isLeftOuterJoin,
             int asyncBufferCapacity) {
+        this(
+                generatedFetcher,
+                fetcherConverter,
+                generatedResultFuture,
+                rightRowSerializer,
+                isLeftOuterJoin,
+                asyncBufferCapacity,
+                null);
+    }
+
+    public AsyncLookupJoinRunner(
+            GeneratedFunction<AsyncFunction<RowData, Object>> generatedFetcher,
+            DataStructureConverter<RowData, Object> fetcherConverter,
+            GeneratedResultFuture<TableFunctionResultFuture<RowData>> generatedResultFuture,
+            RowDataSerializer rightRowSerializer,
+            boolean isLeftOuterJoin,
+            int asyncBufferCapacity,
+            @Nullable LookupCache lookupCache) {
         this.generatedFetcher = generatedFetcher;
         this.fetcherConverter = fetcherConverter;
         this.generatedResultFuture = generatedResultFuture;
         this.rightRowSerializer = rightRowSerializer;
         this.isLeftOuterJoin = isLeftOuterJoin;
         this.asyncBufferCapacity = asyncBufferCapacity;
+        this.lookupCache = lookupCache;
     }
 
     @Override
@@ -93,6 +115,10 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
 
         fetcherConverter.open(getRuntimeContext().getUserCodeClassLoader());
 
+        if (lookupCache != null) {
+            lookupCache.open(getRuntimeContext().getMetricGroup());
+        }
+
         // asyncBufferCapacity + 1 as the queue size in order to avoid
         // blocking on the queue when taking a collector.
         this.resultFutureBuffer = new ArrayBlockingQueue<>(asyncBufferCapacity + 1);
@@ -103,6 +129,7 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
                             resultFutureBuffer,
                             createFetcherResultFuture(parameters),
                             fetcherConverter,
+                            lookupCache,
                             isLeftOuterJoin,
                             rightRowSerializer.getArity());
             // add will throw exception immediately if the queue is full which should never happen
@@ -114,8 +141,18 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
     @Override
     public void asyncInvoke(RowData input, ResultFuture<RowData> resultFuture) throws Exception {
         JoinedRowResultFuture outResultFuture = resultFutureBuffer.take();
+        RowData cacheKey = null;
+        if (lookupCache != null) {
+            cacheKey = lookupCache.getKey(input);
+            List<RowData> cachedRows = lookupCache.getIfPresent(cacheKey);
+            if (cachedRows != null) {
+                outResultFuture.reset(input, resultFuture, null);
+                outResultFuture.completeInternal(cachedRows);
+                return;
+            }
+        }
         // the input row is copied when object reuse in AsyncWaitOperator
-        outResultFuture.reset(input, resultFuture);
+        outResultFuture.reset(input, resultFuture, cacheKey);
 
         // fetcher has copied the input field when object reuse is enabled
         fetcher.asyncInvoke(input, outResultFuture);
@@ -170,6 +207,7 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
         private final BlockingQueue<JoinedRowResultFuture> resultFutureBuffer;
         private final TableFunctionResultFuture<RowData> joinConditionResultFuture;
         private final DataStructureConverter<RowData, Object> resultConverter;
+        private final @Nullable LookupCache lookupCache;
         private final boolean isLeftOuterJoin;
 
         private final DelegateResultFuture delegate;
@@ -177,24 +215,37 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
 
         private RowData leftRow;
         private ResultFuture<RowData> realOutput;
+        private @Nullable RowData cacheKey;
+        private long loadStartNanos;
 
         private JoinedRowResultFuture(
                 BlockingQueue<JoinedRowResultFuture> resultFutureBuffer,
                 TableFunctionResultFuture<RowData> joinConditionResultFuture,
                 DataStructureConverter<RowData, Object> resultConverter,
+                @Nullable LookupCache lookupCache,
                 boolean isLeftOuterJoin,
                 int rightArity) {
             this.resultFutureBuffer = resultFutureBuffer;
             this.joinConditionResultFuture = joinConditionResultFuture;
             this.resultConverter = resultConverter;
+            this.lookupCache = lookupCache;
             this.isLeftOuterJoin = isLeftOuterJoin;
             this.delegate = new DelegateResultFuture();
             this.nullRow = new GenericRowData(rightArity);
         }
 
-        public void reset(RowData row, ResultFuture<RowData> realOutput) {
+        /**
+         * Resets this future for the given input row.
+         *
+         * @param cacheKey the key to cache the looked up rows with, or null if they should not be
+         *     cached
+         */
+        public void reset(
+                RowData row, ResultFuture<RowData> realOutput, @Nullable RowData cacheKey) {
             this.realOutput = realOutput;
             this.leftRow = row;
+            this.cacheKey = cacheKey;
+            this.loadStartNanos = System.nanoTime();
             joinConditionResultFuture.setInput(row);
             joinConditionResultFuture.setResultFuture(delegate);
             delegate.reset();
@@ -213,6 +264,25 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<RowData, RowData> {
                 }
             }
 
+            if (cacheKey != null) {
+                try {
+                    rowDataCollection =
+                            lookupCache.put(
+                                    cacheKey,
+                                    rowDataCollection == null
+                                            ? Collections.emptyList()
+                                            : rowDataCollection,
+                                    loadStartNanos);
+                } catch (Throwable t) {
+                    completeExceptionally(t);
+                    return;
+                }
+            }
+            completeInternal(rowDataCollection);
+        }
+
+        /** Joins the left row with the given looked up rows in internal data structures. */
+        public void completeInternal(Collection<RowData> rowDataCollection) {
             // call condition collector first,
             // the filtered result will be routed to the delegateCollector
             try {
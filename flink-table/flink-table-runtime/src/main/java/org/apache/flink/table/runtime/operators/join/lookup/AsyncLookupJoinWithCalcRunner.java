@@ -31,6 +31,8 @@ import org.apache.flink.table.runtime.generated.GeneratedResultFuture;
 import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.util.Collector;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -49,13 +51,34 @@ public class AsyncLookupJoinWithCalcRunner extends AsyncLookupJoinRunner {
             RowDataSerializer rightRowSerializer,
             boolean isLeftOuterJoin,
             int asyncBufferCapacity) {
+        this(
+                generatedFetcher,
+                fetcherConverter,
+                generatedCalc,
+                generatedResultFuture,
+                rightRowSerializer,
+                isLeftOuterJoin,
+                asyncBufferCapacity,
+                null);
+    }
+
+    public AsyncLookupJoinWithCalcRunner(
+            GeneratedFunction<AsyncFunction<RowData, Object>> generatedFetcher,
+            DataStructureConverter<RowData, Object> fetcherConverter,
+            GeneratedFunction<FlatMapFunction<RowData, RowData>> generatedCalc,
+            GeneratedResultFuture<TableFunctionResultFuture<RowData>> generatedResultFuture,
+            RowDataSerializer rightRowSerializer,
+            boolean isLeftOuterJoin,
+            int asyncBufferCapacity,
+            @Nullable LookupCache lookupCache) {
         super(
                 generatedFetcher,
                 fetcherConverter,
                 generatedResultFuture,
                 rightRowSerializer,
                 isLeftOuterJoin,
-                asyncBufferCapacity);
+                asyncBufferCapacity,
+                lookupCache);
         this.generatedCalc = generatedCalc;
     }
 
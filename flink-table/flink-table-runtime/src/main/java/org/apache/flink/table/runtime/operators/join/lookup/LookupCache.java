@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.lookup;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+
+import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A cache of the rows looked up from a dimension table, shared by the sync {@link
+ * LookupJoinRunner} and the async {@link AsyncLookupJoinRunner}.
+ *
+ * <p>The cache maps the lookup keys of an input row to the rows returned by the lookup function
+ * for them, before any calc on the dimension table and before the join condition is applied. Keys
+ * without any matching row are cached as well. The number of cached keys is bounded and the
+ * entries expire a fixed time after they were loaded, the least recently used keys are evicted
+ * first.
+ *
+ * <p>This is a partial cache of the looked up keys only. A full cache of the dimension table with
+ * periodic reload is not supported, as the lookup functions cannot scan the whole table, and
+ * neither is refreshing entries ahead of their expiration, which would need a reload path that
+ * bypasses the join.
+ *
+ * <p>The cache is thread-safe, as the rows of the async lookup join are put into the cache by the
+ * threads completing the lookups.
+ */
+public class LookupCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String LOOKUP_CACHE_HIT_COUNT_METRIC_NAME = "lookupCacheHitCount";
+    public static final String LOOKUP_CACHE_MISS_COUNT_METRIC_NAME = "lookupCacheMissCount";
+    public static final String LOOKUP_CACHE_SIZE_METRIC_NAME = "lookupCacheSize";
+    public static final String LOOKUP_CACHE_AVG_LOAD_TIME_METRIC_NAME = "lookupCacheAvgLoadTime";
+
+    /** Extracts the lookup keys from an input row. */
+    private final RowDataKeySelector keySelector;
+
+    /** Copies the looked up rows, which may be reused by the lookup function. */
+    private final RowDataSerializer lookupRowSerializer;
+
+    private final long maxKeys;
+    private final long ttlMillis;
+
+    private transient Cache<RowData, List<RowData>> cache;
+    private transient LongAdder loadCount;
+    private transient LongAdder loadTimeNanos;
+
+    public LookupCache(
+            RowDataKeySelector keySelector,
+            RowDataSerializer lookupRowSerializer,
+            long maxKeys,
+            long ttlMillis) {
+        checkArgument(maxKeys > 0, "The max keys of the lookup cache must be positive.");
+        checkArgument(ttlMillis > 0, "The ttl of the lookup cache must be positive.");
+        this.keySelector = keySelector;
+        this.lookupRowSerializer = lookupRowSerializer;
+        this.maxKeys = maxKeys;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** Creates the cache and registers its metrics in the given metric group. */
+    public void open(MetricGroup metricGroup) {
+        this.cache =
+                CacheBuilder.newBuilder()
+                        .maximumSize(maxKeys)
+                        .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                        .recordStats()
+                        .build();
+        this.loadCount = new LongAdder();
+        this.loadTimeNanos = new LongAdder();
+
+        metricGroup.gauge(
+                LOOKUP_CACHE_HIT_COUNT_METRIC_NAME, (Gauge<Long>) () -> cache.stats().hitCount());
+        metricGroup.gauge(
+                LOOKUP_CACHE_MISS_COUNT_METRIC_NAME,
+                (Gauge<Long>) () -> cache.stats().missCount());
+        metricGroup.gauge(LOOKUP_CACHE_SIZE_METRIC_NAME, (Gauge<Long>) () -> cache.size());
+        metricGroup.gauge(
+                LOOKUP_CACHE_AVG_LOAD_TIME_METRIC_NAME, (Gauge<Double>) this::getAvgLoadTimeMillis);
+    }
+
+    /** Returns the key of the given input row in the cache. */
+    public RowData getKey(RowData input) throws Exception {
+        return keySelector.getKey(input);
+    }
+
+    /** Returns the cached rows of the given key, or null if the key is not cached. */
+    public List<RowData> getIfPresent(RowData key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Caches copies of the rows which were looked up for the given key.
+     *
+     * @param loadStartNanos the {@link System#nanoTime()} when the lookup was started
+     * @return the cached copies of the rows
+     */
+    public List<RowData> put(RowData key, Collection<RowData> rows, long loadStartNanos) {
+        List<RowData> copies = new ArrayList<>(rows.size());
+        // the serializer is shared by all threads completing async lookups
+        synchronized (lookupRowSerializer) {
+            for (RowData row : rows) {
+                copies.add(lookupRowSerializer.copy(row));
+            }
+        }
+        cache.put(key, copies);
+        loadCount.increment();
+        loadTimeNanos.add(System.nanoTime() - loadStartNanos);
+        return copies;
+    }
+
+    /** Returns the average time in milliseconds to look up the rows of a key. */
+    public double getAvgLoadTimeMillis() {
+        long count = loadCount.sum();
+        return count == 0 ? 0.0 : loadTimeNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @VisibleForTesting
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @VisibleForTesting
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+}
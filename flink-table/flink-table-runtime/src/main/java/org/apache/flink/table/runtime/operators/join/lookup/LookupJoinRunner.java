@@ -20,6 +20,7 @@ package org.apache.flink.table.runtime.operators.join.lookup;
 
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.util.FunctionUtils;
+import org.apache.flink.api.common.functions.util.ListCollector;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.table.data.GenericRowData;
@@ -30,6 +31,11 @@ import org.apache.flink.table.runtime.generated.GeneratedCollector;
 import org.apache.flink.table.runtime.generated.GeneratedFunction;
 import org.apache.flink.util.Collector;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /** The join runner to lookup the dimension table. */
 public class LookupJoinRunner extends ProcessFunction<RowData, RowData> {
     private static final long serialVersionUID = -4521543015709964733L;
@@ -38,21 +44,34 @@ public class LookupJoinRunner extends ProcessFunction<RowData, RowData> {
     private final GeneratedCollector<TableFunctionCollector<RowData>> generatedCollector;
     private final boolean isLeftOuterJoin;
     private final int tableFieldsCount;
+    private final @Nullable LookupCache lookupCache;
 
     private transient FlatMapFunction<RowData, RowData> fetcher;
     protected transient TableFunctionCollector<RowData> collector;
     private transient GenericRowData nullRow;
     private transient JoinedRowData outRow;
+    private transient List<RowData> fetchedRows;
+    private transient ListCollector<RowData> fetchedRowsCollector;
 
     public LookupJoinRunner(
             GeneratedFunction<FlatMapFunction<RowData, RowData>> generatedFetcher,
             GeneratedCollector<TableFunctionCollector<RowData>> generatedCollector,
             boolean isLeftOuterJoin,
             int tableFieldsCount) {
+        this(generatedFetcher, generatedCollector, isLeftOuterJoin, tableFieldsCount, null);
+    }
+
+    public LookupJoinRunner(
+            GeneratedFunction<FlatMapFunction<RowData, RowData>> generatedFetcher,
+            GeneratedCollector<TableFunctionCollector<RowData>> generatedCollector,
+            boolean isLeftOuterJoin,
+            int tableFieldsCount,
+            @Nullable LookupCache lookupCache) {
         this.generatedFetcher = generatedFetcher;
         this.generatedCollector = generatedCollector;
         this.isLeftOuterJoin = isLeftOuterJoin;
         this.tableFieldsCount = tableFieldsCount;
+        this.lookupCache = lookupCache;
     }
 
     @Override
@@ -69,6 +88,12 @@ public class LookupJoinRunner extends ProcessFunction<RowData, RowData> {
 
         this.nullRow = new GenericRowData(tableFieldsCount);
         this.outRow = new JoinedRowData();
+
+        if (lookupCache != null) {
+            lookupCache.open(getRuntimeContext().getMetricGroup());
+            this.fetchedRows = new ArrayList<>();
+            this.fetchedRowsCollector = new ListCollector<>(fetchedRows);
+        }
     }
 
     @Override
@@ -77,8 +102,23 @@ public class LookupJoinRunner extends ProcessFunction<RowData, RowData> {
         collector.setInput(in);
         collector.reset();
 
-        // fetcher has copied the input field when object reuse is enabled
-        fetcher.flatMap(in, getFetcherCollector());
+        if (lookupCache == null) {
+            // fetcher has copied the input field when object reuse is enabled
+            fetcher.flatMap(in, getFetcherCollector());
+        } else {
+            RowData cacheKey = lookupCache.getKey(in);
+            List<RowData> rows = lookupCache.getIfPresent(cacheKey);
+            if (rows == null) {
+                long loadStartNanos = System.nanoTime();
+                fetchedRows.clear();
+                fetcher.flatMap(in, fetchedRowsCollector);
+                rows = lookupCache.put(cacheKey, fetchedRows, loadStartNanos);
+            }
+            Collector<RowData> fetcherCollector = getFetcherCollector();
+            for (RowData row : rows) {
+                fetcherCollector.collect(row);
+            }
+        }
 
         if (isLeftOuterJoin && !collector.isCollected()) {
             outRow.replace(in, nullRow);
@@ -18,8 +18,13 @@
 
 package org.apache.flink.table.runtime.operators.join.stream;
 
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.streaming.api.operators.TimestampedCollector;
 import org.apache.flink.streaming.api.operators.TwoInputStreamOperator;
@@ -34,6 +39,7 @@ import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.util.IterableIterator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -50,6 +56,7 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
 
     protected static final String LEFT_RECORDS_STATE_NAME = "left-records";
     protected static final String RIGHT_RECORDS_STATE_NAME = "right-records";
+    private static final String RECORD_COUNTS_COMPLETE_STATE_NAME = "record-counts-complete";
 
     private final GeneratedJoinCondition generatedJoinCondition;
     protected final InternalTypeInfo<RowData> leftType;
@@ -62,6 +69,21 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
 
     protected final long stateRetentionTime;
 
+    /**
+     * Whether the record views of the inner sides track the number of records per join key. See
+     * {@link org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateViews}.
+     */
+    protected final boolean trackRecordCount;
+
+    /**
+     * Whether the number of records per join key has been tracked since the keyed state was
+     * created. It is false if the state was restored from a snapshot taken without tracking, then
+     * a missing count does not mean that there are no records under the join key.
+     */
+    protected transient boolean recordCountsComplete;
+
+    private transient ListState<Boolean> recordCountsCompleteState;
+
     protected transient JoinConditionWithNullFilters joinCondition;
     protected transient TimestampedCollector<RowData> collector;
 
@@ -73,6 +95,26 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
             JoinInputSideSpec rightInputSideSpec,
             boolean[] filterNullKeys,
             long stateRetentionTime) {
+        this(
+                leftType,
+                rightType,
+                generatedJoinCondition,
+                leftInputSideSpec,
+                rightInputSideSpec,
+                filterNullKeys,
+                stateRetentionTime,
+                false);
+    }
+
+    public AbstractStreamingJoinOperator(
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            GeneratedJoinCondition generatedJoinCondition,
+            JoinInputSideSpec leftInputSideSpec,
+            JoinInputSideSpec rightInputSideSpec,
+            boolean[] filterNullKeys,
+            long stateRetentionTime,
+            boolean trackRecordCount) {
         this.leftType = leftType;
         this.rightType = rightType;
         this.generatedJoinCondition = generatedJoinCondition;
@@ -80,6 +122,35 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
         this.rightInputSideSpec = rightInputSideSpec;
         this.stateRetentionTime = stateRetentionTime;
         this.filterNullKeys = filterNullKeys;
+        this.trackRecordCount = trackRecordCount;
+    }
+
+    @Override
+    public void initializeState(StateInitializationContext context) throws Exception {
+        super.initializeState(context);
+        this.recordCountsCompleteState =
+                context.getOperatorStateStore()
+                        .getUnionListState(
+                                new ListStateDescriptor<>(
+                                        RECORD_COUNTS_COMPLETE_STATE_NAME, Types.BOOLEAN));
+        boolean complete = trackRecordCount;
+        if (context.isRestored()) {
+            // the keyed state may be redistributed, so the counts must have been complete in all
+            // the subtasks, and snapshots taken before the flag was introduced have no entries
+            boolean restoredAny = false;
+            for (Boolean restored : recordCountsCompleteState.get()) {
+                complete &= restored;
+                restoredAny = true;
+            }
+            complete &= restoredAny;
+        }
+        this.recordCountsComplete = complete;
+    }
+
+    @Override
+    public void snapshotState(StateSnapshotContext context) throws Exception {
+        super.snapshotState(context);
+        recordCountsCompleteState.update(Collections.singletonList(recordCountsComplete));
     }
 
     @Override
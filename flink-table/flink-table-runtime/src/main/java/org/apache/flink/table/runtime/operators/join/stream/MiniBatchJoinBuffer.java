@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.data.binary.BinarySegmentUtils;
+import org.apache.flink.table.data.util.RowDataUtil;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * Buffers the input records of both sides of a mini-batch join per join key, in the order in which
+ * they arrive.
+ *
+ * <p>An accumulate and a retract message of the same record on the same side cancel each other
+ * out, whichever of them arrives first, so that neither of them touches the state or emits any
+ * result. The other records are replayed in their arrival order per key, so that the results of a
+ * bundle are those of the join without mini-batch, except for the intermediate results of the
+ * folded records.
+ */
+final class MiniBatchJoinBuffer {
+
+    private final RowDataSerializer leftSerializer;
+    private final RowDataSerializer rightSerializer;
+    // second serializers to compare a buffered record with the input record in binary format
+    private final RowDataSerializer bufferedLeftSerializer;
+    private final RowDataSerializer bufferedRightSerializer;
+
+    // buffered records of both sides by join key
+    private final Map<RowData, List<BufferedRecord>> bundle = new LinkedHashMap<>();
+
+    private int numOfElements;
+
+    MiniBatchJoinBuffer(RowDataSerializer leftSerializer, RowDataSerializer rightSerializer) {
+        this.leftSerializer = leftSerializer;
+        this.rightSerializer = rightSerializer;
+        this.bufferedLeftSerializer = (RowDataSerializer) leftSerializer.duplicate();
+        this.bufferedRightSerializer = (RowDataSerializer) rightSerializer.duplicate();
+    }
+
+    /** Adds an input record of the given side, folding it with a buffered opposite message. */
+    void add(RowData joinKey, RowData input, boolean isLeft) {
+        numOfElements++;
+        List<BufferedRecord> records = bundle.computeIfAbsent(joinKey, k -> new ArrayList<>());
+        BinaryRowData binaryInput = null;
+        // only the latest buffered message of the same record can be an opposite one, because
+        // earlier opposite pairs have been folded already
+        ListIterator<BufferedRecord> iterator = records.listIterator(records.size());
+        while (iterator.hasPrevious()) {
+            BufferedRecord buffered = iterator.previous();
+            if (buffered.isLeft != isLeft) {
+                continue;
+            }
+            if (binaryInput == null) {
+                binaryInput = (isLeft ? leftSerializer : rightSerializer).toBinaryRow(input);
+            }
+            BinaryRowData binaryBuffered =
+                    (isLeft ? bufferedLeftSerializer : bufferedRightSerializer)
+                            .toBinaryRow(buffered.record);
+            if (equalsIgnoreRowKind(binaryBuffered, binaryInput)) {
+                if (RowDataUtil.isAccumulateMsg(buffered.record)
+                        != RowDataUtil.isAccumulateMsg(input)) {
+                    iterator.remove();
+                    if (records.isEmpty()) {
+                        bundle.remove(joinKey);
+                    }
+                    return;
+                }
+                break;
+            }
+        }
+        records.add(new BufferedRecord(input, isLeft));
+    }
+
+    boolean isEmpty() {
+        return bundle.isEmpty();
+    }
+
+    int getNumOfElements() {
+        return numOfElements;
+    }
+
+    /** Passes the buffered records to the given processor key by key, and clears the buffer. */
+    void replay(BufferedRecordProcessor processor) throws Exception {
+        for (Map.Entry<RowData, List<BufferedRecord>> entry : bundle.entrySet()) {
+            for (BufferedRecord buffered : entry.getValue()) {
+                processor.process(entry.getKey(), buffered.record, buffered.isLeft);
+            }
+        }
+        bundle.clear();
+        numOfElements = 0;
+    }
+
+    /** Compares two binary rows without their headers, which only hold the {@code RowKind}. */
+    private static boolean equalsIgnoreRowKind(BinaryRowData row1, BinaryRowData row2) {
+        return row1.getSizeInBytes() == row2.getSizeInBytes()
+                && BinarySegmentUtils.equals(
+                        row1.getSegments(),
+                        row1.getOffset() + 1,
+                        row2.getSegments(),
+                        row2.getOffset() + 1,
+                        row1.getSizeInBytes() - 1);
+    }
+
+    /** Processes a buffered record of the given join key. */
+    @FunctionalInterface
+    interface BufferedRecordProcessor {
+        void process(RowData joinKey, RowData record, boolean isLeft) throws Exception;
+    }
+
+    private static final class BufferedRecord {
+        private final RowData record;
+        private final boolean isLeft;
+
+        private BufferedRecord(RowData record, boolean isLeft) {
+            this.record = record;
+            this.isLeft = isLeft;
+        }
+    }
+}
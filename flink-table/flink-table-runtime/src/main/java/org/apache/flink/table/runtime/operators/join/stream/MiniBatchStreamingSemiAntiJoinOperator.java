@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTriggerCallback;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CoBundleTrigger;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Streaming unbounded Join operator which supports SEMI/ANTI JOIN and buffers the input records of
+ * both sides in a bundle before joining them.
+ *
+ * <p>The records are buffered like in {@link MiniBatchStreamingJoinOperator} and joined with the
+ * logic of {@link StreamingSemiAntiJoinOperator}.
+ */
+public class MiniBatchStreamingSemiAntiJoinOperator extends StreamingSemiAntiJoinOperator
+        implements BundleTriggerCallback {
+
+    private static final long serialVersionUID = 4309584632212369418L;
+
+    private final CoBundleTrigger<RowData, RowData> coBundleTrigger;
+
+    private transient MiniBatchJoinBuffer buffer;
+
+    private transient RowDataSerializer leftSerializer;
+    private transient RowDataSerializer rightSerializer;
+
+    private transient StreamRecord<RowData> reuseRecord;
+
+    public MiniBatchStreamingSemiAntiJoinOperator(
+            boolean isAntiJoin,
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            GeneratedJoinCondition generatedJoinCondition,
+            JoinInputSideSpec leftInputSideSpec,
+            JoinInputSideSpec rightInputSideSpec,
+            boolean[] filterNullKeys,
+            long stateRetentionTime,
+            boolean trackRecordCount,
+            CoBundleTrigger<RowData, RowData> coBundleTrigger) {
+        super(
+                isAntiJoin,
+                leftType,
+                rightType,
+                generatedJoinCondition,
+                leftInputSideSpec,
+                rightInputSideSpec,
+                filterNullKeys,
+                stateRetentionTime,
+                trackRecordCount);
+        this.coBundleTrigger = checkNotNull(coBundleTrigger, "coBundleTrigger is null");
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+
+        this.leftSerializer = leftType.toRowSerializer();
+        this.rightSerializer = rightType.toRowSerializer();
+        this.buffer = new MiniBatchJoinBuffer(leftSerializer, rightSerializer);
+        this.reuseRecord = new StreamRecord<>(null);
+
+        coBundleTrigger.registerCallback(this);
+        // reset trigger
+        coBundleTrigger.reset();
+        LOG.info(
+                "MiniBatchStreamingSemiAntiJoinOperator's trigger info: "
+                        + coBundleTrigger.explain());
+
+        // counter metric to get the size of bundle
+        getRuntimeContext()
+                .getMetricGroup()
+                .gauge("bundleSize", (Gauge<Integer>) () -> buffer.getNumOfElements());
+    }
+
+    @Override
+    public void processElement1(StreamRecord<RowData> element) throws Exception {
+        RowData input = element.getValue();
+        if (getExecutionConfig().isObjectReuseEnabled()) {
+            input = leftSerializer.copy(input);
+        }
+        // the current key is the join key of the input record
+        buffer.add((RowData) getCurrentKey(), input, true);
+        coBundleTrigger.onElement1(input);
+    }
+
+    @Override
+    public void processElement2(StreamRecord<RowData> element) throws Exception {
+        RowData input = element.getValue();
+        if (getExecutionConfig().isObjectReuseEnabled()) {
+            input = rightSerializer.copy(input);
+        }
+        buffer.add((RowData) getCurrentKey(), input, false);
+        coBundleTrigger.onElement2(input);
+    }
+
+    @Override
+    public void finishBundle() throws Exception {
+        if (!buffer.isEmpty()) {
+            buffer.replay(
+                    (joinKey, record, isLeft) -> {
+                        setCurrentKey(joinKey);
+                        if (isLeft) {
+                            super.processElement1(reuseRecord.replace(record));
+                        } else {
+                            super.processElement2(reuseRecord.replace(record));
+                        }
+                    });
+        }
+        coBundleTrigger.reset();
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        finishBundle();
+        super.processWatermark(mark);
+    }
+
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        super.prepareSnapshotPreBarrier(checkpointId);
+        finishBundle();
+    }
+
+    @Override
+    public void finish() throws Exception {
+        finishBundle();
+        super.finish();
+    }
+}
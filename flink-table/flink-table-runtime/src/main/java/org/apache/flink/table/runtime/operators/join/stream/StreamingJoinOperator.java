@@ -61,6 +61,30 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             boolean rightIsOuter,
             boolean[] filterNullKeys,
             long stateRetentionTime) {
+        this(
+                leftType,
+                rightType,
+                generatedJoinCondition,
+                leftInputSideSpec,
+                rightInputSideSpec,
+                leftIsOuter,
+                rightIsOuter,
+                filterNullKeys,
+                stateRetentionTime,
+                false);
+    }
+
+    public StreamingJoinOperator(
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            GeneratedJoinCondition generatedJoinCondition,
+            JoinInputSideSpec leftInputSideSpec,
+            JoinInputSideSpec rightInputSideSpec,
+            boolean leftIsOuter,
+            boolean rightIsOuter,
+            boolean[] filterNullKeys,
+            long stateRetentionTime,
+            boolean trackRecordCount) {
         super(
                 leftType,
                 rightType,
@@ -68,7 +92,8 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
                 leftInputSideSpec,
                 rightInputSideSpec,
                 filterNullKeys,
-                stateRetentionTime);
+                stateRetentionTime,
+                trackRecordCount);
         this.leftIsOuter = leftIsOuter;
         this.rightIsOuter = rightIsOuter;
     }
@@ -97,7 +122,9 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
                             "left-records",
                             leftInputSideSpec,
                             leftType,
-                            stateRetentionTime);
+                            stateRetentionTime,
+                            trackRecordCount,
+                            recordCountsComplete);
         }
 
         if (rightIsOuter) {
@@ -115,7 +142,9 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
                             "right-records",
                             rightInputSideSpec,
                             rightType,
-                            stateRetentionTime);
+                            stateRetentionTime,
+                            trackRecordCount,
+                            recordCountsComplete);
         }
     }
 
@@ -207,6 +236,17 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
         RowKind inputRowKind = input.getRowKind();
         input.setRowKind(RowKind.INSERT); // erase RowKind for later state updating
 
+        if (!inputIsOuter && !otherIsOuter) {
+            processInnerJoinElement(
+                    input,
+                    inputRowKind,
+                    isAccumulateMsg,
+                    inputSideStateView,
+                    otherSideStateView,
+                    inputIsLeft);
+            return;
+        }
+
         AssociatedRecords associatedRecords =
                 AssociatedRecords.of(input, inputIsLeft, otherSideStateView, joinCondition);
         if (isAccumulateMsg) { // record is accumulate
@@ -316,6 +356,40 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
 
     // -------------------------------------------------------------------------------------
 
+    /**
+     * Process an input element of an inner join. This follows the same logic as {@link
+     * #processElement(RowData, JoinRecordStateView, JoinRecordStateView, boolean)} without outer
+     * sides, but joins the records of the other side while iterating them instead of collecting the
+     * matched records first, so that a probe keeps no more than one record of the other side.
+     */
+    private void processInnerJoinElement(
+            RowData input,
+            RowKind inputRowKind,
+            boolean isAccumulateMsg,
+            JoinRecordStateView inputSideStateView,
+            JoinRecordStateView otherSideStateView,
+            boolean inputIsLeft)
+            throws Exception {
+        if (isAccumulateMsg) {
+            // state.add(record)
+            inputSideStateView.addRecord(input);
+        } else {
+            // state.retract(record)
+            inputSideStateView.retractRecord(input);
+        }
+        // send +I/+U/-D/-U[record+other]s (using input RowKind)
+        outRow.setRowKind(inputRowKind);
+        for (RowData other : otherSideStateView.getRecords()) {
+            boolean matched =
+                    inputIsLeft
+                            ? joinCondition.apply(input, other)
+                            : joinCondition.apply(other, input);
+            if (matched) {
+                output(input, other, inputIsLeft);
+            }
+        }
+    }
+
     private void output(RowData inputRow, RowData otherRow, boolean inputIsLeft) {
         if (inputIsLeft) {
             outRow.replace(inputRow, otherRow);
@@ -52,6 +52,28 @@ public class StreamingSemiAntiJoinOperator extends AbstractStreamingJoinOperator
             JoinInputSideSpec rightInputSideSpec,
             boolean[] filterNullKeys,
             long stateRetentionTime) {
+        this(
+                isAntiJoin,
+                leftType,
+                rightType,
+                generatedJoinCondition,
+                leftInputSideSpec,
+                rightInputSideSpec,
+                filterNullKeys,
+                stateRetentionTime,
+                false);
+    }
+
+    public StreamingSemiAntiJoinOperator(
+            boolean isAntiJoin,
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            GeneratedJoinCondition generatedJoinCondition,
+            JoinInputSideSpec leftInputSideSpec,
+            JoinInputSideSpec rightInputSideSpec,
+            boolean[] filterNullKeys,
+            long stateRetentionTime,
+            boolean trackRecordCount) {
         super(
                 leftType,
                 rightType,
@@ -59,7 +81,8 @@ public class StreamingSemiAntiJoinOperator extends AbstractStreamingJoinOperator
                 leftInputSideSpec,
                 rightInputSideSpec,
                 filterNullKeys,
-                stateRetentionTime);
+                stateRetentionTime,
+                trackRecordCount);
         this.isAntiJoin = isAntiJoin;
     }
 
@@ -81,7 +104,9 @@ public class StreamingSemiAntiJoinOperator extends AbstractStreamingJoinOperator
                         RIGHT_RECORDS_STATE_NAME,
                         rightInputSideSpec,
                         rightType,
-                        stateRetentionTime);
+                        stateRetentionTime,
+                        trackRecordCount,
+                        recordCountsComplete);
     }
 
     /**
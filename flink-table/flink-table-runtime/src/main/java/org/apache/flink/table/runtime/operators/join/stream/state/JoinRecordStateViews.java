@@ -30,7 +30,10 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.util.IterableIterator;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +51,29 @@ public final class JoinRecordStateViews {
             JoinInputSideSpec inputSideSpec,
             InternalTypeInfo<RowData> recordType,
             long retentionTime) {
+        return create(ctx, stateName, inputSideSpec, recordType, retentionTime, false, false);
+    }
+
+    /**
+     * Creates a {@link JoinRecordStateView} depends on {@link JoinInputSideSpec}.
+     *
+     * @param trackRecordCount whether to additionally keep the number of records per join key in a
+     *     {@link ValueState}, if the input side has no unique key. This allows to skip iterating
+     *     the records when there are none under the current join key, and to stop iterating them
+     *     after the counted records without looking for further state entries.
+     * @param recordCountsComplete whether the number of records has been tracked since the state
+     *     was created, so that a missing count means there are no records. It is not the case if
+     *     the state was restored from a snapshot taken without tracking the number of records, then
+     *     the records are always iterated.
+     */
+    public static JoinRecordStateView create(
+            RuntimeContext ctx,
+            String stateName,
+            JoinInputSideSpec inputSideSpec,
+            InternalTypeInfo<RowData> recordType,
+            long retentionTime,
+            boolean trackRecordCount,
+            boolean recordCountsComplete) {
         StateTtlConfig ttlConfig = createTtlConfig(retentionTime);
         if (inputSideSpec.hasUniqueKey()) {
             if (inputSideSpec.joinKeyContainsUniqueKey()) {
@@ -62,7 +88,13 @@ public final class JoinRecordStateViews {
                         ttlConfig);
             }
         } else {
-            return new InputSideHasNoUniqueKey(ctx, stateName, recordType, ttlConfig);
+            return new InputSideHasNoUniqueKey(
+                    ctx,
+                    stateName,
+                    recordType,
+                    ttlConfig,
+                    trackRecordCount,
+                    recordCountsComplete);
         }
     }
 
@@ -155,17 +187,38 @@ public final class JoinRecordStateViews {
 
         private final MapState<RowData, Integer> recordState;
 
+        // stores the total number of records under the join key, null if not tracked
+        @Nullable private final ValueState<Integer> recordCountState;
+
+        // whether a missing count means that there are no records under the join key
+        private final boolean recordCountsComplete;
+
         private InputSideHasNoUniqueKey(
                 RuntimeContext ctx,
                 String stateName,
                 InternalTypeInfo<RowData> recordType,
-                StateTtlConfig ttlConfig) {
+                StateTtlConfig ttlConfig,
+                boolean trackRecordCount,
+                boolean recordCountsComplete) {
             MapStateDescriptor<RowData, Integer> recordStateDesc =
                     new MapStateDescriptor<>(stateName, recordType, Types.INT);
             if (ttlConfig.isEnabled()) {
                 recordStateDesc.enableTimeToLive(ttlConfig);
             }
             this.recordState = ctx.getMapState(recordStateDesc);
+
+            if (trackRecordCount) {
+                // the count is written whenever a record is, so it never expires before a record
+                ValueStateDescriptor<Integer> recordCountStateDesc =
+                        new ValueStateDescriptor<>(stateName + "-count", Types.INT);
+                if (ttlConfig.isEnabled()) {
+                    recordCountStateDesc.enableTimeToLive(ttlConfig);
+                }
+                this.recordCountState = ctx.getState(recordCountStateDesc);
+            } else {
+                this.recordCountState = null;
+            }
+            this.recordCountsComplete = trackRecordCount && recordCountsComplete;
         }
 
         @Override
@@ -177,6 +230,7 @@ public final class JoinRecordStateViews {
                 cnt = 1;
             }
             recordState.put(record, cnt);
+            updateRecordCount(1);
         }
 
         @Override
@@ -188,26 +242,57 @@ public final class JoinRecordStateViews {
                 } else {
                     recordState.remove(record);
                 }
+                updateRecordCount(-1);
             }
             // ignore cnt == null, which means state may be expired
         }
 
+        private void updateRecordCount(int delta) throws Exception {
+            if (recordCountState == null) {
+                return;
+            }
+            Integer total = recordCountState.value();
+            int newTotal = (total == null ? 0 : total) + delta;
+            if (newTotal > 0) {
+                recordCountState.update(newTotal);
+            } else {
+                recordCountState.clear();
+            }
+        }
+
         @Override
         public Iterable<RowData> getRecords() throws Exception {
+            final int maxRecords;
+            if (recordCountsComplete) {
+                Integer total = recordCountState.value();
+                if (total == null) {
+                    // there are no records under the current join key, skip iterating the state
+                    return Collections.emptyList();
+                }
+                // the count is never smaller than the number of records, even if some of them
+                // have expired, because the count is written whenever a record is
+                maxRecords = total;
+            } else {
+                maxRecords = Integer.MAX_VALUE;
+            }
             return new IterableIterator<RowData>() {
 
                 private final Iterator<Map.Entry<RowData, Integer>> backingIterable =
                         recordState.entries().iterator();
                 private RowData record;
                 private int remainingTimes = 0;
+                // stop the iteration after the counted records, without looking for more entries
+                private int remainingRecords = maxRecords;
 
                 @Override
                 public boolean hasNext() {
-                    return backingIterable.hasNext() || remainingTimes > 0;
+                    return remainingTimes > 0
+                            || (remainingRecords > 0 && backingIterable.hasNext());
                 }
 
                 @Override
                 public RowData next() {
+                    remainingRecords--;
                     if (remainingTimes > 0) {
                         checkNotNull(record);
                         remainingTimes--;
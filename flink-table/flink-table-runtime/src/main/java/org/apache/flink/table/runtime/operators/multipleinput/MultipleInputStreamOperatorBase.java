@@ -97,7 +97,7 @@ public abstract class MultipleInputStreamOperatorBase extends AbstractStreamOper
         return inputSpecs.stream().map(this::createInput).collect(Collectors.toList());
     }
 
-    private Input createInput(InputSpec inputSpec) {
+    protected Input createInput(InputSpec inputSpec) {
         StreamOperator<RowData> operator = inputSpec.getOutput().getStreamOperator();
         if (operator instanceof OneInputStreamOperator) {
             return new OneInput((OneInputStreamOperator<RowData, RowData>) operator);
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.multipleinput;
+
+import org.apache.flink.streaming.api.operators.BoundedMultiInput;
+import org.apache.flink.streaming.api.operators.Input;
+import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.LatencyMarker;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.streamstatus.StreamStatus;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.operators.multipleinput.input.InputSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link MultipleInputStreamOperatorBase} to handle stream operators.
+ *
+ * <p>The watermarks of all inputs are combined by this operator, and only the combined watermark
+ * is forwarded to the head operators. This is necessary because a head operator may consume
+ * several inputs of this operator (for example a union), while it expects the watermarks of its
+ * input to be already combined. The combined watermark is the minimum of the watermarks of all
+ * active inputs, which may hold back the watermark of a head operator which only consumes some of
+ * the inputs, but never advances it too early.
+ *
+ * <p>Checkpoint barriers are aligned on the inputs of this operator, so the sub-operators are
+ * notified about checkpoints by this operator. The state of the sub-operators is not part of the
+ * snapshots of this operator, only stateless operators must be put into it.
+ */
+public class StreamMultipleInputStreamOperator extends MultipleInputStreamOperatorBase
+        implements BoundedMultiInput {
+    private static final long serialVersionUID = 1L;
+
+    /** The inputs of the head operators, which receive the combined watermark. */
+    private final List<Input> headInputs;
+
+    public StreamMultipleInputStreamOperator(
+            StreamOperatorParameters<RowData> parameters,
+            List<InputSpec> inputSpecs,
+            List<TableOperatorWrapper<?>> headWrappers,
+            TableOperatorWrapper<?> tailWrapper) {
+        super(parameters, inputSpecs, headWrappers, tailWrapper);
+        this.headInputs = new ArrayList<>();
+        List<InputSpec> distinctInputSpecs = new ArrayList<>();
+        for (InputSpec inputSpec : inputSpecs) {
+            // several inputs of this operator may be the same input of a head operator
+            boolean isDuplicate =
+                    distinctInputSpecs.stream()
+                            .anyMatch(
+                                    s ->
+                                            s.getOutput() == inputSpec.getOutput()
+                                                    && s.getOutputOpInputId()
+                                                            == inputSpec.getOutputOpInputId());
+            if (!isDuplicate) {
+                distinctInputSpecs.add(inputSpec);
+                headInputs.add(super.createInput(inputSpec));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Input createInput(InputSpec inputSpec) {
+        return new WatermarkCombiningInput(
+                super.createInput(inputSpec), inputSpec.getMultipleInputId());
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        // the combined watermark of all inputs, which is emitted by the tail operator
+        for (Input input : headInputs) {
+            input.processWatermark(mark);
+        }
+    }
+
+    @Override
+    public void endInput(int inputId) throws Exception {
+        InputSpec inputSpec = inputSpecMap.get(inputId);
+        inputSpec.getOutput().endOperatorInput(inputSpec.getOutputOpInputId());
+    }
+
+    /**
+     * Notifies all sub-operators from <b>head to tail</b>, so that the records flushed by a
+     * sub-operator are processed by its outputs before they are notified.
+     */
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        super.prepareSnapshotPreBarrier(checkpointId);
+        for (TableOperatorWrapper<?> wrapper : topologicalOrderingOperators) {
+            wrapper.getStreamOperator().prepareSnapshotPreBarrier(checkpointId);
+        }
+    }
+
+    @Override
+    public void notifyCheckpointComplete(long checkpointId) throws Exception {
+        super.notifyCheckpointComplete(checkpointId);
+        for (TableOperatorWrapper<?> wrapper : topologicalOrderingOperators) {
+            wrapper.getStreamOperator().notifyCheckpointComplete(checkpointId);
+        }
+    }
+
+    @Override
+    public void notifyCheckpointAborted(long checkpointId) throws Exception {
+        super.notifyCheckpointAborted(checkpointId);
+        for (TableOperatorWrapper<?> wrapper : topologicalOrderingOperators) {
+            wrapper.getStreamOperator().notifyCheckpointAborted(checkpointId);
+        }
+    }
+
+    /**
+     * An {@link Input} which reports the watermarks and stream status of an input to this operator
+     * to be combined, instead of forwarding them to the head operator directly.
+     */
+    private class WatermarkCombiningInput implements Input<RowData> {
+
+        private final Input<RowData> input;
+        private final int inputId;
+
+        private WatermarkCombiningInput(Input<RowData> input, int inputId) {
+            this.input = input;
+            this.inputId = inputId;
+        }
+
+        @Override
+        public void processElement(StreamRecord<RowData> element) throws Exception {
+            input.processElement(element);
+        }
+
+        @Override
+        public void processWatermark(Watermark mark) throws Exception {
+            reportWatermark(mark, inputId);
+        }
+
+        @Override
+        public void processStreamStatus(StreamStatus streamStatus) throws Exception {
+            StreamMultipleInputStreamOperator.this.processStreamStatus(streamStatus, inputId);
+        }
+
+        @Override
+        public void processLatencyMarker(LatencyMarker latencyMarker) throws Exception {
+            input.processLatencyMarker(latencyMarker);
+        }
+
+        @Override
+        public void setKeyContextElement(StreamRecord<RowData> record) throws Exception {
+            input.setKeyContextElement(record);
+        }
+    }
+}
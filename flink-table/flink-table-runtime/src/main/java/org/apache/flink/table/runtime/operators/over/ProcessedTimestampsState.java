@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.over;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.tuple.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A keyed state which keeps the timestamps of the rows already processed by an event-time bounded
+ * OVER window in ascending order, as a queue.
+ *
+ * <p>The rows of an OVER window are kept in a {@link MapState} by timestamp, which can't be read in
+ * the order of the timestamps. Instead of iterating over all timestamps in the window to find the
+ * rows to retract, the functions take the oldest timestamps from this queue, so that the state
+ * accesses per processed timestamp are bounded by the number of retracted timestamps.
+ *
+ * <p>The event-time timers of the rows fire in the order of their timestamps, so a timestamp is
+ * added to the end of the queue when its rows are processed.
+ */
+final class ProcessedTimestampsState {
+
+    /** The timestamps by their position in the queue. */
+    private final MapState<Long, Long> timestamps;
+
+    /** The position of the oldest timestamp and the position of the next added timestamp. */
+    private final ValueState<Tuple2<Long, Long>> positions;
+
+    ProcessedTimestampsState(RuntimeContext runtimeContext, String name) {
+        this.timestamps =
+                runtimeContext.getMapState(
+                        new MapStateDescriptor<>(name, Types.LONG, Types.LONG));
+        this.positions =
+                runtimeContext.getState(
+                        new ValueStateDescriptor<>(
+                                name + "Positions", Types.TUPLE(Types.LONG, Types.LONG)));
+    }
+
+    /**
+     * Returns whether the queue of the current key has been initialized. The queue is not
+     * initialized for a key which has been processed before this state was introduced.
+     */
+    boolean isInitialized() throws Exception {
+        return positions.value() != null;
+    }
+
+    /**
+     * Initializes the queue of the current key with the given timestamps, in ascending order. The
+     * timestamps must be all processed timestamps of the current key.
+     */
+    void initialize(Iterable<Long> processedTimestamps) throws Exception {
+        List<Long> sorted = new ArrayList<>();
+        processedTimestamps.forEach(sorted::add);
+        Collections.sort(sorted);
+        for (Long timestamp : sorted) {
+            add(timestamp);
+        }
+    }
+
+    /** Adds a timestamp which is larger than all timestamps in the queue. */
+    void add(long timestamp) throws Exception {
+        Tuple2<Long, Long> pos = positions.value();
+        if (pos == null) {
+            pos = Tuple2.of(0L, 0L);
+        }
+        timestamps.put(pos.f1, timestamp);
+        pos.f1 += 1;
+        positions.update(pos);
+    }
+
+    /** Returns the oldest timestamp, or null if the queue is empty. */
+    Long peekOldest() throws Exception {
+        Tuple2<Long, Long> pos = positions.value();
+        if (pos == null || pos.f0.equals(pos.f1)) {
+            return null;
+        }
+        return timestamps.get(pos.f0);
+    }
+
+    /** Removes the oldest timestamp, if any. */
+    void removeOldest() throws Exception {
+        Tuple2<Long, Long> pos = positions.value();
+        if (pos == null || pos.f0.equals(pos.f1)) {
+            return;
+        }
+        timestamps.remove(pos.f0);
+        pos.f0 += 1;
+        positions.update(pos);
+    }
+
+    void clear() {
+        timestamps.clear();
+        positions.clear();
+    }
+}
@@ -42,7 +42,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -82,6 +81,9 @@ public class RowTimeRangeBoundedPrecedingFunction<K>
     // to this time stamp.
     private transient MapState<Long, List<RowData>> inputState;
 
+    // the state which keeps the processed timestamps of inputState in ascending order
+    private transient ProcessedTimestampsState processedTimestampsState;
+
     private transient AggsHandleFunction function;
 
     // ------------------------------------------------------------------------
@@ -133,6 +135,9 @@ public class RowTimeRangeBoundedPrecedingFunction<K>
                         "inputState", Types.LONG, rowListTypeInfo);
         inputState = getRuntimeContext().getMapState(inputStateDesc);
 
+        processedTimestampsState =
+                new ProcessedTimestampsState(getRuntimeContext(), "processedTimestampsState");
+
         ValueStateDescriptor<Long> cleanupTsStateDescriptor =
                 new ValueStateDescriptor<>("cleanupTsState", Types.LONG);
         this.cleanupTsState = getRuntimeContext().getState(cleanupTsStateDescriptor);
@@ -201,6 +206,7 @@ public class RowTimeRangeBoundedPrecedingFunction<K>
         // if cleanupTsState has not been updated then it is safe to cleanup states
         if (cleanupTimestamp != null && cleanupTimestamp <= timestamp) {
             inputState.clear();
+            processedTimestampsState.clear();
             accState.clear();
             lastTriggeringTsState.clear();
             cleanupTsState.clear();
@@ -223,33 +229,40 @@ public class RowTimeRangeBoundedPrecedingFunction<K>
             // set accumulators in context first
             function.setAccumulators(accumulators);
 
-            // keep up timestamps of retract data
-            List<Long> retractTsList = new ArrayList<Long>();
-
-            // do retraction
-            Iterator<Long> dataTimestampIt = inputState.keys().iterator();
-            while (dataTimestampIt.hasNext()) {
-                Long dataTs = dataTimestampIt.next();
-                Long offset = timestamp - dataTs;
-                if (offset > precedingOffset) {
-                    List<RowData> retractDataList = inputState.get(dataTs);
-                    if (retractDataList != null) {
-                        dataListIndex = 0;
-                        while (dataListIndex < retractDataList.size()) {
-                            RowData retractRow = retractDataList.get(dataListIndex);
-                            function.retract(retractRow);
-                            dataListIndex += 1;
-                        }
-                        retractTsList.add(dataTs);
-                    } else {
-                        // Does not retract values which are outside of window if the state is
-                        // cleared already.
-                        LOG.warn(
-                                "The state is cleared because of state ttl. "
-                                        + "This will result in incorrect result. "
-                                        + "You can increase the state ttl to avoid this.");
+            // the state of a key processed before the processed timestamps were kept
+            if (!processedTimestampsState.isInitialized()) {
+                List<Long> processedTimestamps = new ArrayList<>();
+                for (Long dataTs : inputState.keys()) {
+                    if (dataTs < timestamp) {
+                        processedTimestamps.add(dataTs);
                     }
                 }
+                processedTimestampsState.initialize(processedTimestamps);
+            }
+
+            // do retraction, only the expired timestamps are read from the state
+            Long dataTs = processedTimestampsState.peekOldest();
+            while (dataTs != null && timestamp - dataTs > precedingOffset) {
+                List<RowData> retractDataList = inputState.get(dataTs);
+                if (retractDataList != null) {
+                    dataListIndex = 0;
+                    while (dataListIndex < retractDataList.size()) {
+                        RowData retractRow = retractDataList.get(dataListIndex);
+                        function.retract(retractRow);
+                        dataListIndex += 1;
+                    }
+                    // remove the data that has been retracted
+                    inputState.remove(dataTs);
+                } else {
+                    // Does not retract values which are outside of window if the state is
+                    // cleared already.
+                    LOG.warn(
+                            "The state is cleared because of state ttl. "
+                                    + "This will result in incorrect result. "
+                                    + "You can increase the state ttl to avoid this.");
+                }
+                processedTimestampsState.removeOldest();
+                dataTs = processedTimestampsState.peekOldest();
             }
 
             // do accumulation
@@ -273,12 +286,7 @@ public class RowTimeRangeBoundedPrecedingFunction<K>
                 dataListIndex += 1;
             }
 
-            // remove the data that has been retracted
-            dataListIndex = 0;
-            while (dataListIndex < retractTsList.size()) {
-                inputState.remove(retractTsList.get(dataListIndex));
-                dataListIndex += 1;
-            }
+            processedTimestampsState.add(timestamp);
 
             // update the value of accumulators for future incremental computation
             accumulators = function.getAccumulators();
@@ -83,6 +83,9 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
     // to this time stamp.
     private transient MapState<Long, List<RowData>> inputState;
 
+    // the state which keeps the processed timestamps of inputState in ascending order
+    private transient ProcessedTimestampsState processedTimestampsState;
+
     private transient AggsHandleFunction function;
 
     // ------------------------------------------------------------------------
@@ -141,6 +144,9 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
                         "inputState", Types.LONG, rowListTypeInfo);
         inputState = getRuntimeContext().getMapState(inputStateDesc);
 
+        processedTimestampsState =
+                new ProcessedTimestampsState(getRuntimeContext(), "processedTimestampsState");
+
         initCleanupTimeState("RowTimeBoundedRowsOverCleanupTime");
 
         // metrics
@@ -209,6 +215,7 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
                 if (noRecordsToProcess) {
                     // We clean the state
                     cleanupState(inputState, accState, counterState, lastTriggeringTsState);
+                    processedTimestampsState.clear();
                     function.cleanup();
                 } else {
                     // There are records left to process because a watermark has not been received
@@ -239,6 +246,19 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
             // set accumulators in context first
             function.setAccumulators(accumulators);
 
+            // the state of a key processed before the processed timestamps were kept
+            if (!processedTimestampsState.isInitialized()) {
+                List<Long> processedTimestamps = new ArrayList<>();
+                for (Long dataTs : inputState.keys()) {
+                    if (dataTs < timestamp) {
+                        processedTimestamps.add(dataTs);
+                    }
+                }
+                processedTimestampsState.initialize(processedTimestamps);
+            }
+            // the current rows may be retracted by themselves if the window is small
+            processedTimestampsState.add(timestamp);
+
             List<RowData> retractList = null;
             long retractTs = Long.MAX_VALUE;
             int retractCnt = 0;
@@ -249,15 +269,16 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
                 RowData retractRow = null;
                 if (dataCount >= precedingOffset) {
                     if (null == retractList) {
-                        // find the smallest timestamp
-                        retractTs = Long.MAX_VALUE;
-                        for (Long dataTs : inputState.keys()) {
-                            if (dataTs < retractTs) {
-                                retractTs = dataTs;
-                                // get the oldest rows to retract them
-                                retractList = inputState.get(dataTs);
+                        // get the oldest rows to retract them
+                        Long oldestTs = processedTimestampsState.peekOldest();
+                        while (oldestTs != null && retractList == null) {
+                            retractList = inputState.get(oldestTs);
+                            if (retractList == null) {
+                                processedTimestampsState.removeOldest();
+                                oldestTs = processedTimestampsState.peekOldest();
                             }
                         }
+                        retractTs = oldestTs == null ? Long.MAX_VALUE : oldestTs;
                     }
 
                     if (retractList != null) {
@@ -267,6 +288,7 @@ public class RowTimeRowsBoundedPrecedingFunction<K>
                         // remove retracted values from state
                         if (retractList.size() == retractCnt) {
                             inputState.remove(retractTs);
+                            processedTimestampsState.removeOldest();
                             retractList = null;
                             retractCnt = 0;
                         }
@@ -18,11 +18,8 @@
 
 package org.apache.flink.table.runtime.operators.rank;
 
-import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.state.StateTtlConfig;
-import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.state.ValueStateDescriptor;
-import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
@@ -31,20 +28,13 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.runtime.generated.GeneratedRecordComparator;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.CachedValueState;
 import org.apache.flink.util.Collector;
 
-import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
-import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
-import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalCause;
-import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalListener;
-import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalNotification;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
 /**
  * A more concise implementation for {@link AppendOnlyTopNFunction} and {@link
  * UpdatableTopNFunction} when only Top-1 is desired. This function can handle updating stream
@@ -57,14 +47,12 @@ public class FastTop1Function extends AbstractTopNFunction implements Checkpoint
 
     private static final Logger LOG = LoggerFactory.getLogger(FastTop1Function.class);
 
-    private final TypeSerializer<RowData> inputRowSer;
     private final long cacheSize;
+    private final long cacheBytes;
 
-    // a map state stores list of records
-    private transient ValueState<RowData> dataState;
-
-    // the kvMap stores mapping from partition key to its current top-1 value
-    private transient Cache<RowData, RowData> kvCache;
+    // a value state stores the current top-1 value of the partition key, the values of the
+    // recently accessed partition keys are cached on heap
+    private transient CachedValueState dataState;
 
     public FastTop1Function(
             StateTtlConfig ttlConfig,
@@ -76,6 +64,36 @@ public class FastTop1Function extends AbstractTopNFunction implements Checkpoint
             boolean generateUpdateBefore,
             boolean outputRankNumber,
             long cacheSize) {
+        this(
+                ttlConfig,
+                inputRowType,
+                generatedSortKeyComparator,
+                sortKeySelector,
+                rankType,
+                rankRange,
+                generateUpdateBefore,
+                outputRankNumber,
+                cacheSize,
+                0L);
+    }
+
+    /**
+     * Creates a {@link FastTop1Function}.
+     *
+     * @param cacheSize the number of records in the cache, used if cacheBytes is not positive
+     * @param cacheBytes the memory size of the cache in bytes
+     */
+    public FastTop1Function(
+            StateTtlConfig ttlConfig,
+            InternalTypeInfo<RowData> inputRowType,
+            GeneratedRecordComparator generatedSortKeyComparator,
+            RowDataKeySelector sortKeySelector,
+            RankType rankType,
+            RankRange rankRange,
+            boolean generateUpdateBefore,
+            boolean outputRankNumber,
+            long cacheSize,
+            long cacheBytes) {
         super(
                 ttlConfig,
                 inputRowType,
@@ -86,53 +104,55 @@ public class FastTop1Function extends AbstractTopNFunction implements Checkpoint
                 generateUpdateBefore,
                 outputRankNumber);
 
-        this.inputRowSer = inputRowType.createSerializer(new ExecutionConfig());
         this.cacheSize = cacheSize;
+        this.cacheBytes = cacheBytes;
     }
 
     @Override
     public void open(Configuration parameters) throws Exception {
         super.open(parameters);
-        int lruCacheSize = Math.max(1, (int) (cacheSize / getDefaultTopNSize()));
-        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-        if (ttlConfig.isEnabled()) {
-            cacheBuilder.expireAfterWrite(
-                    ttlConfig.getTtl().toMilliseconds(), TimeUnit.MILLISECONDS);
-        }
-        kvCache =
-                cacheBuilder
-                        .maximumSize(lruCacheSize)
-                        .removalListener(new CacheRemovalListener())
-                        .build();
-        LOG.info("Top-1 operator is using LRU caches key-size: {}", lruCacheSize);
-
         ValueStateDescriptor<RowData> valueStateDescriptor =
                 new ValueStateDescriptor<>("Top1-Rank-State", inputRowType);
         if (ttlConfig.isEnabled()) {
             valueStateDescriptor.enableTimeToLive(ttlConfig);
         }
-        dataState = getRuntimeContext().getState(valueStateDescriptor);
+        RowDataSerializer inputRowSer = (RowDataSerializer) inputRowType.toSerializer();
+        if (cacheBytes > 0) {
+            dataState =
+                    CachedValueState.withMaxBytes(
+                            getRuntimeContext().getState(valueStateDescriptor),
+                            keyContext,
+                            inputRowSer,
+                            ttlConfig,
+                            cacheBytes);
+            LOG.info("Top-1 operator is using LRU caches memory-size: {} bytes", cacheBytes);
+        } else {
+            int lruCacheSize = Math.max(1, (int) (cacheSize / getDefaultTopNSize()));
+            dataState =
+                    CachedValueState.withMaxEntries(
+                            getRuntimeContext().getState(valueStateDescriptor),
+                            keyContext,
+                            inputRowSer,
+                            ttlConfig,
+                            lruCacheSize);
+            LOG.info("Top-1 operator is using LRU caches key-size: {}", lruCacheSize);
+        }
 
         // metrics
-        registerMetric(kvCache.size() * getDefaultTopNSize());
+        registerMetric(dataState.size() * getDefaultTopNSize());
     }
 
     @Override
     public void processElement(RowData input, Context ctx, Collector<RowData> out)
             throws Exception {
-        requestCount += 1;
         // load state under current key if necessary
-        RowData currentKey = (RowData) keyContext.getCurrentKey();
-        RowData prevRow = kvCache.getIfPresent(currentKey);
-        if (prevRow == null) {
-            prevRow = dataState.value();
-        } else {
-            hitCount += 1;
-        }
+        RowData prevRow = dataState.value();
+        requestCount = dataState.getRequestCount();
+        hitCount = dataState.getHitCount();
 
         // first row under current key.
         if (prevRow == null) {
-            kvCache.put(currentKey, inputRowSer.copy(input));
+            dataState.update(input);
             if (outputRankNumber) {
                 collectInsert(out, input, 1);
             } else {
@@ -146,7 +166,7 @@ public class FastTop1Function extends AbstractTopNFunction implements Checkpoint
         int compare = sortKeyComparator.compare(curSortKey, oldSortKey);
         // current sort key is higher than old sort key
         if (compare < 0) {
-            kvCache.put(currentKey, inputRowSer.copy(input));
+            dataState.update(input);
             // Note: partition key is unique key if only top-1 is desired,
             //  thus emitting UB and UA here
             if (outputRankNumber) {
@@ -161,36 +181,11 @@ public class FastTop1Function extends AbstractTopNFunction implements Checkpoint
 
     @Override
     public void snapshotState(FunctionSnapshotContext context) throws Exception {
-        for (Map.Entry<RowData, RowData> entry : kvCache.asMap().entrySet()) {
-            keyContext.setCurrentKey(entry.getKey());
-            dataState.update(entry.getValue());
-        }
+        dataState.flush();
     }
 
     @Override
     public void initializeState(FunctionInitializationContext context) throws Exception {
         // nothing to do
     }
-
-    private class CacheRemovalListener implements RemovalListener<RowData, RowData> {
-        @Override
-        public void onRemoval(RemovalNotification<RowData, RowData> notification) {
-            if (notification.getCause() != RemovalCause.SIZE || notification.getValue() == null) {
-                // Don't flush values to state if cause is ttl expired
-                return;
-            }
-
-            RowData previousKey = (RowData) keyContext.getCurrentKey();
-            RowData partitionKey = notification.getKey();
-            keyContext.setCurrentKey(partitionKey);
-            try {
-                dataState.update(notification.getValue());
-            } catch (Throwable e) {
-                LOG.error("Fail to synchronize state!", e);
-                throw new RuntimeException(e);
-            } finally {
-                keyContext.setCurrentKey(previousKey);
-            }
-        }
-    }
 }
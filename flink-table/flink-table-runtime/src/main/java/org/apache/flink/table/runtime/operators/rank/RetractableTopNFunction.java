@@ -36,6 +36,9 @@ import org.apache.flink.table.runtime.typeutils.SortedMapTypeInfo;
 import org.apache.flink.types.RowKind;
 import org.apache.flink.util.Collector;
 
+import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,11 +48,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A TopN function could handle updating stream.
  *
  * <p>Input stream can contain any change kind: INSERT, DELETE, UPDATE_BEFORE and UPDATE_AFTER.
+ *
+ * <p>By default, the record counts of all sort keys of a partition are kept in a single sorted map
+ * value state, which is read and written as a whole for every input record. If {@code
+ * sortKeyMapStateEnabled} is set, the counts are kept in a map state instead, so that an input
+ * record only updates the count of its own sort key. Only the head of the sorted view, the
+ * smallest sort keys covering about twice the rank end, is kept sorted in a value state and in a
+ * cache bounded by the number of cached sort keys. Records beyond the head can not be in the Top-N
+ * and only update the map state. The head is rebuilt from the map state once retractions have used
+ * up its slack, not for every cache miss.
  */
 public class RetractableTopNFunction extends AbstractTopNFunction {
 
@@ -74,12 +87,29 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
     // a sorted map stores mapping from sort key to records count
     private transient ValueState<SortedMap<RowData, Long>> treeMap;
 
+    // a map state stores mapping from sort key to records count, used instead of treeMap
+    // if sortKeyMapStateEnabled is true
+    private transient MapState<RowData, Long> sortKeyCountState;
+
+    // a sorted map stores the record counts of the smallest sort keys of sortKeyCountState
+    private transient ValueState<SortedMap<RowData, Long>> sortKeyHeadState;
+
+    // the number of sort keys in sortKeyCountState which are not in sortKeyHeadState
+    private transient ValueState<Long> sortKeyTailSizeState;
+
+    // the kvSortKeyHead stores mapping from partition key to the head of its sort key counts,
+    // a heap mirror to sortKeyHeadState and sortKeyTailSizeState
+    private transient Cache<RowData, SortKeyHead> kvSortKeyHead;
+
     // The util to compare two RowData equals to each other.
     private GeneratedRecordEqualiser generatedEqualiser;
     private RecordEqualiser equaliser;
 
     private final ComparableRecordComparator serializableComparator;
 
+    private final boolean sortKeyMapStateEnabled;
+    private final long cacheSize;
+
     public RetractableTopNFunction(
             StateTtlConfig ttlConfig,
             InternalTypeInfo<RowData> inputRowType,
@@ -90,6 +120,32 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
             GeneratedRecordEqualiser generatedEqualiser,
             boolean generateUpdateBefore,
             boolean outputRankNumber) {
+        this(
+                ttlConfig,
+                inputRowType,
+                comparableRecordComparator,
+                sortKeySelector,
+                rankType,
+                rankRange,
+                generatedEqualiser,
+                generateUpdateBefore,
+                outputRankNumber,
+                false,
+                0L);
+    }
+
+    public RetractableTopNFunction(
+            StateTtlConfig ttlConfig,
+            InternalTypeInfo<RowData> inputRowType,
+            ComparableRecordComparator comparableRecordComparator,
+            RowDataKeySelector sortKeySelector,
+            RankType rankType,
+            RankRange rankRange,
+            GeneratedRecordEqualiser generatedEqualiser,
+            boolean generateUpdateBefore,
+            boolean outputRankNumber,
+            boolean sortKeyMapStateEnabled,
+            long cacheSize) {
         super(
                 ttlConfig,
                 inputRowType,
@@ -102,6 +158,8 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
         this.sortKeyType = sortKeySelector.getProducedType();
         this.serializableComparator = comparableRecordComparator;
         this.generatedEqualiser = generatedEqualiser;
+        this.sortKeyMapStateEnabled = sortKeyMapStateEnabled;
+        this.cacheSize = cacheSize;
     }
 
     @Override
@@ -120,26 +178,82 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
         }
         dataState = getRuntimeContext().getMapState(mapStateDescriptor);
 
-        ValueStateDescriptor<SortedMap<RowData, Long>> valueStateDescriptor =
-                new ValueStateDescriptor<>(
-                        "sorted-map",
-                        new SortedMapTypeInfo<>(
-                                sortKeyType, BasicTypeInfo.LONG_TYPE_INFO, serializableComparator));
-        if (ttlConfig.isEnabled()) {
-            valueStateDescriptor.enableTimeToLive(ttlConfig);
+        if (sortKeyMapStateEnabled) {
+            // the cache is bounded by the number of cached sort keys, the entries are put again
+            // after every change so that their weight and write time are refreshed
+            CacheBuilder<RowData, SortKeyHead> cacheBuilder =
+                    CacheBuilder.newBuilder()
+                            .maximumWeight(Math.max(1L, cacheSize))
+                            .weigher((RowData key, SortKeyHead head) -> head.weight());
+            if (ttlConfig.isEnabled()) {
+                cacheBuilder.expireAfterWrite(
+                        ttlConfig.getTtl().toMilliseconds(), TimeUnit.MILLISECONDS);
+            }
+            kvSortKeyHead = cacheBuilder.build();
+            LOG.info(
+                    "Top{} operator is using LRU caches of sort key heads, max sort keys: {}",
+                    getDefaultTopNSize(),
+                    cacheSize);
+
+            MapStateDescriptor<RowData, Long> countStateDescriptor =
+                    new MapStateDescriptor<>(
+                            "sort-key-count", sortKeyType, BasicTypeInfo.LONG_TYPE_INFO);
+            ValueStateDescriptor<SortedMap<RowData, Long>> headStateDescriptor =
+                    new ValueStateDescriptor<>(
+                            "sort-key-head",
+                            new SortedMapTypeInfo<>(
+                                    sortKeyType,
+                                    BasicTypeInfo.LONG_TYPE_INFO,
+                                    serializableComparator));
+            ValueStateDescriptor<Long> tailSizeStateDescriptor =
+                    new ValueStateDescriptor<>("sort-key-tail-size", BasicTypeInfo.LONG_TYPE_INFO);
+            if (ttlConfig.isEnabled()) {
+                countStateDescriptor.enableTimeToLive(ttlConfig);
+                headStateDescriptor.enableTimeToLive(ttlConfig);
+                tailSizeStateDescriptor.enableTimeToLive(ttlConfig);
+            }
+            sortKeyCountState = getRuntimeContext().getMapState(countStateDescriptor);
+            sortKeyHeadState = getRuntimeContext().getState(headStateDescriptor);
+            sortKeyTailSizeState = getRuntimeContext().getState(tailSizeStateDescriptor);
+
+            // metrics
+            registerMetric(cacheSize);
+        } else {
+            ValueStateDescriptor<SortedMap<RowData, Long>> valueStateDescriptor =
+                    new ValueStateDescriptor<>(
+                            "sorted-map",
+                            new SortedMapTypeInfo<>(
+                                    sortKeyType,
+                                    BasicTypeInfo.LONG_TYPE_INFO,
+                                    serializableComparator));
+            if (ttlConfig.isEnabled()) {
+                valueStateDescriptor.enableTimeToLive(ttlConfig);
+            }
+            treeMap = getRuntimeContext().getState(valueStateDescriptor);
         }
-        treeMap = getRuntimeContext().getState(valueStateDescriptor);
     }
 
     @Override
     public void processElement(RowData input, Context ctx, Collector<RowData> out)
             throws Exception {
         initRankEnd(input);
-        SortedMap<RowData, Long> sortedMap = treeMap.value();
-        if (sortedMap == null) {
-            sortedMap = new TreeMap<>(sortKeyComparator);
-        }
         RowData sortKey = sortKeySelector.getKey(input);
+        final SortKeyHead head;
+        final SortedMap<RowData, Long> sortedMap;
+        if (sortKeyMapStateEnabled) {
+            head = getSortKeyHead();
+            if (!head.covers(sortKey)) {
+                // the record is ranked after the head, so it can not be in the Top-N
+                processElementAfterHead(head, sortKey, input);
+                return;
+            }
+            sortedMap = head.sortKeyCounts;
+        } else {
+            head = null;
+            SortedMap<RowData, Long> value = treeMap.value();
+            sortedMap = value == null ? new TreeMap<>(sortKeyComparator) : value;
+        }
+        Long previousCount = sortedMap.get(sortKey);
         boolean isAccumulate = RowDataUtil.isAccumulateMsg(input);
         input.setRowKind(RowKind.INSERT); // erase row kind for further state accessing
         if (isAccumulate) {
@@ -158,14 +272,7 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
             } else {
                 emitRecordsWithoutRowNumber(sortedMap, sortKey, input, out);
             }
-            // update data state
-            List<RowData> inputs = dataState.get(sortKey);
-            if (inputs == null) {
-                // the sort key is never seen
-                inputs = new ArrayList<>();
-            }
-            inputs.add(input);
-            dataState.put(sortKey, inputs);
+            addToDataState(sortKey, input);
         } else {
             final boolean stateRemoved;
             // emit updates first
@@ -201,25 +308,205 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
             if (!stateRemoved) {
                 // the input record has not been removed from state
                 // should update the data state
-                List<RowData> inputs = dataState.get(sortKey);
-                if (inputs != null) {
-                    // comparing record by equaliser
-                    Iterator<RowData> inputsIter = inputs.iterator();
-                    while (inputsIter.hasNext()) {
-                        if (equaliser.equals(inputsIter.next(), input)) {
-                            inputsIter.remove();
-                            break;
-                        }
-                    }
-                    if (inputs.isEmpty()) {
-                        dataState.remove(sortKey);
-                    } else {
-                        dataState.put(sortKey, inputs);
-                    }
+                removeFromDataState(sortKey, input);
+            }
+        }
+        if (sortKeyMapStateEnabled) {
+            updateSortKeyHead(head, sortKey, previousCount);
+        } else {
+            treeMap.update(sortedMap);
+        }
+    }
+
+    private void addToDataState(RowData sortKey, RowData input) throws Exception {
+        List<RowData> inputs = dataState.get(sortKey);
+        if (inputs == null) {
+            // the sort key is never seen
+            inputs = new ArrayList<>();
+        }
+        inputs.add(input);
+        dataState.put(sortKey, inputs);
+    }
+
+    private void removeFromDataState(RowData sortKey, RowData input) throws Exception {
+        List<RowData> inputs = dataState.get(sortKey);
+        if (inputs != null) {
+            // comparing record by equaliser
+            Iterator<RowData> inputsIter = inputs.iterator();
+            while (inputsIter.hasNext()) {
+                if (equaliser.equals(inputsIter.next(), input)) {
+                    inputsIter.remove();
+                    break;
                 }
             }
+            if (inputs.isEmpty()) {
+                dataState.remove(sortKey);
+            } else {
+                dataState.put(sortKey, inputs);
+            }
+        }
+    }
+
+    // ------------- SORT KEY HEAD -------------------------------
+
+    /**
+     * Gets the head of the sort key counts of the current partition. The head covers at least
+     * {@code rankEnd + 1} records unless it holds all sort keys of the partition, which is what
+     * the emitting and retracting methods iterate at most.
+     */
+    private SortKeyHead getSortKeyHead() throws Exception {
+        requestCount += 1;
+        RowData currentKey = (RowData) keyContext.getCurrentKey();
+        SortKeyHead head = kvSortKeyHead.getIfPresent(currentKey);
+        if (head != null) {
+            hitCount += 1;
+        } else {
+            SortedMap<RowData, Long> sortKeyCounts = sortKeyHeadState.value();
+            if (sortKeyCounts == null) {
+                // the partition is new or its head is not kept yet
+                head = loadSortKeyHead();
+            } else {
+                Long tailSize = sortKeyTailSizeState.value();
+                // the cached head is changed in place, so it must not share the map with a heap
+                // state backend
+                head =
+                        new SortKeyHead(
+                                new TreeMap<>(sortKeyCounts), tailSize == null ? 0L : tailSize);
+            }
+            kvSortKeyHead.put(currentKey, head);
+        }
+        if (head.tailSize > 0 && head.numRecords <= rankEnd) {
+            // a variable rank end has grown
+            head = loadSortKeyHead();
+            kvSortKeyHead.put(currentKey, head);
+        }
+        return head;
+    }
+
+    /** Rebuilds the head from the counts of all sort keys, keeping only the head in heap. */
+    private SortKeyHead loadSortKeyHead() throws Exception {
+        SortKeyHead head = new SortKeyHead(new TreeMap<>(sortKeyComparator), 0L);
+        long numSortKeys = 0L;
+        Iterator<Map.Entry<RowData, Long>> iter = sortKeyCountState.iterator();
+        if (iter != null) {
+            while (iter.hasNext()) {
+                Map.Entry<RowData, Long> entry = iter.next();
+                head.sortKeyCounts.put(entry.getKey(), entry.getValue());
+                head.numRecords += entry.getValue();
+                numSortKeys += 1;
+                trimSortKeyHead(head);
+            }
+        }
+        head.tailSize = numSortKeys - head.sortKeyCounts.size();
+        return head;
+    }
+
+    /** Moves the largest sort keys to the tail as long as the head keeps its capacity. */
+    private void trimSortKeyHead(SortKeyHead head) {
+        long capacity = 2 * rankEnd + 1;
+        while (head.sortKeyCounts.size() > 1) {
+            RowData lastKey = head.sortKeyCounts.lastKey();
+            long lastCount = head.sortKeyCounts.get(lastKey);
+            if (head.numRecords - lastCount < capacity) {
+                break;
+            }
+            head.sortKeyCounts.remove(lastKey);
+            head.numRecords -= lastCount;
+            head.tailSize += 1;
+        }
+    }
+
+    /** Writes the changed count of a sort key of the head and keeps the head in range. */
+    private void updateSortKeyHead(SortKeyHead head, RowData sortKey, Long previousCount)
+            throws Exception {
+        Long count = head.sortKeyCounts.get(sortKey);
+        if (count == null) {
+            sortKeyCountState.remove(sortKey);
+        } else {
+            sortKeyCountState.put(sortKey, count);
+        }
+        head.numRecords +=
+                (count == null ? 0L : count) - (previousCount == null ? 0L : previousCount);
+
+        long previousTailSize = head.tailSize;
+        if (head.tailSize > 0 && head.numRecords <= rankEnd) {
+            // the slack of the head is used up by retractions
+            head = loadSortKeyHead();
+        } else {
+            trimSortKeyHead(head);
+        }
+
+        if (head.sortKeyCounts.isEmpty()) {
+            sortKeyHeadState.clear();
+            sortKeyTailSizeState.clear();
+        } else {
+            sortKeyHeadState.update(new TreeMap<>(head.sortKeyCounts));
+            if (head.tailSize != previousTailSize) {
+                sortKeyTailSizeState.update(head.tailSize);
+            }
+        }
+        kvSortKeyHead.put((RowData) keyContext.getCurrentKey(), head);
+    }
+
+    /** Processes a record whose sort key is ranked after the head of the sort key counts. */
+    private void processElementAfterHead(SortKeyHead head, RowData sortKey, RowData input)
+            throws Exception {
+        Long count = sortKeyCountState.get(sortKey);
+        long previousTailSize = head.tailSize;
+        boolean isAccumulate = RowDataUtil.isAccumulateMsg(input);
+        input.setRowKind(RowKind.INSERT); // erase row kind for further state accessing
+        if (isAccumulate) {
+            if (count == null) {
+                sortKeyCountState.put(sortKey, 1L);
+                head.tailSize += 1;
+            } else {
+                sortKeyCountState.put(sortKey, count + 1);
+            }
+            addToDataState(sortKey, input);
+        } else {
+            if (count == null) {
+                throw new RuntimeException(
+                        "Can not retract a non-existent record. This should never happen.");
+            } else if (count == 1) {
+                sortKeyCountState.remove(sortKey);
+                head.tailSize -= 1;
+            } else {
+                sortKeyCountState.put(sortKey, count - 1);
+            }
+            removeFromDataState(sortKey, input);
+        }
+        if (head.tailSize != previousTailSize) {
+            sortKeyTailSizeState.update(head.tailSize);
+            kvSortKeyHead.put((RowData) keyContext.getCurrentKey(), head);
+        }
+    }
+
+    /**
+     * The record counts of the smallest sort keys of a partition, and the number of the other sort
+     * keys of the partition.
+     */
+    private final class SortKeyHead {
+        private final SortedMap<RowData, Long> sortKeyCounts;
+        private long numRecords;
+        private long tailSize;
+
+        private SortKeyHead(SortedMap<RowData, Long> sortKeyCounts, long tailSize) {
+            this.sortKeyCounts = sortKeyCounts;
+            this.tailSize = tailSize;
+            for (long count : sortKeyCounts.values()) {
+                numRecords += count;
+            }
+        }
+
+        /** Returns true if the given sort key belongs to the head rather than to the tail. */
+        private boolean covers(RowData sortKey) {
+            return tailSize == 0
+                    || sortKeyComparator.compare(sortKey, sortKeyCounts.lastKey()) <= 0;
+        }
+
+        private int weight() {
+            return sortKeyCounts.size() + 1;
         }
-        treeMap.update(sortedMap);
     }
 
     // ------------- ROW_NUMBER-------------------------------
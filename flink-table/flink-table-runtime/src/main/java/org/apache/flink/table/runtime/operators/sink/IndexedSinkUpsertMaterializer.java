@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.sink;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.StateTtlConfig;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.ListSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.typeutils.runtime.TupleSerializer;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedHashFunction;
+import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
+import org.apache.flink.table.runtime.generated.HashFunction;
+import org.apache.flink.table.runtime.generated.RecordEqualiser;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.flink.types.RowKind.DELETE;
+import static org.apache.flink.types.RowKind.INSERT;
+import static org.apache.flink.types.RowKind.UPDATE_AFTER;
+
+/**
+ * A {@link SinkUpsertMaterializer} alternative which keeps every record of an upsert key as a
+ * separate state entry instead of a single list of all records.
+ *
+ * <p>The records of a key are linked in insertion order by their sequence numbers, and an index
+ * maps the hash of a record to the sequence numbers of all records with that hash. So appending a
+ * record and retracting a record only access the state entries of the records with the same hash
+ * and the neighbours of the retracted record, instead of deserializing, scanning and rewriting all
+ * records of the key. It produces the same output as the {@link SinkUpsertMaterializer}:
+ *
+ * <ul>
+ *   <li>For insert record, append the state and collect current record.
+ *   <li>For delete record, delete in the state, collect delete record when the state is empty.
+ *   <li>For delete record, delete in the state, collect the last one when the state is not empty.
+ * </ul>
+ *
+ * <p>Note: the state layout differs from the {@link SinkUpsertMaterializer}, a job can't switch
+ * between both operators when it is restored from a savepoint.
+ */
+public class IndexedSinkUpsertMaterializer extends TableStreamOperator<RowData>
+        implements OneInputStreamOperator<RowData, RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedSinkUpsertMaterializer.class);
+
+    private static final String STATE_CLEARED_WARN_MSG =
+            "The state is cleared because of state ttl. This will result in incorrect result. "
+                    + "You can increase the state ttl to avoid this.";
+
+    /** Sequence number which marks the absence of a previous or next record. */
+    private static final long NULL_SEQ = -1L;
+
+    private final StateTtlConfig ttlConfig;
+    private final TypeSerializer<RowData> serializer;
+    private final GeneratedRecordEqualiser generatedEqualiser;
+    private final GeneratedHashFunction generatedHashFunction;
+
+    private transient RecordEqualiser equaliser;
+    private transient HashFunction hashFunction;
+
+    /** The records by sequence number, as (previous sequence, next sequence, record). */
+    private transient MapState<Long, Tuple3<Long, Long, RowData>> records;
+
+    /** The sequence numbers of the records by their hash, in insertion order. */
+    private transient MapState<Integer, List<Long>> index;
+
+    /** The sequence number of the last record and the next sequence number to assign. */
+    private transient ValueState<Tuple2<Long, Long>> sequences;
+
+    private transient TimestampedCollector<RowData> collector;
+
+    public IndexedSinkUpsertMaterializer(
+            StateTtlConfig ttlConfig,
+            TypeSerializer<RowData> serializer,
+            GeneratedRecordEqualiser generatedEqualiser,
+            GeneratedHashFunction generatedHashFunction) {
+        this.ttlConfig = ttlConfig;
+        this.serializer = serializer;
+        this.generatedEqualiser = generatedEqualiser;
+        this.generatedHashFunction = generatedHashFunction;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public void open() throws Exception {
+        super.open();
+        ClassLoader classLoader = getRuntimeContext().getUserCodeClassLoader();
+        this.equaliser = generatedEqualiser.newInstance(classLoader);
+        this.hashFunction = generatedHashFunction.newInstance(classLoader);
+
+        MapStateDescriptor<Long, Tuple3<Long, Long, RowData>> recordsDescriptor =
+                new MapStateDescriptor<>(
+                        "records",
+                        LongSerializer.INSTANCE,
+                        new TupleSerializer<>(
+                                (Class<Tuple3<Long, Long, RowData>>) (Class) Tuple3.class,
+                                new TypeSerializer[] {
+                                    LongSerializer.INSTANCE, LongSerializer.INSTANCE, serializer
+                                }));
+        MapStateDescriptor<Integer, List<Long>> indexDescriptor =
+                new MapStateDescriptor<>(
+                        "index",
+                        IntSerializer.INSTANCE,
+                        new ListSerializer<>(LongSerializer.INSTANCE));
+        ValueStateDescriptor<Tuple2<Long, Long>> sequencesDescriptor =
+                new ValueStateDescriptor<>(
+                        "sequences",
+                        new TupleSerializer<>(
+                                (Class<Tuple2<Long, Long>>) (Class) Tuple2.class,
+                                new TypeSerializer[] {
+                                    LongSerializer.INSTANCE, LongSerializer.INSTANCE
+                                }));
+        if (ttlConfig.isEnabled()) {
+            recordsDescriptor.enableTimeToLive(ttlConfig);
+            indexDescriptor.enableTimeToLive(ttlConfig);
+            sequencesDescriptor.enableTimeToLive(ttlConfig);
+        }
+        this.records = getRuntimeContext().getMapState(recordsDescriptor);
+        this.index = getRuntimeContext().getMapState(indexDescriptor);
+        this.sequences = getRuntimeContext().getState(sequencesDescriptor);
+        this.collector = new TimestampedCollector<>(output);
+    }
+
+    @Override
+    public void processElement(StreamRecord<RowData> element) throws Exception {
+        RowData row = element.getValue();
+        boolean isInsertOp = row.getRowKind() == INSERT || row.getRowKind() == UPDATE_AFTER;
+        // Always set the RowKind to INSERT, so that we can compare rows correctly (RowKind will
+        // be ignored)
+        row.setRowKind(INSERT);
+        if (isInsertOp) {
+            append(row);
+            // Update to this new one
+            collector.collect(row);
+        } else {
+            retract(row);
+        }
+    }
+
+    private void append(RowData row) throws Exception {
+        Tuple2<Long, Long> seqs = sequences.value();
+        if (seqs == null) {
+            seqs = Tuple2.of(NULL_SEQ, 0L);
+        }
+        long lastSeq = seqs.f0;
+        long seq = seqs.f1;
+
+        if (lastSeq != NULL_SEQ) {
+            Tuple3<Long, Long, RowData> last = records.get(lastSeq);
+            if (last != null) {
+                last.f1 = seq;
+                records.put(lastSeq, last);
+            } else {
+                lastSeq = NULL_SEQ;
+            }
+        }
+        records.put(seq, Tuple3.of(lastSeq, NULL_SEQ, row));
+
+        int hash = hashFunction.hashCode(row);
+        List<Long> seqsOfHash = index.get(hash);
+        if (seqsOfHash == null) {
+            seqsOfHash = new ArrayList<>(1);
+        }
+        seqsOfHash.add(seq);
+        index.put(hash, seqsOfHash);
+
+        sequences.update(Tuple2.of(seq, seq + 1));
+    }
+
+    private void retract(RowData row) throws Exception {
+        Tuple2<Long, Long> seqs = sequences.value();
+        int hash = hashFunction.hashCode(row);
+        List<Long> seqsOfHash = seqs == null ? null : index.get(hash);
+        Tuple3<Long, Long, RowData> removed = null;
+        if (seqsOfHash != null) {
+            removed = removeFirst(seqsOfHash, row);
+            if (seqsOfHash.isEmpty()) {
+                index.remove(hash);
+            } else {
+                index.put(hash, seqsOfHash);
+            }
+        }
+        if (removed == null) {
+            LOG.info(STATE_CLEARED_WARN_MSG);
+            return;
+        }
+
+        long prevSeq = removed.f0;
+        long nextSeq = removed.f1;
+        Tuple3<Long, Long, RowData> prev = prevSeq == NULL_SEQ ? null : records.get(prevSeq);
+        if (prev != null) {
+            prev.f1 = nextSeq;
+            records.put(prevSeq, prev);
+        }
+        if (nextSeq != NULL_SEQ) {
+            Tuple3<Long, Long, RowData> next = records.get(nextSeq);
+            if (next != null) {
+                next.f0 = prev == null ? NULL_SEQ : prevSeq;
+                records.put(nextSeq, next);
+            }
+            return;
+        }
+
+        // the last one is removed
+        if (prev == null) {
+            // Delete this row
+            row.setRowKind(DELETE);
+            collector.collect(row);
+            records.clear();
+            index.clear();
+            sequences.clear();
+        } else {
+            // Update to newer
+            collector.collect(prev.f2);
+            sequences.update(Tuple2.of(prevSeq, seqs.f1));
+        }
+    }
+
+    /**
+     * Removes the first record out of the given sequence numbers which equals the given record.
+     *
+     * @return the removed record, or null if no record equals the given record
+     */
+    private Tuple3<Long, Long, RowData> removeFirst(List<Long> seqsOfHash, RowData remove)
+            throws Exception {
+        Iterator<Long> iterator = seqsOfHash.iterator();
+        while (iterator.hasNext()) {
+            long seq = iterator.next();
+            Tuple3<Long, Long, RowData> record = records.get(seq);
+            if (record == null) {
+                // expired because of state ttl
+                iterator.remove();
+            } else if (equaliser.equals(record.f2, remove)) {
+                iterator.remove();
+                records.remove(seq);
+                return record;
+            }
+        }
+        return null;
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.binary.NestedRowData;
 import org.apache.flink.table.data.writer.BinaryRowWriter;
 import org.apache.flink.table.data.writer.BinaryWriter;
+import org.apache.flink.table.types.logical.DistinctType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.util.InstantiationUtil;
@@ -44,6 +45,10 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.stream.IntStream;
 
+import static org.apache.flink.table.types.logical.utils.LogicalTypeChecks.getFieldCount;
+import static org.apache.flink.table.types.logical.utils.LogicalTypeChecks.getPrecision;
+import static org.apache.flink.table.types.logical.utils.LogicalTypeChecks.getScale;
+
 /** Serializer for {@link RowData}. */
 @Internal
 public class RowDataSerializer extends AbstractRowDataSerializer<RowData> {
@@ -56,6 +61,7 @@ public class RowDataSerializer extends AbstractRowDataSerializer<RowData> {
 
     private transient BinaryRowData reuseRow;
     private transient BinaryRowWriter reuseWriter;
+    private transient FieldWriter[] fieldWriters;
 
     public RowDataSerializer(RowType rowType) {
         this(
@@ -185,7 +191,11 @@ public class RowDataSerializer extends AbstractRowDataSerializer<RowData> {
         return types.length;
     }
 
-    /** Convert {@link RowData} into {@link BinaryRowData}. TODO modify it to code gen. */
+    /**
+     * Convert {@link RowData} into {@link BinaryRowData}. The fields are copied by {@link
+     * FieldWriter}s which are specialized for the field types once, so that primitive fields are
+     * copied without boxing and without dispatching on the logical type of every field.
+     */
     @Override
     public BinaryRowData toBinaryRow(RowData row) {
         if (row instanceof BinaryRowData) {
@@ -194,6 +204,10 @@ public class RowDataSerializer extends AbstractRowDataSerializer<RowData> {
         if (reuseRow == null) {
             reuseRow = new BinaryRowData(types.length);
             reuseWriter = new BinaryRowWriter(reuseRow);
+            fieldWriters = new FieldWriter[types.length];
+            for (int i = 0; i < types.length; i++) {
+                fieldWriters[i] = createFieldWriter(types[i], i, fieldSerializers[i]);
+            }
         }
         reuseWriter.reset();
         reuseWriter.writeRowKind(row.getRowKind());
@@ -201,18 +215,98 @@ public class RowDataSerializer extends AbstractRowDataSerializer<RowData> {
             if (row.isNullAt(i)) {
                 reuseWriter.setNullAt(i);
             } else {
-                BinaryWriter.write(
-                        reuseWriter,
-                        i,
-                        fieldGetters[i].getFieldOrNull(row),
-                        types[i],
-                        fieldSerializers[i]);
+                fieldWriters[i].writeField(reuseWriter, row);
             }
         }
         reuseWriter.complete();
         return reuseRow;
     }
 
+    /**
+     * Creates a {@link FieldWriter} which copies the non-null field at the given position of a row
+     * into a {@link BinaryWriter}.
+     */
+    private static FieldWriter createFieldWriter(
+            LogicalType fieldType, int fieldPos, TypeSerializer<?> serializer) {
+        // ordered by type root definition
+        switch (fieldType.getTypeRoot()) {
+            case CHAR:
+            case VARCHAR:
+                return (writer, row) -> writer.writeString(fieldPos, row.getString(fieldPos));
+            case BOOLEAN:
+                return (writer, row) -> writer.writeBoolean(fieldPos, row.getBoolean(fieldPos));
+            case BINARY:
+            case VARBINARY:
+                return (writer, row) -> writer.writeBinary(fieldPos, row.getBinary(fieldPos));
+            case DECIMAL:
+                final int decimalPrecision = getPrecision(fieldType);
+                final int decimalScale = getScale(fieldType);
+                return (writer, row) ->
+                        writer.writeDecimal(
+                                fieldPos,
+                                row.getDecimal(fieldPos, decimalPrecision, decimalScale),
+                                decimalPrecision);
+            case TINYINT:
+                return (writer, row) -> writer.writeByte(fieldPos, row.getByte(fieldPos));
+            case SMALLINT:
+                return (writer, row) -> writer.writeShort(fieldPos, row.getShort(fieldPos));
+            case INTEGER:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+                return (writer, row) -> writer.writeInt(fieldPos, row.getInt(fieldPos));
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                return (writer, row) -> writer.writeLong(fieldPos, row.getLong(fieldPos));
+            case FLOAT:
+                return (writer, row) -> writer.writeFloat(fieldPos, row.getFloat(fieldPos));
+            case DOUBLE:
+                return (writer, row) -> writer.writeDouble(fieldPos, row.getDouble(fieldPos));
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+                final int timestampPrecision = getPrecision(fieldType);
+                return (writer, row) ->
+                        writer.writeTimestamp(
+                                fieldPos,
+                                row.getTimestamp(fieldPos, timestampPrecision),
+                                timestampPrecision);
+            case ARRAY:
+                final ArrayDataSerializer arraySerializer = (ArrayDataSerializer) serializer;
+                return (writer, row) ->
+                        writer.writeArray(fieldPos, row.getArray(fieldPos), arraySerializer);
+            case MULTISET:
+            case MAP:
+                final MapDataSerializer mapSerializer = (MapDataSerializer) serializer;
+                return (writer, row) ->
+                        writer.writeMap(fieldPos, row.getMap(fieldPos), mapSerializer);
+            case ROW:
+            case STRUCTURED_TYPE:
+                final int rowFieldCount = getFieldCount(fieldType);
+                final RowDataSerializer rowSerializer = (RowDataSerializer) serializer;
+                return (writer, row) ->
+                        writer.writeRow(
+                                fieldPos, row.getRow(fieldPos, rowFieldCount), rowSerializer);
+            case DISTINCT_TYPE:
+                return createFieldWriter(
+                        ((DistinctType) fieldType).getSourceType(), fieldPos, serializer);
+            case RAW:
+                final RawValueDataSerializer<?> rawSerializer =
+                        (RawValueDataSerializer<?>) serializer;
+                return (writer, row) ->
+                        writer.writeRawValue(fieldPos, row.getRawValue(fieldPos), rawSerializer);
+            default:
+                // fields of other types can only be null
+                return (writer, row) -> {
+                    throw new UnsupportedOperationException("Not support type: " + fieldType);
+                };
+        }
+    }
+
+    /** Copies a non-null field of a {@link RowData} into a {@link BinaryWriter}. */
+    private interface FieldWriter {
+        void writeField(BinaryWriter writer, RowData row);
+    }
+
     @Override
     public int serializeToPages(RowData row, AbstractPagedOutputView target) throws IOException {
         return binarySerializer.serializeToPages(toBinaryRow(row), target);
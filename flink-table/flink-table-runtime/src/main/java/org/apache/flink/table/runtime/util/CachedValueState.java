@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.util;
+
+import org.apache.flink.api.common.state.StateTtlConfig;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.streaming.api.operators.KeyContext;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+
+import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
+import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalCause;
+import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalListener;
+import org.apache.flink.shaded.guava30.com.google.common.cache.RemovalNotification;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link ValueState} of {@link RowData} which caches the values of the recently accessed keys on
+ * heap in front of a keyed {@link ValueState}, and writes the updated values back to the keyed
+ * state lazily.
+ *
+ * <p>An updated value is only written into the keyed state when it is evicted from the cache or
+ * when the cache is flushed by {@link #flush()}, which must be called when the state of the
+ * operator is snapshotted, see {@code CheckpointedFunction#snapshotState}. The evicted values are
+ * written back by the accessing method right after the eviction, so that a failure to write them
+ * fails the access instead of being swallowed by the cache. The values which expire in the cache
+ * are dropped, as they also have expired in the keyed state.
+ *
+ * <p>The cache is either bounded by the number of keys or by the estimated memory size of the
+ * cached keys and values, which is the size of their binary representation.
+ */
+public final class CachedValueState implements ValueState<RowData> {
+
+    /** The estimated per-entry overhead of the cache in bytes. */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final ValueState<RowData> state;
+    private final KeyContext keyContext;
+    private final RowDataSerializer serializer;
+    private final Cache<Object, CacheEntry> cache;
+
+    /** The updated values which have been evicted from the cache but not written back yet. */
+    private final ArrayDeque<EvictedEntry> evictedEntries = new ArrayDeque<>();
+
+    private long requestCount = 0L;
+    private long hitCount = 0L;
+
+    private CachedValueState(
+            ValueState<RowData> state,
+            KeyContext keyContext,
+            RowDataSerializer serializer,
+            CacheBuilder<Object, Object> cacheBuilder,
+            StateTtlConfig ttlConfig) {
+        this.state = checkNotNull(state);
+        this.keyContext = checkNotNull(keyContext);
+        this.serializer = checkNotNull(serializer);
+        if (ttlConfig.isEnabled()) {
+            cacheBuilder.expireAfterWrite(
+                    ttlConfig.getTtl().toMilliseconds(), TimeUnit.MILLISECONDS);
+        }
+        this.cache = cacheBuilder.removalListener(new EvictionListener()).build();
+    }
+
+    /** Creates a {@link CachedValueState} which caches the values of at most the given keys. */
+    public static CachedValueState withMaxEntries(
+            ValueState<RowData> state,
+            KeyContext keyContext,
+            RowDataSerializer serializer,
+            StateTtlConfig ttlConfig,
+            long maxEntries) {
+        checkArgument(maxEntries > 0, "The maximum number of entries must be positive.");
+        return new CachedValueState(
+                state,
+                keyContext,
+                serializer,
+                CacheBuilder.newBuilder().maximumSize(maxEntries),
+                ttlConfig);
+    }
+
+    /**
+     * Creates a {@link CachedValueState} which caches the keys and values of at most the given
+     * estimated memory size.
+     */
+    public static CachedValueState withMaxBytes(
+            ValueState<RowData> state,
+            KeyContext keyContext,
+            RowDataSerializer serializer,
+            StateTtlConfig ttlConfig,
+            long maxBytes) {
+        checkArgument(maxBytes > 0, "The maximum memory size must be positive.");
+        CacheBuilder<Object, Object> cacheBuilder =
+                CacheBuilder.newBuilder()
+                        .maximumWeight(maxBytes)
+                        .weigher((key, entry) -> weigh(key, (CacheEntry) entry));
+        return new CachedValueState(state, keyContext, serializer, cacheBuilder, ttlConfig);
+    }
+
+    @Override
+    public RowData value() throws IOException {
+        requestCount += 1;
+        Object currentKey = keyContext.getCurrentKey();
+        CacheEntry entry = cache.getIfPresent(currentKey);
+        if (entry != null) {
+            hitCount += 1;
+            return entry.value;
+        }
+        RowData value = state.value();
+        BinaryRowData binaryValue = value == null ? null : serializer.toBinaryRow(value).copy();
+        cache.put(currentKey, new CacheEntry(binaryValue, false));
+        writeBackEvicted();
+        return binaryValue;
+    }
+
+    @Override
+    public void update(RowData value) throws IOException {
+        if (value == null) {
+            clear();
+            return;
+        }
+        cache.put(
+                keyContext.getCurrentKey(),
+                new CacheEntry(serializer.toBinaryRow(value).copy(), true));
+        writeBackEvicted();
+    }
+
+    @Override
+    public void clear() {
+        // the removal has to be written back as well, so the entry is kept as a tombstone
+        cache.put(keyContext.getCurrentKey(), new CacheEntry(null, true));
+        try {
+            writeBackEvicted();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write an evicted value into state.", e);
+        }
+    }
+
+    /**
+     * Writes all updated values in the cache into the keyed state. The cached values are retained.
+     */
+    public void flush() throws IOException {
+        writeBackEvicted();
+        Object previousKey = keyContext.getCurrentKey();
+        try {
+            for (Map.Entry<Object, CacheEntry> entry : cache.asMap().entrySet()) {
+                CacheEntry cacheEntry = entry.getValue();
+                if (cacheEntry.dirty) {
+                    keyContext.setCurrentKey(entry.getKey());
+                    writeBack(cacheEntry);
+                }
+            }
+        } finally {
+            if (previousKey != null) {
+                keyContext.setCurrentKey(previousKey);
+            }
+        }
+    }
+
+    /** Returns the number of reads of the state. */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /** Returns the number of reads of the state which have been served from the cache. */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** Returns the number of keys in the cache. */
+    public long size() {
+        return cache.size();
+    }
+
+    /** Writes the evicted values into the keyed state under their keys. */
+    private void writeBackEvicted() throws IOException {
+        if (evictedEntries.isEmpty()) {
+            return;
+        }
+        Object previousKey = keyContext.getCurrentKey();
+        try {
+            while (!evictedEntries.isEmpty()) {
+                EvictedEntry evicted = evictedEntries.peek();
+                keyContext.setCurrentKey(evicted.key);
+                writeBack(evicted.entry);
+                evictedEntries.poll();
+            }
+        } finally {
+            if (previousKey != null) {
+                keyContext.setCurrentKey(previousKey);
+            }
+        }
+    }
+
+    private void writeBack(CacheEntry entry) throws IOException {
+        if (entry.value == null) {
+            state.clear();
+        } else {
+            state.update(entry.value);
+        }
+        entry.dirty = false;
+    }
+
+    private static int weigh(Object key, CacheEntry entry) {
+        long size = ENTRY_OVERHEAD;
+        if (key instanceof BinaryRowData) {
+            size += ((BinaryRowData) key).getSizeInBytes();
+        }
+        if (entry.value != null) {
+            size += entry.value.getSizeInBytes();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /** A cached value, null if the key has no value. */
+    private static final class CacheEntry {
+        @Nullable private final BinaryRowData value;
+        /** Whether the value has not been written into the keyed state yet. */
+        private boolean dirty;
+
+        private CacheEntry(@Nullable BinaryRowData value, boolean dirty) {
+            this.value = value;
+            this.dirty = dirty;
+        }
+    }
+
+    /** An updated value which has been evicted from the cache, with its key. */
+    private static final class EvictedEntry {
+        private final Object key;
+        private final CacheEntry entry;
+
+        private EvictedEntry(Object key, CacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Collects the updated values which are evicted from the cache. They are written back by the
+     * accessing method afterwards, as the exceptions thrown by a removal listener are only logged
+     * by the cache.
+     */
+    private class EvictionListener implements RemovalListener<Object, CacheEntry> {
+        @Override
+        public void onRemoval(RemovalNotification<Object, CacheEntry> notification) {
+            CacheEntry entry = notification.getValue();
+            if (notification.getCause() == RemovalCause.SIZE && entry != null && entry.dirty) {
+                // values which have expired or have been replaced are not written back
+                evictedEntries.add(new EvictedEntry(notification.getKey(), entry));
+            }
+        }
+    }
+}
@@ -35,10 +35,16 @@ import org.apache.flink.util.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToIntFunction;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
 
@@ -187,6 +193,20 @@ public abstract class AbstractBytesMultiMap<K> extends BytesMap<K, Iterator<RowD
         return ((RecordArea) recordArea).entryIterator(requiresCopy);
     }
 
+    /**
+     * Returns an iterator over the entries ordered by a sort key of their keys. Entries with the
+     * same sort key are ordered by their keys.
+     *
+     * @param sortKeyFunction computes the non-negative sort key of a key
+     * @param keyComparator orders the keys with the same sort key
+     */
+    public KeyValueIterator<K, Iterator<RowData>> getSortedEntryIterator(
+            boolean requiresCopy, ToIntFunction<K> sortKeyFunction, Comparator<K> keyComparator)
+            throws IOException {
+        return ((RecordArea) recordArea)
+                .sortedEntryIterator(requiresCopy, sortKeyFunction, keyComparator);
+    }
+
     /** release the map's record and bucket area's memory segments. */
     public void free() {
         free(false);
@@ -330,15 +350,66 @@ public abstract class AbstractBytesMultiMap<K> extends BytesMap<K, Iterator<RowD
         }
 
         KeyValueIterator<K, Iterator<RowData>> entryIterator(boolean requiresCopy) {
-            return new EntryIterator(requiresCopy);
+            return new EntryIterator(requiresCopy, null);
+        }
+
+        KeyValueIterator<K, Iterator<RowData>> sortedEntryIterator(
+                boolean requiresCopy, ToIntFunction<K> sortKeyFunction, Comparator<K> keyComparator)
+                throws IOException {
+            // the sort key in the high and the offset of the entry in the low 32 bits
+            long[] sortedEntries = new long[numKeys];
+            if (numKeys > 0) {
+                recordArea.setReadPosition(0);
+            }
+            for (int i = 0; i < numKeys; i++) {
+                long offset = keyInView.getReadPosition();
+                reusedKey = keySerializer.mapFromPages(reusedKey, keyInView);
+                long sortKey = sortKeyFunction.applyAsInt(reusedKey);
+                // skip the pointers and the head value to the next entry
+                skipPointer(keyInView);
+                skipPointer(keyInView);
+                reusedRecord = valueSerializer.mapFromPages(reusedRecord, keyInView);
+                sortedEntries[i] = sortKey << 32 | offset;
+            }
+            Arrays.sort(sortedEntries);
+            // order the runs of entries with the same sort key by their keys
+            int runStart = 0;
+            for (int i = 1; i <= numKeys; i++) {
+                if (i == numKeys || sortedEntries[i] >>> 32 != sortedEntries[runStart] >>> 32) {
+                    if (i - runStart > 1) {
+                        sortByKey(sortedEntries, runStart, i, keyComparator);
+                    }
+                    runStart = i;
+                }
+            }
+            return new EntryIterator(requiresCopy, sortedEntries);
+        }
+
+        private void sortByKey(long[] entries, int from, int to, Comparator<K> keyComparator)
+                throws IOException {
+            int length = to - from;
+            List<K> keys = new ArrayList<>(length);
+            Integer[] order = new Integer[length];
+            for (int i = 0; i < length; i++) {
+                recordArea.setReadPosition((int) entries[from + i]);
+                keys.add(keySerializer.mapFromPages(keySerializer.createInstance(), keyInView));
+                order[i] = i;
+            }
+            Arrays.sort(order, (i, j) -> keyComparator.compare(keys.get(i), keys.get(j)));
+            long[] run = Arrays.copyOfRange(entries, from, to);
+            for (int i = 0; i < length; i++) {
+                entries[from + i] = run[order[i]];
+            }
         }
 
         final class EntryIterator implements KeyValueIterator<K, Iterator<RowData>> {
             private int count;
             private final boolean requiresCopy;
+            private final @Nullable long[] sortedEntries;
 
-            public EntryIterator(boolean requiresCopy) {
+            public EntryIterator(boolean requiresCopy, @Nullable long[] sortedEntries) {
                 this.requiresCopy = requiresCopy;
+                this.sortedEntries = sortedEntries;
                 reusedValueIterator.setRequiresCopy(requiresCopy);
                 count = 0;
                 if (numKeys > 0) {
@@ -349,6 +420,9 @@ public abstract class AbstractBytesMultiMap<K> extends BytesMap<K, Iterator<RowD
             @Override
             public boolean advanceNext() throws IOException {
                 if (count < numKeys) {
+                    if (sortedEntries != null) {
+                        recordArea.setReadPosition((int) sortedEntries[count]);
+                    }
                     count++;
                     keySerializer.mapFromPages(reusedKey, keyInView);
                     // skip end pointer of value
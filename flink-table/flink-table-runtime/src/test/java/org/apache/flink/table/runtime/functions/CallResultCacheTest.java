@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.functions;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.metrics.SimpleCounter;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link CallResultCache}. */
+public class CallResultCacheTest {
+
+    private static final LogicalType[] ARGUMENT_TYPES =
+            new LogicalType[] {new IntType(), new VarCharType(VarCharType.MAX_LENGTH)};
+
+    private static final LogicalType RESULT_TYPE = new VarCharType(VarCharType.MAX_LENGTH);
+
+    @Test
+    public void testCacheResults() {
+        TestMetricGroup metricGroup = new TestMetricGroup();
+        CallResultCache cache = new CallResultCache("func", 0, ARGUMENT_TYPES, RESULT_TYPE, 10);
+        cache.open(metricGroup);
+
+        // the passed rows are reused by the generated code
+        GenericRowData arguments = GenericRowData.of(1, StringData.fromString("a"));
+        GenericRowData result = GenericRowData.of(StringData.fromString("1a"));
+        assertNull(cache.get(arguments));
+        cache.put(arguments, result);
+
+        arguments.setField(0, 2);
+        result.setField(0, StringData.fromString("2a"));
+        assertNull(cache.get(arguments));
+        cache.put(arguments, result);
+
+        arguments.setField(0, 1);
+        assertCached(cache, arguments, "1a");
+        arguments.setField(1, null);
+        assertNull(cache.get(arguments));
+
+        assertEquals(1L, metricGroup.counters.get("hits").getCount());
+        assertEquals(3L, metricGroup.counters.get("misses").getCount());
+        assertEquals(0.25, metricGroup.gauges.get("hitRate").getValue());
+        assertEquals(2, metricGroup.gauges.get("size").getValue());
+    }
+
+    @Test
+    public void testCacheNullResult() {
+        CallResultCache cache = new CallResultCache("func", 0, ARGUMENT_TYPES, RESULT_TYPE, 10);
+        cache.open(new TestMetricGroup());
+
+        GenericRowData arguments = GenericRowData.of(1, null);
+        cache.put(arguments, GenericRowData.of((Object) null));
+        RowData cached = cache.get(arguments);
+        assertEquals(1, cached.getArity());
+        assertTrue(cached.isNullAt(0));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        CallResultCache cache = new CallResultCache("func", 0, ARGUMENT_TYPES, RESULT_TYPE, 2);
+        cache.open(new TestMetricGroup());
+
+        cache.put(arguments(1), result(1));
+        cache.put(arguments(2), result(2));
+        // accessing the first arguments makes the second ones the least recently used
+        assertCached(cache, arguments(1), "1");
+        cache.put(arguments(3), result(3));
+
+        assertNull(cache.get(arguments(2)));
+        assertCached(cache, arguments(1), "1");
+        assertCached(cache, arguments(3), "3");
+    }
+
+    @Test
+    public void testMetricGroupsOfCalls() {
+        TestMetricGroup metricGroup = new TestMetricGroup();
+        new CallResultCache("func", 0, ARGUMENT_TYPES, RESULT_TYPE, 10).open(metricGroup);
+        new CallResultCache("func", 1, ARGUMENT_TYPES, RESULT_TYPE, 10).open(metricGroup);
+
+        // two calls of the same function don't register their metrics in the same group
+        assertEquals(Arrays.asList("func_0", "func_1"), metricGroup.groups);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSize() {
+        new CallResultCache("func", 0, ARGUMENT_TYPES, RESULT_TYPE, 0);
+    }
+
+    private static RowData arguments(int i) {
+        return GenericRowData.of(i, StringData.fromString("a"));
+    }
+
+    private static RowData result(int i) {
+        return GenericRowData.of(StringData.fromString(String.valueOf(i)));
+    }
+
+    private static void assertCached(CallResultCache cache, RowData arguments, String expected) {
+        RowData cached = cache.get(arguments);
+        assertEquals(1, cached.getArity());
+        assertEquals(StringData.fromString(expected), cached.getString(0));
+    }
+
+    /** A {@link MetricGroup} which keeps the registered counters and gauges by name. */
+    private static final class TestMetricGroup extends UnregisteredMetricsGroup {
+        private final Map<String, Counter> counters = new HashMap<>();
+        private final Map<String, Gauge<?>> gauges = new HashMap<>();
+        private final List<String> groups = new ArrayList<>();
+
+        @Override
+        public Counter counter(String name) {
+            Counter counter = new SimpleCounter();
+            counters.put(name, counter);
+            return counter;
+        }
+
+        @Override
+        public <T, G extends Gauge<T>> G gauge(String name, G gauge) {
+            gauges.put(name, gauge);
+            return gauge;
+        }
+
+        @Override
+        public MetricGroup addGroup(String key, String value) {
+            groups.add(value);
+            return this;
+        }
+    }
+}
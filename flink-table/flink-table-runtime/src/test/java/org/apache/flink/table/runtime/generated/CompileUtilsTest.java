@@ -24,18 +24,33 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /** Tests for {@link CompileUtils}. */
 public class CompileUtilsTest {
 
     @Rule public ExpectedException thrown = ExpectedException.none();
 
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Before
     public void before() {
         // cleanup cached class before tests
@@ -53,6 +68,141 @@ public class CompileUtilsTest {
         assertNotSame(class1, class3);
     }
 
+    @Test
+    public void testPersistentCache() throws Exception {
+        String code =
+                "public class Main {\n"
+                        + "  public int get() {\n"
+                        + "    return new Runnable() {\n"
+                        + "      public void run() {}\n"
+                        + "    }.hashCode() == 0 ? 1 : 2;\n"
+                        + "  }\n"
+                        + "}";
+        File cacheDir = new File(temporaryFolder.getRoot(), "compiled-cache");
+
+        Class<?> class1 =
+                CompileUtils.compile(
+                        this.getClass().getClassLoader(),
+                        "Main",
+                        code,
+                        cacheDir.getPath(),
+                        Long.MAX_VALUE);
+        // the outer class and the anonymous inner class are cached in one file
+        String[] files = cacheDir.list();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+
+        // a new process would only find the cached byte code on disk
+        CompileUtils.COMPILED_CACHE.invalidateAll();
+        Class<?> class2 =
+                CompileUtils.compile(
+                        this.getClass().getClassLoader(),
+                        "Main",
+                        code,
+                        cacheDir.getPath(),
+                        Long.MAX_VALUE);
+        assertNotSame(class1, class2);
+        assertEquals(1, cacheDir.list().length);
+        assertEquals(2, class2.getMethod("get").invoke(class2.getConstructor().newInstance()));
+    }
+
+    @Test
+    public void testWrongCodeWithPersistentCache() throws Exception {
+        String code = "public class111 Main {\n" + "  int i;\n" + "  int j;\n" + "}";
+        File cacheDir = temporaryFolder.newFolder();
+
+        thrown.expect(FlinkRuntimeException.class);
+        CompileUtils.compile(
+                this.getClass().getClassLoader(),
+                "Main",
+                code,
+                cacheDir.getPath(),
+                Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPersistentCacheKeyedByJarContents() throws Exception {
+        String code = "public class Main {\n" + "  int i;\n" + "  int j;\n" + "}";
+        File cacheDir = temporaryFolder.newFolder();
+        URL jar1 = createJar("a");
+        URL jar2 = createJar("a");
+        URL jar3 = createJar("b");
+
+        CompileUtils.compile(
+                new TestClassLoader(jar1), "Main", code, cacheDir.getPath(), Long.MAX_VALUE);
+        assertEquals(1, cacheDir.list().length);
+        // the same jar under another path, e.g. the blob path of another job, shares the byte code
+        CompileUtils.compile(
+                new TestClassLoader(jar2), "Main", code, cacheDir.getPath(), Long.MAX_VALUE);
+        assertEquals(1, cacheDir.list().length);
+        // the byte code compiled against another jar is not reused
+        CompileUtils.compile(
+                new TestClassLoader(jar3), "Main", code, cacheDir.getPath(), Long.MAX_VALUE);
+        assertEquals(2, cacheDir.list().length);
+    }
+
+    @Test
+    public void testCorruptedPersistentCache() throws Exception {
+        String code = "public class Main {\n" + "  public int get() {\n" + "    return 1;\n  }\n}";
+        File cacheDir = temporaryFolder.newFolder();
+
+        CompileUtils.compile(
+                this.getClass().getClassLoader(),
+                "Main",
+                code,
+                cacheDir.getPath(),
+                Long.MAX_VALUE);
+        File[] files = cacheDir.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        byte[] corrupted = Files.readAllBytes(files[0].toPath());
+        corrupted[corrupted.length - 1] ^= 1;
+        Files.write(files[0].toPath(), corrupted);
+
+        // the corrupted file is not loaded, but compiled and cached again
+        CompileUtils.COMPILED_CACHE.invalidateAll();
+        Class<?> clazz =
+                CompileUtils.compile(
+                        this.getClass().getClassLoader(),
+                        "Main",
+                        code,
+                        cacheDir.getPath(),
+                        Long.MAX_VALUE);
+        assertEquals(1, clazz.getMethod("get").invoke(clazz.getConstructor().newInstance()));
+        assertFalse(Arrays.equals(corrupted, Files.readAllBytes(files[0].toPath())));
+    }
+
+    @Test
+    public void testPersistentCacheEviction() throws Exception {
+        String code1 = "public class Main {\n" + "  int i;\n" + "}";
+        String code2 = "public class Main {\n" + "  int j;\n" + "}";
+        File cacheDir = temporaryFolder.newFolder();
+
+        CompileUtils.compile(
+                this.getClass().getClassLoader(),
+                "Main",
+                code1,
+                cacheDir.getPath(),
+                Long.MAX_VALUE);
+        File[] files = cacheDir.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        File file1 = files[0];
+        assertTrue(file1.setLastModified(0L));
+
+        // only one of the files of the same size fits, the least recently used one is deleted
+        CompileUtils.compile(
+                this.getClass().getClassLoader(),
+                "Main",
+                code2,
+                cacheDir.getPath(),
+                file1.length());
+        files = cacheDir.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertNotEquals(file1.getName(), files[0].getName());
+    }
+
     @Test
     public void testWrongCode() {
         String code = "public class111 Main {\n" + "  int i;\n" + "  int j;\n" + "}";
@@ -61,10 +211,23 @@ public class CompileUtilsTest {
         CompileUtils.compile(this.getClass().getClassLoader(), "Main", code);
     }
 
+    private URL createJar(String content) throws Exception {
+        File jar = temporaryFolder.newFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            JarEntry entry = new JarEntry("content.txt");
+            // a fixed time, so that jars of the same content are equal
+            entry.setTime(0L);
+            out.putNextEntry(entry);
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return jar.toURI().toURL();
+    }
+
     private static class TestClassLoader extends URLClassLoader {
 
-        TestClassLoader() {
-            super(new URL[0], Thread.currentThread().getContextClassLoader());
+        TestClassLoader(URL... urls) {
+            super(urls, Thread.currentThread().getContextClassLoader());
         }
     }
 }
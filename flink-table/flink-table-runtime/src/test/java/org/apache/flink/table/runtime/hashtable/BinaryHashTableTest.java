@@ -537,6 +537,11 @@ public class BinaryHashTableTest {
             testJoin(table, map);
         }
 
+        // the partition of the colliding keys had to be re-partitioned in the recursion
+        Assert.assertTrue(table.getNumRepartitions() > 0);
+        Assert.assertTrue(table.getMaxRecursionLevel() >= 2);
+        Assert.assertTrue(table.getMaxSpilledPartitionInBytes() > 0);
+
         table.close();
 
         Assert.assertEquals("Wrong number of keys", numKeys, map.size());
@@ -620,6 +625,7 @@ public class BinaryHashTableTest {
             fail("Hash Join must have failed due to too many recursions.");
         } catch (Exception ex) {
             // expected
+            Assert.assertTrue(ex.getMessage().contains("build side records"));
         }
 
         table.close();
@@ -727,6 +733,71 @@ public class BinaryHashTableTest {
         table.free();
     }
 
+    /*
+     * Probe records of spilled partitions which are filtered out by the bloom filter must still
+     * be joined, so that a probe-side outer join emits them.
+     */
+    @Test
+    public void testProbeSpillingWithBloomFilterAndProbeOuterJoin() throws IOException {
+        final int numBuildKeys = 1000000;
+        final int numProbeKeys = 2 * numBuildKeys;
+
+        MutableObjectIterator<BinaryRowData> buildInput =
+                new UniformBinaryRowGenerator(numBuildKeys, 1, false);
+        MemoryManager memManager =
+                MemoryManagerBuilder.newBuilder().setMemorySize(128 * PAGE_SIZE).build();
+        final BinaryHashTable table =
+                new BinaryHashTable(
+                        conf,
+                        new Object(),
+                        this.buildSideSerializer,
+                        this.probeSideSerializer,
+                        new MyProjection(),
+                        new MyProjection(),
+                        memManager,
+                        100 * PAGE_SIZE,
+                        ioManager,
+                        24,
+                        200000,
+                        true,
+                        HashJoinType.PROBE_OUTER,
+                        null,
+                        false,
+                        new boolean[] {true},
+                        false);
+
+        BinaryRowData buildRow = buildSideSerializer.createInstance();
+        while ((buildRow = buildInput.next(buildRow)) != null) {
+            table.putBuildRow(buildRow);
+        }
+        table.endBuild();
+
+        int numProbedRecords = 0;
+        int numRecordsInJoinResult = 0;
+        MutableObjectIterator<BinaryRowData> probeInput =
+                new UniformBinaryRowGenerator(numProbeKeys, 1, true);
+        BinaryRowData probeRow = probeSideSerializer.createInstance();
+        while ((probeRow = probeInput.next(probeRow)) != null) {
+            if (table.tryProbe(probeRow)) {
+                numProbedRecords++;
+                numRecordsInJoinResult += joinWithNextKey(table, false);
+            }
+        }
+        while (table.nextMatching()) {
+            numProbedRecords++;
+            numRecordsInJoinResult += joinWithNextKey(table, false);
+        }
+
+        // every probe record is returned once, including the ones filtered out
+        Assert.assertEquals(numProbeKeys, numProbedRecords);
+        Assert.assertEquals(
+                "Wrong number of records in join result.", numBuildKeys, numRecordsInJoinResult);
+        Assert.assertTrue(table.getNumFilteredProbeRecords() > 0);
+
+        table.close();
+        table.free();
+    }
+
     /*
      * This test validates a bug fix against former memory loss in the case where a partition was spilled
      * during an insert into the same.
@@ -524,6 +524,28 @@ public class LongHashTableTest {
         table.free();
     }
 
+    @Test
+    public void testProbeSpillingWithMinMaxFilter() throws IOException {
+        final int numBuildKeys = 1000000;
+        final int numProbeKeys = 2 * numBuildKeys;
+
+        MutableObjectIterator<BinaryRowData> buildInput =
+                new UniformBinaryRowGenerator(numBuildKeys, 1, false);
+        final MyHashTable table = new MyHashTable(100 * PAGE_SIZE);
+
+        int numRecordsInJoinResult =
+                join(table, buildInput, new UniformBinaryRowGenerator(numProbeKeys, 1, true));
+
+        Assert.assertEquals(
+                "Wrong number of records in join result.", numBuildKeys, numRecordsInJoinResult);
+        // the probe keys beyond the build keys are never spilled
+        Assert.assertTrue(table.getNumFilteredProbeRecords() > 0);
+
+        table.close();
+
+        table.free();
+    }
+
     @Test
     public void validateSpillingDuringInsertion() throws IOException, MemoryAllocationException {
         final int numBuildKeys = 500000;
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate.window.buffers;
+
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
+import org.apache.flink.runtime.io.disk.iomanager.IOManagerAsync;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryManagerBuilder;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.runtime.operators.window.combines.RecordsCombiner;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.WindowKey;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests for {@link RecordsWindowBuffer}. */
+public class RecordsWindowBufferTest {
+
+    private static final long MEMORY_SIZE = 2 * 1024 * 1024;
+    private static final int NUM_KEYS = 50_000;
+    private static final int NUM_RECORDS_PER_KEY = 3;
+    private static final long SLICE_END = 1000L;
+
+    private MemoryManager memoryManager;
+    private IOManager ioManager;
+
+    @Before
+    public void before() {
+        memoryManager = MemoryManagerBuilder.newBuilder().setMemorySize(MEMORY_SIZE).build();
+        ioManager = new IOManagerAsync();
+    }
+
+    @After
+    public void after() throws Exception {
+        ioManager.close();
+        memoryManager.shutdown();
+    }
+
+    @Test
+    public void testFlushWithoutSpilling() throws Exception {
+        CountingCombiner combiner = new CountingCombiner();
+        addRecordsAndFlush(createBuffer(combiner, null));
+
+        // the buffer is full several times, so records of the same key are combined separately
+        assertEquals(NUM_KEYS, combiner.recordsPerKey.size());
+        assertEquals(NUM_KEYS * NUM_RECORDS_PER_KEY, combiner.numCombinedRecords);
+        assertEquals(NUM_KEYS * NUM_RECORDS_PER_KEY, combiner.numCombines);
+    }
+
+    @Test
+    public void testFlushWithSpilling() throws Exception {
+        CountingCombiner combiner = new CountingCombiner();
+        addRecordsAndFlush(createBuffer(combiner, ioManager));
+
+        // all records of a key are combined at once
+        assertEquals(NUM_KEYS, combiner.recordsPerKey.size());
+        assertEquals(NUM_KEYS * NUM_RECORDS_PER_KEY, combiner.numCombinedRecords);
+        assertEquals(NUM_KEYS, combiner.numCombines);
+        for (int count : combiner.recordsPerKey.values()) {
+            assertEquals(NUM_RECORDS_PER_KEY, count);
+        }
+    }
+
+    @Test
+    public void testFlushInKeyGroupOrder() throws Exception {
+        int numKeyGroups = 128;
+        RowDataSerializer keySerializer = new RowDataSerializer(new IntType());
+        List<Integer> keyGroups = new ArrayList<>();
+        List<byte[]> serializedKeys = new ArrayList<>();
+        CountingCombiner combiner =
+                new CountingCombiner() {
+                    @Override
+                    public void combine(WindowKey windowKey, Iterator<RowData> records) {
+                        keyGroups.add(
+                                KeyGroupRangeAssignment.assignToKeyGroup(
+                                        windowKey.getKey(), numKeyGroups));
+                        serializedKeys.add(serialize(keySerializer, windowKey.getKey()));
+                        super.combine(windowKey, records);
+                    }
+                };
+        RecordsWindowBuffer buffer = createBuffer(combiner, null, numKeyGroups);
+        try {
+            for (int i = 0; i < NUM_RECORDS_PER_KEY; i++) {
+                for (int key = 0; key < 1000; key++) {
+                    buffer.addElement(
+                            GenericRowData.of(key), SLICE_END, GenericRowData.of(key, (long) i));
+                }
+            }
+            buffer.flush();
+        } finally {
+            buffer.close();
+        }
+
+        // the buffer fits into memory, so it is combined in the order of the state backend at once
+        assertEquals(1000, combiner.numCombines);
+        assertEquals(1000 * NUM_RECORDS_PER_KEY, combiner.numCombinedRecords);
+        for (int i = 1; i < keyGroups.size(); i++) {
+            assertTrue(keyGroups.get(i - 1) <= keyGroups.get(i));
+            if (keyGroups.get(i - 1).equals(keyGroups.get(i))) {
+                // the keys of a key group are ordered by their serialized bytes
+                assertTrue(compareUnsigned(serializedKeys.get(i - 1), serializedKeys.get(i)) < 0);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordLargerThanBuffer() throws Exception {
+        CountingCombiner combiner = new CountingCombiner();
+        RecordsWindowBuffer buffer =
+                new RecordsWindowBuffer(
+                        this,
+                        memoryManager,
+                        MEMORY_SIZE,
+                        combiner,
+                        new RowDataSerializer(new IntType()),
+                        new RowDataSerializer(new IntType(), VarCharType.STRING_TYPE),
+                        false,
+                        ZoneId.of("UTC"),
+                        ioManager);
+        char[] chars = new char[(int) MEMORY_SIZE];
+        Arrays.fill(chars, 'a');
+        try {
+            buffer.addElement(
+                    GenericRowData.of(0),
+                    SLICE_END,
+                    GenericRowData.of(0, StringData.fromString("a")));
+            // the record neither fits after spilling the buffer, nor into the empty buffer
+            buffer.addElement(
+                    GenericRowData.of(1),
+                    SLICE_END,
+                    GenericRowData.of(1, StringData.fromString(new String(chars))));
+            fail("Expected an exception for a record which does not fit into the buffer.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Record is too big"));
+        } finally {
+            buffer.close();
+        }
+    }
+
+    private RecordsWindowBuffer createBuffer(RecordsCombiner combiner, IOManager ioManager) {
+        return createBuffer(combiner, ioManager, 0);
+    }
+
+    private RecordsWindowBuffer createBuffer(
+            RecordsCombiner combiner, IOManager ioManager, int numKeyGroups) {
+        return new RecordsWindowBuffer(
+                this,
+                memoryManager,
+                MEMORY_SIZE,
+                combiner,
+                new RowDataSerializer(new IntType()),
+                new RowDataSerializer(new IntType(), new BigIntType()),
+                false,
+                ZoneId.of("UTC"),
+                ioManager,
+                numKeyGroups);
+    }
+
+    private static byte[] serialize(RowDataSerializer serializer, RowData row) {
+        DataOutputSerializer out = new DataOutputSerializer(16);
+        try {
+            serializer.serialize(row, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.getCopyOfBuffer();
+    }
+
+    private static int compareUnsigned(byte[] bytes1, byte[] bytes2) {
+        for (int i = 0; i < Math.min(bytes1.length, bytes2.length); i++) {
+            int cmp = Integer.compare(bytes1[i] & 0xff, bytes2[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(bytes1.length, bytes2.length);
+    }
+
+    private static void addRecordsAndFlush(RecordsWindowBuffer buffer) throws Exception {
+        try {
+            for (int i = 0; i < NUM_RECORDS_PER_KEY; i++) {
+                for (int key = 0; key < NUM_KEYS; key++) {
+                    buffer.addElement(
+                            GenericRowData.of(key), SLICE_END, GenericRowData.of(key, (long) i));
+                }
+            }
+            buffer.flush();
+        } finally {
+            buffer.close();
+        }
+    }
+
+    /** A {@link RecordsCombiner} which counts the combined records per key. */
+    private static class CountingCombiner implements RecordsCombiner {
+
+        private final Map<Integer, Integer> recordsPerKey = new HashMap<>();
+        private int numCombines;
+        private int numCombinedRecords;
+
+        @Override
+        public void combine(WindowKey windowKey, Iterator<RowData> records) {
+            assertEquals(SLICE_END, windowKey.getWindow());
+            int key = windowKey.getKey().getInt(0);
+            numCombines++;
+            while (records.hasNext()) {
+                assertEquals(key, records.next().getInt(0));
+                recordsPerKey.merge(key, 1, Integer::sum);
+                numCombinedRecords++;
+            }
+        }
+
+        @Override
+        public void close() {}
+    }
+}
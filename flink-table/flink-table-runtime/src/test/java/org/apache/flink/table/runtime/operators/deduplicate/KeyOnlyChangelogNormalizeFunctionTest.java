@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.deduplicate;
+
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.updateAfterRecord;
+
+/** Tests for {@link KeyOnlyChangelogNormalizeFunction}. */
+public class KeyOnlyChangelogNormalizeFunctionTest extends ProcTimeDeduplicateFunctionTestBase {
+
+    private OneInputStreamOperatorTestHarness<RowData, RowData> createTestHarness(
+            KeyOnlyChangelogNormalizeFunction func) throws Exception {
+        KeyedProcessOperator<RowData, RowData, RowData> operator = new KeyedProcessOperator<>(func);
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                operator, rowKeySelector, rowKeySelector.getProducedType());
+    }
+
+    @Test
+    public void testNormalizeUpsertChangelog() throws Exception {
+        KeyOnlyChangelogNormalizeFunction func = new KeyOnlyChangelogNormalizeFunction(0);
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness = createTestHarness(func);
+        testHarness.open();
+        testHarness.processElement(updateAfterRecord("book", 1L, 12));
+        testHarness.processElement(updateAfterRecord("book", 2L, 11));
+        testHarness.processElement(updateAfterRecord("book", 1L, 12));
+        // a tombstone record only contains the key
+        testHarness.processElement(deleteRecord(null, 1L, null));
+        // removing a non-existed row
+        testHarness.processElement(deleteRecord(null, 1L, null));
+        testHarness.processElement(updateAfterRecord("book", 1L, 13));
+        testHarness.close();
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord("book", 1L, 12));
+        // the same content is not filtered out, as the previous row is not kept
+        expectedOutput.add(updateAfterRecord("book", 1L, 12));
+        expectedOutput.add(deleteRecord(null, 1L, null));
+        expectedOutput.add(insertRecord("book", 1L, 13));
+        expectedOutput.add(insertRecord("book", 2L, 11));
+        assertor.assertOutputEqualsSorted("output wrong.", expectedOutput, testHarness.getOutput());
+    }
+}
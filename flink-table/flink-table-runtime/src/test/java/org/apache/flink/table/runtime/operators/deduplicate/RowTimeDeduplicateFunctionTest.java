@@ -26,7 +26,9 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.runtime.operators.bundle.KeyedMapBundleOperator;
 import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
 import org.apache.flink.types.RowKind;
+import org.apache.flink.util.InstantiationUtil;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -141,6 +143,74 @@ public class RowTimeDeduplicateFunctionTest extends RowTimeDeduplicateFunctionTe
         testRowTimeDeduplicateKeepLastRow(false, false, expectedOutput);
     }
 
+    @Test
+    public void testRowTimeDeduplicateKeepLastRowWithStateCache() throws Exception {
+        // the state cache is only used without mini-batch
+        Assume.assumeFalse(miniBatchEnable);
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(record(RowKind.INSERT, "key1", 13, 99L));
+        expectedOutput.add(record(RowKind.UPDATE_BEFORE, "key1", 13, 99L));
+        expectedOutput.add(record(RowKind.UPDATE_AFTER, "key1", 12, 100L));
+        expectedOutput.add(record(RowKind.INSERT, "key2", 11, 101L));
+        expectedOutput.add(new Watermark(102));
+        expectedOutput.add(record(RowKind.UPDATE_BEFORE, "key1", 12, 100L));
+        expectedOutput.add(record(RowKind.UPDATE_AFTER, "key1", 12, 300L));
+        expectedOutput.add(record(RowKind.UPDATE_BEFORE, "key2", 11, 101L));
+        expectedOutput.add(record(RowKind.UPDATE_AFTER, "key2", 11, 301L));
+        expectedOutput.add(record(RowKind.INSERT, "key3", 5, 299L));
+        expectedOutput.add(new Watermark(302));
+
+        // a cache of 1 byte can't keep any row, so every row is written back on eviction, while
+        // the rows in a large cache are only written back when the snapshot is taken
+        testRowTimeDeduplicateKeepLastRowWithStateCache(1L, expectedOutput);
+        testRowTimeDeduplicateKeepLastRowWithStateCache(1024L, expectedOutput);
+    }
+
+    private void testRowTimeDeduplicateKeepLastRowWithStateCache(
+            long cacheBytes, List<Object> expectedOutput) throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness =
+                createTestHarness(createOperatorWithStateCache(cacheBytes));
+        List<Object> actualOutput = new ArrayList<>();
+        testHarness.open();
+
+        testHarness.processElement(insertRecord("key1", 13, 99L));
+        testHarness.processElement(insertRecord("key1", 12, 100L));
+        testHarness.processElement(insertRecord("key2", 11, 101L));
+        testHarness.processWatermark(new Watermark(102));
+        actualOutput.addAll(testHarness.getOutput());
+
+        // do a snapshot, close and restore again
+        OperatorSubtaskState snapshot = testHarness.snapshot(0L, 0);
+        testHarness.close();
+
+        testHarness = createTestHarness(createOperatorWithStateCache(cacheBytes));
+        testHarness.setup();
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+
+        testHarness.processElement(insertRecord("key1", 12, 300L));
+        testHarness.processElement(insertRecord("key2", 11, 301L));
+        testHarness.processElement(insertRecord("key3", 5, 299L));
+        testHarness.processWatermark(new Watermark(302));
+        actualOutput.addAll(testHarness.getOutput());
+
+        assertor.assertOutputEqualsSorted("output wrong.", expectedOutput, actualOutput);
+        testHarness.close();
+    }
+
+    private KeyedProcessOperator<RowData, RowData, RowData> createOperatorWithStateCache(
+            long cacheBytes) throws Exception {
+        RowTimeDeduplicateFunction func =
+                new RowTimeDeduplicateFunction(
+                        inputRowType, 0L, rowTimeIndex, true, true, true, cacheBytes);
+        KeyedProcessOperator<RowData, RowData, RowData> operator =
+                new KeyedProcessOperator<>(func);
+        func.setKeyContext(operator);
+        // the operator is serialized into the job graph, the key context must survive it
+        return InstantiationUtil.clone(operator);
+    }
+
     private void testRowTimeDeduplicateKeepFirstRow(
             boolean generateUpdateBefore, boolean generateInsert, List<Object> expectedOutput)
             throws Exception {
@@ -27,6 +27,7 @@ import org.apache.flink.streaming.api.functions.async.AsyncFunction;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.util.MockStreamingRuntimeContext;
 import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
 import org.apache.flink.table.api.DataTypes;
@@ -41,6 +42,7 @@ import org.apache.flink.table.runtime.generated.GeneratedFunctionWrapper;
 import org.apache.flink.table.runtime.generated.GeneratedResultFutureWrapper;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinWithCalcRunner;
+import org.apache.flink.table.runtime.operators.join.lookup.LookupCache;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinWithCalcRunner;
 import org.apache.flink.table.runtime.typeutils.InternalSerializers;
@@ -48,10 +50,12 @@ import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
 import org.apache.flink.util.Collector;
 
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -62,13 +66,16 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static org.apache.flink.table.data.StringData.fromString;
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.row;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /** Harness tests for {@link LookupJoinRunner} and {@link LookupJoinWithCalcRunner}. */
@@ -287,6 +294,121 @@ public class AsyncLookupJoinHarnessTest {
         closeAsyncLookupJoinRunner(joinRunner);
     }
 
+    @Test
+    public void testAsyncLookupJoinRunnerWithCache() throws Exception {
+        LookupCache lookupCache = createLookupCache();
+        AsyncLookupJoinRunner joinRunner =
+                new AsyncLookupJoinRunner(
+                        new GeneratedFunctionWrapper(new TestingFetcherFunction()),
+                        fetcherConverter,
+                        new GeneratedResultFutureWrapper<>(new TestingFetcherResultFuture()),
+                        rightRowSerializer,
+                        true,
+                        ASYNC_BUFFER_CAPACITY,
+                        lookupCache);
+        joinRunner.setRuntimeContext(new MockStreamingRuntimeContext(false, 1, 0));
+        joinRunner.open(new Configuration());
+
+        // the rows looked up by the fetcher are put into the cache, also if there are none
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1, "a", 1, "Julian"));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(1, "a"), false));
+        expectedOutput.clear();
+        expectedOutput.add(insertRecord(2, "b", null, null));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(2, "b"), false));
+        assertEquals(2, lookupCache.getMissCount());
+        assertEquals(0, lookupCache.getHitCount());
+
+        // the cached rows complete the lookups right away
+        expectedOutput.clear();
+        expectedOutput.add(insertRecord(1, "c", 1, "Julian"));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(1, "c"), true));
+        expectedOutput.clear();
+        expectedOutput.add(insertRecord(2, "d", null, null));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(2, "d"), true));
+        assertEquals(2, lookupCache.getMissCount());
+        assertEquals(2, lookupCache.getHitCount());
+        joinRunner.close();
+    }
+
+    @Test
+    public void testAsyncLookupJoinWithCalcRunnerWithCache() throws Exception {
+        LookupCache lookupCache = createLookupCache();
+        AsyncLookupJoinRunner joinRunner =
+                new AsyncLookupJoinWithCalcRunner(
+                        new GeneratedFunctionWrapper(new TestingFetcherFunction()),
+                        fetcherConverter,
+                        new GeneratedFunctionWrapper<>(new CalculateOnTemporalTable()),
+                        new GeneratedResultFutureWrapper<>(new TestingFetcherResultFuture()),
+                        rightRowSerializer,
+                        false,
+                        ASYNC_BUFFER_CAPACITY,
+                        lookupCache);
+        joinRunner.setRuntimeContext(new MockStreamingRuntimeContext(false, 1, 0));
+        joinRunner.open(new Configuration());
+
+        // the rows are cached before the calc on the temporal table, which is applied on a hit
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(3, "a", 3, "Jackson"));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(3, "a"), false));
+        expectedOutput.clear();
+        expectedOutput.add(insertRecord(3, "b", 3, "Jackson"));
+        assertor.assertOutputEquals(
+                "output wrong.", expectedOutput, lookup(joinRunner, row(3, "b"), true));
+        assertEquals(1, lookupCache.getMissCount());
+        assertEquals(1, lookupCache.getHitCount());
+        joinRunner.close();
+    }
+
+    /**
+     * Looks up the given input row and returns the joined rows as records.
+     *
+     * @param cached whether the lookup is expected to complete right away from the cache
+     */
+    private static List<Object> lookup(
+            AsyncLookupJoinRunner joinRunner, RowData input, boolean cached) throws Exception {
+        CompletableFuture<Collection<RowData>> future = new CompletableFuture<>();
+        joinRunner.asyncInvoke(
+                input,
+                new ResultFuture<RowData>() {
+                    @Override
+                    public void complete(Collection<RowData> result) {
+                        future.complete(result);
+                    }
+
+                    @Override
+                    public void completeExceptionally(Throwable error) {
+                        future.completeExceptionally(error);
+                    }
+                });
+        if (cached) {
+            assertTrue(future.isDone());
+        }
+        List<Object> records = new ArrayList<>();
+        for (RowData row : future.get(ASYNC_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            records.add(new StreamRecord<>(row));
+        }
+        return records;
+    }
+
+    private static LookupCache createLookupCache() {
+        return new LookupCache(
+                HandwrittenSelectorUtil.getRowDataSelector(
+                        new int[] {0},
+                        new LogicalType[] {
+                            DataTypes.INT().getLogicalType(), DataTypes.STRING().getLogicalType()
+                        }),
+                new RowDataSerializer(
+                        DataTypes.INT().getLogicalType(), DataTypes.STRING().getLogicalType()),
+                100,
+                Duration.ofMinutes(10).toMillis());
+    }
+
     private void closeAsyncLookupJoinRunner(AsyncLookupJoinRunner joinRunner) throws Exception {
         try {
             joinRunner.close();
@@ -31,15 +31,20 @@ import org.apache.flink.table.data.utils.JoinedRowData;
 import org.apache.flink.table.runtime.collector.TableFunctionCollector;
 import org.apache.flink.table.runtime.generated.GeneratedCollectorWrapper;
 import org.apache.flink.table.runtime.generated.GeneratedFunctionWrapper;
+import org.apache.flink.table.runtime.operators.join.lookup.LookupCache;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinWithCalcRunner;
 import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
 import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
 import org.apache.flink.util.Collector;
 
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -49,6 +54,7 @@ import java.util.Map;
 
 import static org.apache.flink.table.data.StringData.fromString;
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertEquals;
 
 /** Harness tests for {@link LookupJoinRunner} and {@link LookupJoinWithCalcRunner}. */
 public class LookupJoinHarnessTest {
@@ -160,11 +166,60 @@ public class LookupJoinHarnessTest {
         testHarness.close();
     }
 
+    @Test
+    public void testTemporalLeftJoinWithFilterAndCache() throws Exception {
+        LookupCache lookupCache = createLookupCache();
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness =
+                createHarness(JoinType.LEFT_JOIN, FilterOnTable.WITH_FILTER, lookupCache);
+
+        testHarness.open();
+
+        testHarness.processElement(insertRecord(1, "a"));
+        testHarness.processElement(insertRecord(2, "b"));
+        testHarness.processElement(insertRecord(3, "c"));
+        testHarness.processElement(insertRecord(1, "d"));
+        testHarness.processElement(insertRecord(2, "e"));
+        testHarness.processElement(insertRecord(3, "f"));
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1, "a", 1, "Julian"));
+        expectedOutput.add(insertRecord(2, "b", null, null));
+        expectedOutput.add(insertRecord(3, "c", 3, "Jackson"));
+        expectedOutput.add(insertRecord(1, "d", 1, "Julian"));
+        expectedOutput.add(insertRecord(2, "e", null, null));
+        expectedOutput.add(insertRecord(3, "f", 3, "Jackson"));
+
+        assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        // keys without matching rows are cached as well
+        assertEquals(3, lookupCache.getMissCount());
+        assertEquals(3, lookupCache.getHitCount());
+        testHarness.close();
+    }
+
     // ---------------------------------------------------------------------------------
 
-    @SuppressWarnings("unchecked")
+    private static LookupCache createLookupCache() {
+        return new LookupCache(
+                HandwrittenSelectorUtil.getRowDataSelector(
+                        new int[] {0},
+                        new LogicalType[] {
+                            DataTypes.INT().getLogicalType(), DataTypes.STRING().getLogicalType()
+                        }),
+                new RowDataSerializer(
+                        DataTypes.INT().getLogicalType(), DataTypes.STRING().getLogicalType()),
+                100,
+                Duration.ofMinutes(10).toMillis());
+    }
+
     private OneInputStreamOperatorTestHarness<RowData, RowData> createHarness(
             JoinType joinType, FilterOnTable filterOnTable) throws Exception {
+        return createHarness(joinType, filterOnTable, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OneInputStreamOperatorTestHarness<RowData, RowData> createHarness(
+            JoinType joinType, FilterOnTable filterOnTable, @Nullable LookupCache lookupCache)
+            throws Exception {
         boolean isLeftJoin = joinType == JoinType.LEFT_JOIN;
         ProcessFunction<RowData, RowData> joinRunner;
         if (filterOnTable == FilterOnTable.WITHOUT_FILTER) {
@@ -173,7 +228,8 @@ public class LookupJoinHarnessTest {
                             new GeneratedFunctionWrapper<>(new TestingFetcherFunction()),
                             new GeneratedCollectorWrapper<>(new TestingFetcherCollector()),
                             isLeftJoin,
-                            2);
+                            2,
+                            lookupCache);
         } else {
             joinRunner =
                     new LookupJoinWithCalcRunner(
@@ -181,7 +237,8 @@ public class LookupJoinHarnessTest {
                             new GeneratedFunctionWrapper<>(new CalculateOnTemporalTable()),
                             new GeneratedCollectorWrapper<>(new TestingFetcherCollector()),
                             isLeftJoin,
-                            2);
+                            2,
+                            lookupCache);
         }
 
         ProcessOperator<RowData, RowData> operator = new ProcessOperator<>(joinRunner);
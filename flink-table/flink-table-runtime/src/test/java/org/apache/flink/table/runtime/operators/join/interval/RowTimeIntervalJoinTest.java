@@ -384,6 +384,124 @@ public class RowTimeIntervalJoinTest extends TimeIntervalStreamJoinTestBase {
         testHarness.close();
     }
 
+    /** a.rowtime >= b.rowtime - 50 and a.rowtime <= b.rowtime + 100, with time buckets of 4. */
+    @Test
+    public void testRowTimeInnerJoinWithBucketedState() throws Exception {
+        RowTimeIntervalJoin joinProcessFunc =
+                new RowTimeIntervalJoin(
+                        FlinkJoinType.INNER,
+                        -50,
+                        100,
+                        0,
+                        rowType,
+                        rowType,
+                        joinFunction,
+                        0,
+                        0,
+                        true);
+
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(joinProcessFunc);
+
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(10L, "k1"));
+        testHarness.processElement1(insertRecord(11L, "k1"));
+        // joins the left rows in [10, 160]
+        testHarness.processElement2(insertRecord(60L, "k1"));
+        // joins the left rows in [-45, 105]
+        testHarness.processElement2(insertRecord(5L, "k1"));
+        // joins the right rows in [100, 250]
+        testHarness.processElement1(insertRecord(200L, "k1"));
+        // joins the left rows in [90, 240]
+        testHarness.processElement2(insertRecord(140L, "k1"));
+        assertEquals(2, testHarness.numEventTimeTimers());
+        // 6 cached timestamps, 5 time buckets, 2 time ranges and 2 timer states
+        assertEquals(15, testHarness.numKeyedStateEntries());
+
+        // All rows expire.
+        testHarness.processWatermark1(new Watermark(1000));
+        testHarness.processWatermark2(new Watermark(1000));
+        assertEquals(0, testHarness.numEventTimeTimers());
+        assertEquals(0, testHarness.numKeyedStateEntries());
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(10L, "k1", 60L, "k1"));
+        expectedOutput.add(insertRecord(11L, "k1", 60L, "k1"));
+        expectedOutput.add(insertRecord(10L, "k1", 5L, "k1"));
+        expectedOutput.add(insertRecord(11L, "k1", 5L, "k1"));
+        expectedOutput.add(insertRecord(200L, "k1", 140L, "k1"));
+        expectedOutput.add(new Watermark(900));
+
+        assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    /** a.rowtime >= b.rowtime - 50 and a.rowtime <= b.rowtime + 100, with time buckets of 4. */
+    @Test
+    public void testRowTimeLeftOuterJoinWithBucketedState() throws Exception {
+        RowTimeIntervalJoin joinProcessFunc =
+                new RowTimeIntervalJoin(
+                        FlinkJoinType.LEFT,
+                        -50,
+                        100,
+                        0,
+                        rowType,
+                        rowType,
+                        joinFunction,
+                        0,
+                        0,
+                        true);
+
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(joinProcessFunc);
+
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(10L, "k1"));
+        testHarness.processElement1(insertRecord(21L, "k1"));
+        testHarness.processElement1(insertRecord(22L, "k1"));
+        testHarness.processElement1(insertRecord(30L, "k1"));
+        // joins the left rows in [20, 170]
+        testHarness.processElement2(insertRecord(70L, "k1"));
+
+        testHarness.processWatermark1(new Watermark(70));
+        testHarness.processWatermark2(new Watermark(70));
+        // joins the left rows in [21, 171], and then expires the left rows up to 19 (=70-50-1)
+        // in the buckets before [20, 24), the left row 10 is padded
+        testHarness.processElement2(insertRecord(71L, "k1"));
+
+        testHarness.processWatermark1(new Watermark(72));
+        testHarness.processWatermark2(new Watermark(72));
+        // joins the left rows in [25, 175], and then expires the left rows up to 21 (=72-50-1)
+        // in the middle of the bucket [20, 24)
+        testHarness.processElement2(insertRecord(75L, "k1"));
+        // 2 left and 3 right timestamps in 4 time buckets, 2 time ranges and 2 timer states
+        assertEquals(13, testHarness.numKeyedStateEntries());
+
+        // All rows expire.
+        testHarness.processWatermark1(new Watermark(1000));
+        testHarness.processWatermark2(new Watermark(1000));
+        assertEquals(0, testHarness.numEventTimeTimers());
+        assertEquals(0, testHarness.numKeyedStateEntries());
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(21L, "k1", 70L, "k1"));
+        expectedOutput.add(insertRecord(22L, "k1", 70L, "k1"));
+        expectedOutput.add(insertRecord(30L, "k1", 70L, "k1"));
+        expectedOutput.add(new Watermark(-30));
+        expectedOutput.add(insertRecord(21L, "k1", 71L, "k1"));
+        expectedOutput.add(insertRecord(22L, "k1", 71L, "k1"));
+        expectedOutput.add(insertRecord(30L, "k1", 71L, "k1"));
+        expectedOutput.add(insertRecord(10L, "k1", null, null));
+        expectedOutput.add(new Watermark(-28));
+        expectedOutput.add(insertRecord(30L, "k1", 75L, "k1"));
+        expectedOutput.add(new Watermark(900));
+
+        assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
     private KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
             createTestHarness(RowTimeIntervalJoin intervalJoinFunc) throws Exception {
         KeyedCoProcessOperator<RowData, RowData, RowData, RowData> operator =
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountCoBundleTrigger;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.updateAfterRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.updateBeforeRecord;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link MiniBatchStreamingJoinOperator}. */
+public class MiniBatchStreamingJoinOperatorTest {
+
+    private static final InternalTypeInfo<RowData> INPUT_ROW_TYPE =
+            InternalTypeInfo.ofFields(new BigIntType(), new VarCharType(VarCharType.MAX_LENGTH));
+
+    private static final InternalTypeInfo<RowData> OUTPUT_ROW_TYPE =
+            InternalTypeInfo.ofFields(
+                    new BigIntType(),
+                    new VarCharType(VarCharType.MAX_LENGTH),
+                    new BigIntType(),
+                    new VarCharType(VarCharType.MAX_LENGTH));
+
+    private static final RowDataHarnessAssertor ASSERTER =
+            new RowDataHarnessAssertor(OUTPUT_ROW_TYPE.toRowFieldTypes());
+
+    @Test
+    public void testInnerJoinFoldsRetractions() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(false, 100L);
+        testHarness.open();
+
+        // the retraction folds with the buffered accumulate message of the same record
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(deleteRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(1L, "a2"));
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement2(insertRecord(2L, "b2"));
+        assertTrue(testHarness.getOutput().isEmpty());
+
+        testHarness.prepareSnapshotPreBarrier(0L);
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a2", 1L, "b1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        // the retraction of a record of a previous bundle is joined with the state
+        testHarness.processElement1(deleteRecord(1L, "a2"));
+        testHarness.processElement1(insertRecord(2L, "a3"));
+        testHarness.prepareSnapshotPreBarrier(1L);
+        expectedOutput.add(deleteRecord(1L, "a2", 1L, "b1"));
+        expectedOutput.add(insertRecord(2L, "a3", 2L, "b2"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testFoldsRetractionsBeforeAccumulates() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(false, 100L);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.prepareSnapshotPreBarrier(0L);
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        // an update which does not change the record folds with its retraction
+        testHarness.processElement1(updateBeforeRecord(1L, "a1"));
+        testHarness.processElement2(insertRecord(1L, "b2"));
+        testHarness.processElement1(updateAfterRecord(1L, "a1"));
+        testHarness.prepareSnapshotPreBarrier(1L);
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b2"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testLeftOuterJoinKeepsArrivalOrder() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(true, 100L);
+        testHarness.open();
+
+        // the left record is joined after the right record which arrived before it, so that it
+        // is not padded with nulls first
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(2L, "a2"));
+        // no null padded result is emitted and retracted for a folded record
+        testHarness.processElement1(insertRecord(3L, "a3"));
+        testHarness.processElement1(deleteRecord(3L, "a3"));
+        testHarness.prepareSnapshotPreBarrier(0L);
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(insertRecord(2L, "a2", null, null));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        // the left record is padded with nulls again once its last match is retracted
+        testHarness.processElement2(deleteRecord(1L, "b1"));
+        testHarness.prepareSnapshotPreBarrier(1L);
+        expectedOutput.add(deleteRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(insertRecord(1L, "a1", null, null));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testFinishBundleByCount() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(false, 2L);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        assertTrue(testHarness.getOutput().isEmpty());
+        testHarness.processElement2(insertRecord(1L, "b1"));
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    private static KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
+            createTestHarness(boolean leftIsOuter, long bundleSize) throws Exception {
+        String funcCode =
+                "public class TestMiniBatchJoinCondition extends org.apache.flink.api.common.functions.AbstractRichFunction "
+                        + "implements org.apache.flink.table.runtime.generated.JoinCondition {\n"
+                        + "\n"
+                        + "    public TestMiniBatchJoinCondition(Object[] reference) {\n"
+                        + "    }\n"
+                        + "\n"
+                        + "    @Override\n"
+                        + "    public boolean apply(org.apache.flink.table.data.RowData in1, org.apache.flink.table.data.RowData in2) {\n"
+                        + "        return true;\n"
+                        + "    }\n"
+                        + "}\n";
+        GeneratedJoinCondition joinCondition =
+                new GeneratedJoinCondition("TestMiniBatchJoinCondition", funcCode, new Object[0]);
+        RowDataKeySelector keySelector =
+                HandwrittenSelectorUtil.getRowDataSelector(
+                        new int[] {0}, INPUT_ROW_TYPE.toRowFieldTypes());
+        MiniBatchStreamingJoinOperator operator =
+                new MiniBatchStreamingJoinOperator(
+                        INPUT_ROW_TYPE,
+                        INPUT_ROW_TYPE,
+                        joinCondition,
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        leftIsOuter,
+                        false,
+                        new boolean[] {true},
+                        0L,
+                        false,
+                        new CountCoBundleTrigger<>(bundleSize));
+        return new KeyedTwoInputStreamOperatorTestHarness<>(
+                operator, keySelector, keySelector, keySelector.getProducedType());
+    }
+}
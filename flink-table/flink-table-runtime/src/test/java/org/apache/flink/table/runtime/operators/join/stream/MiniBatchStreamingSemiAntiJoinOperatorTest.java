@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountCoBundleTrigger;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+
+/** Tests for {@link MiniBatchStreamingSemiAntiJoinOperator}. */
+public class MiniBatchStreamingSemiAntiJoinOperatorTest {
+
+    private static final InternalTypeInfo<RowData> INPUT_ROW_TYPE =
+            InternalTypeInfo.ofFields(new BigIntType(), new VarCharType(VarCharType.MAX_LENGTH));
+
+    private static final RowDataHarnessAssertor ASSERTER =
+            new RowDataHarnessAssertor(INPUT_ROW_TYPE.toRowFieldTypes());
+
+    @Test
+    public void testSemiJoin() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(false);
+        testHarness.open();
+
+        // the right record is folded with its retraction, so the left record has no match
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement2(deleteRecord(1L, "b1"));
+        testHarness.processElement1(insertRecord(2L, "a2"));
+        testHarness.processElement2(insertRecord(2L, "b2"));
+        testHarness.prepareSnapshotPreBarrier(0L);
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(2L, "a2"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement2(deleteRecord(2L, "b2"));
+        testHarness.prepareSnapshotPreBarrier(1L);
+        expectedOutput.add(insertRecord(1L, "a1"));
+        expectedOutput.add(deleteRecord(2L, "a2"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testAntiJoinKeepsArrivalOrder() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(true);
+        testHarness.open();
+
+        // the left record is joined after the right record which arrived before it, so that it
+        // is not emitted and deleted again
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(2L, "a2"));
+        testHarness.processElement2(insertRecord(3L, "b3"));
+        testHarness.processElement2(deleteRecord(3L, "b3"));
+        testHarness.processElement1(insertRecord(3L, "a3"));
+        testHarness.prepareSnapshotPreBarrier(0L);
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(2L, "a2"));
+        expectedOutput.add(insertRecord(3L, "a3"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        testHarness.processElement2(deleteRecord(1L, "b1"));
+        testHarness.prepareSnapshotPreBarrier(1L);
+        expectedOutput.add(insertRecord(1L, "a1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    private static KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
+            createTestHarness(boolean isAntiJoin) throws Exception {
+        String funcCode =
+                "public class TestMiniBatchSemiAntiJoinCondition extends org.apache.flink.api.common.functions.AbstractRichFunction "
+                        + "implements org.apache.flink.table.runtime.generated.JoinCondition {\n"
+                        + "\n"
+                        + "    public TestMiniBatchSemiAntiJoinCondition(Object[] reference) {\n"
+                        + "    }\n"
+                        + "\n"
+                        + "    @Override\n"
+                        + "    public boolean apply(org.apache.flink.table.data.RowData in1, org.apache.flink.table.data.RowData in2) {\n"
+                        + "        return true;\n"
+                        + "    }\n"
+                        + "}\n";
+        GeneratedJoinCondition joinCondition =
+                new GeneratedJoinCondition(
+                        "TestMiniBatchSemiAntiJoinCondition", funcCode, new Object[0]);
+        RowDataKeySelector keySelector =
+                HandwrittenSelectorUtil.getRowDataSelector(
+                        new int[] {0}, INPUT_ROW_TYPE.toRowFieldTypes());
+        MiniBatchStreamingSemiAntiJoinOperator operator =
+                new MiniBatchStreamingSemiAntiJoinOperator(
+                        isAntiJoin,
+                        INPUT_ROW_TYPE,
+                        INPUT_ROW_TYPE,
+                        joinCondition,
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        new boolean[] {true},
+                        0L,
+                        false,
+                        new CountCoBundleTrigger<>(100L));
+        return new KeyedTwoInputStreamOperatorTestHarness<>(
+                operator, keySelector, keySelector, keySelector.getProducedType());
+    }
+}
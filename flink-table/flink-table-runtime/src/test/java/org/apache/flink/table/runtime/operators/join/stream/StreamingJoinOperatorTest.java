@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link StreamingJoinOperator}. */
+public class StreamingJoinOperatorTest {
+
+    private static final InternalTypeInfo<RowData> INPUT_ROW_TYPE =
+            InternalTypeInfo.ofFields(new BigIntType(), new VarCharType(VarCharType.MAX_LENGTH));
+
+    private static final InternalTypeInfo<RowData> OUTPUT_ROW_TYPE =
+            InternalTypeInfo.ofFields(
+                    new BigIntType(),
+                    new VarCharType(VarCharType.MAX_LENGTH),
+                    new BigIntType(),
+                    new VarCharType(VarCharType.MAX_LENGTH));
+
+    private static final RowDataHarnessAssertor ASSERTER =
+            new RowDataHarnessAssertor(OUTPUT_ROW_TYPE.toRowFieldTypes());
+
+    @Test
+    public void testInnerJoinWithRecordCounts() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(true);
+        testHarness.open();
+        assertTrue(getOperator(testHarness).recordCountsComplete);
+
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(deleteRecord(1L, "a1"));
+        // no records under the join key 2
+        testHarness.processElement2(insertRecord(2L, "b2"));
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        OperatorSubtaskState snapshot = testHarness.snapshot(0L, 0L);
+        testHarness.close();
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        // the counts are still complete after restoring
+        testHarness = createTestHarness(true);
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+        assertTrue(getOperator(testHarness).recordCountsComplete);
+
+        testHarness.processElement1(insertRecord(2L, "a2"));
+        testHarness.processElement1(deleteRecord(1L, "a1"));
+        testHarness.processElement2(insertRecord(1L, "b1"));
+
+        expectedOutput.clear();
+        expectedOutput.add(insertRecord(2L, "a2", 2L, "b2"));
+        expectedOutput.add(deleteRecord(1L, "a1", 1L, "b1"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testInnerJoinWithDuplicateRecordCounts() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(true);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement1(insertRecord(1L, "a2"));
+        testHarness.processElement1(deleteRecord(1L, "a1"));
+        // the probe stops after the 3 counted records
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement1(deleteRecord(1L, "a2"));
+        testHarness.processElement2(deleteRecord(1L, "b1"));
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(insertRecord(1L, "a2", 1L, "b1"));
+        expectedOutput.add(deleteRecord(1L, "a2", 1L, "b1"));
+        expectedOutput.add(deleteRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(deleteRecord(1L, "a1", 1L, "b1"));
+        ASSERTER.assertOutputEqualsSorted("output wrong.", expectedOutput, testHarness.getOutput());
+        testHarness.close();
+    }
+
+    @Test
+    public void testInnerJoinWithRecordCountsRestoredWithoutCounts() throws Exception {
+        KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness =
+                createTestHarness(false);
+        testHarness.open();
+        testHarness.processElement1(insertRecord(1L, "a1"));
+        testHarness.processElement2(insertRecord(2L, "b2"));
+        OperatorSubtaskState snapshot = testHarness.snapshot(0L, 0L);
+        testHarness.close();
+
+        // the records restored without a count must still be joined
+        testHarness = createTestHarness(true);
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+        assertFalse(getOperator(testHarness).recordCountsComplete);
+
+        testHarness.processElement2(insertRecord(1L, "b1"));
+        testHarness.processElement1(insertRecord(2L, "a2"));
+        testHarness.processElement1(insertRecord(3L, "a3"));
+        snapshot = testHarness.snapshot(1L, 1L);
+        testHarness.close();
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord(1L, "a1", 1L, "b1"));
+        expectedOutput.add(insertRecord(2L, "a2", 2L, "b2"));
+        ASSERTER.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+
+        // the counts stay incomplete in the following snapshots
+        testHarness = createTestHarness(true);
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+        assertFalse(getOperator(testHarness).recordCountsComplete);
+        testHarness.close();
+    }
+
+    private static StreamingJoinOperator getOperator(
+            KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
+                    testHarness) {
+        return (StreamingJoinOperator) testHarness.getOperator();
+    }
+
+    private static KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
+            createTestHarness(boolean trackRecordCount) throws Exception {
+        String funcCode =
+                "public class TestStreamingJoinCondition extends org.apache.flink.api.common.functions.AbstractRichFunction "
+                        + "implements org.apache.flink.table.runtime.generated.JoinCondition {\n"
+                        + "\n"
+                        + "    public TestStreamingJoinCondition(Object[] reference) {\n"
+                        + "    }\n"
+                        + "\n"
+                        + "    @Override\n"
+                        + "    public boolean apply(org.apache.flink.table.data.RowData in1, org.apache.flink.table.data.RowData in2) {\n"
+                        + "        return true;\n"
+                        + "    }\n"
+                        + "}\n";
+        GeneratedJoinCondition joinCondition =
+                new GeneratedJoinCondition("TestStreamingJoinCondition", funcCode, new Object[0]);
+        RowDataKeySelector keySelector =
+                HandwrittenSelectorUtil.getRowDataSelector(
+                        new int[] {0}, INPUT_ROW_TYPE.toRowFieldTypes());
+        StreamingJoinOperator operator =
+                new StreamingJoinOperator(
+                        INPUT_ROW_TYPE,
+                        INPUT_ROW_TYPE,
+                        joinCondition,
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        JoinInputSideSpec.withoutUniqueKey(),
+                        false,
+                        false,
+                        new boolean[] {true},
+                        0L,
+                        trackRecordCount);
+        return new KeyedTwoInputStreamOperatorTestHarness<>(
+                operator, keySelector, keySelector, keySelector.getProducedType());
+    }
+}
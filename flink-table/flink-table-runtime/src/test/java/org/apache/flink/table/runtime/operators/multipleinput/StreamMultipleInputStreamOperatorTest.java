@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.multipleinput;
+
+import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.operators.Input;
+import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.api.transformations.OneInputTransformation;
+import org.apache.flink.streaming.api.transformations.TwoInputTransformation;
+import org.apache.flink.streaming.api.transformations.UnionTransformation;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.streamstatus.StreamStatus;
+import org.apache.flink.streaming.util.CollectorOutput;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.runtime.operators.multipleinput.input.InputSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Test for {@link StreamMultipleInputStreamOperator}. */
+public class StreamMultipleInputStreamOperatorTest extends MultipleInputTestBase {
+
+    @Test
+    public void testProcess() throws Exception {
+        TestingStreamMultipleInputStreamOperator op = createMultipleInputStreamOperator();
+        List<StreamElement> outputData = op.getOutputData();
+        TestingTwoInputStreamOperator joinOp =
+                (TestingTwoInputStreamOperator) op.getTailWrapper().getStreamOperator();
+        TestingOneInputStreamOperator calcOp =
+                (TestingOneInputStreamOperator)
+                        op.getTailWrapper().getInputWrappers().get(0).getStreamOperator();
+
+        List<Input> inputs = op.getInputs();
+        assertEquals(3, inputs.size());
+
+        StreamRecord<RowData> element1 =
+                new StreamRecord<>(GenericRowData.of(StringData.fromString("123")), 456);
+        inputs.get(0).processElement(element1);
+        assertEquals(element1, calcOp.getCurrentElement());
+        assertEquals(element1, joinOp.getCurrentElement1());
+
+        StreamRecord<RowData> element2 =
+                new StreamRecord<>(GenericRowData.of(StringData.fromString("124")), 457);
+        inputs.get(1).processElement(element2);
+        assertEquals(element2, calcOp.getCurrentElement());
+        assertEquals(element2, joinOp.getCurrentElement1());
+
+        StreamRecord<RowData> element3 =
+                new StreamRecord<>(GenericRowData.of(StringData.fromString("125")), 458);
+        inputs.get(2).processElement(element3);
+        assertEquals(element3, joinOp.getCurrentElement2());
+        assertEquals(3, outputData.size());
+    }
+
+    @Test
+    public void testWatermarkCombination() throws Exception {
+        TestingStreamMultipleInputStreamOperator op = createMultipleInputStreamOperator();
+        List<StreamElement> outputData = op.getOutputData();
+        TestingTwoInputStreamOperator joinOp =
+                (TestingTwoInputStreamOperator) op.getTailWrapper().getStreamOperator();
+        TestingOneInputStreamOperator calcOp =
+                (TestingOneInputStreamOperator)
+                        op.getTailWrapper().getInputWrappers().get(0).getStreamOperator();
+        List<Input> inputs = op.getInputs();
+
+        inputs.get(0).processWatermark(new Watermark(5));
+        inputs.get(1).processWatermark(new Watermark(3));
+        // the third input has no watermark yet
+        assertNull(calcOp.getCurrentWatermark());
+        assertNull(joinOp.getCurrentWatermark1());
+        assertNull(joinOp.getCurrentWatermark2());
+        assertTrue(outputData.isEmpty());
+
+        inputs.get(2).processWatermark(new Watermark(4));
+        // the union of the first two inputs only receives the combined watermark once
+        assertEquals(new Watermark(3), calcOp.getCurrentWatermark());
+        assertEquals(new Watermark(3), joinOp.getCurrentWatermark1());
+        assertEquals(new Watermark(3), joinOp.getCurrentWatermark2());
+        assertEquals(Arrays.asList(new Watermark(3), new Watermark(3)), outputData);
+        outputData.clear();
+
+        // an idle input does not hold back the watermark
+        inputs.get(1).processStreamStatus(StreamStatus.IDLE);
+        assertEquals(new Watermark(4), calcOp.getCurrentWatermark());
+        assertEquals(new Watermark(4), joinOp.getCurrentWatermark1());
+        assertEquals(new Watermark(4), joinOp.getCurrentWatermark2());
+        assertEquals(Arrays.asList(new Watermark(4), new Watermark(4)), outputData);
+        outputData.clear();
+
+        inputs.get(0).processWatermark(new Watermark(6));
+        assertEquals(new Watermark(4), calcOp.getCurrentWatermark());
+        assertTrue(outputData.isEmpty());
+    }
+
+    @Test
+    public void testEndInput() throws Exception {
+        TestingStreamMultipleInputStreamOperator op = createMultipleInputStreamOperator();
+        TestingTwoInputStreamOperator joinOp =
+                (TestingTwoInputStreamOperator) op.getTailWrapper().getStreamOperator();
+        TestingOneInputStreamOperator calcOp =
+                (TestingOneInputStreamOperator)
+                        op.getTailWrapper().getInputWrappers().get(0).getStreamOperator();
+
+        op.endInput(3);
+        assertEquals(Collections.singletonList(2), joinOp.getEndInputs());
+
+        op.endInput(1);
+        op.endInput(2);
+        assertTrue(calcOp.isEnd());
+        assertEquals(Arrays.asList(2, 1), joinOp.getEndInputs());
+    }
+
+    /**
+     * Create a StreamMultipleInputStreamOperator which contains the following sub-graph.
+     *
+     * <pre>
+     *
+     * source1  source2
+     *      \    /
+     *      union
+     *        |
+     *       calc   source3
+     *         \     /
+     *          join
+     * </pre>
+     */
+    private TestingStreamMultipleInputStreamOperator createMultipleInputStreamOperator()
+            throws Exception {
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        Transformation<RowData> source1 = createSource(env, "source1");
+        Transformation<RowData> source2 = createSource(env, "source2");
+        Transformation<RowData> source3 = createSource(env, "source3");
+        UnionTransformation<RowData> union =
+                new UnionTransformation<>(Arrays.asList(source1, source2));
+        OneInputTransformation<RowData, RowData> calc =
+                createOneInputTransform(
+                        union,
+                        "calc",
+                        InternalTypeInfo.of(RowType.of(DataTypes.STRING().getLogicalType())));
+        TwoInputTransformation<RowData, RowData, RowData> join =
+                createTwoInputTransform(
+                        calc,
+                        source3,
+                        "join",
+                        InternalTypeInfo.of(RowType.of(DataTypes.STRING().getLogicalType())));
+
+        TableOperatorWrapperGenerator generator =
+                new TableOperatorWrapperGenerator(
+                        Arrays.asList(source1, source2, source3), join, new int[] {0, 0, 0});
+        generator.generate();
+
+        List<Pair<Transformation<?>, InputSpec>> inputTransformAndInputSpecPairs =
+                generator.getInputTransformAndInputSpecPairs();
+
+        List<StreamElement> outputData = new ArrayList<>();
+        return new TestingStreamMultipleInputStreamOperator(
+                createStreamOperatorParameters(new CollectorOutput<>(outputData)),
+                inputTransformAndInputSpecPairs.stream()
+                        .map(Pair::getValue)
+                        .collect(Collectors.toList()),
+                generator.getHeadWrappers(),
+                generator.getTailWrapper(),
+                outputData);
+    }
+
+    /** A sub class of {@link StreamMultipleInputStreamOperator} for testing. */
+    private static class TestingStreamMultipleInputStreamOperator
+            extends StreamMultipleInputStreamOperator {
+        private final TableOperatorWrapper<?> tailWrapper;
+        private final List<StreamElement> outputData;
+
+        public TestingStreamMultipleInputStreamOperator(
+                StreamOperatorParameters<RowData> parameters,
+                List<InputSpec> inputSpecs,
+                List<TableOperatorWrapper<?>> headWrapper,
+                TableOperatorWrapper<?> tailWrapper,
+                List<StreamElement> outputData) {
+            super(parameters, inputSpecs, headWrapper, tailWrapper);
+            this.tailWrapper = tailWrapper;
+            this.outputData = outputData;
+        }
+
+        public List<StreamElement> getOutputData() {
+            return outputData;
+        }
+
+        public TableOperatorWrapper<?> getTailWrapper() {
+            return tailWrapper;
+        }
+    }
+}
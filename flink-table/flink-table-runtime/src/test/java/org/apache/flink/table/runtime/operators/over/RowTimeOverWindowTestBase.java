@@ -26,6 +26,7 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.runtime.generated.AggsHandleFunction;
 import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
 import org.apache.flink.table.types.logical.BigIntType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.VarCharType;
@@ -46,6 +47,15 @@ public class RowTimeOverWindowTestBase {
                 new VarCharType(VarCharType.MAX_LENGTH), new BigIntType(), new BigIntType()
             };
     protected LogicalType[] accTypes = new LogicalType[] {new BigIntType()};
+    protected LogicalType[] outputFieldTypes =
+            new LogicalType[] {
+                new VarCharType(VarCharType.MAX_LENGTH),
+                new BigIntType(),
+                new BigIntType(),
+                new BigIntType()
+            };
+
+    protected RowDataHarnessAssertor assertor = new RowDataHarnessAssertor(outputFieldTypes);
 
     protected RowDataKeySelector keySelector =
             HandwrittenSelectorUtil.getRowDataSelector(new int[] {0}, inputFieldTypes);
@@ -27,6 +27,8 @@ import org.apache.flink.table.data.RowData;
 
 import org.junit.Test;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
 import static org.junit.Assert.assertEquals;
 
@@ -65,6 +67,43 @@ public class RowTimeRangeBoundedPrecedingFunctionTest extends RowTimeOverWindowT
         assertEquals("State has not been cleaned up", 0, stateBackend.numKeyValueStateEntries());
     }
 
+    @Test
+    public void testRetractExpiredRows() throws Exception {
+        RowTimeRangeBoundedPrecedingFunction<RowData> function =
+                new RowTimeRangeBoundedPrecedingFunction<>(
+                        aggsHandleFunction, accTypes, inputFieldTypes, 1000, 2);
+        KeyedProcessOperator<RowData, RowData, RowData> operator =
+                new KeyedProcessOperator<>(function);
+
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness =
+                createTestHarness(operator);
+
+        testHarness.open();
+
+        testHarness.processElement(insertRecord("key", 1L, 100L));
+        testHarness.processElement(insertRecord("key", 2L, 100L));
+        testHarness.processElement(insertRecord("key", 3L, 500L));
+        testHarness.processElement(insertRecord("key", 4L, 1200L));
+        testHarness.processElement(insertRecord("key", 5L, 1600L));
+        testHarness.processWatermark(new Watermark(2000L));
+
+        // retracts the rows of several timestamps at once
+        testHarness.processElement(insertRecord("key", 6L, 2500L));
+        testHarness.processWatermark(new Watermark(3000L));
+
+        ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(insertRecord("key", 1L, 100L, 3L));
+        expectedOutput.add(insertRecord("key", 2L, 100L, 3L));
+        expectedOutput.add(insertRecord("key", 3L, 500L, 6L));
+        expectedOutput.add(insertRecord("key", 4L, 1200L, 7L));
+        expectedOutput.add(insertRecord("key", 5L, 1600L, 9L));
+        expectedOutput.add(new Watermark(2000L));
+        expectedOutput.add(insertRecord("key", 6L, 2500L, 11L));
+        expectedOutput.add(new Watermark(3000L));
+
+        assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+    }
+
     @Test
     public void testLateRecordMetrics() throws Exception {
         RowTimeRangeBoundedPrecedingFunction<RowData> function =
@@ -26,12 +26,43 @@ import org.apache.flink.table.data.RowData;
 
 import org.junit.Test;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
 import static org.junit.Assert.assertEquals;
 
 /** Test for {@link RowTimeRowsBoundedPrecedingFunction}. */
 public class RowTimeRowsBoundedPrecedingFunctionTest extends RowTimeOverWindowTestBase {
 
+    @Test
+    public void testRetractOldestRows() throws Exception {
+        RowTimeRowsBoundedPrecedingFunction<RowData> function =
+                new RowTimeRowsBoundedPrecedingFunction<>(
+                        1000, 2000, aggsHandleFunction, accTypes, inputFieldTypes, 1, 2);
+        KeyedProcessOperator<RowData, RowData, RowData> operator =
+                new KeyedProcessOperator<>(function);
+
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness =
+                createTestHarness(operator);
+
+        testHarness.open();
+
+        testHarness.processElement(insertRecord("key", 1L, 100L));
+        testHarness.processElement(insertRecord("key", 2L, 100L));
+        testHarness.processElement(insertRecord("key", 3L, 500L));
+        testHarness.processElement(insertRecord("key", 4L, 1200L));
+        testHarness.processWatermark(new Watermark(2000L));
+
+        ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+        expectedOutput.add(insertRecord("key", 1L, 100L, 1L));
+        expectedOutput.add(insertRecord("key", 2L, 100L, 2L));
+        expectedOutput.add(insertRecord("key", 3L, 500L, 3L));
+        expectedOutput.add(insertRecord("key", 4L, 1200L, 4L));
+        expectedOutput.add(new Watermark(2000L));
+
+        assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+    }
+
     @Test
     public void testLateRecordMetrics() throws Exception {
         RowTimeRowsBoundedPrecedingFunction<RowData> function =
@@ -171,6 +171,62 @@ public class FastTop1FunctionTest extends TopNFunctionTestBase {
                 "output wrong.", expectedOutput, testHarness.getOutput());
     }
 
+    @Test
+    public void testMemoryBoundedCache() throws Exception {
+        // a cache of 1 byte can't keep any value, so every value is written back on eviction
+        AbstractTopNFunction func = createFunctionWithCacheBytes(1L);
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness = createTestHarness(func);
+        testHarness.open();
+        testHarness.processElement(insertRecord("book", 1L, 12));
+        testHarness.processElement(insertRecord("book", 2L, 19));
+        testHarness.processElement(insertRecord("fruit", 4L, 33));
+        testHarness.processElement(insertRecord("book", 4L, 11));
+        testHarness.processElement(insertRecord("fruit", 5L, 22));
+
+        List<Object> expectedOutput = new ArrayList<>();
+        expectedOutput.add(insertRecord("book", 1L, 12));
+        expectedOutput.add(insertRecord("fruit", 4L, 33));
+        expectedOutput.add(updateBeforeRecord("book", 1L, 12));
+        expectedOutput.add(updateAfterRecord("book", 4L, 11));
+        expectedOutput.add(updateBeforeRecord("fruit", 4L, 33));
+        expectedOutput.add(updateAfterRecord("fruit", 5L, 22));
+        assertorWithoutRowNumber.assertOutputEquals(
+                "output wrong.", expectedOutput, testHarness.getOutput());
+
+        // do a snapshot, data could be recovered from state
+        OperatorSubtaskState snapshot = testHarness.snapshot(0L, 0);
+        testHarness.close();
+        expectedOutput.clear();
+
+        func = createFunctionWithCacheBytes(1024L);
+        testHarness = createTestHarness(func);
+        testHarness.setup();
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+        testHarness.processElement(insertRecord("book", 5L, 10));
+        testHarness.processElement(insertRecord("fruit", 6L, 23));
+        testHarness.close();
+
+        expectedOutput.add(updateBeforeRecord("book", 4L, 11));
+        expectedOutput.add(updateAfterRecord("book", 5L, 10));
+        assertorWithoutRowNumber.assertOutputEquals(
+                "output wrong.", expectedOutput, testHarness.getOutput());
+    }
+
+    private AbstractTopNFunction createFunctionWithCacheBytes(long cacheBytes) {
+        return new FastTop1Function(
+                ttlConfig,
+                inputRowType,
+                generatedSortKeyComparator,
+                sortKeySelector,
+                RankType.ROW_NUMBER,
+                new ConstantRankRange(1, 1),
+                true,
+                false,
+                cacheSize,
+                cacheBytes);
+    }
+
     // ------------ Tests with UPDATE input records ---------------
 
     @Test
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.rank;
+
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+
+/**
+ * Tests for {@link RetractableTopNFunction} which keeps the sort key counts in a map state and a
+ * cache of the heads of the sorted maps.
+ */
+public class RetractableTopNFunctionWithSortKeyMapStateTest extends RetractableTopNFunctionTest {
+
+    @Override
+    protected AbstractTopNFunction createFunction(
+            RankType rankType,
+            RankRange rankRange,
+            boolean generateUpdateBefore,
+            boolean outputRankNumber) {
+        return new RetractableTopNFunction(
+                ttlConfig,
+                inputRowType,
+                comparableRecordComparator,
+                sortKeySelector,
+                rankType,
+                rankRange,
+                generatedEqualiser,
+                generateUpdateBefore,
+                outputRankNumber,
+                true,
+                cacheSize);
+    }
+
+    @Override
+    @Test
+    public void testCleanIdleState() {
+        // the cache of sorted maps expires by wall clock time like the caches of the other TopN
+        // functions, while the test harness only advances the state TTL time, so expired
+        // partitions would still be served from the cache here
+    }
+
+    @Test
+    public void testSameOutputAsSortedMapState() throws Exception {
+        // the cache holds only a few sort keys, so that heads are read back from the state
+        cacheSize = 4L;
+        RankRange[] rankRanges = {new ConstantRankRange(1, 3), new ConstantRankRange(2, 4)};
+        for (RankRange rankRange : rankRanges) {
+            for (boolean outputRankNumber : new boolean[] {true, false}) {
+                AbstractTopNFunction expectedFunc =
+                        new RetractableTopNFunction(
+                                ttlConfig,
+                                inputRowType,
+                                comparableRecordComparator,
+                                sortKeySelector,
+                                RankType.ROW_NUMBER,
+                                rankRange,
+                                generatedEqualiser,
+                                true,
+                                outputRankNumber);
+                AbstractTopNFunction func =
+                        createFunction(RankType.ROW_NUMBER, rankRange, true, outputRankNumber);
+                assertSameOutput(expectedFunc, func, outputRankNumber);
+            }
+        }
+    }
+
+    private void assertSameOutput(
+            AbstractTopNFunction expectedFunc, AbstractTopNFunction func, boolean outputRankNumber)
+            throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> expectedHarness =
+                createTestHarness(expectedFunc);
+        OneInputStreamOperatorTestHarness<RowData, RowData> testHarness = createTestHarness(func);
+        expectedHarness.open();
+        testHarness.open();
+
+        // the partitions have many more sort keys than their heads, and the retractions use up
+        // the slack of the heads, so that the heads are rebuilt from the map state
+        Random random = new Random(42);
+        List<Object[]> records = new ArrayList<>();
+        for (long id = 0; id < 2000; id++) {
+            if (!records.isEmpty() && random.nextInt(5) < 2) {
+                Object[] record = records.remove(random.nextInt(records.size()));
+                expectedHarness.processElement(deleteRecord(record));
+                testHarness.processElement(deleteRecord(record));
+            } else {
+                Object[] record = {"p" + random.nextInt(3), id, random.nextInt(50)};
+                records.add(record);
+                expectedHarness.processElement(insertRecord(record));
+                testHarness.processElement(insertRecord(record));
+            }
+        }
+        expectedHarness.close();
+        testHarness.close();
+
+        RowDataHarnessAssertor assertor =
+                outputRankNumber ? assertorWithRowNumber : assertorWithoutRowNumber;
+        assertor.assertOutputEquals(
+                "output wrong.", expectedHarness.getOutput(), testHarness.getOutput());
+    }
+}
@@ -23,21 +23,31 @@ import org.apache.flink.api.common.typeutils.SerializerTestInstance;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
 import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.DecimalData;
 import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RawValueData;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
 import org.apache.flink.table.data.binary.BinaryArrayData;
 import org.apache.flink.table.data.binary.BinaryMapData;
 import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.writer.BinaryArrayWriter;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.ArrayType;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.BooleanType;
+import org.apache.flink.table.types.logical.DecimalType;
 import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.FloatType;
 import org.apache.flink.table.types.logical.IntType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.MapType;
 import org.apache.flink.table.types.logical.RawType;
+import org.apache.flink.table.types.logical.SmallIntType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.TinyIntType;
+import org.apache.flink.table.types.logical.VarBinaryType;
 import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.flink.testutils.DeeplyEqualsChecker;
 
@@ -48,6 +58,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
@@ -88,6 +99,7 @@ public class RowDataSerializerTest extends SerializerTestInstance<RowData> {
                 testRowDataSerializer(),
                 testLargeRowDataSerializer(),
                 testRowDataSerializerWithComplexTypes(),
+                testRowDataSerializerWithPrimitiveAndTemporalTypes(),
                 testRowDataSerializerWithKryo(),
                 testRowDataSerializerWithNestedRow());
     }
@@ -202,6 +214,40 @@ public class RowDataSerializerTest extends SerializerTestInstance<RowData> {
         return new Object[] {serializer, data};
     }
 
+    private static Object[] testRowDataSerializerWithPrimitiveAndTemporalTypes() {
+        InternalTypeInfo<RowData> typeInfo =
+                InternalTypeInfo.ofFields(
+                        new BooleanType(),
+                        new TinyIntType(),
+                        new SmallIntType(),
+                        new BigIntType(),
+                        new FloatType(),
+                        new DecimalType(10, 2),
+                        new DecimalType(38, 18),
+                        new TimestampType(3),
+                        new TimestampType(9),
+                        new VarBinaryType(VarBinaryType.MAX_LENGTH));
+
+        GenericRowData row1 =
+                GenericRowData.of(
+                        true,
+                        (byte) 1,
+                        (short) 2,
+                        3L,
+                        4.0f,
+                        DecimalData.fromBigDecimal(new BigDecimal("5.55"), 10, 2),
+                        DecimalData.fromBigDecimal(new BigDecimal("6.123456789"), 38, 18),
+                        TimestampData.fromEpochMillis(7L),
+                        TimestampData.fromEpochMillis(8L, 999),
+                        new byte[] {9, 10});
+        GenericRowData row2 = new GenericRowData(10);
+        row2.setField(3, 3L);
+        row2.setField(6, DecimalData.fromBigDecimal(new BigDecimal("-1.5"), 38, 18));
+
+        RowDataSerializer serializer = typeInfo.toRowSerializer();
+        return new Object[] {serializer, new RowData[] {row1, row2}};
+    }
+
     private static Object[] testRowDataSerializerWithKryo() {
         RawValueDataSerializer<WrappedString> rawValueSerializer =
                 new RawValueDataSerializer<>(
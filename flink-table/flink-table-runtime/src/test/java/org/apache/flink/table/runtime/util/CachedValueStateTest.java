@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.util;
+
+import org.apache.flink.api.common.state.StateTtlConfig;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.streaming.api.operators.KeyContext;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.types.logical.IntType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/** Tests for {@link CachedValueState}. */
+public class CachedValueStateTest {
+
+    private final RowDataSerializer serializer = new RowDataSerializer(new IntType());
+    private final TestKeyContext keyContext = new TestKeyContext();
+    private final TestValueState state = new TestValueState(keyContext);
+
+    @Test
+    public void testWriteBackOnEviction() throws Exception {
+        CachedValueState cachedState =
+                CachedValueState.withMaxEntries(
+                        state, keyContext, serializer, StateTtlConfig.DISABLED, 1);
+        keyContext.setCurrentKey("a");
+        cachedState.update(GenericRowData.of(1));
+        assertFalse(state.values.containsKey("a"));
+
+        // the value of "a" is written back when it is evicted by the value of "b"
+        keyContext.setCurrentKey("b");
+        cachedState.update(GenericRowData.of(2));
+        assertEquals(1, state.values.get("a").getInt(0));
+        assertFalse(state.values.containsKey("b"));
+        assertEquals("b", keyContext.getCurrentKey());
+
+        cachedState.flush();
+        assertEquals(2, state.values.get("b").getInt(0));
+
+        // the removal of "b" is written back when it is evicted by the value of "a"
+        cachedState.clear();
+        keyContext.setCurrentKey("a");
+        assertEquals(1, cachedState.value().getInt(0));
+        assertFalse(state.values.containsKey("b"));
+        assertEquals("a", keyContext.getCurrentKey());
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        CachedValueState cachedState =
+                CachedValueState.withMaxEntries(
+                        state, keyContext, serializer, StateTtlConfig.DISABLED, 10);
+        keyContext.setCurrentKey("a");
+        cachedState.update(GenericRowData.of(1));
+        keyContext.setCurrentKey("b");
+        cachedState.update(GenericRowData.of(2));
+        assertNull(state.values.get("a"));
+        assertNull(state.values.get("b"));
+
+        cachedState.flush();
+        assertEquals(1, state.values.get("a").getInt(0));
+        assertEquals(2, state.values.get("b").getInt(0));
+        assertEquals("b", keyContext.getCurrentKey());
+
+        // the cached values are retained
+        keyContext.setCurrentKey("a");
+        assertEquals(1, cachedState.value().getInt(0));
+        assertEquals(1L, cachedState.getHitCount());
+    }
+
+    @Test
+    public void testWriteBackFailureOnEviction() throws Exception {
+        CachedValueState cachedState =
+                CachedValueState.withMaxEntries(
+                        state, keyContext, serializer, StateTtlConfig.DISABLED, 1);
+        keyContext.setCurrentKey("a");
+        cachedState.update(GenericRowData.of(1));
+
+        state.failOnUpdate = true;
+        keyContext.setCurrentKey("b");
+        try {
+            cachedState.update(GenericRowData.of(2));
+            fail("The failure to write back the evicted value should be propagated.");
+        } catch (IOException e) {
+            assertEquals("Failed to update the state.", e.getMessage());
+        }
+        assertEquals("b", keyContext.getCurrentKey());
+
+        // the evicted value is written back on the next access
+        state.failOnUpdate = false;
+        cachedState.flush();
+        assertEquals(1, state.values.get("a").getInt(0));
+        assertEquals(2, state.values.get("b").getInt(0));
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /** A {@link KeyContext} which only keeps the current key. */
+    private static final class TestKeyContext implements KeyContext {
+        private Object currentKey;
+
+        @Override
+        public void setCurrentKey(Object key) {
+            this.currentKey = key;
+        }
+
+        @Override
+        public Object getCurrentKey() {
+            return currentKey;
+        }
+    }
+
+    /** A keyed {@link ValueState} on heap, which can be made to fail on updates. */
+    private static final class TestValueState implements ValueState<RowData> {
+        private final KeyContext keyContext;
+        private final Map<Object, RowData> values = new HashMap<>();
+        private boolean failOnUpdate = false;
+
+        private TestValueState(KeyContext keyContext) {
+            this.keyContext = keyContext;
+        }
+
+        @Override
+        public RowData value() {
+            return values.get(keyContext.getCurrentKey());
+        }
+
+        @Override
+        public void update(RowData value) throws IOException {
+            if (failOnUpdate) {
+                throw new IOException("Failed to update the state.");
+            }
+            values.put(keyContext.getCurrentKey(), value);
+        }
+
+        @Override
+        public void clear() {
+            values.remove(keyContext.getCurrentKey());
+        }
+    }
+}